@@ -0,0 +1,33 @@
+package com.openclassrooms.safetynetalerts.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks du calcul de l'âge et de la classification enfant/adulte
+ * ({@link com.openclassrooms.safetynetalerts.utils.Utils}).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx12g")
+public class AgeBenchmark {
+
+    @Benchmark
+    public int calculateAge(BenchmarkDataset data, BenchmarkDataset.Cursor cursor) {
+        return data.utils.calculateAge(data.samplePersons[cursor.next()]);
+    }
+
+    @Benchmark
+    public boolean isChild(BenchmarkDataset data, BenchmarkDataset.Cursor cursor) {
+        return data.utils.isChild(data.samplePersons[cursor.next()]);
+    }
+}
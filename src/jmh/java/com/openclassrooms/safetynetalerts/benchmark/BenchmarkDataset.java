@@ -0,0 +1,150 @@
+package com.openclassrooms.safetynetalerts.benchmark;
+
+import java.time.Clock;
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.openclassrooms.safetynetalerts.controller.AlertController;
+import com.openclassrooms.safetynetalerts.controller.FirestationController;
+import com.openclassrooms.safetynetalerts.controller.FloodController;
+import com.openclassrooms.safetynetalerts.controller.PersonController;
+import com.openclassrooms.safetynetalerts.mapper.FirestationMapper;
+import com.openclassrooms.safetynetalerts.mapper.PersonMapper;
+import com.openclassrooms.safetynetalerts.model.DataFile;
+import com.openclassrooms.safetynetalerts.model.Person;
+import com.openclassrooms.safetynetalerts.repository.DataRepo;
+import com.openclassrooms.safetynetalerts.repository.DataStore;
+import com.openclassrooms.safetynetalerts.repository.FirestationRepository;
+import com.openclassrooms.safetynetalerts.repository.MedicalRecordRepository;
+import com.openclassrooms.safetynetalerts.repository.MutationLog;
+import com.openclassrooms.safetynetalerts.repository.PersonRepository;
+import com.openclassrooms.safetynetalerts.repository.RepositoryInitializer;
+import com.openclassrooms.safetynetalerts.repository.StationCountsRollover;
+import com.openclassrooms.safetynetalerts.service.FirestationService;
+import com.openclassrooms.safetynetalerts.service.MedicalRecordService;
+import com.openclassrooms.safetynetalerts.service.PersonService;
+import com.openclassrooms.safetynetalerts.service.ResponseCache;
+import com.openclassrooms.safetynetalerts.tools.DatasetGenerator;
+import com.openclassrooms.safetynetalerts.utils.Utils;
+
+/**
+ * Jeu de données des benchmarks : repositories, services et contrôleurs
+ * câblés à la main, sans contexte Spring, sur {@code persons} personnes.
+ *
+ * <p>
+ * Les données sont générées par {@link DatasetGenerator} avec ses paramètres
+ * par défaut (graine fixe). Le cache des réponses et le journal des
+ * modifications sont désactivés : les benchmarks mesurent les lectures et la
+ * construction des DTO.
+ *
+ * <p>
+ * Les clés interrogées sont tirées à l'avance ({@value #SAMPLES} par type) et
+ * parcourues par un {@link Cursor} propre à chaque thread.
+ */
+@State(Scope.Benchmark)
+public class BenchmarkDataset {
+
+    /** Nombre de clés tirées par type, puissance de deux. */
+    public static final int SAMPLES = 1024;
+
+    @Param({ "1000", "10000", "100000", "1000000", "5000000" })
+    public int persons;
+
+    public PersonRepository personRepository;
+    public FirestationRepository firestationRepository;
+    public MedicalRecordRepository medicalRecordRepository;
+    public Utils utils;
+
+    public AlertController alertController;
+    public FirestationController firestationController;
+    public FloodController floodController;
+    public PersonController personController;
+
+    public final String[] addresses = new String[SAMPLES];
+    public final int[] stations = new int[SAMPLES];
+    public final String[] cities = new String[SAMPLES];
+    public final String[] firstNames = new String[SAMPLES];
+    public final String[] lastNames = new String[SAMPLES];
+    public final Person[] samplePersons = new Person[SAMPLES];
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        DataFile data = DatasetGenerator.generate(DatasetGenerator.Settings.defaults(persons));
+
+        DataStore dataStore = new DataStore();
+        MutationLog mutationLog = new MutationLog();
+        DataRepo dataRepo = sink -> {
+            data.getPersons().forEach(sink.persons());
+            data.getFirestations().forEach(sink.firestations());
+            data.getMedicalrecords().forEach(sink.medicalRecords());
+            return data.getSeq();
+        };
+        personRepository = new PersonRepository();
+        firestationRepository = new FirestationRepository();
+        medicalRecordRepository = new MedicalRecordRepository();
+        for (Object repository : List.of(personRepository, firestationRepository, medicalRecordRepository)) {
+            ReflectionTestUtils.setField(repository, "dataStore", dataStore);
+            ReflectionTestUtils.setField(repository, "mutationLog", mutationLog);
+        }
+        RepositoryInitializer initializer = new RepositoryInitializer();
+        ReflectionTestUtils.setField(initializer, "dataRepo", dataRepo);
+        ReflectionTestUtils.setField(initializer, "mutationLog", mutationLog);
+        ReflectionTestUtils.setField(initializer, "personRepository", personRepository);
+        ReflectionTestUtils.setField(initializer, "firestationRepository", firestationRepository);
+        ReflectionTestUtils.setField(initializer, "medicalRecordRepository", medicalRecordRepository);
+        initializer.init();
+
+        Clock clock = Clock.systemDefaultZone();
+        StationCountsRollover rollover = new StationCountsRollover();
+        ReflectionTestUtils.setField(rollover, "dataStore", dataStore);
+        ReflectionTestUtils.setField(rollover, "clock", clock);
+        rollover.rollover();
+
+        utils = new Utils(medicalRecordRepository, clock);
+        ResponseCache responseCache = new ResponseCache(dataStore, 0);
+        PersonService personService = new PersonService(personRepository);
+        FirestationService firestationService = new FirestationService(firestationRepository, personRepository);
+        MedicalRecordService medicalRecordService = new MedicalRecordService(medicalRecordRepository);
+
+        alertController = new AlertController(firestationService, personService, utils, responseCache);
+        firestationController = new FirestationController(firestationService, new FirestationMapper());
+        floodController = new FloodController(firestationService, personService, medicalRecordService, utils,
+                responseCache);
+        personController = new PersonController(personService, firestationService, medicalRecordService, utils,
+                new PersonMapper(), responseCache);
+
+        sample(data);
+    }
+
+    private void sample(DataFile data) {
+        List<Person> all = data.getPersons();
+        for (int i = 0; i < SAMPLES; i++) {
+            // Pas premier avec la taille : les clés couvrent tout le jeu de données
+            Person person = all.get((int) ((i * 2_654_435_761L) % all.size()));
+            samplePersons[i] = person;
+            addresses[i] = person.getAddress();
+            cities[i] = person.getCity();
+            firstNames[i] = person.getFirstName();
+            lastNames[i] = person.getLastName();
+            stations[i] = firestationRepository.findStationNumberByAddress(person.getAddress()).orElse(1);
+        }
+    }
+
+    /**
+     * Position de lecture dans les clés tirées, propre à chaque thread.
+     */
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int next;
+
+        public int next() {
+            return next++ & (SAMPLES - 1);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.openclassrooms.safetynetalerts.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Benchmarks de la construction des réponses des endpoints GET : lectures des
+ * services et assemblage des DTO, sans la couche HTTP ni la sérialisation
+ * JSON. Le cache des réponses est désactivé.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx12g")
+public class ControllerBenchmark {
+
+    @Benchmark
+    public ResponseEntity<?> firestation(BenchmarkDataset data, BenchmarkDataset.Cursor cursor) {
+        return data.firestationController.getPersonsByStation(data.stations[cursor.next()]);
+    }
+
+    @Benchmark
+    public ResponseEntity<?> phoneAlert(BenchmarkDataset data, BenchmarkDataset.Cursor cursor) {
+        return data.alertController.getPhoneByStation(data.stations[cursor.next()]);
+    }
+
+    @Benchmark
+    public ResponseEntity<?> childAlert(BenchmarkDataset data, BenchmarkDataset.Cursor cursor) {
+        return data.alertController.getChildrenByAddress(data.addresses[cursor.next()]);
+    }
+
+    @Benchmark
+    public ResponseEntity<?> fire(BenchmarkDataset data, BenchmarkDataset.Cursor cursor) {
+        return data.personController.getPersonsByAddress(data.addresses[cursor.next()]);
+    }
+
+    @Benchmark
+    public ResponseEntity<?> floodStations(BenchmarkDataset data, BenchmarkDataset.Cursor cursor) {
+        return data.floodController.getPersonsByStations(
+                List.of(data.stations[cursor.next()], data.stations[cursor.next()]));
+    }
+
+    @Benchmark
+    public ResponseEntity<?> personInfo(BenchmarkDataset data, BenchmarkDataset.Cursor cursor) {
+        return data.personController.getPersonsByLastName(data.lastNames[cursor.next()], false);
+    }
+
+    @Benchmark
+    public ResponseEntity<?> communityEmail(BenchmarkDataset data, BenchmarkDataset.Cursor cursor) {
+        return data.personController.getEmailsByCity(data.cities[cursor.next()]);
+    }
+}
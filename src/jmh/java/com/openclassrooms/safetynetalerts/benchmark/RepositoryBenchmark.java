@@ -0,0 +1,165 @@
+package com.openclassrooms.safetynetalerts.benchmark;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.openclassrooms.safetynetalerts.model.Firestation;
+import com.openclassrooms.safetynetalerts.model.MedicalRecord;
+import com.openclassrooms.safetynetalerts.model.Person;
+import com.openclassrooms.safetynetalerts.repository.ResidentCounts;
+
+/**
+ * Benchmarks des requêtes des trois repositories, sur une clé différente à
+ * chaque appel.
+ *
+ * <p>
+ * Les méthodes {@code findAll} copient toutes les entités : leur coût croît
+ * avec la taille du jeu de données, contrairement aux recherches indexées.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx12g")
+public class RepositoryBenchmark {
+
+    // ==================== PersonRepository ====================
+
+    @Benchmark
+    public List<Person> personFindAll(BenchmarkDataset data) {
+        return data.personRepository.findAll();
+    }
+
+    @Benchmark
+    public List<Person> personFindByAddress(BenchmarkDataset data, BenchmarkDataset.Cursor cursor) {
+        return data.personRepository.findByAddress(data.addresses[cursor.next()]);
+    }
+
+    @Benchmark
+    public Optional<Person> personFindByFirstNameAndLastName(BenchmarkDataset data,
+            BenchmarkDataset.Cursor cursor) {
+        int i = cursor.next();
+        return data.personRepository.findByFirstNameAndLastName(data.firstNames[i], data.lastNames[i]);
+    }
+
+    @Benchmark
+    public List<Person> personFindByLastName(BenchmarkDataset data, BenchmarkDataset.Cursor cursor) {
+        return data.personRepository.findByLastName(data.lastNames[cursor.next()]);
+    }
+
+    @Benchmark
+    public List<Person> personFindByLastNameIgnoreCase(BenchmarkDataset data, BenchmarkDataset.Cursor cursor) {
+        return data.personRepository.findByLastNameIgnoreCase(data.lastNames[cursor.next()].toUpperCase());
+    }
+
+    @Benchmark
+    public Set<String> personFindEmailsByCity(BenchmarkDataset data, BenchmarkDataset.Cursor cursor) {
+        return data.personRepository.findEmailsByCity(data.cities[cursor.next()]);
+    }
+
+    @Benchmark
+    public boolean personExistsByFirstNameAndLastName(BenchmarkDataset data, BenchmarkDataset.Cursor cursor) {
+        int i = cursor.next();
+        return data.personRepository.existsByFirstNameAndLastName(data.firstNames[i], data.lastNames[i]);
+    }
+
+    // ==================== FirestationRepository ====================
+
+    @Benchmark
+    public List<Firestation> firestationFindAll(BenchmarkDataset data) {
+        return data.firestationRepository.findAll();
+    }
+
+    @Benchmark
+    public List<Firestation> firestationFindByStation(BenchmarkDataset data, BenchmarkDataset.Cursor cursor) {
+        return data.firestationRepository.findByStation(data.stations[cursor.next()]);
+    }
+
+    @Benchmark
+    public List<String> firestationFindAddressesByStation(BenchmarkDataset data, BenchmarkDataset.Cursor cursor) {
+        return data.firestationRepository.findAddressesByStation(data.stations[cursor.next()]);
+    }
+
+    @Benchmark
+    public Set<String> firestationFindAddressesByStations(BenchmarkDataset data, BenchmarkDataset.Cursor cursor) {
+        return data.firestationRepository.findAddressesByStations(
+                List.of(data.stations[cursor.next()], data.stations[cursor.next()]));
+    }
+
+    @Benchmark
+    public ResidentCounts firestationCountResidentsByStation(BenchmarkDataset data,
+            BenchmarkDataset.Cursor cursor) {
+        return data.firestationRepository.countResidentsByStation(data.stations[cursor.next()]);
+    }
+
+    @Benchmark
+    public Optional<Integer> firestationFindStationNumberByAddress(BenchmarkDataset data,
+            BenchmarkDataset.Cursor cursor) {
+        return data.firestationRepository.findStationNumberByAddress(data.addresses[cursor.next()]);
+    }
+
+    @Benchmark
+    public Optional<Firestation> firestationFindStationByAddress(BenchmarkDataset data,
+            BenchmarkDataset.Cursor cursor) {
+        return data.firestationRepository.findStationByAddress(data.addresses[cursor.next()]);
+    }
+
+    @Benchmark
+    public boolean firestationExistsByAddress(BenchmarkDataset data, BenchmarkDataset.Cursor cursor) {
+        return data.firestationRepository.existsByAddress(data.addresses[cursor.next()]);
+    }
+
+    @Benchmark
+    public boolean firestationExistsByStation(BenchmarkDataset data, BenchmarkDataset.Cursor cursor) {
+        return data.firestationRepository.existsByStation(data.stations[cursor.next()]);
+    }
+
+    // ==================== MedicalRecordRepository ====================
+
+    @Benchmark
+    public List<MedicalRecord> medicalRecordFindAll(BenchmarkDataset data) {
+        return data.medicalRecordRepository.findAll();
+    }
+
+    @Benchmark
+    public Optional<MedicalRecord> medicalRecordFindByFirstNameAndLastName(BenchmarkDataset data,
+            BenchmarkDataset.Cursor cursor) {
+        int i = cursor.next();
+        return data.medicalRecordRepository.findByFirstNameAndLastName(data.firstNames[i], data.lastNames[i]);
+    }
+
+    @Benchmark
+    public OptionalInt medicalRecordFindBirthEpochDay(BenchmarkDataset data, BenchmarkDataset.Cursor cursor) {
+        int i = cursor.next();
+        return data.medicalRecordRepository.findBirthEpochDay(data.firstNames[i], data.lastNames[i]);
+    }
+
+    @Benchmark
+    public List<MedicalRecord> medicalRecordFindByLastName(BenchmarkDataset data, BenchmarkDataset.Cursor cursor) {
+        return data.medicalRecordRepository.findByLastName(data.lastNames[cursor.next()]);
+    }
+
+    @Benchmark
+    public List<MedicalRecord> medicalRecordFindByLastNameIgnoreCase(BenchmarkDataset data,
+            BenchmarkDataset.Cursor cursor) {
+        return data.medicalRecordRepository.findByLastNameIgnoreCase(data.lastNames[cursor.next()].toUpperCase());
+    }
+
+    @Benchmark
+    public boolean medicalRecordExistsByFirstNameAndLastName(BenchmarkDataset data,
+            BenchmarkDataset.Cursor cursor) {
+        int i = cursor.next();
+        return data.medicalRecordRepository.existsByFirstNameAndLastName(data.firstNames[i], data.lastNames[i]);
+    }
+}
@@ -0,0 +1,229 @@
+package com.openclassrooms.safetynetalerts.load;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.locks.LockSupport;
+
+import com.openclassrooms.safetynetalerts.model.DataFile;
+import com.openclassrooms.safetynetalerts.repository.BinaryDataFile;
+
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Injecteur de charge HTTP : envoie un mélange de requêtes ({@link RequestMix})
+ * à une application démarrée localement, à un débit cible, et rapporte les
+ * latences p50/p99/p99.9 et le débit de chaque endpoint ({@link LoadReport}).
+ *
+ * <p>
+ * La charge est ouverte : l'opération n est envoyée à {@code n / rate}
+ * secondes du début, que les réponses précédentes soient arrivées ou non, et
+ * la latence de sa première requête est mesurée depuis cet instant prévu. Un
+ * serveur qui ralentit allonge donc les latences mesurées au lieu de réduire
+ * le débit envoyé. Les requêtes suivantes d'une opération CRUD sont mesurées
+ * depuis leur envoi. Chaque opération est envoyée par un thread virtuel ; au
+ * delà de {@code --max-in-flight} opérations en cours, les suivantes sont
+ * abandonnées et comptées.
+ *
+ * <p>
+ * Les clés interrogées sont tirées du fichier de données de l'application
+ * (JSON ou binaire). Avec le profil Maven {@code load}, contre une application
+ * lancée par {@code mvn spring-boot:run} :
+ *
+ * <pre>
+ * mvn -Pload test-compile exec:exec -Dload.args="--rate=500 --duration=2m --mix=flood=1,fire=1"
+ * </pre>
+ *
+ * Options : {@code --url} (http://localhost:8080), {@code --data}
+ * (data/data.json), {@code --rate} (opérations par seconde, 200),
+ * {@code --duration} (60s), {@code --warmup} (10s, non mesuré),
+ * {@code --max-in-flight} (1000), {@code --timeout} (5s), {@code --seed}
+ * (42), {@code --mix} (poids par opération, voir
+ * {@link RequestMix#DEFAULT_WEIGHTS}) et {@code --histograms} (répertoire
+ * où écrire les distributions complètes).
+ */
+public final class LoadDriver {
+
+    private LoadDriver() {
+    }
+
+    /**
+     * Paramètres d'une exécution.
+     *
+     * @param url         l'URL de base de l'application
+     * @param data        le fichier de données dont sont tirées les clés
+     * @param rate        le débit cible, en opérations par seconde
+     * @param duration    la durée mesurée
+     * @param warmup      la durée de chauffe, avant la mesure
+     * @param maxInFlight le nombre maximal d'opérations en cours
+     * @param timeout     le délai maximal de chaque requête
+     * @param seed        la graine du tirage des requêtes
+     * @param mix         les poids des opérations
+     * @param histograms  le répertoire des distributions, ou {@code null}
+     */
+    record Options(URI url, Path data, double rate, Duration duration, Duration warmup, int maxInFlight,
+            Duration timeout, long seed, Map<String, Integer> mix, Path histograms) {
+
+        Options {
+            if (rate <= 0 || maxInFlight < 1 || duration.isNegative() || duration.isZero() || warmup.isNegative()) {
+                throw new IllegalArgumentException(
+                        "rate et max-in-flight doivent être positifs, duration non nulle, warmup positive");
+            }
+        }
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        Options options;
+        try {
+            options = parse(Arrays.asList(args));
+        } catch (RuntimeException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Usage : LoadDriver [--url=http://localhost:8080] [--data=data/data.json] "
+                    + "[--rate=200] [--duration=60s] [--warmup=10s] [--mix=flood=20,fire=20,...] [--option=valeur...]");
+            System.exit(2);
+            return;
+        }
+        DataFile data = BinaryDataFile.isBinary(options.data()) ? BinaryDataFile.read(options.data())
+                : JsonMapper.builder().build().readValue(options.data().toFile(), DataFile.class);
+        RequestMix mix = new RequestMix(options.url(), options.timeout(), data, options.mix(), options.seed());
+
+        System.out.printf("%s : %.0f opérations/s pendant %ds après %ds de chauffe, mélange %s%n", options.url(),
+                options.rate(), options.duration().toSeconds(), options.warmup().toSeconds(), options.mix());
+        LoadReport report = run(options, mix);
+        report.print(System.out, options.duration().toNanos() / 1e9);
+        if (options.histograms() != null) {
+            report.writeDistributions(options.histograms());
+        }
+    }
+
+    /**
+     * Lit les options {@code --nom=valeur} de la ligne de commande.
+     *
+     * @param arguments les options
+     * @return les paramètres, les options absentes prenant leur valeur par
+     *         défaut
+     * @throws IllegalArgumentException si une option est inconnue ou invalide
+     */
+    static Options parse(List<String> arguments) {
+        Map<String, String> values = new LinkedHashMap<>();
+        for (String argument : arguments) {
+            int eq = argument.indexOf('=');
+            if (!argument.startsWith("--") || eq < 0) {
+                throw new IllegalArgumentException("Option invalide : " + argument);
+            }
+            values.put(argument.substring(2, eq), argument.substring(eq + 1));
+        }
+        Map<String, Integer> mix = RequestMix.DEFAULT_WEIGHTS;
+        if (values.containsKey("mix")) {
+            mix = new LinkedHashMap<>();
+            for (String weight : values.remove("mix").split(",")) {
+                String[] parts = weight.trim().split("=");
+                if (parts.length != 2) {
+                    throw new IllegalArgumentException("Poids invalide : " + weight);
+                }
+                mix.put(parts[0], Integer.valueOf(parts[1]));
+            }
+        }
+        String histograms = values.remove("histograms");
+        Options options = new Options(
+                URI.create(values.getOrDefault("url", "http://localhost:8080")),
+                Path.of(values.getOrDefault("data", "data/data.json")),
+                Double.parseDouble(values.getOrDefault("rate", "200")),
+                duration(values.getOrDefault("duration", "60s")),
+                duration(values.getOrDefault("warmup", "10s")),
+                Integer.parseInt(values.getOrDefault("max-in-flight", "1000")),
+                duration(values.getOrDefault("timeout", "5s")),
+                Long.parseLong(values.getOrDefault("seed", "42")),
+                mix,
+                histograms == null ? null : Path.of(histograms));
+        values.keySet().removeAll(List.of("url", "data", "rate", "duration", "warmup", "max-in-flight", "timeout",
+                "seed"));
+        if (!values.isEmpty()) {
+            throw new IllegalArgumentException("Options inconnues : " + values.keySet());
+        }
+        return options;
+    }
+
+    private static Duration duration(String value) {
+        return value.endsWith("ms") ? Duration.ofMillis(Long.parseLong(value.substring(0, value.length() - 2)))
+                : Duration.parse("PT" + value.toUpperCase(Locale.ROOT));
+    }
+
+    /**
+     * Envoie la charge jusqu'à la fin de la durée mesurée, puis attend les
+     * réponses en cours.
+     *
+     * @param options les paramètres de l'exécution
+     * @param mix     le mélange des requêtes
+     * @return les mesures, hors chauffe
+     */
+    static LoadReport run(Options options, RequestMix mix) {
+        LoadReport report = new LoadReport();
+        Semaphore inFlight = new Semaphore(options.maxInFlight());
+        long interval = Math.max(1, Math.round(1e9 / options.rate()));
+        long start = System.nanoTime();
+        long measureFrom = start + options.warmup().toNanos();
+        long end = measureFrom + options.duration().toNanos();
+
+        try (HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(options.timeout())
+                .build();
+                ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long intended = start; intended < end; intended += interval) {
+                for (long wait = intended - System.nanoTime(); wait > 0; wait = intended - System.nanoTime()) {
+                    LockSupport.parkNanos(wait);
+                }
+                List<RequestMix.Step> steps = mix.next();
+                boolean measured = intended >= measureFrom;
+                if (!inFlight.tryAcquire()) {
+                    if (measured) {
+                        report.drop();
+                    }
+                    continue;
+                }
+                long scheduled = intended;
+                executor.submit(() -> {
+                    try {
+                        execute(client, steps, scheduled, measured ? report : null);
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+        }
+        return report;
+    }
+
+    private static void execute(HttpClient client, List<RequestMix.Step> steps, long scheduled, LoadReport report) {
+        long sentAt = scheduled;
+        for (RequestMix.Step step : steps) {
+            boolean error;
+            try {
+                HttpResponse<Void> response = client.send(step.request(), HttpResponse.BodyHandlers.discarding());
+                error = response.statusCode() / 100 != 2;
+            } catch (IOException e) {
+                error = true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            long now = System.nanoTime();
+            if (report != null) {
+                report.record(step.label(), (now - sentAt) / 1_000, error);
+            }
+            sentAt = now;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.openclassrooms.safetynetalerts.load;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+/**
+ * Latences et erreurs mesurées par le {@link LoadDriver}, par étiquette de
+ * requête ({@code GET /fire}, {@code POST /person}...).
+ *
+ * <p>
+ * Les latences sont enregistrées en microsecondes dans des histogrammes HDR à
+ * trois chiffres significatifs, et rapportées en millisecondes.
+ */
+final class LoadReport {
+
+    private static final String ALL = "TOTAL";
+
+    private final Map<String, Series> series = new ConcurrentSkipListMap<>();
+    private final LongAdder dropped = new LongAdder();
+
+    private record Series(Histogram latencies, LongAdder errors) {
+    }
+
+    /**
+     * Enregistre une réponse.
+     *
+     * @param label         l'étiquette de la requête
+     * @param latencyMicros la latence, en microsecondes
+     * @param error         {@code true} pour une erreur réseau ou un statut
+     *                      hors 2xx
+     */
+    void record(String label, long latencyMicros, boolean error) {
+        Series s = series.computeIfAbsent(label, l -> new Series(new ConcurrentHistogram(3), new LongAdder()));
+        s.latencies().recordValue(Math.max(0, latencyMicros));
+        if (error) {
+            s.errors().increment();
+        }
+    }
+
+    /**
+     * Compte une opération non envoyée faute de place (trop de requêtes en
+     * cours).
+     */
+    void drop() {
+        dropped.increment();
+    }
+
+    /**
+     * Écrit le tableau récapitulatif : nombre de requêtes, erreurs, débit,
+     * p50, p99, p99.9 et maximum.
+     *
+     * @param out     la sortie
+     * @param seconds la durée de la mesure, en secondes
+     */
+    void print(PrintStream out, double seconds) {
+        Histogram total = new Histogram(3);
+        long errors = 0;
+        out.printf("%-24s %9s %7s %9s %9s %9s %9s %9s%n", "requête", "nombre", "erreurs", "req/s", "p50 ms",
+                "p99 ms", "p99.9 ms", "max ms");
+        for (Map.Entry<String, Series> entry : series.entrySet()) {
+            Histogram latencies = entry.getValue().latencies().copy();
+            long errorCount = entry.getValue().errors().sum();
+            print(out, entry.getKey(), latencies, errorCount, seconds);
+            total.add(latencies);
+            errors += errorCount;
+        }
+        print(out, ALL, total, errors, seconds);
+        if (dropped.sum() > 0) {
+            out.printf("%d opérations non envoyées : trop de requêtes en cours (--max-in-flight)%n", dropped.sum());
+        }
+    }
+
+    private static void print(PrintStream out, String label, Histogram latencies, long errors, double seconds) {
+        out.printf("%-24s %9d %7d %9.1f %9.3f %9.3f %9.3f %9.3f%n", label, latencies.getTotalCount(), errors,
+                latencies.getTotalCount() / seconds, millis(latencies.getValueAtPercentile(50)),
+                millis(latencies.getValueAtPercentile(99)), millis(latencies.getValueAtPercentile(99.9)),
+                millis(latencies.getMaxValue()));
+    }
+
+    /**
+     * Écrit la distribution complète de chaque étiquette, au format
+     * {@code .hgrm} de HdrHistogram (valeurs en millisecondes).
+     *
+     * @param directory le répertoire cible, créé au besoin
+     * @throws IOException si un fichier ne peut pas être écrit
+     */
+    void writeDistributions(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        for (Map.Entry<String, Series> entry : series.entrySet()) {
+            Path file = directory.resolve(entry.getKey().replaceAll("[^A-Za-z0-9]+", "_") + ".hgrm");
+            try (PrintStream out = new PrintStream(Files.newOutputStream(file), true, StandardCharsets.UTF_8)) {
+                entry.getValue().latencies().copy().outputPercentileDistribution(out, 1000.0);
+            }
+        }
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+}
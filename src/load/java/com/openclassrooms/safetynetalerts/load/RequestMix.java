@@ -0,0 +1,211 @@
+package com.openclassrooms.safetynetalerts.load;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.openclassrooms.safetynetalerts.model.DataFile;
+import com.openclassrooms.safetynetalerts.model.Firestation;
+import com.openclassrooms.safetynetalerts.model.MedicalRecord;
+import com.openclassrooms.safetynetalerts.model.Person;
+
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Mélange pondéré des requêtes envoyées par le {@link LoadDriver}.
+ *
+ * <p>
+ * Les opérations de lecture interrogent un endpoint GET avec une clé (adresse,
+ * caserne, nom, ville) tirée du fichier de données chargé par l'application.
+ * Les opérations {@code -crud} enchaînent POST, PUT et DELETE sur une entité
+ * propre à l'exécution : le volume des données reste stable d'une exécution à
+ * l'autre.
+ *
+ * <p>
+ * Le tirage est fait par le seul thread d'envoi : pour une même graine, la
+ * séquence des requêtes est la même.
+ */
+final class RequestMix {
+
+    /** Poids par défaut des opérations, dans l'ordre du rapport. */
+    static final Map<String, Integer> DEFAULT_WEIGHTS = defaultWeights();
+
+    private final URI baseUrl;
+    private final Duration timeout;
+    private final SplittableRandom random;
+    private final String runId = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong entities = new AtomicLong();
+    private final JsonMapper mapper = JsonMapper.builder().build();
+
+    private final List<String> operations = new ArrayList<>();
+    private final int[] cumulativeWeights;
+
+    private final List<String> addresses;
+    private final List<Integer> stations;
+    private final List<String> lastNames;
+    private final List<String> cities;
+
+    /**
+     * Une requête HTTP et l'étiquette sous laquelle sa latence est mesurée.
+     *
+     * @param label   l'étiquette du rapport, par exemple
+     *                {@code GET /flood/stations}
+     * @param request la requête
+     */
+    record Step(String label, HttpRequest request) {
+    }
+
+    RequestMix(URI baseUrl, Duration timeout, DataFile data, Map<String, Integer> weights, long seed) {
+        this.baseUrl = baseUrl;
+        this.timeout = timeout;
+        this.random = new SplittableRandom(seed);
+        this.cumulativeWeights = new int[weights.size()];
+        int total = 0;
+        for (Map.Entry<String, Integer> weight : weights.entrySet()) {
+            if (!DEFAULT_WEIGHTS.containsKey(weight.getKey()) || weight.getValue() < 0) {
+                throw new IllegalArgumentException("Opération ou poids invalide : " + weight);
+            }
+            total += weight.getValue();
+            cumulativeWeights[operations.size()] = total;
+            operations.add(weight.getKey());
+        }
+        if (total == 0) {
+            throw new IllegalArgumentException("Aucune opération dans le mélange : " + weights);
+        }
+        this.addresses = data.getFirestations().stream().map(Firestation::getAddress).distinct().toList();
+        this.stations = data.getFirestations().stream().map(Firestation::getStation).distinct().sorted().toList();
+        this.lastNames = data.getPersons().stream().map(Person::getLastName).distinct().toList();
+        this.cities = data.getPersons().stream().map(Person::getCity).distinct().toList();
+        if (addresses.isEmpty() || lastNames.isEmpty()) {
+            throw new IllegalArgumentException("Le fichier de données ne contient ni casernes ni personnes");
+        }
+    }
+
+    private static Map<String, Integer> defaultWeights() {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        weights.put("flood", 20);
+        weights.put("fire", 20);
+        weights.put("firestation", 10);
+        weights.put("childAlert", 10);
+        weights.put("phoneAlert", 10);
+        weights.put("personInfo", 10);
+        weights.put("communityEmail", 10);
+        weights.put("person-crud", 4);
+        weights.put("firestation-crud", 3);
+        weights.put("medicalRecord-crud", 3);
+        return Collections.unmodifiableMap(weights);
+    }
+
+    /**
+     * Tire l'opération suivante.
+     *
+     * @return les requêtes de l'opération, à envoyer dans l'ordre
+     */
+    List<Step> next() {
+        int draw = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        int index = 0;
+        while (cumulativeWeights[index] <= draw) {
+            index++;
+        }
+        return switch (operations.get(index)) {
+            case "flood" -> List.of(get("/flood/stations", "stations", floodStations()));
+            case "fire" -> List.of(get("/fire", "address", pick(addresses)));
+            case "firestation" -> List.of(get("/firestation", "stationNumber", pick(stations).toString()));
+            case "childAlert" -> List.of(get("/childAlert", "address", pick(addresses)));
+            case "phoneAlert" -> List.of(get("/phoneAlert", "firestation", pick(stations).toString()));
+            case "personInfo" -> List.of(get("/personInfo", "lastName", pick(lastNames)));
+            case "communityEmail" -> List.of(get("/communityEmail", "city", pick(cities)));
+            case "person-crud" -> personCrud();
+            case "firestation-crud" -> firestationCrud();
+            case "medicalRecord-crud" -> medicalRecordCrud();
+            default -> throw new IllegalStateException(operations.get(index));
+        };
+    }
+
+    private List<Step> personCrud() {
+        long id = entities.incrementAndGet();
+        String firstName = "Load" + id;
+        String lastName = "Driver" + runId;
+        String identity = "?firstName=" + encode(firstName) + "&lastName=" + encode(lastName);
+        String address = pick(addresses);
+        Person created = new Person(firstName, lastName, address, pick(cities), "97451", "841-874-0000",
+                "load" + id + "@email.com");
+        Person updated = new Person(firstName, lastName, address, created.getCity(), "97451", "841-874-9999",
+                "load" + id + "@email.com");
+        return List.of(
+                write("POST", "/person", "", created),
+                write("PUT", "/person", identity, updated),
+                delete("/person", identity));
+    }
+
+    private List<Step> firestationCrud() {
+        long id = entities.incrementAndGet();
+        String address = id + " Load St " + runId;
+        // POST /firestation refuse un numéro de caserne existant
+        int station = stations.getLast() + (int) id;
+        return List.of(
+                write("POST", "/firestation", "", new Firestation(address, station)),
+                write("PUT", "/firestation", "?address=" + encode(address), new Firestation(address, pick(stations))),
+                delete("/firestation", "?address=" + encode(address)));
+    }
+
+    private List<Step> medicalRecordCrud() {
+        long id = entities.incrementAndGet();
+        String firstName = "Load" + id;
+        String lastName = "Record" + runId;
+        String identity = "?firstName=" + encode(firstName) + "&lastName=" + encode(lastName);
+        return List.of(
+                write("POST", "/medicalRecord", "",
+                        new MedicalRecord(firstName, lastName, "01/01/1980", List.of("aznol:350mg"), List.of())),
+                write("PUT", "/medicalRecord", identity,
+                        new MedicalRecord(firstName, lastName, "01/01/1980", List.of(), List.of("peanut"))),
+                delete("/medicalRecord", identity));
+    }
+
+    private String floodStations() {
+        int count = 1 + random.nextInt(Math.min(3, stations.size()));
+        List<String> picked = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            picked.add(pick(stations).toString());
+        }
+        return String.join(",", picked);
+    }
+
+    private <T> T pick(List<T> values) {
+        return values.get(random.nextInt(values.size()));
+    }
+
+    private Step get(String path, String parameter, String value) {
+        HttpRequest request = builder(path + "?" + parameter + "=" + encode(value)).GET().build();
+        return new Step("GET " + path, request);
+    }
+
+    private Step write(String method, String path, String query, Object body) {
+        HttpRequest request = builder(path + query)
+                .header("Content-Type", "application/json")
+                .method(method, HttpRequest.BodyPublishers.ofString(mapper.writeValueAsString(body)))
+                .build();
+        return new Step(method + " " + path, request);
+    }
+
+    private Step delete(String path, String query) {
+        return new Step("DELETE " + path, builder(path + query).DELETE().build());
+    }
+
+    private HttpRequest.Builder builder(String pathAndQuery) {
+        return HttpRequest.newBuilder(baseUrl.resolve(pathAndQuery)).timeout(timeout);
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+}
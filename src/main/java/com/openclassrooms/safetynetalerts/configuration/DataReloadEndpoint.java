@@ -0,0 +1,54 @@
+package com.openclassrooms.safetynetalerts.configuration;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import com.openclassrooms.safetynetalerts.repository.DataReloader;
+import com.openclassrooms.safetynetalerts.repository.DataSnapshot;
+
+/**
+ * Endpoint d'administration rechargeant le fichier de données sans redémarrer
+ * l'application : {@code POST /actuator/reload}.
+ *
+ * <p>
+ * Le rechargement est fait par {@link DataReloader}. La réponse indique si
+ * le fichier a été rechargé ({@code status} {@code reloaded}) ou ignoré comme
+ * instantané de compaction ({@code skipped}, avec sa séquence), puis la
+ * version des données courante et le nombre d'entités ; un fichier invalide
+ * produit une erreur et laisse les données courantes en place.
+ *
+ * <p>
+ * L'endpoint n'est pas exposé par défaut : l'ajouter à
+ * {@code management.endpoints.web.exposure.include}.
+ */
+@Component
+@Endpoint(id = "reload")
+public class DataReloadEndpoint {
+
+    private final DataReloader dataReloader;
+
+    public DataReloadEndpoint(DataReloader dataReloader) {
+        this.dataReloader = dataReloader;
+    }
+
+    @WriteOperation
+    public Map<String, Object> reload() {
+        DataReloader.Result reload = dataReloader.reload();
+        DataSnapshot snapshot = reload.snapshot();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("status", reload.reloaded() ? "reloaded" : "skipped");
+        if (!reload.reloaded()) {
+            result.put("reason", "compaction snapshot (seq " + reload.seq() + "), already reflected in memory; "
+                    + "set its seq to 0 to reload it");
+        }
+        result.put("version", snapshot.version());
+        result.put("persons", snapshot.personCount());
+        result.put("firestations", snapshot.firestationCount());
+        result.put("medicalrecords", snapshot.medicalRecordCount());
+        return result;
+    }
+}
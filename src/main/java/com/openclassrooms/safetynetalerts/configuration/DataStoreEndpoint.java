@@ -0,0 +1,29 @@
+package com.openclassrooms.safetynetalerts.configuration;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import com.openclassrooms.safetynetalerts.repository.DataStoreStats;
+
+/**
+ * Endpoint d'administration résumant le volume des données en mémoire :
+ * {@code GET /actuator/datastore} retourne le nombre d'entités, de clés
+ * distinctes, la taille moyenne des foyers et l'empreinte mémoire estimée de
+ * chaque section ({@link DataStoreStats}).
+ */
+@Component
+@Endpoint(id = "datastore")
+public class DataStoreEndpoint {
+
+    private final DataStoreMetrics dataStoreMetrics;
+
+    public DataStoreEndpoint(DataStoreMetrics dataStoreMetrics) {
+        this.dataStoreMetrics = dataStoreMetrics;
+    }
+
+    @ReadOperation
+    public DataStoreStats summary() {
+        return dataStoreMetrics.stats();
+    }
+}
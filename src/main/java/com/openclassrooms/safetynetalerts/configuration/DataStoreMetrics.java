@@ -0,0 +1,85 @@
+package com.openclassrooms.safetynetalerts.configuration;
+
+import java.util.function.ToDoubleFunction;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+import com.openclassrooms.safetynetalerts.repository.DataSnapshot;
+import com.openclassrooms.safetynetalerts.repository.DataStore;
+import com.openclassrooms.safetynetalerts.repository.DataStoreStats;
+
+/**
+ * Jauges du volume des données en mémoire ({@link DataStoreStats}) :
+ * <ul>
+ * <li>{@code safetynet.datastore.entities} : personnes, mappings et dossiers
+ * médicaux (étiquette {@code collection})</li>
+ * <li>{@code safetynet.datastore.distinct} : adresses, villes et casernes
+ * distinctes (étiquette {@code key})</li>
+ * <li>{@code safetynet.datastore.household.size} : nombre moyen de résidents
+ * par adresse</li>
+ * <li>{@code safetynet.datastore.heap.estimated} : empreinte mémoire estimée,
+ * en octets (étiquette {@code collection})</li>
+ * </ul>
+ *
+ * <p>
+ * Les statistiques sont recalculées une fois par version des données, et
+ * partagées par toutes les jauges et par {@link DataStoreEndpoint}.
+ */
+@Component
+public class DataStoreMetrics implements MeterBinder {
+
+    private final DataStore dataStore;
+    private volatile DataStoreStats stats;
+
+    public DataStoreMetrics(DataStore dataStore) {
+        this.dataStore = dataStore;
+    }
+
+    /**
+     * @return les statistiques de la dernière version publiée
+     */
+    public DataStoreStats stats() {
+        DataSnapshot snapshot = dataStore.current();
+        DataStoreStats current = stats;
+        if (current == null || current.version() != snapshot.version()) {
+            current = DataStoreStats.of(snapshot);
+            stats = current;
+        }
+        return current;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        gauge(registry, "safetynet.datastore.entities", "collection", "persons", DataStoreStats::persons);
+        gauge(registry, "safetynet.datastore.entities", "collection", "firestations", DataStoreStats::firestations);
+        gauge(registry, "safetynet.datastore.entities", "collection", "medicalrecords",
+                DataStoreStats::medicalRecords);
+        gauge(registry, "safetynet.datastore.distinct", "key", "addresses", DataStoreStats::addresses);
+        gauge(registry, "safetynet.datastore.distinct", "key", "cities", DataStoreStats::cities);
+        gauge(registry, "safetynet.datastore.distinct", "key", "stations", DataStoreStats::stations);
+        Gauge.builder("safetynet.datastore.household.size", this, m -> m.stats().averageHouseholdSize())
+                .description("Nombre moyen de résidents par adresse")
+                .register(registry);
+        heapGauge(registry, "persons", s -> s.estimatedHeapBytes().persons());
+        heapGauge(registry, "firestations", s -> s.estimatedHeapBytes().firestations());
+        heapGauge(registry, "medicalrecords", s -> s.estimatedHeapBytes().medicalRecords());
+    }
+
+    private void gauge(MeterRegistry registry, String name, String tag, String value,
+            ToDoubleFunction<DataStoreStats> metric) {
+        Gauge.builder(name, this, m -> metric.applyAsDouble(m.stats()))
+                .tag(tag, value)
+                .register(registry);
+    }
+
+    private void heapGauge(MeterRegistry registry, String collection, ToDoubleFunction<DataStoreStats> metric) {
+        Gauge.builder("safetynet.datastore.heap.estimated", this, m -> metric.applyAsDouble(m.stats()))
+                .tag("collection", collection)
+                .baseUnit("bytes")
+                .description("Empreinte mémoire estimée des données et de leurs index")
+                .register(registry);
+    }
+}
@@ -0,0 +1,67 @@
+package com.openclassrooms.safetynetalerts.configuration;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.concurrent.ConcurrentHashMap;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.annotation.AfterReturning;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+/**
+ * Compte les recherches infructueuses des repositories : une méthode
+ * {@code find*} (hors {@code findAll}) qui retourne {@code null}, un
+ * {@link Optional} ou un {@link OptionalInt} vide, ou une collection vide.
+ *
+ * <p>
+ * Compteur {@value #METRIC}, étiqueté par {@code class} et {@code method} :
+ * par exemple {@code findStationNumberByAddress} pour une adresse sans
+ * caserne, ou {@code findBirthEpochDay} pour une personne sans dossier
+ * médical.
+ *
+ * <p>
+ * Ces recherches sont sur le chemin des lectures : le compteur de chaque
+ * méthode est résolu une seule fois dans le registre puis gardé, et un
+ * résultat trouvé ne coûte que le test {@link #isMiss(Object)}.
+ */
+@Aspect
+@Component
+public class LookupMissMetrics {
+
+    static final String METRIC = "safetynet.lookup.misses";
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<Lookup, Counter> counters = new ConcurrentHashMap<>();
+
+    private record Lookup(String className, String method) {
+    }
+
+    public LookupMissMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @AfterReturning(pointcut = "execution(public * com.openclassrooms.safetynetalerts.repository.*Repository.find*(..))"
+            + " && !execution(* *.findAll(..))", returning = "result")
+    public void countMiss(JoinPoint joinPoint, Object result) {
+        if (isMiss(result)) {
+            Lookup lookup = new Lookup(joinPoint.getSignature().getDeclaringTypeName(),
+                    joinPoint.getSignature().getName());
+            counters.computeIfAbsent(lookup,
+                    key -> meterRegistry.counter(METRIC, "class", key.className(), "method", key.method()))
+                    .increment();
+        }
+    }
+
+    static boolean isMiss(Object result) {
+        return result == null
+                || result instanceof Optional<?> optional && optional.isEmpty()
+                || result instanceof OptionalInt optionalInt && optionalInt.isEmpty()
+                || result instanceof Collection<?> collection && collection.isEmpty();
+    }
+}
@@ -0,0 +1,35 @@
+package com.openclassrooms.safetynetalerts.configuration;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import com.openclassrooms.safetynetalerts.service.ResponseCache;
+
+/**
+ * Endpoint d'administration du cache des réponses :
+ * {@code GET /actuator/responsecache} retourne ses statistiques,
+ * {@code DELETE /actuator/responsecache} le vide.
+ */
+@Component
+@Endpoint(id = "responsecache")
+public class ResponseCacheEndpoint {
+
+    private final ResponseCache responseCache;
+
+    public ResponseCacheEndpoint(ResponseCache responseCache) {
+        this.responseCache = responseCache;
+    }
+
+    @ReadOperation
+    public ResponseCache.Stats stats() {
+        return responseCache.stats();
+    }
+
+    @DeleteOperation
+    public ResponseCache.Stats clear() {
+        responseCache.clear();
+        return responseCache.stats();
+    }
+}
@@ -0,0 +1,86 @@
+package com.openclassrooms.safetynetalerts.configuration;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import com.openclassrooms.safetynetalerts.repository.DataSnapshot;
+import com.openclassrooms.safetynetalerts.repository.DataStore;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Intercepteur épinglant une version cohérente des données pour chaque requête
+ * de lecture.
+ *
+ * <p>
+ * Avant le traitement d'une requête GET (ou HEAD), l'instantané courant du
+ * {@link DataStore} est épinglé sur le thread de la requête : les lectures
+ * successives des différents repositories (par exemple casernes puis personnes
+ * puis dossiers médicaux pour /flood/stations) voient toutes la même version,
+ * sans prendre de verrou. Le numéro de cette version est exposé dans l'en-tête
+ * {@value #VERSION_HEADER}.
+ *
+ * <p>
+ * Pour les endpoints des contrôleurs, la version sert aussi d'ETag fort : une
+ * réponse ne dépend que des données lues et des paramètres de la requête (le
+ * passage au jour suivant, qui change les âges, publie lui aussi une nouvelle
+ * version via {@code StationCountsRollover}). Si
+ * l'en-tête {@code If-None-Match} de la requête correspond, la réponse 304 est
+ * envoyée sans appeler le contrôleur, donc sans construire ni sérialiser les
+ * DTO. L'ETag est préfixé par un identifiant tiré au démarrage : les numéros
+ * de version repartent de zéro à chaque démarrage et diffèrent d'une instance
+ * à l'autre.
+ *
+ * <p>
+ * Le cache des réponses ({@code ResponseCache}) ne fausse pas cet ETag : il
+ * date les étiquettes touchées par une écriture avant que la nouvelle version
+ * ne soit publiée, et ne sert jamais une réponse calculée avant une écriture
+ * qui la concerne. Une réponse portant l'ETag d'une version a donc toujours
+ * été calculée sur une version dont elle ne diffère pas.
+ *
+ * <p>
+ * L'instantané est libéré à la fin du traitement, y compris en cas d'erreur.
+ */
+public class SnapshotInterceptor implements HandlerInterceptor {
+
+    /** En-tête de réponse portant le numéro de version des données lues. */
+    public static final String VERSION_HEADER = "X-Data-Version";
+
+    private final DataStore dataStore;
+
+    private final String instanceId = Long.toString(ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE, 36);
+
+    public SnapshotInterceptor(DataStore dataStore) {
+        this.dataStore = dataStore;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (HttpMethod.GET.matches(request.getMethod()) || HttpMethod.HEAD.matches(request.getMethod())) {
+            DataSnapshot snapshot = dataStore.pin();
+            response.setHeader(VERSION_HEADER, Long.toString(snapshot.version()));
+            if (handler instanceof HandlerMethod
+                    && new ServletWebRequest(request, response).checkNotModified(etag(snapshot))) {
+                // afterCompletion n'est pas appelé quand preHandle interrompt la requête
+                dataStore.unpin();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+            Exception ex) {
+        dataStore.unpin();
+    }
+
+    private String etag(DataSnapshot snapshot) {
+        return "\"" + instanceId + "-" + snapshot.version() + "\"";
+    }
+}
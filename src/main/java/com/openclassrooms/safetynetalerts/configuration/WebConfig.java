@@ -0,0 +1,31 @@
+package com.openclassrooms.safetynetalerts.configuration;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import com.openclassrooms.safetynetalerts.repository.DataStore;
+
+/**
+ * Configuration Spring MVC de l'application.
+ *
+ * <p>
+ * Enregistre le {@link SnapshotInterceptor} lorsque le {@link DataStore} est
+ * disponible. Les tests de tranche web (@WebMvcTest), qui remplacent les
+ * services par des mocks, n'ont pas de DataStore et s'en passent.
+ */
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    private final ObjectProvider<DataStore> dataStore;
+
+    public WebConfig(ObjectProvider<DataStore> dataStore) {
+        this.dataStore = dataStore;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        dataStore.ifAvailable(store -> registry.addInterceptor(new SnapshotInterceptor(store)));
+    }
+}
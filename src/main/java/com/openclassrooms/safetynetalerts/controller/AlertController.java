@@ -16,8 +16,10 @@ import com.openclassrooms.safetynetalerts.dto.childalert.ChildInfoDTO;
 import com.openclassrooms.safetynetalerts.dto.childalert.HouseholdMemberDTO;
 import com.openclassrooms.safetynetalerts.dto.phonealert.PhoneAlertResponseDTO;
 import com.openclassrooms.safetynetalerts.model.Person;
+import com.openclassrooms.safetynetalerts.service.CacheTag;
 import com.openclassrooms.safetynetalerts.service.FirestationService;
 import com.openclassrooms.safetynetalerts.service.PersonService;
+import com.openclassrooms.safetynetalerts.service.ResponseCache;
 import com.openclassrooms.safetynetalerts.utils.Utils;
 
 /**
@@ -39,11 +41,14 @@ public class AlertController {
     private final FirestationService firestationService;
     private final PersonService personService;
     private final Utils utils;
+    private final ResponseCache responseCache;
 
-    public AlertController(FirestationService firestationService, PersonService personService, Utils utils) {
+    public AlertController(FirestationService firestationService, PersonService personService, Utils utils,
+            ResponseCache responseCache) {
         this.firestationService = firestationService;
         this.personService = personService;
         this.utils = utils;
+        this.responseCache = responseCache;
     }
 
     /**
@@ -70,15 +75,20 @@ public class AlertController {
 
         logger.info("[CALL] GET /phoneAlert?firestation={}", firestation);
 
+        PhoneAlertResponseDTO response = responseCache.get("phoneAlert:" + firestation,
+                Set.of(CacheTag.station(firestation)), () -> buildPhoneAlert(firestation));
+
+        logger.info("[RESPONSE] GET /phoneAlert -> {} numéros uniques", response.getPhoneNumbersList().size());
+
+        return ResponseEntity.ok(response);
+    }
+
+    private PhoneAlertResponseDTO buildPhoneAlert(int firestation) {
         // 1. Récupérer les téléphones
         Set<String> phones = firestationService.getPhoneNumbersByStation(firestation);
 
         // 2. Construire le DTO de réponse
-        PhoneAlertResponseDTO response = new PhoneAlertResponseDTO(phones);
-
-        logger.info("[RESPONSE] GET /phoneAlert -> {} numéros uniques", phones.size());
-
-        return ResponseEntity.ok(response);
+        return new PhoneAlertResponseDTO(phones);
     }
 
     /**
@@ -106,16 +116,28 @@ public class AlertController {
 
         logger.info("[CALL] GET /childAlert?address={}", address);
 
+        ChildAlertResponseDTO response = responseCache.get("childAlert:" + address,
+                Set.of(CacheTag.address(address)), () -> buildChildAlert(address));
+
+        logger.info("[RESPONSE] GET /childAlert -> {} enfants trouvés", response.getChildren().size());
+
+        return ResponseEntity.ok(response);
+    }
+
+    private ChildAlertResponseDTO buildChildAlert(String address) {
         // 1. Appeler le service pour récupérer toutes les personnes à l'adresse
         List<Person> personsAtAddress = personService.getPersonsByAddress(address);
 
-        // 2. Séparer enfants et adultes
+        // 2. Séparer enfants et adultes, l'âge étant calculé une seule fois par personne
         List<Person> children = new ArrayList<>();
+        List<Integer> childrenAges = new ArrayList<>();
         List<Person> adults = new ArrayList<>();
 
         for (Person person : personsAtAddress) {
-            if (utils.isChild(person)) {
+            int age = utils.calculateAge(person);
+            if (Utils.isChildAge(age)) {
                 children.add(person);
+                childrenAges.add(age);
             } else {
                 adults.add(person);
             }
@@ -128,20 +150,18 @@ public class AlertController {
                 .toList();
 
         // Enfants avec leur âge
-        List<ChildInfoDTO> childrenDTOs = children.stream()
-                .map(p -> new ChildInfoDTO(
-                        p.getFirstName(),
-                        p.getLastName(),
-                        utils.calculateAge(p),
-                        householdMembers))
-                .toList();
+        List<ChildInfoDTO> childrenDTOs = new ArrayList<>(children.size());
+        for (int i = 0; i < children.size(); i++) {
+            Person child = children.get(i);
+            childrenDTOs.add(new ChildInfoDTO(
+                    child.getFirstName(),
+                    child.getLastName(),
+                    childrenAges.get(i),
+                    householdMembers));
+        }
 
         // 4. Construire le DTO de réponse
-        ChildAlertResponseDTO response = new ChildAlertResponseDTO(childrenDTOs);
-
-        logger.info("[RESPONSE] GET /childAlert -> {} enfants trouvés", childrenDTOs.size());
-
-        return ResponseEntity.ok(response);
+        return new ChildAlertResponseDTO(childrenDTOs);
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,225 @@
+package com.openclassrooms.safetynetalerts.controller;
+
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.openclassrooms.safetynetalerts.dto.PersonDTO;
+import com.openclassrooms.safetynetalerts.dto.batch.BatchResponseDTO;
+import com.openclassrooms.safetynetalerts.dto.firestation.FirestationDTO;
+import com.openclassrooms.safetynetalerts.dto.medicalrecord.MedicalRecordDTO;
+import com.openclassrooms.safetynetalerts.mapper.MedicalRecordMapper;
+import com.openclassrooms.safetynetalerts.mapper.PersonMapper;
+import com.openclassrooms.safetynetalerts.model.Firestation;
+import com.openclassrooms.safetynetalerts.repository.NameKey;
+import com.openclassrooms.safetynetalerts.service.BatchService;
+
+/**
+ * Contrôleur REST pour les opérations CRUD par lots.
+ * <p>
+ * Ce contrôleur expose les endpoints suivants, qui acceptent un tableau JSON :
+ * <ul>
+ * <li>POST / PUT / DELETE /person/batch - Création, mise à jour et suppression
+ * de personnes</li>
+ * <li>POST / PUT / DELETE /firestation/batch - Création, mise à jour et
+ * suppression de mappings caserne/adresse</li>
+ * <li>POST / PUT / DELETE /medicalRecord/batch - Création, mise à jour et
+ * suppression de dossiers médicaux</li>
+ * </ul>
+ * <p>
+ * Un lot est appliqué en une seule écriture. La réponse (HTTP 200) donne le
+ * statut de chaque élément, dans l'ordre du tableau, et le nombre d'éléments
+ * par statut.
+ *
+ */
+@RestController
+public class BatchController {
+    private final Logger logger = LoggerFactory.getLogger(BatchController.class);
+
+    private final BatchService batchService;
+    private final PersonMapper personMapper;
+    private final MedicalRecordMapper medicalRecordMapper;
+
+    public BatchController(BatchService batchService, PersonMapper personMapper,
+            MedicalRecordMapper medicalRecordMapper) {
+        this.batchService = batchService;
+        this.personMapper = personMapper;
+        this.medicalRecordMapper = medicalRecordMapper;
+    }
+
+    /**
+     * Crée un lot de personnes.
+     * <p>
+     * Endpoint : POST /person/batch
+     *
+     * @param persons les personnes à créer
+     * @return ResponseEntity contenant le {@link BatchResponseDTO} (HTTP 200)
+     */
+    @PostMapping("/person/batch")
+    public ResponseEntity<BatchResponseDTO> addPersons(@RequestBody List<PersonDTO> persons) {
+        logger.info("[CALL] POST /person/batch -> Adding {} persons", persons.size());
+        BatchResponseDTO response = batchService.addPersons(persons.stream().map(personMapper::toEntity).toList());
+        logger.info("[RESPONSE] POST /person/batch -> {}", response.getCounts());
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Met à jour un lot de personnes, identifiées par leur prénom et leur nom.
+     * <p>
+     * Endpoint : PUT /person/batch
+     *
+     * @param persons les nouvelles données des personnes
+     * @return ResponseEntity contenant le {@link BatchResponseDTO} (HTTP 200)
+     */
+    @PutMapping("/person/batch")
+    public ResponseEntity<BatchResponseDTO> updatePersons(@RequestBody List<PersonDTO> persons) {
+        logger.info("[CALL] PUT /person/batch -> Updating {} persons", persons.size());
+        BatchResponseDTO response = batchService
+                .updatePersons(persons.stream().map(personMapper::toEntity).toList());
+        logger.info("[RESPONSE] PUT /person/batch -> {}", response.getCounts());
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Supprime un lot de personnes. Seuls le prénom et le nom des éléments
+     * sont utilisés.
+     * <p>
+     * Endpoint : DELETE /person/batch
+     *
+     * @param persons les personnes à supprimer
+     * @return ResponseEntity contenant le {@link BatchResponseDTO} (HTTP 200)
+     */
+    @DeleteMapping("/person/batch")
+    public ResponseEntity<BatchResponseDTO> deletePersons(@RequestBody List<PersonDTO> persons) {
+        logger.info("[CALL] DELETE /person/batch -> Deleting {} persons", persons.size());
+        BatchResponseDTO response = batchService.deletePersons(persons.stream()
+                .map(p -> p == null ? null : new NameKey(p.getFirstName(), p.getLastName()))
+                .toList());
+        logger.info("[RESPONSE] DELETE /person/batch -> {}", response.getCounts());
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Crée un lot de mappings caserne/adresse.
+     * <p>
+     * Endpoint : POST /firestation/batch
+     *
+     * @param firestations les mappings à créer
+     * @return ResponseEntity contenant le {@link BatchResponseDTO} (HTTP 200)
+     */
+    @PostMapping("/firestation/batch")
+    public ResponseEntity<BatchResponseDTO> addMappings(@RequestBody List<FirestationDTO> firestations) {
+        logger.info("[CALL] POST /firestation/batch -> Adding {} mappings", firestations.size());
+        BatchResponseDTO response = batchService.addMappings(toFirestations(firestations));
+        logger.info("[RESPONSE] POST /firestation/batch -> {}", response.getCounts());
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Met à jour le numéro de caserne d'un lot d'adresses.
+     * <p>
+     * Endpoint : PUT /firestation/batch
+     *
+     * @param firestations les mappings mis à jour
+     * @return ResponseEntity contenant le {@link BatchResponseDTO} (HTTP 200)
+     */
+    @PutMapping("/firestation/batch")
+    public ResponseEntity<BatchResponseDTO> updateMappings(@RequestBody List<FirestationDTO> firestations) {
+        logger.info("[CALL] PUT /firestation/batch -> Updating {} mappings", firestations.size());
+        BatchResponseDTO response = batchService.updateMappings(toFirestations(firestations));
+        logger.info("[RESPONSE] PUT /firestation/batch -> {}", response.getCounts());
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Supprime un lot de mappings. Chaque élément précise soit une adresse,
+     * soit un numéro de caserne.
+     * <p>
+     * Endpoint : DELETE /firestation/batch
+     *
+     * @param firestations les adresses ou numéros de caserne à supprimer
+     * @return ResponseEntity contenant le {@link BatchResponseDTO} (HTTP 200)
+     */
+    @DeleteMapping("/firestation/batch")
+    public ResponseEntity<BatchResponseDTO> deleteMappings(@RequestBody List<FirestationDTO> firestations) {
+        logger.info("[CALL] DELETE /firestation/batch -> Deleting {} mappings", firestations.size());
+        BatchResponseDTO response = batchService.deleteMappings(toFirestations(firestations));
+        logger.info("[RESPONSE] DELETE /firestation/batch -> {}", response.getCounts());
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Crée un lot de dossiers médicaux.
+     * <p>
+     * Endpoint : POST /medicalRecord/batch
+     *
+     * @param medicalRecords les dossiers à créer
+     * @return ResponseEntity contenant le {@link BatchResponseDTO} (HTTP 200)
+     */
+    @PostMapping("/medicalRecord/batch")
+    public ResponseEntity<BatchResponseDTO> createMedicalRecords(
+            @RequestBody List<MedicalRecordDTO> medicalRecords) {
+        logger.info("[CALL] POST /medicalRecord/batch -> Creating {} medical records", medicalRecords.size());
+        BatchResponseDTO response = batchService.createMedicalRecords(
+                medicalRecords.stream().map(medicalRecordMapper::toEntity).toList());
+        logger.info("[RESPONSE] POST /medicalRecord/batch -> {}", response.getCounts());
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Met à jour un lot de dossiers médicaux, identifiés par le prénom et le
+     * nom.
+     * <p>
+     * Endpoint : PUT /medicalRecord/batch
+     *
+     * @param medicalRecords les nouvelles informations médicales
+     * @return ResponseEntity contenant le {@link BatchResponseDTO} (HTTP 200)
+     */
+    @PutMapping("/medicalRecord/batch")
+    public ResponseEntity<BatchResponseDTO> updateMedicalRecords(
+            @RequestBody List<MedicalRecordDTO> medicalRecords) {
+        logger.info("[CALL] PUT /medicalRecord/batch -> Updating {} medical records", medicalRecords.size());
+        BatchResponseDTO response = batchService.updateMedicalRecords(
+                medicalRecords.stream().map(medicalRecordMapper::toEntity).toList());
+        logger.info("[RESPONSE] PUT /medicalRecord/batch -> {}", response.getCounts());
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Supprime un lot de dossiers médicaux. Seuls le prénom et le nom des
+     * éléments sont utilisés.
+     * <p>
+     * Endpoint : DELETE /medicalRecord/batch
+     *
+     * @param medicalRecords les dossiers à supprimer
+     * @return ResponseEntity contenant le {@link BatchResponseDTO} (HTTP 200)
+     */
+    @DeleteMapping("/medicalRecord/batch")
+    public ResponseEntity<BatchResponseDTO> deleteMedicalRecords(
+            @RequestBody List<MedicalRecordDTO> medicalRecords) {
+        logger.info("[CALL] DELETE /medicalRecord/batch -> Deleting {} medical records", medicalRecords.size());
+        BatchResponseDTO response = batchService.deleteMedicalRecords(medicalRecords.stream()
+                .map(mr -> mr == null ? null : new NameKey(mr.getFirstName(), mr.getLastName()))
+                .toList());
+        logger.info("[RESPONSE] DELETE /medicalRecord/batch -> {}", response.getCounts());
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Convertit les DTO en mappings ; un numéro de caserne absent devient 0,
+     * valeur rejetée à la création et à la mise à jour.
+     */
+    private static List<Firestation> toFirestations(List<FirestationDTO> firestations) {
+        return firestations.stream()
+                .map(f -> f == null ? null
+                        : new Firestation(f.getAddress(), f.getStation() == null ? 0 : f.getStation()))
+                .toList();
+    }
+}
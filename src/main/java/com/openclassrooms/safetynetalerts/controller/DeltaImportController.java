@@ -0,0 +1,63 @@
+package com.openclassrooms.safetynetalerts.controller;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.openclassrooms.safetynetalerts.dto.deltaimport.DeltaImportResponseDTO;
+import com.openclassrooms.safetynetalerts.service.DeltaImportService;
+
+/**
+ * Contrôleur REST pour l'import incrémental de modifications en masse.
+ * <p>
+ * Ce contrôleur expose l'endpoint suivant :
+ * <ul>
+ * <li>POST /import - Application d'un flux NDJSON de créations, mises à jour
+ * et suppressions de personnes, casernes et dossiers médicaux</li>
+ * </ul>
+ *
+ */
+@RestController
+public class DeltaImportController {
+    private final Logger logger = LoggerFactory.getLogger(DeltaImportController.class);
+
+    private final DeltaImportService deltaImportService;
+
+    public DeltaImportController(DeltaImportService deltaImportService) {
+        this.deltaImportService = deltaImportService;
+    }
+
+    /**
+     * Applique un flux NDJSON d'opérations.
+     * <p>
+     * Endpoint : POST /import (Content-Type: application/x-ndjson)
+     * <p>
+     * Chaque ligne décrit une opération ({@code PUT_PERSON},
+     * {@code DELETE_PERSON}, {@code PUT_FIRESTATION}, {@code DELETE_FIRESTATION},
+     * {@code DELETE_STATION}, {@code PUT_MEDICAL_RECORD},
+     * {@code DELETE_MEDICAL_RECORD}). Le corps de la requête est lu au fil de
+     * l'eau et appliqué par lots ; une ligne invalide n'interrompt pas l'import.
+     *
+     * @param body le flux NDJSON
+     * @return ResponseEntity contenant un {@link DeltaImportResponseDTO} avec le
+     *         nombre d'opérations par statut et le résultat de chaque ligne
+     *         (HTTP 200)
+     * @throws IOException si le corps de la requête ne peut pas être lu
+     */
+    @PostMapping(path = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<DeltaImportResponseDTO> importDelta(InputStream body) throws IOException {
+
+        logger.info("[CALL] POST /import");
+
+        DeltaImportResponseDTO response = deltaImportService.importDelta(body);
+
+        logger.info("[RESPONSE] POST /import -> {}", response.getCounts());
+        return ResponseEntity.ok(response);
+    }
+}
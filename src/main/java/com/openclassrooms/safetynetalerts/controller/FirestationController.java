@@ -22,8 +22,8 @@ import com.openclassrooms.safetynetalerts.dto.firestation.FirestationResidentDTO
 import com.openclassrooms.safetynetalerts.mapper.FirestationMapper;
 import com.openclassrooms.safetynetalerts.model.Firestation;
 import com.openclassrooms.safetynetalerts.model.Person;
+import com.openclassrooms.safetynetalerts.repository.ResidentCounts;
 import com.openclassrooms.safetynetalerts.service.FirestationService;
-import com.openclassrooms.safetynetalerts.utils.Utils;
 
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
@@ -46,17 +46,14 @@ import jakarta.validation.constraints.NotBlank;
 @Validated
 public class FirestationController {
 
-    private final Utils utils;
     private final Logger logger = LoggerFactory.getLogger(FirestationController.class);
 
     public final FirestationService firestationService;
     public final FirestationMapper firestationMapper;
 
-    public FirestationController(FirestationService firestationService, FirestationMapper firestationMapper,
-            Utils utils) {
+    public FirestationController(FirestationService firestationService, FirestationMapper firestationMapper) {
         this.firestationService = firestationService;
         this.firestationMapper = firestationMapper;
-        this.utils = utils;
     }
 
     /**
@@ -86,17 +83,10 @@ public class FirestationController {
         // 1. Appeler le service pour récupérer les personnes
         List<Person> persons = firestationService.getPersonsCoveredByStation(stationNumber);
 
-        // 2. Calculer les comptages adultes/enfants
-        int adultCount = 0;
-        int childCount = 0;
-
-        for (Person person : persons) {
-            if (utils.isChild(person)) {
-                childCount++;
-            } else {
-                adultCount++;
-            }
-        }
+        // 2. Lire les comptages adultes/enfants, maintenus à chaque écriture
+        ResidentCounts counts = firestationService.getResidentCountsByStation(stationNumber);
+        int adultCount = counts.adults();
+        int childCount = counts.children();
 
         // 3. Mapper les entités vers DTOs
         List<FirestationResidentDTO> residents = persons.stream()
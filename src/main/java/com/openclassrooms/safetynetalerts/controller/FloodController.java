@@ -2,6 +2,7 @@ package com.openclassrooms.safetynetalerts.controller;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
@@ -20,9 +21,11 @@ import com.openclassrooms.safetynetalerts.dto.floodstations.FloodStationHousehol
 import com.openclassrooms.safetynetalerts.dto.floodstations.FloodStationsResponseDTO;
 import com.openclassrooms.safetynetalerts.model.MedicalRecord;
 import com.openclassrooms.safetynetalerts.model.Person;
+import com.openclassrooms.safetynetalerts.service.CacheTag;
 import com.openclassrooms.safetynetalerts.service.FirestationService;
 import com.openclassrooms.safetynetalerts.service.MedicalRecordService;
 import com.openclassrooms.safetynetalerts.service.PersonService;
+import com.openclassrooms.safetynetalerts.service.ResponseCache;
 import com.openclassrooms.safetynetalerts.utils.Utils;
 
 /**
@@ -44,13 +47,15 @@ public class FloodController {
     private final PersonService personService;
     private final MedicalRecordService medicalRecordService;
     private final Utils utils;
+    private final ResponseCache responseCache;
 
     public FloodController(FirestationService firestationService, PersonService personService,
-            MedicalRecordService medicalRecordService, Utils utils) {
+            MedicalRecordService medicalRecordService, Utils utils, ResponseCache responseCache) {
         this.firestationService = firestationService;
         this.personService = personService;
         this.medicalRecordService = medicalRecordService;
         this.utils = utils;
+        this.responseCache = responseCache;
     }
 
     /**
@@ -78,6 +83,17 @@ public class FloodController {
 
         logger.info("[CALL] GET /flood/stations?stations={}", stations);
 
+        Set<CacheTag> tags = new HashSet<>();
+        stations.forEach(station -> tags.add(CacheTag.station(station)));
+        FloodStationsResponseDTO response = responseCache.get("flood:" + stations, tags,
+                () -> buildFloodStations(stations));
+
+        logger.info("[RESPONSE] GET /flood/stations -> {} foyers trouvés", response.getHouseholds().size());
+
+        return ResponseEntity.ok(response);
+    }
+
+    private FloodStationsResponseDTO buildFloodStations(List<Integer> stations) {
         // 1. Récupérer toutes les adresses couvertes par ces stations
         Set<String> addresses = firestationService.getAddressesByStations(stations);
 
@@ -119,10 +135,6 @@ public class FloodController {
         }
 
         // 3. Construire le DTO de réponse
-        FloodStationsResponseDTO response = new FloodStationsResponseDTO(households);
-
-        logger.info("[RESPONSE] GET /flood/stations -> {} foyers trouvés", households.size());
-
-        return ResponseEntity.ok(response);
+        return new FloodStationsResponseDTO(households);
     }
 }
\ No newline at end of file
@@ -3,6 +3,7 @@ package com.openclassrooms.safetynetalerts.controller;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 
@@ -29,9 +30,12 @@ import com.openclassrooms.safetynetalerts.dto.personinfo.PersonMedicalProfileDTO
 import com.openclassrooms.safetynetalerts.mapper.PersonMapper;
 import com.openclassrooms.safetynetalerts.model.MedicalRecord;
 import com.openclassrooms.safetynetalerts.model.Person;
+import com.openclassrooms.safetynetalerts.repository.NameKey;
+import com.openclassrooms.safetynetalerts.service.CacheTag;
 import com.openclassrooms.safetynetalerts.service.FirestationService;
 import com.openclassrooms.safetynetalerts.service.MedicalRecordService;
 import com.openclassrooms.safetynetalerts.service.PersonService;
+import com.openclassrooms.safetynetalerts.service.ResponseCache;
 import com.openclassrooms.safetynetalerts.utils.Utils;
 
 import jakarta.validation.Valid;
@@ -63,50 +67,72 @@ public class PersonController {
     private final MedicalRecordService medicalRecordService;
     private final Utils utils;
     private final PersonMapper personMapper;
+    private final ResponseCache responseCache;
 
     public PersonController(PersonService personService, FirestationService firestationService,
-            MedicalRecordService medicalRecordService, Utils utils, PersonMapper personMapper) {
+            MedicalRecordService medicalRecordService, Utils utils, PersonMapper personMapper,
+            ResponseCache responseCache) {
         this.personService = personService;
         this.firestationService = firestationService;
         this.medicalRecordService = medicalRecordService;
         this.utils = utils;
         this.personMapper = personMapper;
+        this.responseCache = responseCache;
     }
 
     /**
      * Récupère les informations médicales complètes des personnes par nom de
      * famille.
      * <p>
-     * Endpoint : GET /personInfo?lastName={lastName}
+     * Endpoint : GET /personInfo?lastName={lastName}[&amp;ignoreCase=true]
      * <p>
      * Retourne la liste de toutes les personnes portant le nom de famille spécifié,
      * avec leurs informations complètes : nom, adresse, âge, email, médicaments et
      * allergies. Cette information est utile pour identifier rapidement les
      * personnes
      * ayant des besoins médicaux spécifiques lors d'interventions d'urgence.
+     * <p>
+     * Les personnes et leurs dossiers médicaux sont chacun récupérés en une seule
+     * lecture des index par nom de famille.
      *
-     * @param lastName le nom de famille des personnes recherchées
+     * @param lastName   le nom de famille des personnes recherchées
+     * @param ignoreCase {@code true} pour une recherche insensible à la casse
+     *                   (par défaut {@code false})
      * @return ResponseEntity contenant un {@link PersonInfoResponseDTO} avec la
      *         liste
      *         des profils médicaux (HTTP 200)
      */
     @GetMapping("/personInfo")
     public ResponseEntity<PersonInfoResponseDTO> getPersonsByLastName(
-            @RequestParam("lastName") String lastName) {
+            @RequestParam("lastName") String lastName,
+            @RequestParam(name = "ignoreCase", defaultValue = "false") boolean ignoreCase) {
+
+        logger.info("[CALL] GET /personInfo?lastName={}&ignoreCase={}", lastName, ignoreCase);
+
+        PersonInfoResponseDTO response = responseCache.get("personInfo:" + ignoreCase + ":" + lastName,
+                Set.of(CacheTag.lastName(lastName)), () -> buildPersonInfo(lastName, ignoreCase));
 
-        logger.info("[CALL] GET /personInfo?lastName={}", lastName);
+        logger.info("[RESPONSE] GET /personInfo -> {} personnes trouvées", response.getPersons().size());
+
+        return ResponseEntity.ok(response);
+    }
 
-        // 1. Récupérer toutes les personnes avec ce nom
-        List<Person> persons = personService.getPersonsByLastName(lastName);
+    private PersonInfoResponseDTO buildPersonInfo(String lastName, boolean ignoreCase) {
+        // 1. Récupérer toutes les personnes avec ce nom et leurs dossiers médicaux
+        List<Person> persons = ignoreCase
+                ? personService.getPersonsByLastNameIgnoreCase(lastName)
+                : personService.getPersonsByLastName(lastName);
+        Map<NameKey, MedicalRecord> medicalRecords = ignoreCase
+                ? medicalRecordService.getMedicalRecordsByLastNameIgnoreCase(lastName)
+                : medicalRecordService.getMedicalRecordsByLastName(lastName);
 
         // 2. Mapper vers DTOs (avec infos médicales)
         List<PersonMedicalProfileDTO> profiles = new ArrayList<>();
 
         for (Person person : persons) {
-            // Récupérer le dossier médical
-            Optional<MedicalRecord> medicalRecordOpt = medicalRecordService.getMedicalRecord(
-                    person.getFirstName(),
-                    person.getLastName());
+            // Associer le dossier médical
+            Optional<MedicalRecord> medicalRecordOpt = Optional.ofNullable(
+                    medicalRecords.get(new NameKey(person.getFirstName(), person.getLastName())));
 
             // Extraire medications et allergies
             List<String> medications = medicalRecordOpt
@@ -127,11 +153,7 @@ public class PersonController {
         }
 
         // 3. Construire le DTO de réponse
-        PersonInfoResponseDTO response = new PersonInfoResponseDTO(profiles);
-
-        logger.info("[RESPONSE] GET /personInfo -> {} personnes trouvées", profiles.size());
-
-        return ResponseEntity.ok(response);
+        return new PersonInfoResponseDTO(profiles);
     }
 
     /**
@@ -157,6 +179,16 @@ public class PersonController {
 
         logger.info("[CALL] GET /fire?address={}", address);
 
+        FireAddressResponseDTO response = responseCache.get("fire:" + address,
+                Set.of(CacheTag.address(address)), () -> buildFireAddress(address));
+
+        logger.info("[RESPONSE] GET /fire -> {} résidents, station={}", response.getPersonList().size(),
+                response.getFirestationNumber());
+
+        return ResponseEntity.ok(response);
+    }
+
+    private FireAddressResponseDTO buildFireAddress(String address) {
         // 1. Récupérer toutes les personnes à l'adresse
         List<Person> personsAtAddress = personService.getPersonsByAddress(address);
 
@@ -190,11 +222,7 @@ public class PersonController {
         }
 
         // 4. Construire le DTO de réponse
-        FireAddressResponseDTO response = new FireAddressResponseDTO(residents, stationNumber);
-
-        logger.info("[RESPONSE] GET /fire -> {} résidents, station={}", residents.size(), stationNumber);
-
-        return ResponseEntity.ok(response);
+        return new FireAddressResponseDTO(residents, stationNumber);
     }
 
     /**
@@ -217,11 +245,13 @@ public class PersonController {
 
         logger.info("[CALL] GET /communityEmail?city={}", city);
 
-        Set<String> emails = personService.getEmailsByCity(city);
+        CommunityEmailResponseDTO response = responseCache.get("communityEmail:" + city,
+                Set.of(CacheTag.city(city)),
+                () -> new CommunityEmailResponseDTO(personService.getEmailsByCity(city)));
 
-        logger.info("[RESPONSE] GET /communityEmail -> {} emails trouvés", emails.size());
+        logger.info("[RESPONSE] GET /communityEmail -> {} emails trouvés", response.getEmailAddresses().size());
 
-        return ResponseEntity.ok(new CommunityEmailResponseDTO(emails));
+        return ResponseEntity.ok(response);
     }
 
     /**
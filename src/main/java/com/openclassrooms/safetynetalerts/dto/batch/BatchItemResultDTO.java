@@ -0,0 +1,15 @@
+package com.openclassrooms.safetynetalerts.dto.batch;
+
+import com.openclassrooms.safetynetalerts.repository.BatchStatus;
+
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+
+@Data
+@RequiredArgsConstructor
+public class BatchItemResultDTO {
+
+    private final int index;
+    private final BatchStatus status;
+
+}
@@ -0,0 +1,18 @@
+package com.openclassrooms.safetynetalerts.dto.batch;
+
+import java.util.List;
+import java.util.Map;
+
+import com.openclassrooms.safetynetalerts.repository.BatchStatus;
+
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+
+@Data
+@RequiredArgsConstructor
+public class BatchResponseDTO {
+
+    private final Map<BatchStatus, Integer> counts;
+    private final List<BatchItemResultDTO> results;
+
+}
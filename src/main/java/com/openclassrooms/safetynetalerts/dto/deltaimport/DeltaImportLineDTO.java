@@ -0,0 +1,18 @@
+package com.openclassrooms.safetynetalerts.dto.deltaimport;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.openclassrooms.safetynetalerts.repository.BatchStatus;
+
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+
+@Data
+@RequiredArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class DeltaImportLineDTO {
+
+    private final int line;
+    private final BatchStatus status;
+    private final String error;
+
+}
@@ -0,0 +1,18 @@
+package com.openclassrooms.safetynetalerts.dto.deltaimport;
+
+import java.util.List;
+import java.util.Map;
+
+import com.openclassrooms.safetynetalerts.repository.BatchStatus;
+
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+
+@Data
+@RequiredArgsConstructor
+public class DeltaImportResponseDTO {
+
+    private final Map<BatchStatus, Integer> counts;
+    private final List<DeltaImportLineDTO> results;
+
+}
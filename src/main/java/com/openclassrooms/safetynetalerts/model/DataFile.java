@@ -11,6 +11,12 @@ public class DataFile {
     private List<Firestation> firestations;
     private List<MedicalRecord> medicalrecords;
 
+    /**
+     * Numéro de séquence de la dernière entrée du journal des modifications
+     * prise en compte dans ce fichier (0 pour le data.json d'origine).
+     */
+    private long seq;
+
     public DataFile() {
     }
 
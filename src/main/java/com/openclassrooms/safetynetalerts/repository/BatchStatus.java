@@ -0,0 +1,26 @@
+package com.openclassrooms.safetynetalerts.repository;
+
+/**
+ * Résultat de l'application d'une opération d'un lot ({@link BatchWriter}).
+ */
+public enum BatchStatus {
+    /** L'entité n'existait pas et a été créée. */
+    CREATED,
+    /** L'entité existante a été remplacée. */
+    UPDATED,
+    /** L'entité (ou les mappings d'une caserne) a été supprimée. */
+    DELETED,
+    /** L'entité à modifier ou supprimer n'existe pas ; rien n'a été modifié. */
+    NOT_FOUND,
+    /** L'entité à créer existe déjà ; rien n'a été modifié. */
+    ALREADY_EXISTS,
+    /** L'opération est incomplète ou non supportée ; rien n'a été modifié. */
+    INVALID;
+
+    /**
+     * @return {@code true} si l'opération a modifié les données
+     */
+    public boolean isApplied() {
+        return this == CREATED || this == UPDATED || this == DELETED;
+    }
+}
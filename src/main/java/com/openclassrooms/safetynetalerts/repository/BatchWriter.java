@@ -0,0 +1,312 @@
+package com.openclassrooms.safetynetalerts.repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.openclassrooms.safetynetalerts.model.Firestation;
+import com.openclassrooms.safetynetalerts.model.MedicalRecord;
+import com.openclassrooms.safetynetalerts.model.Person;
+
+/**
+ * Applique un lot d'opérations sur les personnes, casernes et dossiers
+ * médicaux en une seule écriture.
+ *
+ * <p>
+ * Les opérations sont décrites par des entrées du journal
+ * ({@link MutationLogEntry}) : {@code PUT_*} crée ou remplace l'entité
+ * complète, {@code DELETE_*} la supprime. Le lot est appliqué dans l'ordre,
+ * sous les verrous d'écriture des trois repositories pris une seule fois
+ * (dans le même ordre que {@link DataReloader}) :
+ * <ul>
+ * <li>les index ne sont pas reconstruits : chaque opération modifie le
+ * builder de la section concernée, créé à la première opération qui la
+ * touche à partir de la dernière version construite par le repository
+ * ({@code pending()}) ;</li>
+ * <li>les opérations appliquées sont journalisées ensemble
+ * ({@link MutationLog#append(List, Runnable)}) et les sections modifiées
+ * publiées en une seule version, une fois le lot durable ;</li>
+ * <li>le verrou est relâché avant d'attendre que le journal soit durable,
+ * comme pour les écritures unitaires.</li>
+ * </ul>
+ * Une opération invalide ou sans effet est rapportée dans son statut
+ * ({@link BatchStatus}) sans interrompre le lot. Le {@link Mode} choisit si
+ * une opération {@code PUT_*} crée, met à jour ou remplace l'entité.
+ */
+@Component
+public class BatchWriter {
+
+    @Autowired
+    private DataStore dataStore;
+
+    @Autowired
+    private MutationLog mutationLog;
+
+    @Autowired
+    private PersonRepository personRepository;
+
+    @Autowired
+    private FirestationRepository firestationRepository;
+
+    @Autowired
+    private MedicalRecordRepository medicalRecordRepository;
+
+    /**
+     * Mode d'application des opérations {@code PUT_*} d'un lot.
+     */
+    public enum Mode {
+        /** Crée l'entité ou remplace l'entité existante (import). */
+        UPSERT,
+        /**
+         * Crée l'entité ; une entité existante est rapportée
+         * {@link BatchStatus#ALREADY_EXISTS}. Comme pour POST /firestation, un
+         * mapping n'est pas créé pour une caserne déjà connue.
+         */
+        CREATE,
+        /**
+         * Met à jour les champs non-null de l'entité existante, comme les
+         * mises à jour unitaires ; une entité absente est rapportée
+         * {@link BatchStatus#NOT_FOUND}.
+         */
+        UPDATE
+    }
+
+    /**
+     * Applique un lot d'opérations en créant ou remplaçant les entités.
+     *
+     * @param entries les opérations, dans l'ordre d'application
+     * @return le statut de chaque opération, dans le même ordre
+     * @throws IllegalStateException si l'écriture du journal échoue
+     */
+    public List<BatchStatus> apply(List<MutationLogEntry> entries) {
+        return apply(entries, Mode.UPSERT);
+    }
+
+    /**
+     * Applique un lot d'opérations.
+     *
+     * @param entries les opérations, dans l'ordre d'application
+     * @param mode    le mode d'application des opérations {@code PUT_*}
+     * @return le statut de chaque opération, dans le même ordre
+     * @throws IllegalStateException si l'écriture du journal échoue
+     */
+    public List<BatchStatus> apply(List<MutationLogEntry> entries, Mode mode) {
+        List<BatchStatus> statuses = new ArrayList<>(entries.size());
+        List<MutationLogEntry> applied = new ArrayList<>(entries.size());
+        CompletableFuture<Void> durable;
+        personRepository.writeLock().lock();
+        firestationRepository.writeLock().lock();
+        medicalRecordRepository.writeLock().lock();
+        try {
+            Sections sections = new Sections(personRepository.pending(), firestationRepository.pending(),
+                    medicalRecordRepository.pending());
+            for (MutationLogEntry entry : entries) {
+                Outcome outcome = apply(entry, mode, sections);
+                statuses.add(outcome.status());
+                if (outcome.status().isApplied()) {
+                    applied.add(outcome.logged());
+                }
+            }
+            if (applied.isEmpty()) {
+                return statuses;
+            }
+            PersonIndex persons = sections.persons();
+            FirestationIndex firestations = sections.firestations();
+            MedicalRecordIndex medicalRecords = sections.medicalRecords();
+            durable = mutationLog.append(applied,
+                    () -> dataStore.publishAll(persons, firestations, medicalRecords));
+            personRepository.stage(persons);
+            firestationRepository.stage(firestations);
+            medicalRecordRepository.stage(medicalRecords);
+        } finally {
+            medicalRecordRepository.writeLock().unlock();
+            firestationRepository.writeLock().unlock();
+            personRepository.writeLock().unlock();
+        }
+        mutationLog.await(durable);
+        return statuses;
+    }
+
+    private static Outcome apply(MutationLogEntry entry, Mode mode, Sections sections) {
+        if (entry == null || entry.op() == null) {
+            return Outcome.INVALID;
+        }
+        switch (entry.op()) {
+            case PUT_PERSON -> {
+                Person person = entry.person();
+                if (person == null || isBlank(person.getFirstName()) || isBlank(person.getLastName())) {
+                    return Outcome.INVALID;
+                }
+                PersonIndex.Builder persons = sections.personBuilder();
+                Person current = persons.get(new NameKey(person.getFirstName(), person.getLastName()));
+                if (current == null) {
+                    if (mode == Mode.UPDATE) {
+                        return Outcome.NOT_FOUND;
+                    }
+                    persons.add(person);
+                    return new Outcome(BatchStatus.CREATED, entry);
+                }
+                if (mode == Mode.CREATE) {
+                    return Outcome.ALREADY_EXISTS;
+                }
+                Person replaced = mode == Mode.UPDATE ? PersonRepository.merge(current, person) : person;
+                persons.replace(replaced);
+                return new Outcome(BatchStatus.UPDATED, MutationLogEntry.putPerson(replaced));
+            }
+            case DELETE_PERSON -> {
+                if (isBlank(entry.firstName()) || isBlank(entry.lastName())) {
+                    return Outcome.INVALID;
+                }
+                return sections.personBuilder().remove(new NameKey(entry.firstName(), entry.lastName())) == null
+                        ? Outcome.NOT_FOUND
+                        : new Outcome(BatchStatus.DELETED, entry);
+            }
+            case PUT_FIRESTATION -> {
+                Firestation firestation = entry.firestation();
+                if (firestation == null || isBlank(firestation.getAddress()) || firestation.getStation() <= 0) {
+                    return Outcome.INVALID;
+                }
+                FirestationIndex.Builder firestations = sections.firestationBuilder();
+                Firestation current = firestations.byAddress(firestation.getAddress());
+                if (current == null) {
+                    if (mode == Mode.UPDATE) {
+                        return Outcome.NOT_FOUND;
+                    }
+                    if (mode == Mode.CREATE && !firestations.addressesOf(firestation.getStation()).isEmpty()) {
+                        return Outcome.ALREADY_EXISTS;
+                    }
+                    firestations.add(firestation);
+                    return new Outcome(BatchStatus.CREATED, entry);
+                }
+                if (mode == Mode.CREATE) {
+                    return Outcome.ALREADY_EXISTS;
+                }
+                firestations.replace(firestation);
+                return new Outcome(BatchStatus.UPDATED, entry);
+            }
+            case DELETE_FIRESTATION -> {
+                if (isBlank(entry.address())) {
+                    return Outcome.INVALID;
+                }
+                return sections.firestationBuilder().remove(entry.address()) == null
+                        ? Outcome.NOT_FOUND
+                        : new Outcome(BatchStatus.DELETED, entry);
+            }
+            case DELETE_STATION -> {
+                if (entry.station() == null) {
+                    return Outcome.INVALID;
+                }
+                FirestationIndex.Builder firestations = sections.firestationBuilder();
+                List<String> addresses = firestations.addressesOf(entry.station());
+                if (addresses.isEmpty()) {
+                    return Outcome.NOT_FOUND;
+                }
+                List.copyOf(addresses).forEach(firestations::remove);
+                return new Outcome(BatchStatus.DELETED, entry);
+            }
+            case PUT_MEDICAL_RECORD -> {
+                MedicalRecord record = entry.medicalRecord();
+                if (record == null || isBlank(record.getFirstName()) || isBlank(record.getLastName())) {
+                    return Outcome.INVALID;
+                }
+                MedicalRecordIndex.Builder medicalRecords = sections.medicalRecordBuilder();
+                MedicalRecord current = medicalRecords.get(new NameKey(record.getFirstName(), record.getLastName()));
+                if (current == null) {
+                    if (mode == Mode.UPDATE) {
+                        return Outcome.NOT_FOUND;
+                    }
+                    medicalRecords.add(record);
+                    return new Outcome(BatchStatus.CREATED, entry);
+                }
+                if (mode == Mode.CREATE) {
+                    return Outcome.ALREADY_EXISTS;
+                }
+                MedicalRecord replaced = mode == Mode.UPDATE ? MedicalRecordRepository.merge(current, record) : record;
+                medicalRecords.replace(replaced);
+                return new Outcome(BatchStatus.UPDATED, MutationLogEntry.putMedicalRecord(replaced));
+            }
+            case DELETE_MEDICAL_RECORD -> {
+                if (isBlank(entry.firstName()) || isBlank(entry.lastName())) {
+                    return Outcome.INVALID;
+                }
+                return sections.medicalRecordBuilder()
+                        .remove(new NameKey(entry.firstName(), entry.lastName())) == null
+                                ? Outcome.NOT_FOUND
+                                : new Outcome(BatchStatus.DELETED, entry);
+            }
+            default -> {
+                return Outcome.INVALID;
+            }
+        }
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    /**
+     * Statut d'une opération et entrée à journaliser si elle a été appliquée.
+     */
+    private record Outcome(BatchStatus status, MutationLogEntry logged) {
+        private static final Outcome INVALID = new Outcome(BatchStatus.INVALID, null);
+        private static final Outcome NOT_FOUND = new Outcome(BatchStatus.NOT_FOUND, null);
+        private static final Outcome ALREADY_EXISTS = new Outcome(BatchStatus.ALREADY_EXISTS, null);
+    }
+
+    /**
+     * Sections en cours de modification. Le builder d'une
+     * section n'est créé qu'à la première opération qui la touche ; les
+     * sections non modifiées sont republiées telles quelles.
+     */
+    private static final class Sections {
+        private final PersonIndex basePersons;
+        private final FirestationIndex baseFirestations;
+        private final MedicalRecordIndex baseMedicalRecords;
+        private PersonIndex.Builder persons;
+        private FirestationIndex.Builder firestations;
+        private MedicalRecordIndex.Builder medicalRecords;
+
+        private Sections(PersonIndex basePersons, FirestationIndex baseFirestations,
+                MedicalRecordIndex baseMedicalRecords) {
+            this.basePersons = basePersons;
+            this.baseFirestations = baseFirestations;
+            this.baseMedicalRecords = baseMedicalRecords;
+        }
+
+        private PersonIndex.Builder personBuilder() {
+            if (persons == null) {
+                persons = basePersons.toBuilder();
+            }
+            return persons;
+        }
+
+        private FirestationIndex.Builder firestationBuilder() {
+            if (firestations == null) {
+                firestations = baseFirestations.toBuilder();
+            }
+            return firestations;
+        }
+
+        private MedicalRecordIndex.Builder medicalRecordBuilder() {
+            if (medicalRecords == null) {
+                medicalRecords = baseMedicalRecords.toBuilder();
+            }
+            return medicalRecords;
+        }
+
+        private PersonIndex persons() {
+            return persons == null ? basePersons : persons.build();
+        }
+
+        private FirestationIndex firestations() {
+            return firestations == null ? baseFirestations : firestations.build();
+        }
+
+        private MedicalRecordIndex medicalRecords() {
+            return medicalRecords == null ? baseMedicalRecords : medicalRecords.build();
+        }
+    }
+}
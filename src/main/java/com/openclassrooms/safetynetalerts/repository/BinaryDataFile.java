@@ -0,0 +1,422 @@
+package com.openclassrooms.safetynetalerts.repository;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32C;
+
+import com.openclassrooms.safetynetalerts.model.DataFile;
+import com.openclassrooms.safetynetalerts.model.Firestation;
+import com.openclassrooms.safetynetalerts.model.MedicalRecord;
+import com.openclassrooms.safetynetalerts.model.Person;
+
+/**
+ * Format binaire compact du modèle {@link DataFile}, beaucoup plus rapide à
+ * charger que le JSON.
+ *
+ * <p>
+ * Structure du fichier (entiers big-endian) :
+ * <ol>
+ * <li>en-tête : nombre magique ({@code SNAD}), version du format, séquence du
+ * journal couverte ({@link DataFile#getSeq()}), puis la taille et la somme de
+ * contrôle CRC32C du fichier JSON dont l'instantané est dérivé
+ * ({@link Source}) ;</li>
+ * <li>table des chaînes : nombre de chaînes, puis pour chacune sa longueur
+ * en octets et son contenu UTF-8. Chaque chaîne distincte n'y figure qu'une
+ * fois ;</li>
+ * <li>les sections {@code persons}, {@code firestations} puis
+ * {@code medicalrecords} : nombre d'enregistrements, puis pour chacun sa
+ * longueur en octets suivie de ses champs. Une chaîne est codée par son
+ * indice dans la table ({@code -1} pour {@code null}), une liste par sa
+ * taille ({@code -1} pour {@code null}) suivie de ses éléments.</li>
+ * </ol>
+ *
+ * <p>
+ * L'empreinte du JSON source permet de vérifier au démarrage que
+ * l'instantané correspond bien au fichier JSON présent
+ * ({@link #isDerivedFrom(Path, long, InputStreamSource)}) sans se fier aux
+ * dates de modification, que {@code cp -p}, {@code rsync} ou les couches
+ * d'une image de conteneur ne préservent pas de façon fiable.
+ *
+ * <p>
+ * Au chargement, chaque chaîne n'est décodée qu'une fois et partagée par
+ * toutes les entités qui la référencent, et chaque enregistrement est lu en
+ * une seule opération grâce à sa longueur.
+ *
+ * <p>
+ * Le fichier est décodé entièrement au chargement, et non projeté en mémoire
+ * ({@code FileChannel.map}) pour être décodé à chaque accès : les index de
+ * {@link DataSnapshot} référencent des entités du tas, qu'ils partagent d'une
+ * version à l'autre par copie à l'écriture. Des enregistrements décodés à la
+ * demande seraient donc tous recopiés dans ces index au démarrage, sans rien
+ * laisser dans le cache de pages partagé ; les servir depuis la projection
+ * imposerait de refondre les index et le chemin d'écriture autour de
+ * positions dans le fichier.
+ */
+public final class BinaryDataFile {
+
+    private static final int MAGIC = 0x534E4144;
+    private static final int FORMAT_VERSION = 2;
+    private static final int NULL = -1;
+
+    /**
+     * Empreinte du fichier JSON dont un instantané binaire est dérivé.
+     *
+     * @param size     la taille du fichier JSON en octets, ou {@code -1} si
+     *                 l'instantané n'est dérivé d'aucun fichier JSON
+     * @param checksum la somme de contrôle CRC32C du fichier JSON
+     */
+    public record Source(long size, long checksum) {
+
+        /** Empreinte d'un instantané qui n'est dérivé d'aucun fichier JSON. */
+        public static final Source NONE = new Source(-1, 0);
+
+        /**
+         * Calcule l'empreinte d'un fichier JSON.
+         *
+         * @param json le fichier JSON
+         * @return l'empreinte du fichier
+         * @throws IOException si le fichier ne peut pas être lu
+         */
+        public static Source of(Path json) throws IOException {
+            try (InputStream in = Files.newInputStream(json)) {
+                return of(in);
+            }
+        }
+
+        /**
+         * Calcule l'empreinte d'un contenu JSON, lu jusqu'à sa fin.
+         *
+         * @param in le contenu JSON, non fermé par cette méthode
+         * @return l'empreinte du contenu
+         * @throws IOException si le contenu ne peut pas être lu
+         */
+        public static Source of(InputStream in) throws IOException {
+            CRC32C crc = new CRC32C();
+            byte[] buffer = new byte[1 << 16];
+            long size = 0;
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                crc.update(buffer, 0, read);
+                size += read;
+            }
+            return new Source(size, crc.getValue());
+        }
+    }
+
+    /**
+     * Ouverture différée d'un contenu, lu seulement si nécessaire.
+     */
+    @FunctionalInterface
+    public interface InputStreamSource {
+        InputStream open() throws IOException;
+    }
+
+    private BinaryDataFile() {
+    }
+
+    /**
+     * Indique si un fichier est au format binaire, d'après son nombre
+     * magique.
+     *
+     * @param file le fichier à examiner
+     * @return {@code true} si le fichier commence par l'en-tête du format
+     * @throws IOException si le fichier ne peut pas être lu
+     */
+    public static boolean isBinary(Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            byte[] header = in.readNBytes(Integer.BYTES);
+            return header.length == Integer.BYTES && ByteBuffer.wrap(header).getInt() == MAGIC;
+        }
+    }
+
+    /**
+     * Indique si un instantané binaire est dérivé d'un fichier JSON, d'après
+     * l'empreinte enregistrée dans son en-tête. La taille est comparée
+     * d'abord : le fichier JSON n'est lu pour sa somme de contrôle que si elle
+     * correspond.
+     *
+     * @param binary   l'instantané binaire
+     * @param jsonSize la taille du fichier JSON en octets
+     * @param json     l'ouverture du fichier JSON
+     * @return {@code false} si l'instantané n'existe pas, est dans une autre
+     *         version du format ou est dérivé d'un autre fichier
+     * @throws IOException si un des fichiers ne peut pas être lu
+     */
+    public static boolean isDerivedFrom(Path binary, long jsonSize, InputStreamSource json) throws IOException {
+        if (!Files.exists(binary)) {
+            return false;
+        }
+        Source recorded;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(binary), 64))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+                return false;
+            }
+            in.readLong();
+            recorded = new Source(in.readLong(), in.readLong());
+        } catch (EOFException e) {
+            return false;
+        }
+        if (recorded.size() != jsonSize) {
+            return false;
+        }
+        try (InputStream in = json.open()) {
+            return recorded.equals(Source.of(in));
+        }
+    }
+
+    /**
+     * Écrit les données au format binaire, sans les associer à un fichier
+     * JSON ({@link Source#NONE}).
+     *
+     * @param data les données à écrire
+     * @param file le fichier de destination
+     * @throws IOException si le fichier ne peut pas être écrit
+     */
+    public static void write(DataFile data, Path file) throws IOException {
+        write(data, file, Source.NONE);
+    }
+
+    /**
+     * Écrit les données au format binaire. Le fichier est écrit à côté de sa
+     * destination, synchronisé sur le disque, puis renommé atomiquement.
+     *
+     * @param data   les données à écrire
+     * @param file   le fichier de destination
+     * @param source l'empreinte du fichier JSON contenant les mêmes données
+     * @throws IOException si le fichier ne peut pas être écrit
+     */
+    public static void write(DataFile data, Path file, Source source) throws IOException {
+        List<Person> persons = nullToEmpty(data.getPersons());
+        List<Firestation> firestations = nullToEmpty(data.getFirestations());
+        List<MedicalRecord> medicalRecords = nullToEmpty(data.getMedicalrecords());
+
+        // Premier passage : table des chaînes, qui précède les enregistrements
+        Map<String, Integer> strings = new HashMap<>();
+        List<String> table = new ArrayList<>();
+        for (Person person : persons) {
+            collect(strings, table, person.getFirstName(), person.getLastName(), person.getAddress(),
+                    person.getCity(), person.getZip(), person.getPhone(), person.getEmail());
+        }
+        for (Firestation firestation : firestations) {
+            collect(strings, table, firestation.getAddress());
+        }
+        for (MedicalRecord medicalRecord : medicalRecords) {
+            collect(strings, table, medicalRecord.getFirstName(), medicalRecord.getLastName(),
+                    medicalRecord.getBirthdate());
+            collect(strings, table, nullToEmpty(medicalRecord.getMedications()).toArray(String[]::new));
+            collect(strings, table, nullToEmpty(medicalRecord.getAllergies()).toArray(String[]::new));
+        }
+
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        ByteArrayOutputStream recordBytes = new ByteArrayOutputStream(256);
+        DataOutputStream record = new DataOutputStream(recordBytes);
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(tmp), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeLong(data.getSeq());
+            out.writeLong(source.size());
+            out.writeLong(source.checksum());
+            out.writeInt(table.size());
+            for (String value : table) {
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+
+            // Second passage : enregistrements
+            out.writeInt(persons.size());
+            for (Person person : persons) {
+                writeString(record, person.getFirstName(), strings);
+                writeString(record, person.getLastName(), strings);
+                writeString(record, person.getAddress(), strings);
+                writeString(record, person.getCity(), strings);
+                writeString(record, person.getZip(), strings);
+                writeString(record, person.getPhone(), strings);
+                writeString(record, person.getEmail(), strings);
+                flushRecord(out, recordBytes);
+            }
+            out.writeInt(firestations.size());
+            for (Firestation firestation : firestations) {
+                writeString(record, firestation.getAddress(), strings);
+                record.writeInt(firestation.getStation());
+                flushRecord(out, recordBytes);
+            }
+            out.writeInt(medicalRecords.size());
+            for (MedicalRecord medicalRecord : medicalRecords) {
+                writeString(record, medicalRecord.getFirstName(), strings);
+                writeString(record, medicalRecord.getLastName(), strings);
+                writeString(record, medicalRecord.getBirthdate(), strings);
+                writeStrings(record, medicalRecord.getMedications(), strings);
+                writeStrings(record, medicalRecord.getAllergies(), strings);
+                flushRecord(out, recordBytes);
+            }
+        }
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Lit un fichier au format binaire.
+     *
+     * @param file le fichier à lire
+     * @return les données lues
+     * @throws IOException si le fichier ne peut pas être lu ou n'est pas au
+     *                     format attendu
+     */
+    public static DataFile read(Path file) throws IOException {
+        DataFile data = new DataFile();
+        data.setSeq(read(file, DataRepo.Sink.into(data)));
+        return data;
+    }
+
+    /**
+     * Lit un fichier au format binaire, en passant chaque enregistrement au
+     * consommateur de sa section, dans l'ordre du fichier et sur le thread
+     * appelant.
+     *
+     * @param file le fichier à lire
+     * @param sink les consommateurs des sections
+     * @return la séquence du journal couverte par le fichier
+     * @throws IOException si le fichier ne peut pas être lu ou n'est pas au
+     *                     format attendu
+     */
+    public static long read(Path file, DataRepo.Sink sink) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Fichier binaire de données invalide : " + file);
+            }
+            int version = in.readInt();
+            if (version != FORMAT_VERSION) {
+                throw new IOException("Version " + version + " du format binaire non supportée : " + file);
+            }
+            long seq = in.readLong();
+            // Empreinte du JSON source, utile seulement au choix du fichier
+            in.readLong();
+            in.readLong();
+
+            String[] strings = new String[in.readInt()];
+            byte[] buffer = new byte[256];
+            for (int i = 0; i < strings.length; i++) {
+                int length = in.readInt();
+                buffer = ensureCapacity(buffer, length);
+                in.readFully(buffer, 0, length);
+                strings[i] = new String(buffer, 0, length, StandardCharsets.UTF_8);
+            }
+
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                buffer = readRecord(in, buffer);
+                ByteBuffer record = ByteBuffer.wrap(buffer);
+                sink.persons().accept(new Person(readString(record, strings), readString(record, strings),
+                        readString(record, strings), readString(record, strings), readString(record, strings),
+                        readString(record, strings), readString(record, strings)));
+            }
+            count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                buffer = readRecord(in, buffer);
+                ByteBuffer record = ByteBuffer.wrap(buffer);
+                sink.firestations().accept(new Firestation(readString(record, strings), record.getInt()));
+            }
+            count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                buffer = readRecord(in, buffer);
+                ByteBuffer record = ByteBuffer.wrap(buffer);
+                sink.medicalRecords().accept(new MedicalRecord(readString(record, strings),
+                        readString(record, strings), readString(record, strings), readStrings(record, strings),
+                        readStrings(record, strings)));
+            }
+            return seq;
+        }
+    }
+
+    private static void collect(Map<String, Integer> strings, List<String> table, String... values) {
+        for (String value : values) {
+            if (value != null && strings.putIfAbsent(value, table.size()) == null) {
+                table.add(value);
+            }
+        }
+    }
+
+    private static void writeString(DataOutputStream record, String value, Map<String, Integer> strings)
+            throws IOException {
+        record.writeInt(value == null ? NULL : strings.get(value));
+    }
+
+    private static void writeStrings(DataOutputStream record, List<String> values, Map<String, Integer> strings)
+            throws IOException {
+        if (values == null) {
+            record.writeInt(NULL);
+            return;
+        }
+        record.writeInt(values.size());
+        for (String value : values) {
+            writeString(record, value, strings);
+        }
+    }
+
+    private static void flushRecord(DataOutputStream out, ByteArrayOutputStream record) throws IOException {
+        out.writeInt(record.size());
+        record.writeTo(out);
+        record.reset();
+    }
+
+    /**
+     * Lit un enregistrement complet dans le tampon, agrandi si nécessaire.
+     *
+     * @return le tampon contenant l'enregistrement
+     */
+    private static byte[] readRecord(DataInputStream in, byte[] buffer) throws IOException {
+        int length = in.readInt();
+        buffer = ensureCapacity(buffer, length);
+        in.readFully(buffer, 0, length);
+        return buffer;
+    }
+
+    private static String readString(ByteBuffer record, String[] strings) {
+        int id = record.getInt();
+        return id == NULL ? null : strings[id];
+    }
+
+    private static List<String> readStrings(ByteBuffer record, String[] strings) {
+        int size = record.getInt();
+        if (size == NULL) {
+            return null;
+        }
+        List<String> values = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            values.add(readString(record, strings));
+        }
+        return values;
+    }
+
+    private static byte[] ensureCapacity(byte[] buffer, int length) {
+        return buffer.length >= length ? buffer : new byte[Math.max(length, buffer.length * 2)];
+    }
+
+    private static <T> List<T> nullToEmpty(List<T> list) {
+        return list == null ? List.of() : list;
+    }
+}
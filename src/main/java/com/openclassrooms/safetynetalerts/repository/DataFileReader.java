@@ -0,0 +1,372 @@
+package com.openclassrooms.safetynetalerts.repository;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.ObjLongConsumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.openclassrooms.safetynetalerts.model.DataFile;
+import com.openclassrooms.safetynetalerts.model.Firestation;
+import com.openclassrooms.safetynetalerts.model.MedicalRecord;
+import com.openclassrooms.safetynetalerts.model.Person;
+
+import tools.jackson.core.JsonParser;
+import tools.jackson.core.JsonToken;
+import tools.jackson.databind.DeserializationFeature;
+import tools.jackson.databind.ObjectReader;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Lecture en flux d'un fichier de données au format de data.json.
+ *
+ * <p>
+ * Le fichier est parcouru jeton par jeton : seul l'élément en cours de lecture
+ * est désérialisé, puis passé au consommateur de sa section
+ * ({@link DataRepo.Sink}), sans que le fichier complet ne soit jamais
+ * matérialisé. Les sections inconnues sont ignorées sans être chargées.
+ *
+ * <p>
+ * Pour un fichier du système de fichiers ({@link #read(Path)}), un parcours
+ * octet par octet repère les sections de premier niveau, sans rien
+ * désérialiser. Dès que le parcours atteint le début des sections
+ * {@code persons}, {@code firestations} ou {@code medicalrecords}, la section
+ * est lue sur son propre thread pendant que le parcours continue : les
+ * sections sont lues en parallèle, sans attendre la fin du repérage. La durée
+ * de lecture de chaque section est journalisée.
+ *
+ * <p>
+ * Les adresses, villes et codes postaux, peu nombreux et répétés par chaque
+ * résident et chaque mapping, sont partagés entre les entités lues. Les
+ * autres champs (noms, téléphones, emails, dates, médicaments...) ne sont pas
+ * partagés : la table de partage, vidée en fin de lecture, reste ainsi petite
+ * devant les données.
+ *
+ * <p>
+ * Une instance ne sert qu'à une seule lecture.
+ */
+final class DataFileReader {
+    private final Logger logger = LoggerFactory.getLogger(DataFileReader.class);
+
+    private static final List<String> SECTIONS = List.of("persons", "firestations", "medicalrecords");
+
+    private final JsonMapper mapper;
+
+    private final Map<String, String> strings = new ConcurrentHashMap<>();
+
+    /**
+     * Bornes d'une valeur de premier niveau du fichier, en octets.
+     *
+     * @param start la position du premier octet de la valeur
+     * @param end   la position suivant le dernier octet de la valeur
+     */
+    record Section(long start, long end) {
+    }
+
+    DataFileReader(JsonMapper mapper) {
+        this.mapper = mapper;
+    }
+
+    /**
+     * Lit un fichier de données de manière séquentielle.
+     *
+     * @param in le flux du fichier, fermé en fin de lecture
+     * @return les données lues ; les sections absentes sont des listes vides
+     * @throws IllegalStateException si le fichier n'est pas un objet JSON ou si
+     *                               une section n'est pas un tableau
+     */
+    DataFile read(InputStream in) {
+        DataFile data = new DataFile();
+        data.setSeq(read(in, DataRepo.Sink.into(data)));
+        return data;
+    }
+
+    /**
+     * Lit un fichier de données de manière séquentielle, en passant chaque
+     * élément au consommateur de sa section.
+     *
+     * @param in   le flux du fichier, fermé en fin de lecture
+     * @param sink les consommateurs des sections
+     * @return la séquence du journal couverte par le fichier, {@code 0} si elle
+     *         est absente
+     * @throws IllegalStateException si le fichier n'est pas un objet JSON ou si
+     *                               une section n'est pas un tableau
+     */
+    long read(InputStream in, DataRepo.Sink sink) {
+        long seq = 0;
+        try (JsonParser parser = mapper.createParser(in)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IllegalStateException("Objet JSON attendu en début de fichier");
+            }
+            while (parser.nextToken() == JsonToken.PROPERTY_NAME) {
+                String section = parser.currentName();
+                parser.nextToken();
+                if ("seq".equals(section)) {
+                    seq = parser.getLongValue();
+                } else if (SECTIONS.contains(section)) {
+                    readSection(section, parser, sink);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        } finally {
+            strings.clear();
+        }
+        return seq;
+    }
+
+    /**
+     * Lit un fichier de données du système de fichiers, en lisant ses sections
+     * en parallèle.
+     *
+     * @param file le fichier à lire
+     * @return les données lues ; les sections absentes sont des listes vides
+     * @throws IOException           si le fichier ne peut pas être lu
+     * @throws IllegalStateException si le fichier n'est pas un objet JSON ou si
+     *                               une section n'est pas un tableau
+     */
+    DataFile read(Path file) throws IOException {
+        DataFile data = new DataFile();
+        data.setSeq(read(file, DataRepo.Sink.into(data)));
+        return data;
+    }
+
+    /**
+     * Lit un fichier de données du système de fichiers, en lisant ses sections
+     * en parallèle : le consommateur d'une section est appelé par le seul
+     * thread qui la lit, démarré dès que le repérage atteint la section.
+     *
+     * @param file le fichier à lire
+     * @param sink les consommateurs des sections
+     * @return la séquence du journal couverte par le fichier, {@code 0} si elle
+     *         est absente
+     * @throws IOException           si le fichier ne peut pas être lu
+     * @throws IllegalStateException si le fichier n'est pas un objet JSON, si
+     *                               une section n'est pas un tableau ou si elle
+     *                               apparaît deux fois
+     */
+    long read(Path file, DataRepo.Sink sink) throws IOException {
+        Map<String, Section> sections;
+        Map<String, Future<Long>> timings = new LinkedHashMap<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(SECTIONS.size(),
+                Thread.ofPlatform().name("data-loader-", 0).factory())) {
+            sections = scan(file, (name, start) -> {
+                if (!SECTIONS.contains(name)) {
+                    return;
+                }
+                if (timings.containsKey(name)) {
+                    throw new IllegalStateException("Section " + name + " en double dans " + file);
+                }
+                timings.put(name, executor.submit(() -> readSection(file, name, start, sink)));
+            });
+            for (Map.Entry<String, Future<Long>> timing : timings.entrySet()) {
+                logger.debug("[REPOSITORY] Section {} lue en {} ms", timing.getKey(), timing.getValue().get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Lecture de " + file + " interrompue", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Lecture de " + file + " impossible", e.getCause());
+        } finally {
+            strings.clear();
+        }
+
+        long seq = 0;
+        Section seqSection = sections.get("seq");
+        if (seqSection != null) {
+            String value = slice(file, seqSection).trim();
+            try {
+                seq = Long.parseLong(value);
+            } catch (NumberFormatException e) {
+                throw new IllegalStateException("Séquence invalide dans " + file + " : " + value, e);
+            }
+        }
+        return seq;
+    }
+
+    /**
+     * Repère les bornes des valeurs de premier niveau du fichier, sans les
+     * désérialiser. Seuls les chaînes, leurs échappements et la profondeur
+     * d'imbrication sont suivis.
+     *
+     * @param file le fichier à parcourir
+     * @return les bornes de chaque valeur, indexées par nom de propriété
+     * @throws IOException si le fichier ne peut pas être lu
+     */
+    static Map<String, Section> scan(Path file) throws IOException {
+        return scan(file, (name, start) -> {
+        });
+    }
+
+    /**
+     * Repère les bornes des valeurs de premier niveau du fichier, en signalant
+     * le début de chaque valeur dès qu'il est atteint, avant la suite du
+     * parcours.
+     *
+     * @param file    le fichier à parcourir
+     * @param onValue reçoit le nom de chaque propriété de premier niveau et la
+     *                position du premier octet de sa valeur
+     * @return les bornes de chaque valeur, indexées par nom de propriété
+     * @throws IOException si le fichier ne peut pas être lu
+     */
+    static Map<String, Section> scan(Path file, ObjLongConsumer<String> onValue) throws IOException {
+        Map<String, Section> sections = new LinkedHashMap<>();
+        ByteArrayOutputStream name = new ByteArrayOutputStream();
+        String current = null;
+        long valueStart = -1;
+        boolean inValue = false;
+        boolean inString = false;
+        boolean escaped = false;
+        int depth = 0;
+        long position = 0;
+
+        byte[] buffer = new byte[1 << 20];
+        try (InputStream in = Files.newInputStream(file)) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                for (int i = 0; i < read; i++, position++) {
+                    byte b = buffer[i];
+                    if (inString) {
+                        if (escaped) {
+                            escaped = false;
+                        } else if (b == '\\') {
+                            escaped = true;
+                        } else if (b == '"') {
+                            inString = false;
+                        }
+                        if (inString && depth == 1 && !inValue) {
+                            name.write(b);
+                        }
+                    } else if (depth == 1 && inValue && valueStart < 0 && !isWhitespace(b)) {
+                        valueStart = position;
+                        onValue.accept(current, valueStart);
+                        if (b == '"') {
+                            inString = true;
+                        } else if (b == '{' || b == '[') {
+                            depth++;
+                        }
+                    } else if (b == '"') {
+                        inString = true;
+                        if (depth == 1 && !inValue) {
+                            name.reset();
+                        }
+                    } else if (b == '{' || b == '[') {
+                        depth++;
+                    } else if (b == '}' || b == ']') {
+                        depth--;
+                        if (depth == 0 && inValue) {
+                            sections.put(current, new Section(valueStart, position));
+                            inValue = false;
+                        }
+                    } else if (depth == 1 && b == ':') {
+                        current = name.toString(StandardCharsets.UTF_8);
+                        inValue = true;
+                        valueStart = -1;
+                    } else if (depth == 1 && b == ',' && inValue) {
+                        sections.put(current, new Section(valueStart, position));
+                        inValue = false;
+                    }
+                }
+            }
+        }
+        if (depth != 0 || inString) {
+            throw new IllegalStateException("Fichier JSON incomplet : " + file);
+        }
+        return sections;
+    }
+
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\n' || b == '\r' || b == '\t';
+    }
+
+    private long readSection(Path file, String name, long offset, DataRepo.Sink sink) throws IOException {
+        long start = System.nanoTime();
+        try (InputStream in = Files.newInputStream(file)) {
+            in.skipNBytes(offset);
+            try (JsonParser parser = mapper.createParser(in)) {
+                parser.nextToken();
+                readSection(name, parser, sink);
+            }
+        }
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+
+    /**
+     * Lit une section connue et passe chacun de ses éléments au consommateur
+     * de la section.
+     */
+    private void readSection(String section, JsonParser parser, DataRepo.Sink sink) {
+        switch (section) {
+            case "persons" -> readArray(parser, mapper.readerFor(Person.class),
+                    (Person person) -> sink.persons().accept(dedup(person)));
+            case "firestations" -> readArray(parser, mapper.readerFor(Firestation.class),
+                    (Firestation firestation) -> sink.firestations().accept(dedup(firestation)));
+            case "medicalrecords" -> readArray(parser, mapper.readerFor(MedicalRecord.class),
+                    (MedicalRecord record) -> sink.medicalRecords().accept(record));
+            default -> throw new IllegalArgumentException("Section inconnue : " + section);
+        }
+    }
+
+    /**
+     * Lit un tableau élément par élément. Le parser doit être positionné sur
+     * le début du tableau.
+     */
+    private static <T> void readArray(JsonParser parser, ObjectReader reader, Consumer<T> consumer) {
+        if (parser.currentToken() == JsonToken.VALUE_NULL) {
+            return;
+        }
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            throw new IllegalStateException("Tableau JSON attendu pour la section " + parser.currentName());
+        }
+        // L'élément suivant du tableau n'est pas une donnée en trop
+        ObjectReader elementReader = reader.without(DeserializationFeature.FAIL_ON_TRAILING_TOKENS);
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            T value = elementReader.readValue(parser);
+            consumer.accept(value);
+        }
+    }
+
+    private static String slice(Path file, Section section) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            in.skipNBytes(section.start());
+            return new String(in.readNBytes((int) (section.end() - section.start())), StandardCharsets.UTF_8);
+        }
+    }
+
+    private Person dedup(Person person) {
+        person.setAddress(dedup(person.getAddress()));
+        person.setCity(dedup(person.getCity()));
+        person.setZip(dedup(person.getZip()));
+        return person;
+    }
+
+    private Firestation dedup(Firestation firestation) {
+        firestation.setAddress(dedup(firestation.getAddress()));
+        return firestation;
+    }
+
+    private String dedup(String value) {
+        if (value == null) {
+            return null;
+        }
+        String shared = strings.putIfAbsent(value, value);
+        return shared != null ? shared : value;
+    }
+}
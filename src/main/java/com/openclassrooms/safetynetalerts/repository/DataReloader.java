@@ -0,0 +1,273 @@
+package com.openclassrooms.safetynetalerts.repository;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Recharge le fichier de données {@code safetynet.data.path} sans redémarrer
+ * l'application.
+ *
+ * <p>
+ * Le rechargement est déclenché par l'endpoint d'administration
+ * {@code /actuator/reload}, ou par la surveillance du fichier. Aucun des deux
+ * n'est actif par défaut (le démarrage le signale dans les logs) : l'endpoint
+ * doit être ajouté à {@code management.endpoints.web.exposure.include}, la
+ * surveillance activée par {@code safetynet.reload.watch=true}.
+ *
+ * <p>
+ * Sous surveillance, chaque création ou modification du fichier programme un
+ * rechargement après {@code safetynet.reload.debounce} sans nouvel événement,
+ * le temps que la copie du fichier se termine. Les événements causés par le renommage d'un
+ * instantané de compaction sont ignorés sans relire le fichier
+ * ({@link SnapshotCompactor#isLastSnapshot(Path)}).
+ *
+ * <p>
+ * Un rechargement :
+ * <ol>
+ * <li>lit le fichier ({@link DataFileReader}) directement dans les nouveaux
+ * index, hors de tout verrou : les lectures et les écritures continuent sur les
+ * données courantes ;</li>
+ * <li>prend les verrous d'écriture des trois repositories, toujours dans le
+ * même ordre, journalise une entrée {@code RESET} et publie les trois index en
+ * une seule version ({@link DataStore#publishAll}) ;</li>
+ * <li>relâche les verrous puis attend que l'entrée soit durable.</li>
+ * </ol>
+ * Les requêtes en cours gardent l'instantané qu'elles ont épinglé et les
+ * suivantes voient directement les nouvelles données : aucune requête n'échoue
+ * ni ne voit un mélange des deux versions. Les écritures sont seulement
+ * suspendues le temps de la publication.
+ *
+ * <p>
+ * Les modifications faites avant le rechargement sont abandonnées : au
+ * redémarrage, le rejeu du journal repart des données du fichier à l'entrée
+ * {@code RESET}. Un fichier invalide laisse les données courantes en place.
+ * Un instantané écrit par {@link SnapshotCompactor} (séquence non nulle)
+ * reflète déjà les données en mémoire et n'est pas rechargé : le résultat
+ * ({@link Result}) et les logs le signalent. Pour recharger un tel fichier
+ * modifié à la main, remettre son champ {@code seq} à 0.
+ */
+@Component
+@DependsOn("repositoryInitializer")
+public class DataReloader {
+    private final Logger logger = LoggerFactory.getLogger(DataReloader.class);
+
+    @Autowired
+    private JsonMapper mapper;
+
+    @Autowired
+    private DataStore dataStore;
+
+    @Autowired
+    private MutationLog mutationLog;
+
+    @Autowired
+    private PersonRepository personRepository;
+
+    @Autowired
+    private FirestationRepository firestationRepository;
+
+    @Autowired
+    private MedicalRecordRepository medicalRecordRepository;
+
+    @Autowired
+    private SnapshotCompactor snapshotCompactor;
+
+    @Value("${safetynet.data.path:data/data.json}")
+    private String path;
+
+    @Value("${safetynet.reload.watch:false}")
+    private boolean watch;
+
+    @Value("${safetynet.reload.debounce:2s}")
+    private Duration debounce;
+
+    private WatchService watchService;
+
+    private ScheduledExecutorService executor;
+
+    private ScheduledFuture<?> pending;
+
+    /**
+     * Résultat d'un rechargement.
+     *
+     * @param reloaded {@code true} si le fichier a été rechargé,
+     *                 {@code false} s'il a été ignoré comme instantané de
+     *                 compaction
+     * @param seq      la séquence du journal portée par le fichier (0 pour un
+     *                 fichier de données ordinaire)
+     * @param snapshot l'instantané publié, ou l'instantané courant si le
+     *                 fichier a été ignoré
+     */
+    public record Result(boolean reloaded, long seq, DataSnapshot snapshot) {
+    }
+
+    /**
+     * Démarre la surveillance du fichier de données lorsqu'elle est activée.
+     *
+     * @throws UncheckedIOException si le répertoire du fichier ne peut pas être
+     *                              surveillé
+     */
+    @PostConstruct
+    public void start() {
+        if (!watch) {
+            logger.info("[REPOSITORY] Surveillance de {} désactivée : rechargement via POST /actuator/reload s'il "
+                    + "est exposé, ou safetynet.reload.watch=true", path);
+            return;
+        }
+        Path file = Path.of(path).toAbsolutePath();
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+            file.getParent().register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Impossible de surveiller " + file, e);
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("data-reloader").daemon().factory());
+        Thread.ofPlatform().name("data-file-watcher").daemon().start(() -> watchLoop(file));
+        logger.info("[REPOSITORY] Surveillance de {} (délai {})", file, debounce);
+    }
+
+    /**
+     * Arrête la surveillance du fichier de données.
+     *
+     * @throws IOException si le service de surveillance ne peut pas être fermé
+     */
+    @PreDestroy
+    public void stop() throws IOException {
+        if (watchService != null) {
+            watchService.close();
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Recharge le fichier de données et remplace atomiquement les données des
+     * trois repositories.
+     *
+     * @return le résultat du rechargement, qui indique si le fichier a été
+     *         ignoré comme instantané de compaction
+     * @throws RuntimeException si le fichier est introuvable ou invalide ; les
+     *                          données courantes sont alors conservées
+     */
+    public synchronized Result reload() {
+        Path file = Path.of(path);
+        long start = System.nanoTime();
+        PersonIndex.BulkBuilder personBuilder = new PersonIndex.BulkBuilder();
+        FirestationIndex.BulkBuilder firestationBuilder = new FirestationIndex.BulkBuilder();
+        MedicalRecordIndex.BulkBuilder medicalRecordBuilder = new MedicalRecordIndex.BulkBuilder();
+        long seq;
+        try {
+            seq = new DataFileReader(mapper).read(file,
+                    new DataRepo.Sink(personBuilder::add, firestationBuilder::add, medicalRecordBuilder::add));
+        } catch (Exception e) {
+            throw new RuntimeException("Impossible de recharger " + file, e);
+        }
+        if (seq > 0) {
+            logger.info("[REPOSITORY] {} non rechargé : instantané de compaction (séquence {}), déjà reflété par "
+                    + "les données en mémoire. Remettre son champ seq à 0 pour le recharger", file, seq);
+            return new Result(false, seq, dataStore.current());
+        }
+        PersonIndex persons = personBuilder.build();
+        FirestationIndex firestations = firestationBuilder.build();
+        MedicalRecordIndex medicalRecords = medicalRecordBuilder.build();
+
+        DataSnapshot[] published = new DataSnapshot[1];
+        CompletableFuture<Void> durable;
+        personRepository.writeLock().lock();
+        firestationRepository.writeLock().lock();
+        medicalRecordRepository.writeLock().lock();
+        try {
+            durable = mutationLog.append(MutationLogEntry.reset(),
+                    () -> published[0] = dataStore.publishAll(persons, firestations, medicalRecords));
+            personRepository.stage(persons);
+            firestationRepository.stage(firestations);
+            medicalRecordRepository.stage(medicalRecords);
+        } finally {
+            medicalRecordRepository.writeLock().unlock();
+            firestationRepository.writeLock().unlock();
+            personRepository.writeLock().unlock();
+        }
+        mutationLog.await(durable);
+        logger.info("[REPOSITORY] {} rechargé en {} ms : {} personnes, {} casernes, {} dossiers médicaux "
+                + "(version {})", file, (System.nanoTime() - start) / 1_000_000, persons.size(), firestations.size(),
+                medicalRecords.size(), published[0].version());
+        return new Result(true, 0, published[0]);
+    }
+
+    private void watchLoop(Path file) {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (file.getFileName().equals(event.context())) {
+                        schedule();
+                    }
+                }
+                key.reset();
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Arrêt de l'application
+        }
+    }
+
+    /**
+     * Programme un rechargement, en remplaçant celui déjà programmé.
+     */
+    private void schedule() {
+        synchronized (executor) {
+            if (pending != null) {
+                pending.cancel(false);
+            }
+            pending = executor.schedule(this::reloadChanged, debounce.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Recharge le fichier modifié, sauf s'il s'agit de l'instantané que la
+     * compaction vient d'écrire. Une erreur de rechargement est journalisée
+     * sans être propagée.
+     *
+     * @return {@code false} si le fichier est l'instantané de la dernière
+     *         compaction et n'a pas été relu
+     */
+    boolean reloadChanged() {
+        Path file = Path.of(path);
+        if (snapshotCompactor.isLastSnapshot(file)) {
+            logger.debug("[REPOSITORY] {} écrit par la compaction, ignoré", file);
+            return false;
+        }
+        try {
+            reload();
+            return true;
+        } catch (RuntimeException e) {
+            logger.error("[REPOSITORY] Rechargement impossible, données courantes conservées : {}",
+                    e.getMessage(), e);
+            return true;
+        }
+    }
+}
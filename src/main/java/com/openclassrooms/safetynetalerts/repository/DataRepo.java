@@ -1,6 +1,12 @@
 package com.openclassrooms.safetynetalerts.repository;
 
+import java.util.ArrayList;
+import java.util.function.Consumer;
+
 import com.openclassrooms.safetynetalerts.model.DataFile;
+import com.openclassrooms.safetynetalerts.model.Firestation;
+import com.openclassrooms.safetynetalerts.model.MedicalRecord;
+import com.openclassrooms.safetynetalerts.model.Person;
 
 /**
  * Interface définissant le contrat pour le chargement des données de
@@ -19,20 +25,45 @@ import com.openclassrooms.safetynetalerts.model.DataFile;
  */
 public interface DataRepo {
     /**
-     * Charge et retourne l'ensemble des données de l'application.
+     * Charge l'ensemble des données de l'application, en passant chaque
+     * élément lu au consommateur de sa section.
      *
      * <p>
-     * Cette méthode doit charger toutes les données nécessaires au fonctionnement
-     * de l'application :
-     * <ul>
-     * <li>La liste des personnes</li>
-     * <li>La liste des casernes de pompiers et leurs mappings d'adresses</li>
-     * <li>La liste des dossiers médicaux</li>
-     * </ul>
+     * Les données ne sont pas conservées par le repository : les éléments sont
+     * transmis au fil de la lecture, par exemple directement aux index
+     * ({@link RepositoryInitializer}). Les éléments d'une même section sont
+     * transmis par un seul thread, mais des sections différentes peuvent
+     * l'être en parallèle.
+     *
+     * @param sink les consommateurs des personnes, des mappings caserne/adresse
+     *             et des dossiers médicaux
+     * @return la séquence du journal des modifications couverte par les
+     *         données ({@link DataFile#getSeq()})
+     */
+    long load(Sink sink);
+
+    /**
+     * Consommateurs des éléments lus, un par section.
      *
-     * @return un objet {@link DataFile} contenant toutes les données de
-     *         l'application
+     * @param persons        reçoit les personnes
+     * @param firestations   reçoit les mappings caserne/adresse
+     * @param medicalRecords reçoit les dossiers médicaux
      */
-    DataFile loadData();
+    record Sink(Consumer<Person> persons, Consumer<Firestation> firestations,
+            Consumer<MedicalRecord> medicalRecords) {
 
+        /**
+         * Consommateurs ajoutant les éléments aux listes d'un {@link DataFile},
+         * initialisées à vide.
+         *
+         * @param data les données à remplir
+         * @return les consommateurs
+         */
+        public static Sink into(DataFile data) {
+            data.setPersons(new ArrayList<>());
+            data.setFirestations(new ArrayList<>());
+            data.setMedicalrecords(new ArrayList<>());
+            return new Sink(data.getPersons()::add, data.getFirestations()::add, data.getMedicalrecords()::add);
+        }
+    }
 }
@@ -0,0 +1,114 @@
+package com.openclassrooms.safetynetalerts.repository;
+
+/**
+ * Version immuable et cohérente de l'ensemble des données de l'application.
+ *
+ * <p>
+ * Un instantané regroupe les index des trois sections du modèle
+ * ({@link PersonIndex}, {@link FirestationIndex}, {@link MedicalRecordIndex}),
+ * l'agrégat par caserne qui en est dérivé ({@link StationCounts}) et un
+ * numéro de version strictement croissant. Il n'est jamais modifié :
+ * chaque écriture publie un nouvel instantané via {@link DataStore}, en
+ * partageant les sections qu'elle ne touche pas avec la version précédente.
+ *
+ * <p>
+ * Une requête de lecture qui travaille sur un même instantané voit donc un
+ * état cohérent des trois sections, même si des écritures sont publiées
+ * pendant son traitement.
+ */
+public final class DataSnapshot {
+
+    static final DataSnapshot EMPTY = new DataSnapshot(0L, PersonIndex.empty(), FirestationIndex.empty(),
+            MedicalRecordIndex.empty(), StationCounts.empty());
+
+    private final long version;
+    private final PersonIndex persons;
+    private final FirestationIndex firestations;
+    private final MedicalRecordIndex medicalRecords;
+    private final StationCounts stationCounts;
+
+    private DataSnapshot(long version, PersonIndex persons, FirestationIndex firestations,
+            MedicalRecordIndex medicalRecords, StationCounts stationCounts) {
+        this.version = version;
+        this.persons = persons;
+        this.firestations = firestations;
+        this.medicalRecords = medicalRecords;
+        this.stationCounts = stationCounts;
+    }
+
+    /**
+     * Retourne le numéro de version de l'instantané. Il est incrémenté à chaque
+     * écriture publiée, toutes sections confondues.
+     *
+     * @return le numéro de version
+     */
+    public long version() {
+        return version;
+    }
+
+    /**
+     * @return le nombre de personnes de cette version
+     */
+    public int personCount() {
+        return persons.size();
+    }
+
+    /**
+     * @return le nombre de mappings caserne/adresse de cette version
+     */
+    public int firestationCount() {
+        return firestations.size();
+    }
+
+    /**
+     * @return le nombre de dossiers médicaux de cette version
+     */
+    public int medicalRecordCount() {
+        return medicalRecords.size();
+    }
+
+    PersonIndex persons() {
+        return persons;
+    }
+
+    FirestationIndex firestations() {
+        return firestations;
+    }
+
+    MedicalRecordIndex medicalRecords() {
+        return medicalRecords;
+    }
+
+    StationCounts stationCounts() {
+        return stationCounts;
+    }
+
+    DataSnapshot withPersons(PersonIndex persons) {
+        return new DataSnapshot(version + 1, persons, firestations, medicalRecords,
+                stationCounts.withPersons(this.persons, persons, firestations, medicalRecords));
+    }
+
+    DataSnapshot withFirestations(FirestationIndex firestations) {
+        return new DataSnapshot(version + 1, persons, firestations, medicalRecords,
+                stationCounts.withFirestations(this.firestations, firestations, persons, medicalRecords));
+    }
+
+    DataSnapshot withMedicalRecords(MedicalRecordIndex medicalRecords) {
+        return new DataSnapshot(version + 1, persons, firestations, medicalRecords,
+                stationCounts.withMedicalRecords(this.medicalRecords, medicalRecords, persons, firestations));
+    }
+
+    DataSnapshot withAll(PersonIndex persons, FirestationIndex firestations, MedicalRecordIndex medicalRecords) {
+        // Les sections sont appliquées l'une après l'autre à l'agrégat, chaque
+        // étape partant de l'état produit par la précédente
+        StationCounts counts = stationCounts
+                .withPersons(this.persons, persons, this.firestations, this.medicalRecords)
+                .withFirestations(this.firestations, firestations, persons, this.medicalRecords)
+                .withMedicalRecords(this.medicalRecords, medicalRecords, persons, firestations);
+        return new DataSnapshot(version + 1, persons, firestations, medicalRecords, counts);
+    }
+
+    DataSnapshot withStationCounts(StationCounts stationCounts) {
+        return new DataSnapshot(version + 1, persons, firestations, medicalRecords, stationCounts);
+    }
+}
@@ -0,0 +1,214 @@
+package com.openclassrooms.safetynetalerts.repository;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Stockage en mémoire versionné (MVCC) partagé par les trois repositories.
+ *
+ * <p>
+ * Le stockage référence l'instantané courant ({@link DataSnapshot}) :
+ * <ul>
+ * <li>Les écrivains publient une nouvelle version de manière atomique. Chaque
+ * repository sérialise ses propres écritures par un verrou, puis remplace
+ * uniquement sa section dans l'instantané courant par compare-and-set : deux
+ * écritures concurrentes sur des sections différentes ne se perdent
+ * jamais.</li>
+ * <li>Les lecteurs ne prennent aucun verrou. Une requête peut
+ * <em>épingler</em> l'instantané courant sur son thread via {@link #pin()} :
+ * toutes les lectures des repositories effectuées par ce thread voient alors
+ * cette même version, jusqu'à {@link #unpin()}.</li>
+ * </ul>
+ *
+ * <p>
+ * Les écritures ignorent l'instantané épinglé et partent toujours de la
+ * dernière version publiée.
+ *
+ * <p>
+ * Les observateurs enregistrés par {@link #onPublish(Consumer)} reçoivent la
+ * différence entre deux versions ({@link SnapshotChange}) avant que la
+ * nouvelle version ne devienne visible : un lecteur qui obtient une version
+ * la voit toujours avec les effets de bord de ses observateurs déjà
+ * appliqués (par exemple l'invalidation du cache des réponses).
+ */
+@Component
+public class DataStore {
+
+    private final AtomicReference<DataSnapshot> current = new AtomicReference<>(DataSnapshot.EMPTY);
+
+    private final ThreadLocal<DataSnapshot> pinned = new ThreadLocal<>();
+
+    private final List<Consumer<SnapshotChange>> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Enregistre un observateur des publications.
+     *
+     * <p>
+     * L'observateur est appelé par le thread qui publie, sous les verrous
+     * d'écriture éventuellement pris par l'appelant, avant que la nouvelle
+     * version ne soit visible. Si une écriture concurrente publie entre-temps,
+     * la nouvelle version est recalculée et l'observateur rappelé : il peut
+     * donc recevoir une version qui ne sera jamais publiée. Il doit être rapide
+     * et ne pas lever d'exception.
+     *
+     * @param listener l'observateur
+     */
+    public void onPublish(Consumer<SnapshotChange> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Retourne la dernière version publiée, sans tenir compte de l'éventuel
+     * instantané épinglé.
+     *
+     * @return l'instantané courant
+     */
+    public DataSnapshot current() {
+        return current.get();
+    }
+
+    /**
+     * Retourne la version à utiliser pour une lecture : l'instantané épinglé
+     * sur le thread courant s'il existe, sinon la dernière version publiée.
+     *
+     * @return l'instantané à lire
+     */
+    public DataSnapshot read() {
+        DataSnapshot snapshot = pinned.get();
+        return snapshot != null ? snapshot : current.get();
+    }
+
+    /**
+     * Épingle la dernière version publiée sur le thread courant. Si une version
+     * est déjà épinglée, elle est conservée.
+     *
+     * @return l'instantané épinglé
+     */
+    public DataSnapshot pin() {
+        DataSnapshot snapshot = pinned.get();
+        if (snapshot == null) {
+            snapshot = current.get();
+            pinned.set(snapshot);
+        }
+        return snapshot;
+    }
+
+    /**
+     * Libère l'instantané épinglé sur le thread courant.
+     */
+    public void unpin() {
+        pinned.remove();
+    }
+
+    /**
+     * Publie une nouvelle version de la section des personnes.
+     *
+     * <p>
+     * Doit être appelée sous le verrou d'écriture de {@link PersonRepository}.
+     *
+     * @param persons le nouvel index des personnes
+     * @return l'instantané publié
+     */
+    DataSnapshot publishPersons(PersonIndex persons) {
+        return publish(snapshot -> snapshot.withPersons(persons));
+    }
+
+    /**
+     * Publie une nouvelle version de la section des casernes.
+     *
+     * <p>
+     * Doit être appelée sous le verrou d'écriture de
+     * {@link FirestationRepository}.
+     *
+     * @param firestations le nouvel index des mappings caserne/adresse
+     * @return l'instantané publié
+     */
+    DataSnapshot publishFirestations(FirestationIndex firestations) {
+        return publish(snapshot -> snapshot.withFirestations(firestations));
+    }
+
+    /**
+     * Publie une nouvelle version de la section des dossiers médicaux.
+     *
+     * <p>
+     * Doit être appelée sous le verrou d'écriture de
+     * {@link MedicalRecordRepository}.
+     *
+     * @param medicalRecords le nouvel index des dossiers médicaux
+     * @return l'instantané publié
+     */
+    DataSnapshot publishMedicalRecords(MedicalRecordIndex medicalRecords) {
+        return publish(snapshot -> snapshot.withMedicalRecords(medicalRecords));
+    }
+
+    /**
+     * Remplace les trois sections en une seule version.
+     *
+     * <p>
+     * Doit être appelée sous les verrous d'écriture des trois repositories
+     * (voir {@link DataReloader}).
+     *
+     * @param persons        le nouvel index des personnes
+     * @param firestations   le nouvel index des mappings caserne/adresse
+     * @param medicalRecords le nouvel index des dossiers médicaux
+     * @return l'instantané publié
+     */
+    DataSnapshot publishAll(PersonIndex persons, FirestationIndex firestations, MedicalRecordIndex medicalRecords) {
+        return publish(snapshot -> snapshot.withAll(persons, firestations, medicalRecords));
+    }
+
+    /**
+     * Fait passer l'agrégat par caserne à un nouveau jour de référence, sans
+     * modifier les données.
+     *
+     * <p>
+     * Ne prend aucun verrou : l'agrégat est mis à jour à partir des sections
+     * de l'instantané qu'il remplace, et recalculé si une écriture concurrente
+     * a publié une autre version entre-temps. Si le jour de référence est déjà
+     * celui demandé, l'instantané courant est retourné tel quel.
+     *
+     * @param childBirthThreshold le jour epoch de naissance au-delà duquel une
+     *                            personne est un enfant
+     * @return l'instantané publié
+     */
+    DataSnapshot publishStationCounts(long childBirthThreshold) {
+        return publish(snapshot -> {
+            StationCounts counts = snapshot.stationCounts().withChildBirthThreshold(childBirthThreshold,
+                    snapshot.persons(), snapshot.firestations(), snapshot.medicalRecords());
+            return counts == snapshot.stationCounts() ? snapshot : snapshot.withStationCounts(counts);
+        });
+    }
+
+    /**
+     * Calcule la nouvelle version à partir de la version courante, la signale
+     * aux observateurs puis la publie par compare-and-set. En cas de
+     * publication concurrente, le calcul est refait sur la version gagnante.
+     *
+     * @param update le calcul de la nouvelle version, qui retourne la version
+     *               reçue s'il n'y a rien à publier
+     * @return l'instantané publié, ou l'instantané courant si rien n'a changé
+     */
+    private DataSnapshot publish(UnaryOperator<DataSnapshot> update) {
+        while (true) {
+            DataSnapshot previous = current.get();
+            DataSnapshot next = update.apply(previous);
+            if (next == previous) {
+                return previous;
+            }
+            if (!listeners.isEmpty()) {
+                SnapshotChange change = new SnapshotChange(previous, next);
+                for (Consumer<SnapshotChange> listener : listeners) {
+                    listener.accept(change);
+                }
+            }
+            if (current.compareAndSet(previous, next)) {
+                return next;
+            }
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.openclassrooms.safetynetalerts.repository;
+
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+import com.openclassrooms.safetynetalerts.model.Firestation;
+import com.openclassrooms.safetynetalerts.model.MedicalRecord;
+import com.openclassrooms.safetynetalerts.model.Person;
+
+/**
+ * Volume des données d'un instantané : nombre d'entités, de clés distinctes
+ * des index et empreinte mémoire estimée de chaque section.
+ *
+ * <p>
+ * Les nombres sont lus sur les index, en temps constant. L'empreinte est
+ * extrapolée d'un échantillon de {@value #SAMPLE_SIZE} entités par section,
+ * sur une JVM 64 bits à références compressées : objet, chaînes qui lui sont
+ * propres et entrées d'index. Les chaînes partagées entre entités par le
+ * chargement (adresses, villes, codes postaux) ne sont pas comptées. C'est un ordre de grandeur pour suivre la croissance des données,
+ * pas une mesure du tas.
+ *
+ * @param version              la version de l'instantané
+ * @param persons              le nombre de personnes
+ * @param firestations         le nombre de mappings caserne/adresse
+ * @param medicalRecords       le nombre de dossiers médicaux
+ * @param addresses            le nombre d'adresses ayant au moins un résident
+ * @param cities               le nombre de villes ayant au moins un email
+ * @param stations             le nombre de casernes couvrant au moins une
+ *                             adresse
+ * @param averageHouseholdSize le nombre moyen de résidents par adresse
+ * @param estimatedHeapBytes   l'empreinte mémoire estimée, par section
+ */
+public record DataStoreStats(long version, int persons, int firestations, int medicalRecords, int addresses,
+        int cities, int stations, double averageHouseholdSize, HeapEstimate estimatedHeapBytes) {
+
+    static final int SAMPLE_SIZE = 1024;
+
+    // En-tête d'objet et référence compressée, en octets
+    private static final int HEADER = 12;
+    private static final int REFERENCE = 4;
+    // Entrée de HashMap (nœud et case de la table) et clé (prénom, nom)
+    private static final int MAP_ENTRY = 40;
+    private static final int NAME_KEY = 24;
+
+    /**
+     * Empreinte mémoire estimée de chaque section, en octets.
+     *
+     * @param persons        les personnes et leurs index
+     * @param firestations   les mappings et leurs index
+     * @param medicalRecords les dossiers médicaux et leurs index
+     * @param total          la somme des trois sections
+     */
+    public record HeapEstimate(long persons, long firestations, long medicalRecords, long total) {
+    }
+
+    /**
+     * Calcule les statistiques d'un instantané.
+     *
+     * @param snapshot l'instantané
+     * @return ses statistiques
+     */
+    public static DataStoreStats of(DataSnapshot snapshot) {
+        PersonIndex persons = snapshot.persons();
+        FirestationIndex firestations = snapshot.firestations();
+        MedicalRecordIndex medicalRecords = snapshot.medicalRecords();
+
+        long personBytes = extrapolate(persons.sample(SAMPLE_SIZE), persons.size(), DataStoreStats::personBytes);
+        long firestationBytes = extrapolate(firestations.sample(SAMPLE_SIZE), firestations.size(),
+                DataStoreStats::firestationBytes);
+        long medicalRecordBytes = extrapolate(medicalRecords.sample(SAMPLE_SIZE), medicalRecords.size(),
+                DataStoreStats::medicalRecordBytes);
+
+        int addresses = persons.addressCount();
+        return new DataStoreStats(snapshot.version(), persons.size(), firestations.size(), medicalRecords.size(),
+                addresses, persons.cityCount(), firestations.stationCount(),
+                addresses == 0 ? 0.0 : (double) persons.size() / addresses,
+                new HeapEstimate(personBytes, firestationBytes, medicalRecordBytes,
+                        personBytes + firestationBytes + medicalRecordBytes));
+    }
+
+    private static <T> long extrapolate(List<T> sample, int size, ToLongFunction<T> bytes) {
+        if (sample.isEmpty()) {
+            return 0;
+        }
+        long sampled = 0;
+        for (T entity : sample) {
+            sampled += bytes.applyAsLong(entity);
+        }
+        return sampled * size / sample.size();
+    }
+
+    private static long personBytes(Person person) {
+        // Index (prénom, nom), emails par ville, et listes par adresse et par
+        // nom de famille (exact et insensible à la casse)
+        return align(HEADER + 7 * REFERENCE)
+                + string(person.getFirstName()) + string(person.getLastName()) + string(person.getPhone())
+                + string(person.getEmail()) + NAME_KEY + 2 * MAP_ENTRY + 3 * REFERENCE;
+    }
+
+    private static long firestationBytes(Firestation firestation) {
+        // Index par adresse et liste des adresses de la caserne
+        return align(HEADER + REFERENCE + Integer.BYTES) + MAP_ENTRY + REFERENCE;
+    }
+
+    private static long medicalRecordBytes(MedicalRecord record) {
+        // Index (prénom, nom), date de naissance analysée, et listes par nom
+        // de famille (exact et insensible à la casse) et par jour de naissance
+        return align(HEADER + 5 * REFERENCE) + string(record.getFirstName()) + string(record.getLastName())
+                + string(record.getBirthdate()) + strings(record.getMedications()) + strings(record.getAllergies())
+                + 2 * (NAME_KEY + MAP_ENTRY) + align(HEADER + Integer.BYTES) + 3 * REFERENCE;
+    }
+
+    private static long string(String value) {
+        // String et son tableau d'octets (chaîne Latin-1)
+        return value == null ? 0 : align(HEADER + 2 * Integer.BYTES + REFERENCE) + align(16 + value.length());
+    }
+
+    private static long strings(List<String> values) {
+        if (values == null) {
+            return 0;
+        }
+        long bytes = align(HEADER + REFERENCE) + align(16 + (long) REFERENCE * values.size());
+        for (String value : values) {
+            bytes += string(value);
+        }
+        return bytes;
+    }
+
+    private static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+}
@@ -0,0 +1,202 @@
+package com.openclassrooms.safetynetalerts.repository;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.openclassrooms.safetynetalerts.model.Firestation;
+
+/**
+ * État immuable des mappings caserne/adresse et de leur index bidirectionnel.
+ *
+ * <p>
+ * Contient l'index adresse → mapping, qui fait office de stockage (une adresse
+ * n'est couverte que par une seule caserne), et l'index numéro de caserne →
+ * adresses couvertes, dans l'ordre d'ajout.
+ *
+ * <p>
+ * Comme {@link PersonIndex}, une instance n'est jamais modifiée :
+ * {@link FirestationRepository} publie une nouvelle version à chaque écriture,
+ * et un mapping mis à jour est remplacé par une nouvelle instance.
+ */
+final class FirestationIndex {
+
+    private static final FirestationIndex EMPTY = new FirestationIndex(SnapshotMap.empty(), SnapshotMap.empty());
+
+    private final SnapshotMap<String, Firestation> byAddress;
+    private final SnapshotMap<Integer, List<String>> addressesByStation;
+
+    private FirestationIndex(SnapshotMap<String, Firestation> byAddress,
+            SnapshotMap<Integer, List<String>> addressesByStation) {
+        this.byAddress = byAddress;
+        this.addressesByStation = addressesByStation;
+    }
+
+    static FirestationIndex empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Construit l'index d'une collection de mappings. En cas de doublon sur
+     * l'adresse, le premier mapping est conservé.
+     *
+     * @param firestations les mappings à indexer
+     * @return le nouvel index
+     */
+    static FirestationIndex of(Collection<Firestation> firestations) {
+        BulkBuilder builder = new BulkBuilder();
+        firestations.forEach(builder::add);
+        return builder.build();
+    }
+
+    Firestation byAddress(String address) {
+        return byAddress.get(address);
+    }
+
+    /**
+     * Parcourt les mappings ajoutés, remplacés ou supprimés depuis une version
+     * précédente de l'index.
+     *
+     * @param previous la version précédente
+     * @param action   l'action appliquée à chaque adresse modifiée
+     */
+    void forEachChange(FirestationIndex previous, SnapshotMap.ChangeConsumer<String, Firestation> action) {
+        byAddress.forEachChange(previous.byAddress, action);
+    }
+
+    List<Firestation> all() {
+        return byAddress.values();
+    }
+
+    int size() {
+        return byAddress.size();
+    }
+
+    List<Firestation> sample(int max) {
+        return byAddress.sample(max);
+    }
+
+    int stationCount() {
+        return addressesByStation.size();
+    }
+
+    List<String> addressesOf(Integer station) {
+        return addressesByStation.getOrDefault(station, List.of());
+    }
+
+    boolean hasStation(Integer station) {
+        return addressesByStation.containsKey(station);
+    }
+
+    List<Integer> stations() {
+        return addressesByStation.keys();
+    }
+
+    Builder toBuilder() {
+        return new Builder(this);
+    }
+
+    /**
+     * Construction complète d'un index, pour le chargement des données : comme
+     * pour {@link PersonIndex.BulkBuilder}, les adresses de chaque caserne sont
+     * accumulées puis figées une seule fois par {@link #build()}.
+     */
+    static final class BulkBuilder {
+        private final SnapshotMap.Builder<String, Firestation> byAddress = SnapshotMap
+                .<String, Firestation>empty().toBuilder();
+        private final Map<Integer, List<String>> addressesByStation = new HashMap<>();
+
+        /**
+         * Ajoute un mapping si son adresse n'est pas encore couverte.
+         *
+         * @param firestation le mapping à ajouter
+         * @return {@code true} si le mapping a été ajouté, {@code false} si
+         *         l'adresse était déjà couverte
+         */
+        boolean add(Firestation firestation) {
+            if (firestation.getAddress() == null || byAddress.containsKey(firestation.getAddress())) {
+                return false;
+            }
+            byAddress.put(firestation.getAddress(), firestation);
+            IndexBuckets.collect(addressesByStation, firestation.getStation(), firestation.getAddress());
+            return true;
+        }
+
+        FirestationIndex build() {
+            return new FirestationIndex(byAddress.build(), IndexBuckets.freeze(addressesByStation));
+        }
+    }
+
+    /**
+     * Builder d'une nouvelle version de l'index. Réservé à un seul écrivain.
+     *
+     * <p>
+     * L'index par caserne compare les adresses par référence : les retraits
+     * utilisent toujours l'adresse du mapping stocké.
+     */
+    static final class Builder {
+        private final SnapshotMap.Builder<String, Firestation> byAddress;
+        private final IndexBuckets.Builder<Integer, String> addressesByStation;
+
+        private Builder(FirestationIndex base) {
+            this.byAddress = base.byAddress.toBuilder();
+            this.addressesByStation = new IndexBuckets.Builder<>(base.addressesByStation);
+        }
+
+        Firestation byAddress(String address) {
+            return byAddress.get(address);
+        }
+
+        List<String> addressesOf(Integer station) {
+            List<String> addresses = addressesByStation.get(station);
+            return addresses == null ? List.of() : addresses;
+        }
+
+        /**
+         * Ajoute un mapping si son adresse n'est pas encore couverte.
+         *
+         * @param firestation le mapping à ajouter
+         * @return {@code true} si le mapping a été ajouté, {@code false} si
+         *         l'adresse était déjà couverte
+         */
+        boolean add(Firestation firestation) {
+            if (firestation.getAddress() == null || byAddress.containsKey(firestation.getAddress())) {
+                return false;
+            }
+            byAddress.put(firestation.getAddress(), firestation);
+            addressesByStation.add(firestation.getStation(), firestation.getAddress());
+            return true;
+        }
+
+        /**
+         * Retire le mapping d'une adresse des deux index.
+         *
+         * @param address l'adresse du mapping
+         * @return le mapping retiré, ou {@code null} si l'adresse n'était pas
+         *         couverte
+         */
+        Firestation remove(String address) {
+            Firestation removed = byAddress.remove(address);
+            if (removed != null) {
+                addressesByStation.remove(removed.getStation(), removed.getAddress());
+            }
+            return removed;
+        }
+
+        /**
+         * Remplace le mapping de même adresse par une nouvelle instance.
+         *
+         * @param firestation la nouvelle version du mapping
+         */
+        void replace(Firestation firestation) {
+            Firestation previous = remove(firestation.getAddress());
+            // Conserver l'instance d'adresse stockée pour l'index par caserne
+            add(previous == null ? firestation : new Firestation(previous.getAddress(), firestation.getStation()));
+        }
+
+        FirestationIndex build() {
+            return new FirestationIndex(byAddress.build(), addressesByStation.build());
+        }
+    }
+}
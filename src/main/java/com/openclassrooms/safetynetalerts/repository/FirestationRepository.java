@@ -1,18 +1,17 @@
 package com.openclassrooms.safetynetalerts.repository;
 
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 
-import com.openclassrooms.safetynetalerts.model.DataFile;
 import com.openclassrooms.safetynetalerts.model.Firestation;
 
-import jakarta.annotation.PostConstruct;
-
 /**
  * Repository de gestion des mappings entre casernes de pompiers et adresses.
  *
@@ -35,50 +34,75 @@ import jakarta.annotation.PostConstruct;
  * Chaque adresse ne peut être couverte que par une seule caserne.
  *
  * <p>
- * <b>Note sur la thread-safety :</b> Ce repository n'est pas thread-safe. Les
- * opérations
- * de modification (add, update, delete) affectent directement la liste en
- * mémoire sans
- * synchronisation. Dans un environnement multi-threadé, des mécanismes de
- * synchronisation
- * externes doivent être mis en place au niveau de la couche service.
+ * Un index bidirectionnel ({@link FirestationIndex}) est construit au
+ * chargement et maintenu par les opérations d'ajout, de mise à jour et de
+ * suppression :
+ * <ul>
+ * <li>numéro de caserne → ensemble des adresses couvertes</li>
+ * <li>adresse → mapping caserne/adresse</li>
+ * </ul>
+ * Chaque requête de couverture coûte ainsi O(taille du résultat) au lieu d'un
+ * parcours de tous les mappings.
+ *
+ * <p>
+ * <b>Note sur la thread-safety :</b> Ce repository est thread-safe. Son index
+ * est une section immuable de l'instantané courant du {@link DataStore} : les lectures
+ * ne prennent aucun verrou. Les écritures (add, update, delete) sont
+ * sérialisées par un verrou propre aux casernes et publient un nouvel index
+ * construit par copie à l'écriture. Un mapping mis à jour est remplacé par une
+ * nouvelle instance.
  *
  */
 @Repository
 public class FirestationRepository {
 
+    private final ReentrantLock writeLock = new ReentrantLock();
+
     @Autowired
-    private DataRepo dataRepo;
+    private DataStore dataStore;
 
-    private DataFile data;
+    @Autowired
+    private MutationLog mutationLog;
 
     /**
-     * Initialise le repository en chargeant les données depuis le fichier JSON.
+     * Dernière version construite de l'index, publiée ou en attente de
+     * publication par le journal. Protégée par {@code writeLock} ;
+     * {@code null} tant que le repository n'est pas initialisé.
+     */
+    private FirestationIndex pending;
+
+    /**
+     * Initialise le repository avec l'index bidirectionnel des mappings
+     * chargés au démarrage.
      *
      * <p>
-     * Cette méthode est appelée automatiquement après la construction du bean
-     * Spring
-     * grâce à l'annotation {@link PostConstruct}. Elle charge toutes les données
-     * en mémoire pour un accès rapide.
+     * Cette méthode est appelée au démarrage par {@link RepositoryInitializer},
+     * une fois les données lues directement dans l'index et le journal des
+     * modifications rejoué.
      *
+     * @param firestations l'index des mappings caserne/adresse
      */
-    @PostConstruct // Post injection de dépendances
-    public void init() {
-        this.data = dataRepo.loadData();
+    void init(FirestationIndex firestations) {
+        writeLock.lock();
+        try {
+            pending = firestations;
+            dataStore.publishFirestations(firestations);
+        } finally {
+            writeLock.unlock();
+        }
     }
 
     /**
      * Récupère la liste complète de tous les mappings caserne/adresse.
      *
-     * La création d'une nouvelle liste via {@code toList()} garantit l'isolation
-     * des données retournées.
+     * La liste retournée est une copie immuable de l'état courant, ce qui
+     * garantit l'isolation des données retournées.
      *
      * @return la liste de tous les mappings, ou une liste vide si aucun mapping
      *         n'existe
      */
     public List<Firestation> findAll() {
-        return data.getFirestations().stream()
-                .toList();
+        return dataStore.read().firestations().all();
     }
 
     /**
@@ -96,8 +120,9 @@ public class FirestationRepository {
      *         mapping trouvé
      */
     public List<Firestation> findByStation(Integer stationNumber) {
-        return data.getFirestations().stream()
-                .filter(fs -> fs.getStation() == (stationNumber))
+        FirestationIndex current = dataStore.read().firestations();
+        return current.addressesOf(stationNumber).stream()
+                .map(current::byAddress)
                 .toList();
     }
 
@@ -108,18 +133,32 @@ public class FirestationRepository {
      * Cette méthode est utilisée pour déterminer la zone de couverture géographique
      * d'une caserne lors d'une intervention d'urgence.
      *
-     * La création d'une nouvelle liste via {@code toList()} garantit l'isolation
-     * des données retournées.
+     * La liste retournée est immuable, ce qui garantit l'isolation des données
+     * retournées.
      *
      * @param stationNumber le numéro de la caserne
      * @return la liste des adresses couvertes par cette caserne, ou une liste vide
      *         si aucune
      */
     public List<String> findAddressesByStation(Integer stationNumber) {
-        return data.getFirestations().stream()
-                .filter(fs -> fs.getStation() == (stationNumber))
-                .map(Firestation::getAddress)
-                .toList();
+        return dataStore.read().firestations().addressesOf(stationNumber);
+    }
+
+    /**
+     * Compte les adultes et les enfants couverts par une caserne donnée.
+     *
+     * <p>
+     * Les décomptes sont lus dans l'agrégat par caserne de l'instantané
+     * ({@link StationCounts}), maintenu à chaque écriture : le coût ne dépend
+     * pas du nombre de résidents. Ils sont cohérents avec la liste des
+     * personnes couvertes lue dans le même instantané.
+     *
+     * @param stationNumber le numéro de la caserne
+     * @return le nombre d'adultes et d'enfants couverts, ou
+     *         {@link ResidentCounts#NONE} si aucun
+     */
+    public ResidentCounts countResidentsByStation(int stationNumber) {
+        return dataStore.read().stationCounts().get(stationNumber);
     }
 
     /**
@@ -130,8 +169,7 @@ public class FirestationRepository {
      *         {@code false} sinon
      */
     public boolean existsByStation(Integer stationNumber) {
-        return data.getFirestations().stream()
-                .anyMatch(fs -> fs.getStation() == (stationNumber));
+        return dataStore.read().firestations().hasStation(stationNumber);
     }
 
     /**
@@ -145,8 +183,7 @@ public class FirestationRepository {
      * @return {@code true} si l'adresse est déjà couverte, {@code false} sinon
      */
     public boolean existsByAddress(String address) {
-        return data.getFirestations().stream()
-                .anyMatch(fs -> fs.getAddress().equals(address));
+        return dataStore.read().firestations().byAddress(address) != null;
     }
 
     /**
@@ -163,10 +200,8 @@ public class FirestationRepository {
      *         {@link Optional#empty()}
      */
     public Optional<Integer> findStationNumberByAddress(String address) {
-        return data.getFirestations().stream()
-                .filter(fs -> fs.getAddress().equals(address))
-                .map(Firestation::getStation)
-                .findFirst();
+        return findStationByAddress(address)
+                .map(Firestation::getStation);
     }
 
     /**
@@ -181,9 +216,7 @@ public class FirestationRepository {
      *         {@link Optional#empty()}
      */
     public Optional<Firestation> findStationByAddress(String address) {
-        return data.getFirestations().stream()
-                .filter(fs -> fs.getAddress().equals(address))
-                .findFirst();
+        return Optional.ofNullable(dataStore.read().firestations().byAddress(address));
     }
 
     /**
@@ -196,32 +229,47 @@ public class FirestationRepository {
      * couverte que par une seule caserne).
      *
      * <p>
-     * La création d'un nouveau Set via {@code collect()} garantit l'isolation
-     * des données retournées.
+     * La création d'un nouveau Set garantit l'isolation des données retournées.
+     * Chaque caserne demandée coûte une seule lecture de l'index.
      *
      * @param stations la liste des numéros de casernes
      * @return un ensemble d'adresses uniques couvertes par ces casernes
      */
     public Set<String> findAddressesByStations(List<Integer> stations) {
-        return data.getFirestations().stream()
-                .filter(fs -> stations.contains(fs.getStation()))
-                .map(Firestation::getAddress)
-                .collect(Collectors.toSet());
+        FirestationIndex current = dataStore.read().firestations();
+        Set<String> addresses = new HashSet<>();
+        for (Integer station : stations) {
+            addresses.addAll(current.addressesOf(station));
+        }
+        return addresses;
     }
 
     /**
      * Ajoute un nouveau mapping caserne/adresse au système.
      *
      * <p>
-     * Cette méthode ajoute directement le mapping à la liste en mémoire.
-     * Aucune validation n'est effectuée à ce niveau - c'est la responsabilité
-     * du service appelant de vérifier l'unicité de l'adresse.
+     * Le service appelant vérifie au préalable l'unicité de l'adresse ; elle est
+     * de nouveau contrôlée sous le verrou d'écriture afin d'écarter deux ajouts
+     * concurrents pour la même adresse.
      *
      *
      * @param firestation le mapping caserne/adresse à ajouter
+     * @return le mapping ajouté
+     * @throws IllegalArgumentException si l'adresse est déjà couverte
      */
     public Firestation addFirestation(Firestation firestation) {
-        data.getFirestations().add(firestation);
+        CompletableFuture<Void> durable;
+        writeLock.lock();
+        try {
+            FirestationIndex.Builder builder = pending().toBuilder();
+            if (!builder.add(firestation)) {
+                throw new IllegalArgumentException("Address already mapped: " + firestation.getAddress());
+            }
+            durable = commit(builder, MutationLogEntry.putFirestation(firestation));
+        } finally {
+            writeLock.unlock();
+        }
+        mutationLog.await(durable);
         return firestation;
     }
 
@@ -230,19 +278,40 @@ public class FirestationRepository {
      *
      * <p>
      * Cette méthode met à jour le numéro de caserne associé. Si aucun mapping
-     * n'existe pour cette adresse, aucune
-     * modification n'est effectuée.
+     * n'existe pour cette adresse, ou si le nouveau numéro n'est pas strictement
+     * positif, aucune modification n'est effectuée. Le mapping indexé n'est pas
+     * modifié sur place : une nouvelle instance le remplace.
      *
      * @param existing le mapping de la caserne existante
      * @param updated  le mapping contenant l'adresse à mettre à jour et le
      *                 nouveau numéro de caserne
+     * @return la version remplacée et la nouvelle version du mapping,
+     *         identiques si rien n'a été modifié ; {@code existing} pour les
+     *         deux si l'adresse n'est plus couverte
      */
-    public void updateFirestation(Firestation existing, Firestation updated) {
-
-        // L'adressee ne change pas (identifiant unique)
-        if (updated.getStation() > 0) {
-            existing.setStation(updated.getStation());
+    public Replacement<Firestation> updateFirestation(Firestation existing, Firestation updated) {
+        Firestation current;
+        Firestation replaced;
+        CompletableFuture<Void> durable;
+        writeLock.lock();
+        try {
+            FirestationIndex.Builder builder = pending().toBuilder();
+            // L'adressee ne change pas (identifiant unique)
+            current = builder.byAddress(existing.getAddress());
+            if (current == null) {
+                return new Replacement<>(existing, existing);
+            }
+            if (updated.getStation() <= 0 || updated.getStation() == current.getStation()) {
+                return new Replacement<>(current, current);
+            }
+            builder.replace(new Firestation(current.getAddress(), updated.getStation()));
+            replaced = builder.byAddress(current.getAddress());
+            durable = commit(builder, MutationLogEntry.putFirestation(replaced));
+        } finally {
+            writeLock.unlock();
         }
+        mutationLog.await(durable);
+        return new Replacement<>(current, replaced);
     }
 
     /**
@@ -252,10 +321,25 @@ public class FirestationRepository {
      * Cette méthode supprime le mapping pour l'adresse spécifiée.
      *
      * @param address l'adresse dont on veut supprimer le mapping
-     * @throws IllegalArgumentException si l'adresse spécifiée n'est pas trouvée
+     * @return le mapping supprimé, lu sous le verrou d'écriture, ou
+     *         {@link Optional#empty()} si l'adresse n'était pas couverte
      */
-    public boolean deleteFirestationByAddress(String address) {
-        return data.getFirestations().removeIf(p -> p.getAddress().equals(address));
+    public Optional<Firestation> deleteFirestationByAddress(String address) {
+        Firestation removed;
+        CompletableFuture<Void> durable;
+        writeLock.lock();
+        try {
+            FirestationIndex.Builder builder = pending().toBuilder();
+            removed = builder.remove(address);
+            if (removed == null) {
+                return Optional.empty();
+            }
+            durable = commit(builder, MutationLogEntry.deleteFirestation(address));
+        } finally {
+            writeLock.unlock();
+        }
+        mutationLog.await(durable);
+        return Optional.of(removed);
     }
 
     /**
@@ -264,13 +348,80 @@ public class FirestationRepository {
      * <p>
      * Cette méthode supprime tous les mappings pour la caserne spécifiée.
      * Une caserne peut couvrir plusieurs adresses, donc cette opération peut
-     * supprimer plusieurs mappings en une seule fois.
+     * supprimer plusieurs mappings en une seule fois, publiés ensemble.
      *
      * @param station le numéro de caserne dont on veut supprimer tous les mappings
-     * @throws IllegalArgumentException si le numéro de caserne spécifié n'existe
-     *                                  pas
+     * @return les mappings supprimés, lus sous le verrou d'écriture (liste vide
+     *         si la caserne n'existait pas)
+     */
+    public List<Firestation> deleteFirestationByStation(int station) {
+        List<Firestation> removed;
+        CompletableFuture<Void> durable;
+        writeLock.lock();
+        try {
+            FirestationIndex.Builder builder = pending().toBuilder();
+            List<String> addresses = List.copyOf(builder.addressesOf(station));
+            if (addresses.isEmpty()) {
+                return List.of();
+            }
+            removed = addresses.stream().map(builder::remove).toList();
+            durable = commit(builder, MutationLogEntry.deleteStation(station));
+        } finally {
+            writeLock.unlock();
+        }
+        mutationLog.await(durable);
+        return removed;
+    }
+
+    /**
+     * Retourne le verrou d'écriture du repository, pris par
+     * {@link DataReloader} pour remplacer toutes les sections à la fois.
+     *
+     * @return le verrou d'écriture
+     */
+    ReentrantLock writeLock() {
+        return writeLock;
+    }
+
+    /**
+     * Retourne la dernière version construite de l'index, sur laquelle
+     * s'appuie l'écriture suivante : elle inclut les écritures journalisées
+     * mais pas encore publiées. Doit être appelée sous le verrou d'écriture.
+     *
+     * @return la dernière version de l'index
+     */
+    FirestationIndex pending() {
+        return pending != null ? pending : dataStore.current().firestations();
+    }
+
+    /**
+     * Enregistre la nouvelle version de l'index construite par une écriture
+     * journalisée hors du repository ({@link BatchWriter},
+     * {@link DataReloader}). Doit être appelée sous le verrou d'écriture, une
+     * fois l'entrée ajoutée au journal.
+     *
+     * @param firestations la nouvelle version de l'index
+     */
+    void stage(FirestationIndex firestations) {
+        pending = firestations;
+    }
+
+    /**
+     * Journalise une écriture ; la nouvelle version de l'index est publiée
+     * une fois l'entrée durable. Doit être appelée sous le verrou d'écriture,
+     * afin que l'ordre du journal suive l'ordre des écritures.
+     *
+     * @param builder le builder portant la nouvelle version de l'index
+     * @param entry   l'entrée de journal décrivant l'écriture
+     * @return le futur complété lorsque l'entrée est durable et publiée
+     * @throws IllegalStateException si le journal est fermé ou en échec,
+     *                               l'écriture n'étant alors ni publiée ni
+     *                               conservée
      */
-    public boolean deleteFirestationByStation(int station) {
-        return data.getFirestations().removeIf(p -> p.getStation() == (station));
+    private CompletableFuture<Void> commit(FirestationIndex.Builder builder, MutationLogEntry entry) {
+        FirestationIndex next = builder.build();
+        CompletableFuture<Void> durable = mutationLog.append(entry, () -> dataStore.publishFirestations(next));
+        pending = next;
+        return durable;
     }
 }
@@ -0,0 +1,139 @@
+package com.openclassrooms.safetynetalerts.repository;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Opérations sur les index « clé → liste d'entités » stockés dans un
+ * {@link SnapshotMap}.
+ *
+ * <p>
+ * Les listes des index publiés sont immuables. Les entités sont comparées par
+ * référence, deux entités aux données identiques restant deux entrées
+ * distinctes.
+ *
+ * <p>
+ * Copier la liste d'une clé à chaque ajout ou retrait rendrait quadratique un
+ * lot d'écritures sur la même clé (import, {@link BatchWriter}). Comme les
+ * compteurs d'emails de {@link PersonIndex.Builder}, une liste n'est donc
+ * ouverte, c'est-à-dire copiée dans une liste modifiable, qu'une seule fois
+ * par {@link Builder}, puis figée par {@link Builder#build()}. Le chargement
+ * complet accumule de même les listes dans une map modifiable
+ * ({@link #collect}) avant de les figer une seule fois ({@link #freeze}).
+ */
+final class IndexBuckets {
+
+    private IndexBuckets() {
+    }
+
+    /**
+     * Builder d'une nouvelle version d'un index « clé → liste d'entités ».
+     * Réservé à un seul écrivain.
+     *
+     * @param <K> le type des clés
+     * @param <V> le type des entités
+     */
+    static final class Builder<K, V> {
+        private final SnapshotMap.Builder<K, List<V>> index;
+        private final Map<K, List<V>> open = new HashMap<>();
+
+        Builder(SnapshotMap<K, List<V>> base) {
+            this.index = base.toBuilder();
+        }
+
+        /**
+         * Retourne la liste d'une clé. Une liste ouverte est retournée sous
+         * forme de vue non modifiable : la copier avant de modifier l'index.
+         *
+         * @param key la clé
+         * @return la liste, ou {@code null} si la clé est absente
+         */
+        List<V> get(K key) {
+            List<V> values = open.get(key);
+            if (values != null) {
+                return values.isEmpty() ? null : Collections.unmodifiableList(values);
+            }
+            return index.get(key);
+        }
+
+        /**
+         * Ajoute une valeur à la liste d'une clé. Les clés {@code null} ne sont
+         * pas indexées.
+         *
+         * @param key   la clé (peut être null)
+         * @param value la valeur à ajouter
+         */
+        void add(K key, V value) {
+            if (key != null) {
+                open(key).add(value);
+            }
+        }
+
+        /**
+         * Retire une valeur (comparée par référence) de la liste d'une clé.
+         * L'entrée d'une liste devenue vide est supprimée à la construction.
+         *
+         * @param key   la clé (peut être null)
+         * @param value la valeur à retirer
+         */
+        void remove(K key, V value) {
+            if (key != null && (open.containsKey(key) || index.containsKey(key))) {
+                open(key).removeIf(v -> v == value);
+            }
+        }
+
+        /**
+         * Fige les listes ouvertes et construit la nouvelle version de l'index.
+         *
+         * @return l'index, chaque liste modifiée étant copiée une seule fois
+         */
+        SnapshotMap<K, List<V>> build() {
+            open.forEach((key, values) -> {
+                if (values.isEmpty()) {
+                    index.remove(key);
+                } else {
+                    index.put(key, List.copyOf(values));
+                }
+            });
+            open.clear();
+            return index.build();
+        }
+
+        private List<V> open(K key) {
+            return open.computeIfAbsent(key, k -> {
+                List<V> current = index.get(k);
+                return current == null ? new ArrayList<>() : new ArrayList<>(current);
+            });
+        }
+    }
+
+    /**
+     * Ajoute une valeur à la liste modifiable d'une clé, lors d'une
+     * construction complète. Les clés {@code null} ne sont pas indexées.
+     *
+     * @param buckets les listes en cours de construction
+     * @param key     la clé (peut être null)
+     * @param value   la valeur à ajouter
+     */
+    static <K, V> void collect(Map<K, List<V>> buckets, K key, V value) {
+        if (key == null) {
+            return;
+        }
+        buckets.computeIfAbsent(key, k -> new ArrayList<>()).add(value);
+    }
+
+    /**
+     * Fige les listes d'une construction complète dans un index.
+     *
+     * @param buckets les listes construites par {@link #collect}
+     * @return l'index, chaque liste étant copiée une seule fois
+     */
+    static <K, V> SnapshotMap<K, List<V>> freeze(Map<K, List<V>> buckets) {
+        SnapshotMap.Builder<K, List<V>> index = SnapshotMap.<K, List<V>>empty().toBuilder();
+        buckets.forEach((key, values) -> index.put(key, List.copyOf(values)));
+        return index.build();
+    }
+}
@@ -1,14 +1,15 @@
 package com.openclassrooms.safetynetalerts.repository;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.stereotype.Repository;
 
-import com.openclassrooms.safetynetalerts.model.DataFile;
-
-import jakarta.annotation.PostConstruct;
 import tools.jackson.databind.json.JsonMapper;
 
 /**
@@ -18,27 +19,39 @@ import tools.jackson.databind.json.JsonMapper;
  * <p>
  * Cette classe implémente l'interface {@link DataRepo} et charge les données
  * depuis un fichier JSON nommé "data.json" situé dans le classpath
- * (src/main/resources).
+ * (src/main/resources), ou depuis le fichier {@code safetynet.data.path} du
+ * système de fichiers s'il existe (jeu de données complet, ou dernier
+ * instantané écrit par {@link SnapshotCompactor}).
+ *
+ * <p>
+ * Si l'instantané binaire {@code safetynet.data.binary-path}
+ * ({@link BinaryDataFile}) existe et a été dérivé de ce fichier JSON (même
+ * taille et même somme de contrôle que celles enregistrées dans son
+ * en-tête), il est chargé à sa place : c'est le chemin le plus rapide au
+ * redémarrage. Les dates de modification ne sont pas utilisées : une copie ou
+ * une image de conteneur ne les préserve pas de façon fiable.
  *
  * <p>
  * Fonctionnement :
  * <ul>
- * <li>Au démarrage de l'application, la méthode {@link #init()} est appelée
- * automatiquement
- * grâce à l'annotation {@link PostConstruct}</li>
- * <li>Le fichier JSON est désérialisé en objet {@link DataFile} grâce à
- * Jackson</li>
- * <li>Les données sont conservées en mémoire pour un accès rapide</li>
- * <li>Toutes les modifications ultérieures sont faites directement en mémoire
- * (pas de persistence)</li>
+ * <li>Au démarrage de l'application, {@link RepositoryInitializer} appelle
+ * {@link #load(DataRepo.Sink)}</li>
+ * <li>Le fichier JSON est lu en flux et désérialisé élément par élément
+ * ({@link DataFileReader}) ; les sections d'un fichier du système de fichiers
+ * sont lues en parallèle</li>
+ * <li>Chaque élément est transmis directement aux index en construction :
+ * aucune copie complète des données n'est conservée par ce repository</li>
+ * <li>Le journal des modifications ({@link MutationLog}) est ensuite rejoué
+ * par-dessus les index construits</li>
+ * <li>Toutes les modifications ultérieures sont faites en mémoire et
+ * journalisées</li>
  * </ul>
  *
  * <p>
- * <strong>Important :</strong> Cette implémentation ne persiste pas les
- * modifications.
- * Tous les changements (ajouts, modifications, suppressions) sont perdus au
- * redémarrage
- * de l'application.
+ * <strong>Important :</strong> Le fichier data.json du classpath n'est jamais
+ * réécrit. Les changements (ajouts, modifications, suppressions) ne survivent
+ * au redémarrage que si le journal est activé
+ * ({@code safetynet.wal.enabled=true}).
  *
  */
 @Repository
@@ -48,48 +61,51 @@ public class JsonDataRepo implements DataRepo {
     @Autowired
     private JsonMapper mapper;
 
-    private DataFile dataFile;
+    @Value("${safetynet.data.path:data/data.json}")
+    private String path;
+
+    @Value("${safetynet.data.binary-path:data/data.bin}")
+    private String binaryPath;
 
     /**
-     * Initialise le repository en chargeant le fichier JSON au démarrage de
-     * l'application.
-     *
-     * <p>
-     * Cette méthode est appelée automatiquement après l'injection de dépendances
-     * grâce à l'annotation {@link PostConstruct}.
+     * Charge le fichier de données en transmettant chaque élément lu au
+     * consommateur de sa section.
      *
      * <p>
-     * Le fichier "data.json" doit être présent dans src/main/resources.
+     * L'instantané binaire est lu s'il est à jour, sinon le fichier
+     * {@code safetynet.data.path} s'il existe, sinon le fichier "data.json" qui
+     * doit être présent dans src/main/resources.
      * S'il n'est pas trouvé ou s'il est mal formaté, une {@link RuntimeException}
      * est levée, empêchant le démarrage de l'application.
      *
+     * @param sink les consommateurs des sections
+     * @return la séquence du journal couverte par le fichier lu
      * @throws RuntimeException si le fichier data.json est introuvable ou invalide
      */
-    @PostConstruct
-    public void init() {
+    @Override
+    public long load(Sink sink) {
+        Path file = Path.of(path);
+        Path binary = Path.of(binaryPath);
+        ClassPathResource resource = new ClassPathResource("data.json");
+        long start = System.nanoTime();
         try {
-            ClassPathResource resource = new ClassPathResource("data.json");
-            this.dataFile = mapper.readValue(resource.getInputStream(), DataFile.class);
-            logger.debug("[REPOSITORY] Json chargé");
+            long seq;
+            boolean onDisk = Files.exists(file);
+            if (onDisk ? BinaryDataFile.isDerivedFrom(binary, Files.size(file), () -> Files.newInputStream(file))
+                    : BinaryDataFile.isDerivedFrom(binary, resource.contentLength(), resource::getInputStream)) {
+                seq = BinaryDataFile.read(binary, sink);
+                logger.debug("[REPOSITORY] Instantané binaire {} utilisé", binary);
+            } else if (onDisk) {
+                seq = new DataFileReader(mapper).read(file, sink);
+            } else {
+                seq = new DataFileReader(mapper).read(resource.getInputStream(), sink);
+            }
+            logger.debug("[REPOSITORY] Données chargées en {} ms (séquence {})",
+                    (System.nanoTime() - start) / 1_000_000, seq);
+            return seq;
         } catch (Exception e) {
             throw new RuntimeException("Impossible de lire data.json", e);
         }
     }
 
-    /**
-     * Retourne les données chargées depuis le fichier JSON.
-     *
-     * <p>
-     * Cette méthode retourne toujours la même instance de {@link DataFile}
-     * chargée au démarrage de l'application. Toutes les modifications effectuées
-     * sur cet objet sont donc conservées en mémoire jusqu'au redémarrage.
-     *
-     * @return l'objet {@link DataFile} contenant toutes les données de
-     *         l'application
-     */
-    @Override
-    public DataFile loadData() {
-        return dataFile;
-    }
-
 }
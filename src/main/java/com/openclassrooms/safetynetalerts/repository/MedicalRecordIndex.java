@@ -0,0 +1,306 @@
+package com.openclassrooms.safetynetalerts.repository;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.openclassrooms.safetynetalerts.model.MedicalRecord;
+
+/**
+ * État immuable des dossiers médicaux et de leurs index.
+ *
+ * <p>
+ * Contient l'index de clé primaire (prénom, nom) → dossier, qui fait office de
+ * stockage, les index nom de famille → dossiers (exact et insensible à la
+ * casse), l'index (prénom, nom) → date de naissance en jour epoch et l'index
+ * inverse jour epoch de naissance → dossiers. La date de naissance est
+ * analysée une seule fois, à l'indexation du dossier : le calcul d'âge ne fait
+ * plus qu'une comparaison d'entiers, et les personnes qui changent de tranche
+ * d'âge un jour donné sont retrouvées sans parcourir tous les dossiers. Un
+ * dossier dont la date est absente ou invalide est indexé sans date : l'âge
+ * de la personne est inconnu (-1) et elle est comptée comme enfant, ce que
+ * signale un avertissement à l'indexation.
+ *
+ * <p>
+ * Comme {@link PersonIndex}, une instance n'est jamais modifiée :
+ * {@link MedicalRecordRepository} publie une nouvelle version à chaque
+ * écriture, et un dossier mis à jour est remplacé par une nouvelle instance.
+ */
+final class MedicalRecordIndex {
+    private static final Logger logger = LoggerFactory.getLogger(MedicalRecordIndex.class);
+
+    /** Format des dates de naissance du fichier de données. */
+    static final DateTimeFormatter BIRTHDATE_FORMATTER = DateTimeFormatter.ofPattern("MM/dd/yyyy");
+
+    private static final MedicalRecordIndex EMPTY = new MedicalRecordIndex(
+            SnapshotMap.empty(), SnapshotMap.empty(), SnapshotMap.empty(), SnapshotMap.empty(), SnapshotMap.empty());
+
+    private final SnapshotMap<NameKey, MedicalRecord> byName;
+    private final SnapshotMap<String, List<MedicalRecord>> byLastName;
+    private final SnapshotMap<String, List<MedicalRecord>> byLastNameIgnoreCase;
+    private final SnapshotMap<NameKey, Integer> birthEpochDays;
+    private final SnapshotMap<Integer, List<MedicalRecord>> byBirthEpochDay;
+
+    private MedicalRecordIndex(SnapshotMap<NameKey, MedicalRecord> byName,
+            SnapshotMap<String, List<MedicalRecord>> byLastName,
+            SnapshotMap<String, List<MedicalRecord>> byLastNameIgnoreCase,
+            SnapshotMap<NameKey, Integer> birthEpochDays,
+            SnapshotMap<Integer, List<MedicalRecord>> byBirthEpochDay) {
+        this.byName = byName;
+        this.byLastName = byLastName;
+        this.byLastNameIgnoreCase = byLastNameIgnoreCase;
+        this.birthEpochDays = birthEpochDays;
+        this.byBirthEpochDay = byBirthEpochDay;
+    }
+
+    static MedicalRecordIndex empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Construit l'index d'une collection de dossiers. En cas de doublon sur la
+     * clé (prénom, nom), le premier dossier est conservé.
+     *
+     * @param records les dossiers à indexer
+     * @return le nouvel index
+     */
+    static MedicalRecordIndex of(Collection<MedicalRecord> records) {
+        BulkBuilder builder = new BulkBuilder();
+        records.forEach(builder::add);
+        return builder.build();
+    }
+
+    MedicalRecord get(NameKey key) {
+        return byName.get(key);
+    }
+
+    /**
+     * Retourne la date de naissance d'un dossier, en jours depuis l'epoch.
+     *
+     * @param key la clé du dossier
+     * @return le jour epoch de naissance, ou {@code null} si le dossier est
+     *         absent ou que sa date de naissance est absente ou invalide
+     */
+    Integer birthEpochDay(NameKey key) {
+        return birthEpochDays.get(key);
+    }
+
+    /**
+     * Retourne les dossiers dont la date de naissance tombe un jour donné.
+     *
+     * @param birthEpochDay le jour epoch de naissance
+     * @return les dossiers nés ce jour-là, ou une liste vide
+     */
+    List<MedicalRecord> bornOn(int birthEpochDay) {
+        return byBirthEpochDay.getOrDefault(birthEpochDay, List.of());
+    }
+
+    /**
+     * Parcourt les dossiers ajoutés, remplacés ou supprimés depuis une version
+     * précédente de l'index.
+     *
+     * @param previous la version précédente
+     * @param action   l'action appliquée à chaque clé modifiée
+     */
+    void forEachChange(MedicalRecordIndex previous, SnapshotMap.ChangeConsumer<NameKey, MedicalRecord> action) {
+        byName.forEachChange(previous.byName, action);
+    }
+
+    /**
+     * Parcourt les dates de naissance ajoutées, modifiées ou supprimées depuis
+     * une version précédente de l'index.
+     *
+     * @param previous la version précédente
+     * @param action   l'action appliquée à chaque clé modifiée, avec l'ancien
+     *                 et le nouveau jour epoch de naissance
+     */
+    void forEachBirthdateChange(MedicalRecordIndex previous, SnapshotMap.ChangeConsumer<NameKey, Integer> action) {
+        birthEpochDays.forEachChange(previous.birthEpochDays, action);
+    }
+
+    List<MedicalRecord> all() {
+        return byName.values();
+    }
+
+    int size() {
+        return byName.size();
+    }
+
+    List<MedicalRecord> sample(int max) {
+        return byName.sample(max);
+    }
+
+    List<MedicalRecord> byLastName(String lastName) {
+        return byLastName.getOrDefault(lastName, List.of());
+    }
+
+    List<MedicalRecord> byLastNameIgnoreCase(String lastName) {
+        return lastName == null ? List.of() : byLastNameIgnoreCase.getOrDefault(fold(lastName), List.of());
+    }
+
+    Builder toBuilder() {
+        return new Builder(this);
+    }
+
+    private static String fold(String lastName) {
+        return lastName.toLowerCase(Locale.ROOT);
+    }
+
+    private static NameKey keyOf(MedicalRecord record) {
+        return new NameKey(record.getFirstName(), record.getLastName());
+    }
+
+    /**
+     * Analyse la date de naissance d'un dossier au format MM/dd/yyyy. Une date
+     * absente ou invalide est signalée : la personne n'aura pas d'âge.
+     *
+     * @param record le dossier à indexer
+     * @return le jour epoch correspondant, ou {@code null} si la date est
+     *         absente ou invalide
+     */
+    private static Integer parseBirthdate(MedicalRecord record) {
+        String birthdate = record.getBirthdate();
+        if (birthdate != null) {
+            try {
+                return Math.toIntExact(LocalDate.parse(birthdate, BIRTHDATE_FORMATTER).toEpochDay());
+            } catch (DateTimeParseException e) {
+                // Signalé ci-dessous
+            }
+        }
+        logger.warn("[REPOSITORY] Date de naissance {} de {} {} rejetée (format attendu MM/dd/yyyy) : âge "
+                + "inconnu, compté comme enfant", birthdate == null ? "absente" : "'" + birthdate + "'",
+                record.getFirstName(), record.getLastName());
+        return null;
+    }
+
+    /**
+     * Construction complète d'un index, pour le chargement des données : comme
+     * pour {@link PersonIndex.BulkBuilder}, les listes par nom de famille sont
+     * accumulées puis figées une seule fois par {@link #build()}.
+     */
+    static final class BulkBuilder {
+        private final SnapshotMap.Builder<NameKey, MedicalRecord> byName = SnapshotMap
+                .<NameKey, MedicalRecord>empty().toBuilder();
+        private final Map<String, List<MedicalRecord>> byLastName = new HashMap<>();
+        private final Map<String, List<MedicalRecord>> byLastNameIgnoreCase = new HashMap<>();
+        private final SnapshotMap.Builder<NameKey, Integer> birthEpochDays = SnapshotMap
+                .<NameKey, Integer>empty().toBuilder();
+        private final Map<Integer, List<MedicalRecord>> byBirthEpochDay = new HashMap<>();
+
+        /**
+         * Ajoute un dossier si sa clé (prénom, nom) est libre.
+         *
+         * @param record le dossier à ajouter
+         * @return {@code true} si le dossier a été ajouté, {@code false} si la
+         *         clé était déjà prise
+         */
+        boolean add(MedicalRecord record) {
+            NameKey key = keyOf(record);
+            if (key.firstName() == null || key.lastName() == null || byName.containsKey(key)) {
+                return false;
+            }
+            byName.put(key, record);
+            IndexBuckets.collect(byLastName, record.getLastName(), record);
+            IndexBuckets.collect(byLastNameIgnoreCase, fold(record.getLastName()), record);
+            Integer birthEpochDay = parseBirthdate(record);
+            if (birthEpochDay != null) {
+                birthEpochDays.put(key, birthEpochDay);
+                IndexBuckets.collect(byBirthEpochDay, birthEpochDay, record);
+            }
+            return true;
+        }
+
+        MedicalRecordIndex build() {
+            return new MedicalRecordIndex(byName.build(), IndexBuckets.freeze(byLastName),
+                    IndexBuckets.freeze(byLastNameIgnoreCase), birthEpochDays.build(),
+                    IndexBuckets.freeze(byBirthEpochDay));
+        }
+    }
+
+    /**
+     * Builder d'une nouvelle version de l'index. Réservé à un seul écrivain.
+     */
+    static final class Builder {
+        private final SnapshotMap.Builder<NameKey, MedicalRecord> byName;
+        private final IndexBuckets.Builder<String, MedicalRecord> byLastName;
+        private final IndexBuckets.Builder<String, MedicalRecord> byLastNameIgnoreCase;
+        private final SnapshotMap.Builder<NameKey, Integer> birthEpochDays;
+        private final IndexBuckets.Builder<Integer, MedicalRecord> byBirthEpochDay;
+
+        private Builder(MedicalRecordIndex base) {
+            this.byName = base.byName.toBuilder();
+            this.byLastName = new IndexBuckets.Builder<>(base.byLastName);
+            this.byLastNameIgnoreCase = new IndexBuckets.Builder<>(base.byLastNameIgnoreCase);
+            this.birthEpochDays = base.birthEpochDays.toBuilder();
+            this.byBirthEpochDay = new IndexBuckets.Builder<>(base.byBirthEpochDay);
+        }
+
+        MedicalRecord get(NameKey key) {
+            return byName.get(key);
+        }
+
+        /**
+         * Ajoute un dossier si sa clé (prénom, nom) est libre.
+         *
+         * @param record le dossier à ajouter
+         * @return {@code true} si le dossier a été ajouté, {@code false} si la
+         *         clé était déjà prise
+         */
+        boolean add(MedicalRecord record) {
+            NameKey key = keyOf(record);
+            if (key.firstName() == null || key.lastName() == null || byName.containsKey(key)) {
+                return false;
+            }
+            byName.put(key, record);
+            byLastName.add(record.getLastName(), record);
+            byLastNameIgnoreCase.add(fold(record.getLastName()), record);
+            Integer birthEpochDay = parseBirthdate(record);
+            if (birthEpochDay != null) {
+                birthEpochDays.put(key, birthEpochDay);
+                byBirthEpochDay.add(birthEpochDay, record);
+            }
+            return true;
+        }
+
+        /**
+         * Retire le dossier d'une clé (prénom, nom) de tous les index.
+         *
+         * @param key la clé du dossier
+         * @return le dossier retiré, ou {@code null} si la clé était absente
+         */
+        MedicalRecord remove(NameKey key) {
+            MedicalRecord record = byName.remove(key);
+            if (record == null) {
+                return null;
+            }
+            byLastName.remove(record.getLastName(), record);
+            byLastNameIgnoreCase.remove(fold(record.getLastName()), record);
+            byBirthEpochDay.remove(birthEpochDays.remove(key), record);
+            return record;
+        }
+
+        /**
+         * Remplace le dossier de même clé (prénom, nom) par une nouvelle
+         * instance.
+         *
+         * @param record la nouvelle version du dossier
+         */
+        void replace(MedicalRecord record) {
+            remove(keyOf(record));
+            add(record);
+        }
+
+        MedicalRecordIndex build() {
+            return new MedicalRecordIndex(byName.build(), byLastName.build(), byLastNameIgnoreCase.build(),
+                    birthEpochDays.build(), byBirthEpochDay.build());
+        }
+    }
+}
@@ -2,15 +2,15 @@ package com.openclassrooms.safetynetalerts.repository;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 
-import com.openclassrooms.safetynetalerts.model.DataFile;
 import com.openclassrooms.safetynetalerts.model.MedicalRecord;
 
-import jakarta.annotation.PostConstruct;
-
 /**
  * Repository de gestion des dossiers médicaux.
  *
@@ -35,54 +35,76 @@ import jakarta.annotation.PostConstruct;
  * </ul>
  *
  * <p>
- * <b>Note sur la thread-safety :</b> Ce repository n'est pas thread-safe. Les
- * opérations
- * de modification (save, update, delete) affectent directement la liste en
- * mémoire sans
- * synchronisation. Dans un environnement multi-threadé, des mécanismes de
- * synchronisation
- * externes doivent être mis en place au niveau de la couche service.
+ * Un index de clé primaire (prénom, nom) → dossier est construit au chargement
+ * dans un {@link MedicalRecordIndex} et maintenu par
+ * {@link #save(MedicalRecord)}, {@link #updateFields(MedicalRecord, MedicalRecord)}
+ * et {@link #delete(String, String)}. Les recherches d'identité, appelées pour
+ * chaque résident par le calcul d'âge, coûtent ainsi O(1). Un index par nom
+ * de famille (exact et insensible à la casse) permet à l'endpoint /personInfo
+ * de récupérer tous les dossiers d'une famille en une seule lecture.
+ *
+ * <p>
+ * <b>Note sur la thread-safety :</b> Ce repository est thread-safe. Son index
+ * est une section immuable de l'instantané courant du {@link DataStore} : les lectures
+ * ne prennent aucun verrou. Les écritures (save, update, delete) sont
+ * sérialisées par un verrou propre aux dossiers médicaux et publient un nouvel
+ * index construit par copie à l'écriture. Les dossiers retournés ne doivent
+ * pas être modifiés par l'appelant : une mise à jour remplace l'instance
+ * indexée.
  *
  */
 @Repository
 public class MedicalRecordRepository {
 
+    private final ReentrantLock writeLock = new ReentrantLock();
+
     @Autowired
-    private DataRepo dataRepo;
+    private DataStore dataStore;
 
-    private DataFile data;
+    @Autowired
+    private MutationLog mutationLog;
 
     /**
-     * Initialise le repository en chargeant les données depuis le fichier JSON.
-     *
-     * <p>
-     * Cette méthode est appelée automatiquement après la construction du bean
-     * Spring
-     * grâce à l'annotation {@link PostConstruct}. Elle charge toutes les données
-     * en mémoire pour un accès rapide.
+     * Dernière version construite de l'index, publiée ou en attente de
+     * publication par le journal. Protégée par {@code writeLock} ;
+     * {@code null} tant que le repository n'est pas initialisé.
+     */
+    private MedicalRecordIndex pending;
+
+    /**
+     * Initialise le repository avec l'index des dossiers médicaux chargés au
+     * démarrage. En cas de doublon dans le fichier, le premier dossier lu est
+     * conservé dans l'index de clé primaire.
      *
      * <p>
      * <b>Thread-safety :</b> Cette méthode est appelée une seule fois au démarrage
-     * de l'application par le conteneur Spring, avant que le bean ne soit utilisé.
+     * de l'application par {@link RepositoryInitializer}, avant que le bean ne
+     * soit utilisé.
+     *
+     * @param medicalRecords l'index des dossiers médicaux
      */
-    @PostConstruct
-    public void init() {
-        this.data = dataRepo.loadData();
+    void init(MedicalRecordIndex medicalRecords) {
+        writeLock.lock();
+        try {
+            pending = medicalRecords;
+            dataStore.publishMedicalRecords(medicalRecords);
+        } finally {
+            writeLock.unlock();
+        }
     }
 
     /**
      * Récupère la liste complète de tous les dossiers médicaux.
      *
      * <p>
-     * <b>Thread-safety :</b> Cette méthode retourne la référence directe à la liste
-     * en mémoire. Elle n'est pas thread-safe si des modifications concurrentes sont
-     * effectuées.
+     * <b>Thread-safety :</b> Cette méthode retourne une copie immuable de l'état
+     * courant ; l'ordre n'est pas garanti.
      *
      * @return la liste de tous les dossiers médicaux, ou une liste vide si aucun
      *         dossier n'existe
      */
     public List<MedicalRecord> findAll() {
-        return data.getMedicalrecords();
+        return dataStore.read().medicalRecords().all();
     }
 
     /**
@@ -91,7 +113,8 @@ public class MedicalRecordRepository {
      * <p>
      * Cette méthode effectue une correspondance exacte sur la combinaison prénom +
      * nom,
-     * qui constitue l'identifiant unique d'un dossier médical dans le système.
+     * qui constitue l'identifiant unique d'un dossier médical dans le système,
+     * via l'index de clé primaire.
      *
      * <p>
      * <b>Thread-safety :</b> Cette méthode est thread-safe en lecture seule.
@@ -104,10 +127,57 @@ public class MedicalRecordRepository {
      *         {@link Optional#empty()}
      */
     public Optional<MedicalRecord> findByFirstNameAndLastName(String firstName, String lastName) {
-        return data.getMedicalrecords().stream()
-                .filter(mr -> mr.getFirstName().equals(firstName)
-                        && mr.getLastName().equals(lastName))
-                .findFirst();
+        return Optional.ofNullable(dataStore.read().medicalRecords().get(new NameKey(firstName, lastName)));
+    }
+
+    /**
+     * Retourne la date de naissance d'une personne, en jours depuis l'epoch.
+     *
+     * <p>
+     * La date est analysée une seule fois, à l'indexation du dossier ; elle suit
+     * donc les créations, mises à jour et suppressions du dossier sans
+     * invalidation explicite.
+     *
+     * <p>
+     * <b>Thread-safety :</b> Cette méthode est thread-safe en lecture seule.
+     *
+     * @param firstName le prénom de la personne
+     * @param lastName  le nom de famille de la personne
+     * @return le jour epoch de naissance, ou {@link OptionalInt#empty()} si le
+     *         dossier est absent ou que sa date de naissance est absente ou
+     *         invalide
+     */
+    public OptionalInt findBirthEpochDay(String firstName, String lastName) {
+        Integer birthEpochDay = dataStore.read().medicalRecords().birthEpochDay(new NameKey(firstName, lastName));
+        return birthEpochDay == null ? OptionalInt.empty() : OptionalInt.of(birthEpochDay);
+    }
+
+    /**
+     * Recherche tous les dossiers médicaux d'un nom de famille donné.
+     *
+     * <p>
+     * <b>Thread-safety :</b> Cette méthode est thread-safe en lecture seule.
+     *
+     * @param lastName le nom de famille (sensible à la casse, correspondance
+     *                 exacte)
+     * @return la liste immuable des dossiers, ou une liste vide si aucun
+     */
+    public List<MedicalRecord> findByLastName(String lastName) {
+        return dataStore.read().medicalRecords().byLastName(lastName);
+    }
+
+    /**
+     * Recherche tous les dossiers médicaux d'un nom de famille donné, sans tenir
+     * compte de la casse.
+     *
+     * <p>
+     * <b>Thread-safety :</b> Cette méthode est thread-safe en lecture seule.
+     *
+     * @param lastName le nom de famille (insensible à la casse)
+     * @return la liste immuable des dossiers, ou une liste vide si aucun
+     */
+    public List<MedicalRecord> findByLastNameIgnoreCase(String lastName) {
+        return dataStore.read().medicalRecords().byLastNameIgnoreCase(lastName);
     }
 
     /**
@@ -125,9 +195,7 @@ public class MedicalRecordRepository {
      * @return {@code true} si le dossier médical existe, {@code false} sinon
      */
     public boolean existsByFirstNameAndLastName(String firstName, String lastName) {
-        return data.getMedicalrecords().stream()
-                .anyMatch(mr -> mr.getFirstName().equals(firstName)
-                        && mr.getLastName().equals(lastName));
+        return dataStore.read().medicalRecords().get(new NameKey(firstName, lastName)) != null;
     }
 
     /**
@@ -145,31 +213,39 @@ public class MedicalRecordRepository {
      * {@code medicalRecord} sont appliqués au dossier existant.
      *
      * <p>
-     * <b>Thread-safety :</b> Cette méthode n'est PAS thread-safe. Elle modifie
-     * directement la liste ou l'objet en mémoire sans synchronisation. En
-     * environnement concurrent,
-     * des mécanismes de synchronisation doivent être mis en place au niveau
-     * service.
+     * <b>Thread-safety :</b> La recherche du dossier existant et son
+     * remplacement sont effectués sous le verrou d'écriture : deux sauvegardes
+     * concurrentes d'un même dossier ne peuvent pas créer de doublon.
      *
      * @param medicalRecord le dossier médical à sauvegarder
-     * @return le dossier médical sauvegardé (existant mis à jour ou nouveau créé)
+     * @return le dossier médical sauvegardé (nouvelle version du dossier existant
+     *         ou nouveau dossier créé)
      */
     public MedicalRecord save(MedicalRecord medicalRecord) {
-        // Vérifier si le dossier existe déjà
-        Optional<MedicalRecord> existing = findByFirstNameAndLastName(
-                medicalRecord.getFirstName(),
-                medicalRecord.getLastName());
-
-        if (existing.isPresent()) {
-            // Si il existe, on le met à jour
-            MedicalRecord existingRecord = existing.get();
-            updateFields(existingRecord, medicalRecord);
-            return existingRecord;
-        } else {
-            // Sinon on l'ajoute
-            data.getMedicalrecords().add(medicalRecord);
-            return medicalRecord;
+        MedicalRecord saved;
+        CompletableFuture<Void> durable;
+        writeLock.lock();
+        try {
+            MedicalRecordIndex.Builder builder = pending().toBuilder();
+            // Vérifier si le dossier existe déjà
+            MedicalRecord existing = builder.get(
+                    new NameKey(medicalRecord.getFirstName(), medicalRecord.getLastName()));
+
+            if (existing != null) {
+                // Si il existe, on le met à jour
+                saved = merge(existing, medicalRecord);
+                builder.replace(saved);
+            } else {
+                // Sinon on l'ajoute
+                saved = medicalRecord;
+                builder.add(saved);
+            }
+            durable = commit(builder, MutationLogEntry.putMedicalRecord(saved));
+        } finally {
+            writeLock.unlock();
         }
+        mutationLog.await(durable);
+        return saved;
     }
 
     /**
@@ -180,22 +256,31 @@ public class MedicalRecordRepository {
      * de famille.
      *
      * <p>
-     * <b>Thread-safety :</b> Cette méthode n'est PAS thread-safe. Elle modifie
-     * directement la liste en mémoire sans synchronisation. En environnement
-     * concurrent,
-     * des mécanismes de synchronisation doivent être mis en place au niveau
-     * service.
+     * <b>Thread-safety :</b> Cette méthode est sérialisée avec les autres
+     * écritures par le verrou d'écriture.
      *
      * @param firstName le prénom de la personne dont on veut supprimer le dossier
      * @param lastName  le nom de famille de la personne dont on veut supprimer le
      *                  dossier
-     * @return {@code true} si un dossier a été supprimé, {@code false} si aucun
-     *         dossier ne correspondait
+     * @return le dossier supprimé, lu sous le verrou d'écriture, ou
+     *         {@link Optional#empty()} si aucun dossier ne correspondait
      */
-    public boolean delete(String firstName, String lastName) {
-        return data.getMedicalrecords().removeIf(
-                mr -> mr.getFirstName().equals(firstName)
-                        && mr.getLastName().equals(lastName));
+    public Optional<MedicalRecord> delete(String firstName, String lastName) {
+        MedicalRecord removed;
+        CompletableFuture<Void> durable;
+        writeLock.lock();
+        try {
+            MedicalRecordIndex.Builder builder = pending().toBuilder();
+            removed = builder.remove(new NameKey(firstName, lastName));
+            if (removed == null) {
+                return Optional.empty();
+            }
+            durable = commit(builder, MutationLogEntry.deleteMedicalRecord(firstName, lastName));
+        } finally {
+            writeLock.unlock();
+        }
+        mutationLog.await(durable);
+        return Optional.of(removed);
     }
 
     /**
@@ -204,28 +289,111 @@ public class MedicalRecordRepository {
      *
      * <p>
      * Cette méthode implémente la logique de mise à jour partielle :
-     * seuls les champs non-null du dossier {@code updated} sont copiés vers le
-     * dossier {@code existing}.
+     * seuls les champs non-null du dossier {@code updated} remplacent ceux de la
+     * version courante du dossier {@code existing}, relue sous le verrou
+     * d'écriture. Le dossier indexé n'est pas modifié sur place : une nouvelle
+     * instance le remplace.
      *
      * <p>
      * Le prénom et le nom de famille ne sont jamais modifiés car ils constituent
      * l'identifiant unique du dossier.
      *
-     * @param existing le dossier médical existant à modifier
+     * @param existing le dossier médical existant (seuls son prénom et son nom
+     *                 sont utilisés)
      * @param updated  le dossier contenant les nouvelles valeurs (seuls les champs
      *                 non-null sont pris en compte)
+     * @return la version remplacée et la nouvelle version du dossier
+     * @throws IllegalArgumentException si le dossier a été supprimé entre-temps
      */
-    public void updateFields(MedicalRecord existing, MedicalRecord updated) {
-        // Le prénom et nom ne changent pas (identifiant unique)
-        if (updated.getBirthdate() != null) {
-            existing.setBirthdate(updated.getBirthdate());
-        }
-        if (updated.getMedications() != null) {
-            existing.setMedications(updated.getMedications());
-        }
-        if (updated.getAllergies() != null) {
-            existing.setAllergies(updated.getAllergies());
+    public Replacement<MedicalRecord> updateFields(MedicalRecord existing, MedicalRecord updated) {
+        MedicalRecord current;
+        MedicalRecord merged;
+        CompletableFuture<Void> durable;
+        writeLock.lock();
+        try {
+            MedicalRecordIndex.Builder builder = pending().toBuilder();
+            current = builder.get(new NameKey(existing.getFirstName(), existing.getLastName()));
+            if (current == null) {
+                throw new IllegalArgumentException("Medical record for " + existing.getFirstName() + " "
+                        + existing.getLastName() + " not found");
+            }
+            merged = merge(current, updated);
+            builder.replace(merged);
+            durable = commit(builder, MutationLogEntry.putMedicalRecord(merged));
+        } finally {
+            writeLock.unlock();
         }
+        mutationLog.await(durable);
+        return new Replacement<>(current, merged);
+    }
+
+    /**
+     * Retourne le verrou d'écriture du repository, pris par
+     * {@link DataReloader} pour remplacer toutes les sections à la fois.
+     *
+     * @return le verrou d'écriture
+     */
+    ReentrantLock writeLock() {
+        return writeLock;
+    }
+
+    /**
+     * Retourne la dernière version construite de l'index, sur laquelle
+     * s'appuie l'écriture suivante : elle inclut les écritures journalisées
+     * mais pas encore publiées. Doit être appelée sous le verrou d'écriture.
+     *
+     * @return la dernière version de l'index
+     */
+    MedicalRecordIndex pending() {
+        return pending != null ? pending : dataStore.current().medicalRecords();
     }
 
+    /**
+     * Enregistre la nouvelle version de l'index construite par une écriture
+     * journalisée hors du repository ({@link BatchWriter},
+     * {@link DataReloader}). Doit être appelée sous le verrou d'écriture, une
+     * fois l'entrée ajoutée au journal.
+     *
+     * @param medicalRecords la nouvelle version de l'index
+     */
+    void stage(MedicalRecordIndex medicalRecords) {
+        pending = medicalRecords;
+    }
+
+    /**
+     * Journalise une écriture ; la nouvelle version de l'index est publiée
+     * une fois l'entrée durable. Doit être appelée sous le verrou d'écriture,
+     * afin que l'ordre du journal suive l'ordre des écritures.
+     *
+     * @param builder le builder portant la nouvelle version de l'index
+     * @param entry   l'entrée de journal décrivant l'écriture
+     * @return le futur complété lorsque l'entrée est durable et publiée
+     * @throws IllegalStateException si le journal est fermé ou en échec,
+     *                               l'écriture n'étant alors ni publiée ni
+     *                               conservée
+     */
+    private CompletableFuture<Void> commit(MedicalRecordIndex.Builder builder, MutationLogEntry entry) {
+        MedicalRecordIndex next = builder.build();
+        CompletableFuture<Void> durable = mutationLog.append(entry, () -> dataStore.publishMedicalRecords(next));
+        pending = next;
+        return durable;
+    }
+
+    /**
+     * Construit la nouvelle version d'un dossier à partir de sa version courante
+     * et des champs non-null d'une mise à jour.
+     *
+     * @param current la version courante du dossier
+     * @param updated le dossier contenant les nouvelles valeurs
+     * @return un nouveau dossier
+     */
+    static MedicalRecord merge(MedicalRecord current, MedicalRecord updated) {
+        // Le prénom et nom ne changent pas (identifiant unique)
+        return new MedicalRecord(
+                current.getFirstName(),
+                current.getLastName(),
+                updated.getBirthdate() != null ? updated.getBirthdate() : current.getBirthdate(),
+                updated.getMedications() != null ? updated.getMedications() : current.getMedications(),
+                updated.getAllergies() != null ? updated.getAllergies() : current.getAllergies());
+    }
 }
@@ -0,0 +1,769 @@
+package com.openclassrooms.safetynetalerts.repository;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.LongFunction;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.openclassrooms.safetynetalerts.model.DataFile;
+import com.openclassrooms.safetynetalerts.model.Firestation;
+import com.openclassrooms.safetynetalerts.model.MedicalRecord;
+import com.openclassrooms.safetynetalerts.model.Person;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Journal des modifications (write-ahead log) des personnes, casernes et
+ * dossiers médicaux.
+ *
+ * <p>
+ * Chaque écriture des repositories ajoute une entrée ({@link MutationLogEntry})
+ * à la fin d'un fichier NDJSON (un objet JSON par ligne). Au démarrage,
+ * {@link JsonDataRepo} rejoue le journal par-dessus data.json, de sorte
+ * qu'aucune modification acquittée n'est perdue au redémarrage. Une écriture
+ * coûte ainsi un ajout séquentiel au lieu d'une réécriture complète du
+ * fichier de données.
+ *
+ * <p>
+ * Fonctionnement :
+ * <ul>
+ * <li>{@link #append(MutationLogEntry)} attribue un numéro de séquence à
+ * l'entrée et la place dans une file, sans attendre le disque. Les
+ * repositories l'appellent sous leur verrou d'écriture, ce qui garantit que
+ * l'ordre du journal suit l'ordre des écritures de chaque section.</li>
+ * <li>Un thread dédié vide la file par lots : toutes les entrées en attente
+ * sont écrites puis synchronisées sur le disque par un seul {@code fsync}
+ * (group commit). Le même thread publie ensuite, dans l'ordre du journal, les
+ * écritures du lot ({@link #append(MutationLogEntry, Runnable)}) : une
+ * écriture n'est visible des lecteurs qu'une fois durable.</li>
+ * <li>Une fois leur verrou relâché, les repositories attendent via
+ * {@link #await(CompletableFuture)} que leur entrée soit durable et publiée
+ * avant de répondre. Entre-temps, les écritures suivantes de la même section
+ * partent de la dernière version construite, non encore publiée : les
+ * écrivains d'une section ne s'attendent pas les uns les autres.</li>
+ * </ul>
+ *
+ * <p>
+ * Le journal est activé par défaut ({@code safetynet.wal.enabled=true}, fichier
+ * {@code data/mutations.log}, dont le répertoire est créé au démarrage). Une
+ * fois désactivé, {@link #append(MutationLogEntry)} ne fait rien, les
+ * écritures sont publiées immédiatement et {@link #replay(long, Consumer)} ne
+ * rejoue aucune entrée.
+ *
+ * <p>
+ * Une ligne incomplète ou illisible en fin de fichier (arrêt brutal pendant une
+ * écriture) est tronquée à l'ouverture et ignorée par le rejeu : l'écriture
+ * correspondante n'avait pas été acquittée.
+ *
+ * <p>
+ * Si l'écriture d'un lot échoue, le fichier est tronqué à sa taille d'avant
+ * le lot, pour que le journal reste lisible, et aucune écriture du lot ni des
+ * lots suivants n'est publiée : les données visibles restent celles du
+ * journal. Le journal passe alors en échec et toute nouvelle écriture est
+ * refusée jusqu'au redémarrage, les repositories ayant déjà construit leurs
+ * écritures suivantes sur celles qui ont échoué.
+ *
+ * <p>
+ * Le journal est compacté périodiquement par {@link SnapshotCompactor} :
+ * {@link #checkpoint(LongFunction)} fournit un point de coupure cohérent avec
+ * les données publiées, puis {@link #truncateThrough(long)} retire les entrées
+ * couvertes par l'instantané écrit sur le disque.
+ */
+@Component
+public class MutationLog {
+    private final Logger logger = LoggerFactory.getLogger(MutationLog.class);
+
+    private static final CompletableFuture<Void> DURABLE = CompletableFuture.completedFuture(null);
+
+    @Autowired
+    private JsonMapper mapper;
+
+    @Value("${safetynet.wal.enabled:true}")
+    private boolean enabled;
+
+    @Value("${safetynet.wal.path:data/mutations.log}")
+    private String path;
+
+    @Value("${safetynet.wal.fsync:true}")
+    private boolean fsync;
+
+    @Value("${safetynet.wal.max-batch:512}")
+    private int maxBatch;
+
+    @Value("${safetynet.wal.await-timeout:10s}")
+    private Duration awaitTimeout = Duration.ofSeconds(10);
+
+    private final BlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+
+    private final Object appendLock = new Object();
+
+    private final ReadWriteLock checkpointLock = new ReentrantReadWriteLock();
+
+    private final Object channelLock = new Object();
+
+    /**
+     * Position de fin de chaque lot écrit, indexée par la séquence de sa
+     * dernière entrée. Protégé par {@code channelLock}.
+     */
+    private final NavigableMap<Long, Long> batchEnds = new TreeMap<>();
+
+    private long lastSeq;
+
+    /**
+     * Séquence de la dernière entrée publiée. Modifiée par le thread
+     * d'écriture sous le verrou de lecture de {@code checkpointLock}.
+     */
+    private long publishedSeq;
+
+    private FileChannel channel;
+
+    private volatile long size;
+
+    private Thread writer;
+
+    private volatile boolean running;
+
+    /** Passe à {@code true} après l'échec d'écriture d'un lot. Modifié sous {@code appendLock}. */
+    private volatile boolean failed;
+
+    private record Pending(MutationLogEntry entry, Runnable publish, CompletableFuture<Void> done) {
+    }
+
+    /**
+     * Ouvre le journal et démarre le thread d'écriture lorsque le journal est
+     * activé.
+     *
+     * @throws IOException si le fichier du journal ne peut pas être ouvert
+     */
+    @PostConstruct
+    public void start() throws IOException {
+        if (!enabled) {
+            logger.debug("[REPOSITORY] Journal des modifications désactivé");
+            return;
+        }
+        Path file = Path.of(path);
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        channel = open(file);
+        repairTail(true);
+        size = channel.size();
+        channel.position(size);
+        if (size > 0) {
+            batchEnds.put(lastSeq, size);
+        }
+
+        running = true;
+        writer = Thread.ofPlatform().name("mutation-log-writer").daemon().start(this::writeLoop);
+        logger.info("[REPOSITORY] Journal des modifications ouvert : {} (dernière séquence {})", file, lastSeq);
+    }
+
+    /**
+     * Arrête le thread d'écriture après avoir écrit les entrées en attente,
+     * puis ferme le journal.
+     *
+     * @throws IOException          si la fermeture du fichier échoue
+     * @throws InterruptedException si l'attente du thread d'écriture est
+     *                              interrompue
+     */
+    @PreDestroy
+    public void stop() throws IOException, InterruptedException {
+        if (!running) {
+            return;
+        }
+        synchronized (appendLock) {
+            running = false;
+        }
+        writer.join();
+        synchronized (channelLock) {
+            channel.close();
+        }
+    }
+
+    /**
+     * Indique si le journal est activé.
+     *
+     * @return {@code true} si les écritures sont journalisées
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Ajoute une entrée au journal.
+     *
+     * <p>
+     * L'entrée reçoit le numéro de séquence suivant et est placée dans la file
+     * d'écriture ; la méthode n'attend pas le disque.
+     *
+     * @param entry l'entrée à journaliser
+     * @return un futur complété lorsque l'entrée est durable
+     * @throws IllegalStateException si le journal est fermé ou en échec
+     */
+    public CompletableFuture<Void> append(MutationLogEntry entry) {
+        return append(entry, null);
+    }
+
+    /**
+     * Ajoute une entrée au journal, puis publie l'écriture correspondante une
+     * fois l'entrée durable.
+     *
+     * <p>
+     * La publication est faite par le thread d'écriture, après le
+     * {@code fsync} du lot contenant l'entrée et dans l'ordre du journal. Si
+     * l'écriture du lot échoue, elle n'a pas lieu. Lorsque le journal est
+     * désactivé, elle est faite immédiatement par l'appelant.
+     *
+     * @param entry   l'entrée à journaliser
+     * @param publish la publication de la nouvelle version des données, ou
+     *                {@code null}
+     * @return un futur complété lorsque l'entrée est durable et publiée
+     * @throws IllegalStateException si le journal est fermé ou en échec, la
+     *                               publication n'ayant alors pas lieu
+     */
+    public CompletableFuture<Void> append(MutationLogEntry entry, Runnable publish) {
+        if (!enabled) {
+            publishNow(publish);
+            return DURABLE;
+        }
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        synchronized (appendLock) {
+            if (!running) {
+                throw new IllegalStateException("Mutation log is closed");
+            }
+            if (failed) {
+                throw new IllegalStateException("Mutation log failed, writes are disabled until restart");
+            }
+            queue.add(new Pending(entry.withSeq(++lastSeq), publish, done));
+        }
+        return done;
+    }
+
+    /**
+     * Ajoute un lot d'entrées au journal, puis publie en une fois les
+     * écritures correspondantes lorsque toutes les entrées sont durables.
+     *
+     * <p>
+     * Les entrées reçoivent des numéros de séquence consécutifs dans l'ordre
+     * de la liste ; elles sont écrites par le même mécanisme de lots que les
+     * écritures unitaires. La publication est attachée à la dernière entrée.
+     *
+     * @param entries les entrées à journaliser (au moins une)
+     * @param publish la publication de la nouvelle version des données
+     * @return un futur complété lorsque toutes les entrées sont durables et
+     *         publiées
+     * @throws IllegalStateException si le journal est fermé ou en échec, la
+     *                               publication n'ayant alors pas lieu
+     */
+    public CompletableFuture<Void> append(List<MutationLogEntry> entries, Runnable publish) {
+        if (!enabled) {
+            publishNow(publish);
+            return DURABLE;
+        }
+        CompletableFuture<?>[] done = new CompletableFuture<?>[entries.size()];
+        synchronized (appendLock) {
+            // Entrées consécutives : aucune autre écriture ne s'intercale dans le lot
+            for (int i = 0; i < done.length; i++) {
+                done[i] = append(entries.get(i), i == done.length - 1 ? publish : null);
+            }
+        }
+        return CompletableFuture.allOf(done);
+    }
+
+    /**
+     * Publie immédiatement une écriture non journalisée, sans qu'un point de
+     * coupure puisse s'intercaler.
+     */
+    private void publishNow(Runnable publish) {
+        if (publish == null) {
+            return;
+        }
+        checkpointLock.readLock().lock();
+        try {
+            publish.run();
+        } finally {
+            checkpointLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Capture un état cohérent avec le journal : toutes les entrées de
+     * séquence inférieure ou égale à la séquence fournie sont publiées, et
+     * aucune entrée ultérieure ne l'est.
+     *
+     * <p>
+     * Les publications sont suspendues le temps de l'appel à {@code capture},
+     * qui doit donc se limiter à lire la version courante des données.
+     *
+     * @param <T>     le type de l'état capturé
+     * @param capture la capture, appelée avec la séquence de la dernière
+     *                entrée publiée
+     * @return l'état capturé
+     */
+    public <T> T checkpoint(LongFunction<T> capture) {
+        checkpointLock.writeLock().lock();
+        try {
+            long seq;
+            if (enabled) {
+                seq = publishedSeq;
+            } else {
+                synchronized (appendLock) {
+                    seq = lastSeq;
+                }
+            }
+            return capture.apply(seq);
+        } finally {
+            checkpointLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Retourne la taille du journal sur le disque.
+     *
+     * @return la taille en octets, 0 si le journal est désactivé
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Retire du journal les entrées couvertes par un instantané écrit sur le
+     * disque.
+     *
+     * <p>
+     * La coupure se fait à la fin du dernier lot dont toutes les entrées ont
+     * une séquence inférieure ou égale à {@code seq} : quelques entrées déjà
+     * couvertes peuvent subsister, ce qui est sans effet puisque le rejeu les
+     * ignore. Les entrées restantes sont copiées dans un fichier temporaire qui
+     * remplace le journal par un renommage atomique ; un arrêt brutal laisse
+     * donc soit l'ancien journal, soit le nouveau.
+     *
+     * @param seq la séquence couverte par l'instantané
+     * @throws IOException si la réécriture du journal échoue
+     */
+    public void truncateThrough(long seq) throws IOException {
+        if (!enabled) {
+            return;
+        }
+        synchronized (channelLock) {
+            Map.Entry<Long, Long> covered = batchEnds.floorEntry(seq);
+            if (covered == null || !channel.isOpen()) {
+                return;
+            }
+            long offset = covered.getValue();
+            Path file = Path.of(path);
+            Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+            try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                long position = offset;
+                while (position < size) {
+                    position += channel.transferTo(position, size - position, out);
+                }
+                out.force(true);
+            }
+            Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            channel.close();
+            channel = open(file);
+            size = channel.size();
+            channel.position(size);
+
+            NavigableMap<Long, Long> remaining = new TreeMap<>(batchEnds.tailMap(covered.getKey(), false));
+            batchEnds.clear();
+            remaining.forEach((batchSeq, end) -> batchEnds.put(batchSeq, end - offset));
+            logger.info("[REPOSITORY] Journal compacté jusqu'à la séquence {} ({} octets conservés)",
+                    covered.getKey(), size);
+        }
+    }
+
+    /**
+     * Indique si le journal est en échec après une erreur d'écriture.
+     *
+     * @return {@code true} si les écritures sont refusées jusqu'au redémarrage
+     */
+    public boolean isFailed() {
+        return failed;
+    }
+
+    /**
+     * Attend qu'une entrée ajoutée par {@link #append(MutationLogEntry)} soit
+     * durable, au plus {@code safetynet.wal.await-timeout}.
+     *
+     * @param done le futur retourné par {@link #append(MutationLogEntry)}
+     * @throws IllegalStateException si l'écriture de l'entrée a échoué, ou
+     *                               n'est pas terminée dans le délai
+     */
+    public void await(CompletableFuture<Void> done) {
+        try {
+            done.get(awaitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Mutation log write failed", e.getCause());
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("Mutation log write not durable after " + awaitTimeout, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the mutation log", e);
+        }
+    }
+
+    /**
+     * Rejoue le journal sur les données chargées depuis data.json.
+     *
+     * <p>
+     * Les entrées sont passées à la cible dans l'ordre du fichier ; celles déjà
+     * couvertes par les données (séquence {@code seq}, renseignée par
+     * {@link SnapshotCompactor}) sont ignorées. Une entrée {@code RESET}
+     * (rechargement du fichier de données par {@link DataReloader}) est
+     * transmise comme les autres : la cible doit alors revenir aux données de
+     * base, en annulant les entrées qui la précèdent. Une dernière ligne
+     * illisible (écriture interrompue, jamais acquittée) est ignorée.
+     *
+     * @param seq    la séquence couverte par les données de base
+     * @param target reçoit chaque entrée à rejouer
+     * @return le nombre d'entrées rejouées
+     * @throws IllegalStateException si une entrée du journal est illisible
+     */
+    public long replay(long seq, Consumer<MutationLogEntry> target) {
+        if (!enabled) {
+            return 0;
+        }
+        long count = 0;
+        long last = seq;
+        try (BufferedReader reader = Files.newBufferedReader(Path.of(path), StandardCharsets.UTF_8)) {
+            String line = nextLine(reader);
+            while (line != null) {
+                String next = nextLine(reader);
+                MutationLogEntry entry;
+                try {
+                    entry = parse(line);
+                } catch (IllegalStateException e) {
+                    if (next != null) {
+                        throw e;
+                    }
+                    logger.warn("[REPOSITORY] Dernière ligne du journal illisible ignorée : {}", line);
+                    break;
+                }
+                line = next;
+                if (entry.seq() <= seq) {
+                    continue;
+                }
+                target.accept(entry);
+                last = Math.max(last, entry.seq());
+                count++;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Impossible de rejouer le journal " + path, e);
+        }
+
+        synchronized (appendLock) {
+            lastSeq = Math.max(lastSeq, last);
+        }
+        logger.info("[REPOSITORY] {} modifications rejouées depuis {}", count, path);
+        return count;
+    }
+
+    /**
+     * Rejoue le journal sur les données d'un {@link DataFile}. Les listes du
+     * {@link DataFile} ne sont remplacées que si au moins une entrée a été
+     * rejouée.
+     *
+     * @param data les données de base, modifiées en place
+     * @return le nombre d'entrées rejouées
+     * @throws IllegalStateException si une entrée du journal est illisible
+     * @see #replay(long, Consumer)
+     */
+    public long replay(DataFile data) {
+        if (!enabled) {
+            return 0;
+        }
+        Map<NameKey, Person> persons = new LinkedHashMap<>();
+        Map<String, Firestation> firestations = new LinkedHashMap<>();
+        Map<NameKey, MedicalRecord> medicalRecords = new LinkedHashMap<>();
+        load(data, persons, firestations, medicalRecords);
+
+        long[] seq = { data.getSeq() };
+        long count = replay(data.getSeq(), entry -> {
+            if (entry.op() == MutationLogEntry.Operation.RESET) {
+                load(data, persons, firestations, medicalRecords);
+            } else {
+                apply(entry, persons, firestations, medicalRecords);
+            }
+            seq[0] = Math.max(seq[0], entry.seq());
+        });
+
+        if (count > 0) {
+            data.setPersons(new ArrayList<>(persons.values()));
+            data.setFirestations(new ArrayList<>(firestations.values()));
+            data.setMedicalrecords(new ArrayList<>(medicalRecords.values()));
+            data.setSeq(seq[0]);
+        }
+        return count;
+    }
+
+    private static String nextLine(BufferedReader reader) throws IOException {
+        String line;
+        do {
+            line = reader.readLine();
+        } while (line != null && line.isBlank());
+        return line;
+    }
+
+    /**
+     * (Ré)initialise l'état rejoué avec les données de base.
+     */
+    private static void load(DataFile data, Map<NameKey, Person> persons, Map<String, Firestation> firestations,
+            Map<NameKey, MedicalRecord> medicalRecords) {
+        persons.clear();
+        firestations.clear();
+        medicalRecords.clear();
+        nullToEmpty(data.getPersons()).forEach(p -> persons.putIfAbsent(keyOf(p), p));
+        nullToEmpty(data.getFirestations()).forEach(f -> firestations.putIfAbsent(f.getAddress(), f));
+        nullToEmpty(data.getMedicalrecords()).forEach(mr -> medicalRecords.putIfAbsent(keyOf(mr), mr));
+    }
+
+    private static void apply(MutationLogEntry entry, Map<NameKey, Person> persons,
+            Map<String, Firestation> firestations, Map<NameKey, MedicalRecord> medicalRecords) {
+        switch (entry.op()) {
+            case PUT_PERSON -> persons.put(keyOf(entry.person()), entry.person());
+            case DELETE_PERSON -> persons.remove(new NameKey(entry.firstName(), entry.lastName()));
+            case PUT_FIRESTATION -> firestations.put(entry.firestation().getAddress(), entry.firestation());
+            case DELETE_FIRESTATION -> firestations.remove(entry.address());
+            case DELETE_STATION -> firestations.values().removeIf(f -> f.getStation() == entry.station());
+            case PUT_MEDICAL_RECORD -> medicalRecords.put(keyOf(entry.medicalRecord()), entry.medicalRecord());
+            case DELETE_MEDICAL_RECORD ->
+                medicalRecords.remove(new NameKey(entry.firstName(), entry.lastName()));
+            case RESET -> throw new IllegalStateException("RESET est traité par replay");
+        }
+    }
+
+    private void writeLoop() {
+        List<Pending> batch = new ArrayList<>(maxBatch);
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, maxBatch - 1);
+                if (failed) {
+                    // Entrées ajoutées avant le passage en échec : jamais écrites ni publiées
+                    IllegalStateException e = new IllegalStateException("Mutation log failed");
+                    batch.forEach(p -> p.done().completeExceptionally(e));
+                    continue;
+                }
+                write(batch);
+                publish(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                batch.forEach(p -> p.done().completeExceptionally(e));
+                return;
+            } catch (IOException | RuntimeException e) {
+                logger.error("[REPOSITORY] Écriture du journal impossible, écritures refusées jusqu'au redémarrage : {}",
+                        e.getMessage(), e);
+                synchronized (appendLock) {
+                    failed = true;
+                }
+                batch.forEach(p -> p.done().completeExceptionally(e));
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Écrit un lot d'entrées en un seul appel système puis le synchronise sur
+     * le disque. En cas d'échec, le fichier est tronqué à sa taille d'avant le
+     * lot : aucune ligne partielle ne reste entre deux lots.
+     */
+    private void write(List<Pending> batch) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(batch.size() * 256);
+        for (Pending pending : batch) {
+            out.write(mapper.writeValueAsBytes(pending.entry()));
+            out.write('\n');
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(out.toByteArray());
+        synchronized (channelLock) {
+            long start = size;
+            try {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                if (fsync) {
+                    channel.force(false);
+                }
+            } catch (IOException e) {
+                rollback(start);
+                throw e;
+            }
+            size = channel.position();
+            batchEnds.put(batch.get(batch.size() - 1).entry().seq(), size);
+        }
+    }
+
+    /**
+     * Publie, dans l'ordre du journal, les écritures d'un lot devenu durable,
+     * puis complète leurs futurs. Une publication en erreur met le journal en
+     * échec : l'entrée est durable mais les données en mémoire ne la
+     * contiennent pas.
+     */
+    private void publish(List<Pending> batch) {
+        checkpointLock.readLock().lock();
+        try {
+            for (Pending pending : batch) {
+                if (failed) {
+                    pending.done().completeExceptionally(new IllegalStateException("Mutation log failed"));
+                    continue;
+                }
+                try {
+                    if (pending.publish() != null) {
+                        pending.publish().run();
+                    }
+                    publishedSeq = pending.entry().seq();
+                    pending.done().complete(null);
+                } catch (RuntimeException e) {
+                    logger.error("[REPOSITORY] Publication de l'entrée {} impossible, écritures refusées jusqu'au "
+                            + "redémarrage : {}", pending.entry().seq(), e.getMessage(), e);
+                    synchronized (appendLock) {
+                        failed = true;
+                    }
+                    pending.done().completeExceptionally(e);
+                }
+            }
+        } finally {
+            checkpointLock.readLock().unlock();
+        }
+    }
+
+    private void rollback(long start) {
+        try {
+            channel.truncate(start);
+            channel.position(start);
+        } catch (IOException e) {
+            logger.error("[REPOSITORY] Impossible de tronquer le journal à {} octets : {}", start, e.getMessage());
+        }
+    }
+
+    private static FileChannel open(Path file) throws IOException {
+        return FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+    }
+
+    /**
+     * Tronque une éventuelle ligne incomplète ou illisible en fin de fichier et
+     * relit le numéro de séquence de la dernière entrée complète.
+     */
+    private void repairTail(boolean dropUnreadable) throws IOException {
+        long size = channel.size();
+        if (size == 0) {
+            return;
+        }
+        long lastNewline = previousNewline(size);
+        if (lastNewline != size - 1) {
+            logger.warn("[REPOSITORY] Ligne incomplète en fin de journal ignorée ({} octets)",
+                    size - lastNewline - 1);
+            channel.truncate(lastNewline + 1);
+        }
+        if (lastNewline < 0) {
+            return;
+        }
+        long lineStart = previousNewline(lastNewline) + 1;
+        ByteBuffer line = ByteBuffer.allocate((int) (lastNewline - lineStart));
+        readFully(line, lineStart);
+        String lastLine = new String(line.array(), StandardCharsets.UTF_8);
+        if (lastLine.isBlank()) {
+            return;
+        }
+        try {
+            lastSeq = parse(lastLine).seq();
+        } catch (IllegalStateException e) {
+            if (!dropUnreadable) {
+                throw e;
+            }
+            logger.warn("[REPOSITORY] Dernière ligne illisible du journal ignorée : {}", lastLine);
+            channel.truncate(lineStart);
+            repairTail(false);
+        }
+    }
+
+    /**
+     * Recherche le dernier saut de ligne strictement avant une position.
+     *
+     * @return la position du saut de ligne, ou -1 s'il n'y en a pas
+     */
+    private long previousNewline(long before) throws IOException {
+        ByteBuffer chunk = ByteBuffer.allocate(8192);
+        long end = before;
+        while (end > 0) {
+            long start = Math.max(0, end - chunk.capacity());
+            chunk.clear().limit((int) (end - start));
+            readFully(chunk, start);
+            for (int i = chunk.position() - 1; i >= 0; i--) {
+                if (chunk.get(i) == '\n') {
+                    return start + i;
+                }
+            }
+            end = start;
+        }
+        return -1;
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Fin de fichier inattendue dans le journal " + path);
+            }
+        }
+    }
+
+    private MutationLogEntry parse(String line) {
+        try {
+            return mapper.readValue(line, MutationLogEntry.class);
+        } catch (RuntimeException e) {
+            throw new IllegalStateException("Entrée illisible dans le journal " + path + " : " + line, e);
+        }
+    }
+
+    private static <T> List<T> nullToEmpty(List<T> list) {
+        return list == null ? List.of() : list;
+    }
+
+    private static NameKey keyOf(Person person) {
+        return new NameKey(person.getFirstName(), person.getLastName());
+    }
+
+    private static NameKey keyOf(MedicalRecord record) {
+        return new NameKey(record.getFirstName(), record.getLastName());
+    }
+}
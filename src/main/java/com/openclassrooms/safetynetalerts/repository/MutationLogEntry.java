@@ -0,0 +1,106 @@
+package com.openclassrooms.safetynetalerts.repository;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.openclassrooms.safetynetalerts.model.Firestation;
+import com.openclassrooms.safetynetalerts.model.MedicalRecord;
+import com.openclassrooms.safetynetalerts.model.Person;
+
+/**
+ * Entrée du journal des modifications ({@link MutationLog}).
+ *
+ * <p>
+ * Chaque entrée décrit l'état résultant d'une écriture plutôt que la requête
+ * qui l'a produite : une création ou une mise à jour enregistre l'entité
+ * complète ({@code PUT_*}), une suppression enregistre son identifiant
+ * ({@code DELETE_*}). Rejouer une entrée est ainsi idempotent.
+ *
+ * <p>
+ * Seuls les champs utiles à l'opération sont renseignés ; les autres sont
+ * {@code null} et omis lors de la sérialisation.
+ *
+ * @param seq           le numéro de séquence attribué par le journal
+ * @param op            l'opération
+ * @param person        la personne (PUT_PERSON)
+ * @param firestation   le mapping caserne/adresse (PUT_FIRESTATION)
+ * @param medicalRecord le dossier médical (PUT_MEDICAL_RECORD)
+ * @param firstName     le prénom (DELETE_PERSON, DELETE_MEDICAL_RECORD)
+ * @param lastName      le nom de famille (DELETE_PERSON,
+ *                      DELETE_MEDICAL_RECORD)
+ * @param address       l'adresse (DELETE_FIRESTATION)
+ * @param station       le numéro de caserne (DELETE_STATION)
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record MutationLogEntry(
+        long seq,
+        Operation op,
+        Person person,
+        Firestation firestation,
+        MedicalRecord medicalRecord,
+        String firstName,
+        String lastName,
+        String address,
+        Integer station) {
+
+    /**
+     * Opérations journalisées.
+     */
+    public enum Operation {
+        PUT_PERSON,
+        DELETE_PERSON,
+        PUT_FIRESTATION,
+        DELETE_FIRESTATION,
+        DELETE_STATION,
+        PUT_MEDICAL_RECORD,
+        DELETE_MEDICAL_RECORD,
+        /**
+         * Rechargement complet du fichier de données : les entrées précédentes
+         * ne s'appliquent plus.
+         */
+        RESET
+    }
+
+    public static MutationLogEntry putPerson(Person person) {
+        return new MutationLogEntry(0, Operation.PUT_PERSON, person, null, null, null, null, null, null);
+    }
+
+    public static MutationLogEntry deletePerson(String firstName, String lastName) {
+        return new MutationLogEntry(0, Operation.DELETE_PERSON, null, null, null, firstName, lastName, null, null);
+    }
+
+    public static MutationLogEntry putFirestation(Firestation firestation) {
+        return new MutationLogEntry(0, Operation.PUT_FIRESTATION, null, firestation, null, null, null, null, null);
+    }
+
+    public static MutationLogEntry deleteFirestation(String address) {
+        return new MutationLogEntry(0, Operation.DELETE_FIRESTATION, null, null, null, null, null, address, null);
+    }
+
+    public static MutationLogEntry deleteStation(int station) {
+        return new MutationLogEntry(0, Operation.DELETE_STATION, null, null, null, null, null, null, station);
+    }
+
+    public static MutationLogEntry putMedicalRecord(MedicalRecord medicalRecord) {
+        return new MutationLogEntry(0, Operation.PUT_MEDICAL_RECORD, null, null, medicalRecord, null, null, null,
+                null);
+    }
+
+    public static MutationLogEntry deleteMedicalRecord(String firstName, String lastName) {
+        return new MutationLogEntry(0, Operation.DELETE_MEDICAL_RECORD, null, null, null, firstName, lastName, null,
+                null);
+    }
+
+    public static MutationLogEntry reset() {
+        return new MutationLogEntry(0, Operation.RESET, null, null, null, null, null, null, null);
+    }
+
+    /**
+     * Retourne une copie de l'entrée avec le numéro de séquence donné.
+     *
+     * @param seq le numéro de séquence
+     * @return la nouvelle entrée
+     */
+    MutationLogEntry withSeq(long seq) {
+        return new MutationLogEntry(seq, op, person, firestation, medicalRecord, firstName, lastName, address,
+                station);
+    }
+}
@@ -0,0 +1,20 @@
+package com.openclassrooms.safetynetalerts.repository;
+
+/**
+ * Clé primaire composite d'une personne ou d'un dossier médical.
+ *
+ * <p>
+ * Dans SafetyNet Alerts, une personne et son dossier médical sont identifiés
+ * de manière unique par la combinaison prénom + nom de famille. Ce record sert
+ * de clé aux index de {@link PersonRepository} et de
+ * {@link MedicalRecordRepository}, rendant les recherches par identité O(1).
+ *
+ * <p>
+ * La correspondance est exacte et sensible à la casse, comme les recherches
+ * qu'elle remplace.
+ *
+ * @param firstName le prénom
+ * @param lastName  le nom de famille
+ */
+public record NameKey(String firstName, String lastName) {
+}
@@ -0,0 +1,324 @@
+package com.openclassrooms.safetynetalerts.repository;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import com.openclassrooms.safetynetalerts.model.Person;
+
+/**
+ * État immuable des personnes et de leurs index.
+ *
+ * <p>
+ * Contient :
+ * <ul>
+ * <li>l'index de clé primaire (prénom, nom) → personne, qui fait office de
+ * stockage</li>
+ * <li>l'index adresse → résidents</li>
+ * <li>les index nom de famille → personnes, exact et insensible à la
+ * casse</li>
+ * <li>l'index ville → emails, avec compteur de références</li>
+ * </ul>
+ *
+ * <p>
+ * Une instance n'est jamais modifiée : {@link PersonRepository} en construit
+ * une nouvelle via {@link Builder} à chaque écriture puis la publie. Les
+ * lecteurs peuvent donc la parcourir sans verrou. Les personnes indexées ne
+ * doivent pas être modifiées sur place ; une mise à jour remplace l'instance.
+ */
+final class PersonIndex {
+
+    private static final int CITY_EMAIL_SHARDS = 64;
+
+    private static final PersonIndex EMPTY = new PersonIndex(
+            SnapshotMap.empty(), SnapshotMap.empty(), SnapshotMap.empty(), SnapshotMap.empty(),
+            SnapshotMap.empty());
+
+    private final SnapshotMap<NameKey, Person> byName;
+    private final SnapshotMap<String, List<Person>> byAddress;
+    private final SnapshotMap<String, List<Person>> byLastName;
+    private final SnapshotMap<String, List<Person>> byLastNameIgnoreCase;
+    private final SnapshotMap<String, CityEmails> emailsByCity;
+
+    private PersonIndex(SnapshotMap<NameKey, Person> byName,
+            SnapshotMap<String, List<Person>> byAddress,
+            SnapshotMap<String, List<Person>> byLastName,
+            SnapshotMap<String, List<Person>> byLastNameIgnoreCase,
+            SnapshotMap<String, CityEmails> emailsByCity) {
+        this.byName = byName;
+        this.byAddress = byAddress;
+        this.byLastName = byLastName;
+        this.byLastNameIgnoreCase = byLastNameIgnoreCase;
+        this.emailsByCity = emailsByCity;
+    }
+
+    static PersonIndex empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Construit l'index d'une collection de personnes. En cas de doublon sur la
+     * clé (prénom, nom), la première personne est conservée.
+     *
+     * @param persons les personnes à indexer
+     * @return le nouvel index
+     */
+    static PersonIndex of(Collection<Person> persons) {
+        BulkBuilder builder = new BulkBuilder();
+        persons.forEach(builder::add);
+        return builder.build();
+    }
+
+    Person get(NameKey key) {
+        return byName.get(key);
+    }
+
+    List<Person> all() {
+        return byName.values();
+    }
+
+    int size() {
+        return byName.size();
+    }
+
+    List<Person> sample(int max) {
+        return byName.sample(max);
+    }
+
+    int addressCount() {
+        return byAddress.size();
+    }
+
+    int cityCount() {
+        return emailsByCity.size();
+    }
+
+    /**
+     * Parcourt les personnes ajoutées, remplacées ou supprimées depuis une
+     * version précédente de l'index.
+     *
+     * @param previous la version précédente
+     * @param action   l'action appliquée à chaque clé modifiée
+     */
+    void forEachChange(PersonIndex previous, SnapshotMap.ChangeConsumer<NameKey, Person> action) {
+        byName.forEachChange(previous.byName, action);
+    }
+
+    List<Person> byAddress(String address) {
+        return byAddress.getOrDefault(address, List.of());
+    }
+
+    List<Person> byLastName(String lastName) {
+        return byLastName.getOrDefault(lastName, List.of());
+    }
+
+    List<Person> byLastNameIgnoreCase(String lastName) {
+        return lastName == null ? List.of() : byLastNameIgnoreCase.getOrDefault(fold(lastName), List.of());
+    }
+
+    Set<String> emailsByCity(String city) {
+        CityEmails emails = emailsByCity.get(city);
+        return emails == null ? Set.of() : emails.emails();
+    }
+
+    Builder toBuilder() {
+        return new Builder(this);
+    }
+
+    private static String fold(String lastName) {
+        return lastName.toLowerCase(Locale.ROOT);
+    }
+
+    private static NameKey keyOf(Person person) {
+        return new NameKey(person.getFirstName(), person.getLastName());
+    }
+
+    /**
+     * Emails d'une ville, avec le nombre de résidents utilisant chacun d'eux.
+     *
+     * <p>
+     * L'ensemble exposé est calculé à la première lecture puis mémorisé : il
+     * est partagé par tous les appels tant que la ville n'est pas modifiée, une
+     * modification produisant une nouvelle instance.
+     */
+    private static final class CityEmails {
+        private final SnapshotMap<String, Integer> counts;
+        private volatile Set<String> emails;
+
+        private CityEmails(SnapshotMap<String, Integer> counts) {
+            this.counts = counts;
+        }
+
+        private Set<String> emails() {
+            Set<String> snapshot = emails;
+            if (snapshot == null) {
+                snapshot = Set.copyOf(counts.keys());
+                emails = snapshot;
+            }
+            return snapshot;
+        }
+    }
+
+    /**
+     * Construction complète d'un index, pour le chargement des données.
+     *
+     * <p>
+     * Contrairement à {@link Builder}, les listes par clé et les compteurs
+     * d'emails sont accumulés dans des maps modifiables puis figés une seule
+     * fois par {@link #build()} : la construction reste linéaire quelle que
+     * soit la taille des foyers, des familles ou des villes. Réservé à un seul
+     * écrivain, et à un seul appel de {@link #build()}.
+     */
+    static final class BulkBuilder {
+        private final SnapshotMap.Builder<NameKey, Person> byName = SnapshotMap.<NameKey, Person>empty().toBuilder();
+        private final Map<String, List<Person>> byAddress = new HashMap<>();
+        private final Map<String, List<Person>> byLastName = new HashMap<>();
+        private final Map<String, List<Person>> byLastNameIgnoreCase = new HashMap<>();
+        private final Map<String, Map<String, Integer>> emailsByCity = new HashMap<>();
+
+        /**
+         * Ajoute une personne si sa clé (prénom, nom) est libre.
+         *
+         * @param person la personne à ajouter
+         * @return {@code true} si la personne a été ajoutée, {@code false} si la
+         *         clé était déjà prise
+         */
+        boolean add(Person person) {
+            NameKey key = keyOf(person);
+            if (key.firstName() == null || key.lastName() == null || byName.containsKey(key)) {
+                return false;
+            }
+            byName.put(key, person);
+            IndexBuckets.collect(byAddress, person.getAddress(), person);
+            IndexBuckets.collect(byLastName, person.getLastName(), person);
+            IndexBuckets.collect(byLastNameIgnoreCase, fold(person.getLastName()), person);
+            if (person.getCity() != null && person.getEmail() != null) {
+                emailsByCity.computeIfAbsent(person.getCity(), city -> new HashMap<>())
+                        .merge(person.getEmail(), 1, Integer::sum);
+            }
+            return true;
+        }
+
+        PersonIndex build() {
+            SnapshotMap.Builder<String, CityEmails> cities = SnapshotMap.<String, CityEmails>empty().toBuilder();
+            emailsByCity.forEach((city, emails) -> {
+                SnapshotMap.Builder<String, Integer> counts = SnapshotMap.<String, Integer>empty(CITY_EMAIL_SHARDS)
+                        .toBuilder();
+                emails.forEach(counts::put);
+                cities.put(city, new CityEmails(counts.build()));
+            });
+            return new PersonIndex(byName.build(), IndexBuckets.freeze(byAddress), IndexBuckets.freeze(byLastName),
+                    IndexBuckets.freeze(byLastNameIgnoreCase), cities.build());
+        }
+    }
+
+    /**
+     * Builder d'une nouvelle version de l'index. Réservé à un seul écrivain.
+     */
+    static final class Builder {
+        private final SnapshotMap.Builder<NameKey, Person> byName;
+        private final IndexBuckets.Builder<String, Person> byAddress;
+        private final IndexBuckets.Builder<String, Person> byLastName;
+        private final IndexBuckets.Builder<String, Person> byLastNameIgnoreCase;
+        private final SnapshotMap.Builder<String, CityEmails> emailsByCity;
+        private final Map<String, SnapshotMap.Builder<String, Integer>> openCities = new HashMap<>();
+
+        private Builder(PersonIndex base) {
+            this.byName = base.byName.toBuilder();
+            this.byAddress = new IndexBuckets.Builder<>(base.byAddress);
+            this.byLastName = new IndexBuckets.Builder<>(base.byLastName);
+            this.byLastNameIgnoreCase = new IndexBuckets.Builder<>(base.byLastNameIgnoreCase);
+            this.emailsByCity = base.emailsByCity.toBuilder();
+        }
+
+        Person get(NameKey key) {
+            return byName.get(key);
+        }
+
+        /**
+         * Ajoute une personne si sa clé (prénom, nom) est libre.
+         *
+         * @param person la personne à ajouter
+         * @return {@code true} si la personne a été ajoutée, {@code false} si la
+         *         clé était déjà prise
+         */
+        boolean add(Person person) {
+            NameKey key = keyOf(person);
+            if (key.firstName() == null || key.lastName() == null || byName.containsKey(key)) {
+                return false;
+            }
+            byName.put(key, person);
+            byAddress.add(person.getAddress(), person);
+            byLastName.add(person.getLastName(), person);
+            byLastNameIgnoreCase.add(fold(person.getLastName()), person);
+            countEmail(person, 1);
+            return true;
+        }
+
+        /**
+         * Retire la personne d'une clé (prénom, nom) de tous les index.
+         *
+         * @param key la clé de la personne
+         * @return la personne retirée, ou {@code null} si la clé était absente
+         */
+        Person remove(NameKey key) {
+            Person person = byName.remove(key);
+            if (person == null) {
+                return null;
+            }
+            byAddress.remove(person.getAddress(), person);
+            byLastName.remove(person.getLastName(), person);
+            byLastNameIgnoreCase.remove(fold(person.getLastName()), person);
+            countEmail(person, -1);
+            return person;
+        }
+
+        /**
+         * Remplace la personne de même clé (prénom, nom) par une nouvelle
+         * instance.
+         *
+         * @param person la nouvelle version de la personne
+         */
+        void replace(Person person) {
+            remove(keyOf(person));
+            add(person);
+        }
+
+        PersonIndex build() {
+            openCities.forEach((city, counts) -> {
+                if (counts.size() == 0) {
+                    emailsByCity.remove(city);
+                } else {
+                    emailsByCity.put(city, new CityEmails(counts.build()));
+                }
+            });
+            openCities.clear();
+            return new PersonIndex(byName.build(), byAddress.build(), byLastName.build(),
+                    byLastNameIgnoreCase.build(), emailsByCity.build());
+        }
+
+        private void countEmail(Person person, int delta) {
+            if (person.getCity() == null || person.getEmail() == null) {
+                return;
+            }
+            // Les compteurs d'une ville sont ouverts une seule fois par version
+            SnapshotMap.Builder<String, Integer> counts = openCities.computeIfAbsent(person.getCity(), city -> {
+                CityEmails current = emailsByCity.get(city);
+                return (current == null
+                        ? SnapshotMap.<String, Integer>empty(CITY_EMAIL_SHARDS)
+                        : current.counts).toBuilder();
+            });
+
+            Integer count = counts.get(person.getEmail());
+            int updated = (count == null ? 0 : count) + delta;
+            if (updated > 0) {
+                counts.put(person.getEmail(), updated);
+            } else {
+                counts.remove(person.getEmail());
+            }
+        }
+    }
+}
@@ -3,16 +3,14 @@ package com.openclassrooms.safetynetalerts.repository;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 
-import com.openclassrooms.safetynetalerts.model.DataFile;
 import com.openclassrooms.safetynetalerts.model.Person;
 
-import jakarta.annotation.PostConstruct;
-
 /**
  * Repository de gestion des données des personnes.
  *
@@ -28,67 +26,97 @@ import jakarta.annotation.PostConstruct;
  *
  * <p>
  * Les personnes sont identifiées de manière unique par la combinaison prénom +
- * nom de famille.
- * Toutes les opérations de modification (add, update, delete) affectent
- * directement
- * les données en mémoire chargées depuis le fichier JSON.
+ * nom de famille. Elles sont copiées au chargement dans un
+ * {@link PersonIndex} qui maintient les index suivants :
+ * <ul>
+ * <li>un index de clé primaire (prénom, nom) → personne, pour des recherches
+ * d'identité en O(1)</li>
+ * <li>un index adresse → résidents, pour une recherche par adresse en
+ * O(nombre de résidents à l'adresse) au lieu d'un parcours de toutes les
+ * personnes</li>
+ * <li>un index nom de famille → personnes, doublé d'une variante insensible à
+ * la casse, pour l'endpoint /personInfo</li>
+ * <li>un index ville → emails (avec compteur de références, plusieurs
+ * résidents pouvant partager un email), dont l'ensemble immuable exposé par
+ * {@link #findEmailsByCity(String)} n'est reconstruit qu'après une
+ * modification touchant cette ville</li>
+ * </ul>
  *
  * <p>
- * <b>Note sur la thread-safety :</b> Ce repository n'est pas thread-safe. Les
- * opérations
- * de modification (add, update, delete) affectent directement la liste en
- * mémoire sans
- * synchronisation. Dans un environnement multi-threadé, des mécanismes de
- * synchronisation
- * externes doivent être mis en place au niveau de la couche service.
+ * <b>Note sur la thread-safety :</b> Ce repository est thread-safe. Son index
+ * est une section immuable de l'instantané courant du {@link DataStore} : les lectures
+ * ne prennent aucun verrou et voient toujours un état cohérent. Les écritures
+ * (add, update, delete) sont sérialisées par un verrou propre aux personnes ;
+ * chacune construit un nouvel index par copie à l'écriture, le journalise
+ * ({@link MutationLog}), qui le publie une fois l'écriture durable.
+ * Les personnes retournées ne doivent pas être modifiées par l'appelant : une
+ * mise à jour remplace l'instance indexée.
  *
  */
 @Repository
 public class PersonRepository {
 
+    private final ReentrantLock writeLock = new ReentrantLock();
+
     @Autowired
-    private DataRepo dataRepo;
+    private DataStore dataStore;
 
-    private DataFile data;
+    @Autowired
+    private MutationLog mutationLog;
+
+    /**
+     * Dernière version construite de l'index, publiée ou en attente de
+     * publication par le journal. Protégée par {@code writeLock} ;
+     * {@code null} tant que le repository n'est pas initialisé.
+     */
+    private PersonIndex pending;
 
     /**
-     * Initialise le repository en chargeant les données depuis le fichier JSON.
+     * Initialise le repository avec l'index des personnes chargées au
+     * démarrage.
      *
      * <p>
-     * Cette méthode est appelée automatiquement après la construction du bean
-     * Spring
-     * grâce à l'annotation {@link PostConstruct}. Elle charge toutes les données
-     * en mémoire pour un accès rapide.
+     * Cette méthode est appelée au démarrage par {@link RepositoryInitializer},
+     * une fois les données lues directement dans l'index et le journal des
+     * modifications rejoué.
      *
+     * @param persons l'index des personnes
      */
-    @PostConstruct
-    public void init() {
-        this.data = dataRepo.loadData();
+    void init(PersonIndex persons) {
+        writeLock.lock();
+        try {
+            pending = persons;
+            dataStore.publishPersons(persons);
+        } finally {
+            writeLock.unlock();
+        }
     }
 
     /**
      * Récupère la liste complète de toutes les personnes.
      *
      * <p>
-     * Cette méthode retourne la liste complète sans aucun filtre.
+     * Cette méthode retourne la liste complète sans aucun filtre, sous forme
+     * d'une copie immuable de l'état courant.
      *
      *
      * @return la liste de toutes les personnes, ou une liste vide si aucune
      *         personne n'est enregistrée
      */
     public List<Person> findAll() {
-        return data.getPersons();
+        return dataStore.read().persons().all();
     }
 
     /**
      * Recherche toutes les personnes habitant à une adresse donnée.
      *
      * <p>
-     * Cette méthode effectue une correspondance exacte sur l'adresse.
-     * Elle est utilisée notamment pour récupérer tous les résidents d'un foyer.
+     * Cette méthode effectue une correspondance exacte sur l'adresse via l'index
+     * adresse → résidents. Elle est utilisée notamment pour récupérer tous les
+     * résidents d'un foyer.
      *
-     * La création d'une nouvelle liste via {@code toList()} garantit l'isolation
-     * des données retournées.
+     * La liste retournée est immuable, ce qui garantit l'isolation des données
+     * retournées.
      *
      * @param address l'adresse à rechercher (sensible à la casse, correspondance
      *                exacte)
@@ -96,9 +124,7 @@ public class PersonRepository {
      *         aucune correspondance
      */
     public List<Person> findByAddress(String address) {
-        return data.getPersons().stream()
-                .filter(p -> p.getAddress().equals(address))
-                .toList();
+        return dataStore.read().persons().byAddress(address);
     }
 
     /**
@@ -107,7 +133,8 @@ public class PersonRepository {
      * <p>
      * Cette méthode effectue une correspondance exacte sur la combinaison prénom +
      * nom,
-     * qui constitue l'identifiant unique d'une personne dans le système.
+     * qui constitue l'identifiant unique d'une personne dans le système, via
+     * l'index de clé primaire.
      *
      * @param firstName le prénom à rechercher (sensible à la casse, correspondance
      *                  exacte)
@@ -117,10 +144,7 @@ public class PersonRepository {
      *         {@link Optional#empty()}
      */
     public Optional<Person> findByFirstNameAndLastName(String firstName, String lastName) {
-        return data.getPersons().stream()
-                .filter(p -> p.getFirstName().equals(firstName)
-                        && p.getLastName().equals(lastName))
-                .findFirst();
+        return Optional.ofNullable(dataStore.read().persons().get(new NameKey(firstName, lastName)));
     }
 
     /**
@@ -128,9 +152,10 @@ public class PersonRepository {
      *
      * <p>
      * Cette méthode est utile pour retrouver tous les membres d'une même famille.
+     * Elle effectue une seule lecture de l'index par nom de famille.
      *
-     * La création d'une nouvelle liste via {@code toList()} garantit l'isolation
-     * des données retournées.
+     * La liste retournée est immuable, ce qui garantit l'isolation des données
+     * retournées.
      *
      * @param lastName le nom de famille à rechercher (sensible à la casse,
      *                 correspondance exacte)
@@ -138,9 +163,19 @@ public class PersonRepository {
      *         correspondance
      */
     public List<Person> findByLastName(String lastName) {
-        return data.getPersons().stream()
-                .filter(mr -> mr.getLastName().equals(lastName))
-                .toList();
+        return dataStore.read().persons().byLastName(lastName);
+    }
+
+    /**
+     * Recherche toutes les personnes portant un nom de famille donné, sans tenir
+     * compte de la casse.
+     *
+     * @param lastName le nom de famille à rechercher (insensible à la casse)
+     * @return la liste des personnes portant ce nom, ou une liste vide si aucune
+     *         correspondance
+     */
+    public List<Person> findByLastNameIgnoreCase(String lastName) {
+        return dataStore.read().persons().byLastNameIgnoreCase(lastName);
     }
 
     /*
@@ -159,18 +194,16 @@ public class PersonRepository {
      * Elle est utilisée pour envoyer des alertes par email à tous les résidents
      * d'une ville.
      *
-     * La création d'un nouveau Set via {@code collect()} garantit l'isolation
-     * des données retournées.
+     * L'ensemble retourné est un instantané immuable, partagé entre les appels
+     * tant qu'aucune modification ne touche la ville : les rafales d'appels ne
+     * parcourent ni n'allouent rien par résident.
      *
      * @param city le nom de la ville (sensible à la casse, correspondance exacte)
-     * @return un ensemble d'adresses email uniques, ou un ensemble vide si aucun
-     *         résident trouvé
+     * @return un ensemble immuable d'adresses email uniques, ou un ensemble vide
+     *         si aucun résident trouvé
      */
     public Set<String> findEmailsByCity(String city) {
-        return data.getPersons().stream()
-                .filter(p -> p.getCity().equals(city))
-                .map(Person::getEmail)
-                .collect(Collectors.toSet());
+        return dataStore.read().persons().emailsByCity(city);
     }
 
     /**
@@ -185,24 +218,35 @@ public class PersonRepository {
      * @return {@code true} si la personne existe, {@code false} sinon
      */
     public boolean existsByFirstNameAndLastName(String firstName, String lastName) {
-        return data.getPersons().stream()
-                .anyMatch(p -> p.getFirstName().equals(firstName)
-                        && p.getLastName().equals(lastName));
+        return dataStore.read().persons().get(new NameKey(firstName, lastName)) != null;
     }
 
     /**
      * Ajoute une nouvelle personne au système.
      *
      * <p>
-     * Cette méthode ajoute directement la personne à la liste en mémoire.
-     * Aucune validation d'unicité n'est effectuée à ce niveau - c'est la
-     * responsabilité
-     * du service appelant de vérifier que la personne n'existe pas déjà.
+     * Le service appelant vérifie au préalable que la personne n'existe pas
+     * déjà ; l'unicité est de nouveau contrôlée sous le verrou d'écriture afin
+     * d'écarter deux ajouts concurrents de la même personne.
      *
      * @param person la personne à ajouter
+     * @return la personne ajoutée
+     * @throws IllegalArgumentException si une personne avec le même prénom et nom
+     *                                  existe déjà
      */
     public Person addPerson(Person person) {
-        data.getPersons().add(person);
+        CompletableFuture<Void> durable;
+        writeLock.lock();
+        try {
+            PersonIndex.Builder builder = pending().toBuilder();
+            if (!builder.add(person)) {
+                throw new IllegalArgumentException("Person already exist");
+            }
+            durable = commit(builder, MutationLogEntry.putPerson(person));
+        } finally {
+            writeLock.unlock();
+        }
+        mutationLog.await(durable);
         return person;
     }
 
@@ -214,28 +258,39 @@ public class PersonRepository {
      * address, city, zip, phone et email. L'identité de la personne (prénom + nom)
      * ne peut pas être modifiée conformément au cahier des charges.
      *
-     * @param existing la personne existante
+     * <p>
+     * La personne indexée n'est pas modifiée sur place : une nouvelle instance
+     * est construite à partir de la version courante, relue sous le verrou
+     * d'écriture, puis remplace l'ancienne dans tous les index.
+     *
+     * @param existing la personne existante (seuls son prénom et son nom sont
+     *                 utilisés)
      * @param updated  les nouvelles données de la personne (prénom et nom servent
      *                 d'identifiant)
+     * @return la version remplacée et la nouvelle version de la personne
+     * @throws IllegalArgumentException si la personne a été supprimée entre-temps
      */
-    public void updatePerson(Person existing, Person updated) {
-        // Le prénom et nom ne changent pas (identifiant unique)
-        if (updated.getAddress() != null) {
-            existing.setAddress(updated.getAddress());
-        }
-        if (updated.getCity() != null) {
-            existing.setCity(updated.getCity());
-        }
-        if (updated.getZip() != null) {
-            existing.setZip(updated.getZip());
-        }
-        if (updated.getPhone() != null) {
-            existing.setPhone(updated.getPhone());
-        }
-        if (updated.getEmail() != null) {
-            existing.setEmail(updated.getEmail());
-        }
+    public Replacement<Person> updatePerson(Person existing, Person updated) {
+        Person current;
+        Person merged;
+        CompletableFuture<Void> durable;
+        writeLock.lock();
+        try {
+            PersonIndex.Builder builder = pending().toBuilder();
+            current = builder.get(new NameKey(existing.getFirstName(), existing.getLastName()));
+            if (current == null) {
+                throw new IllegalArgumentException(
+                        "Person not found: " + existing.getFirstName() + " " + existing.getLastName());
+            }
 
+            merged = merge(current, updated);
+            builder.replace(merged);
+            durable = commit(builder, MutationLogEntry.putPerson(merged));
+        } finally {
+            writeLock.unlock();
+        }
+        mutationLog.await(durable);
+        return new Replacement<>(current, merged);
     }
 
     /**
@@ -250,9 +305,96 @@ public class PersonRepository {
      *
      * @param firstName le prénom de la personne à supprimer
      * @param lastName  le nom de famille de la personne à supprimer
+     * @return la personne supprimée, lue sous le verrou d'écriture, ou
+     *         {@link Optional#empty()} si aucune personne ne correspondait
+     */
+    public Optional<Person> deletePerson(String firstName, String lastName) {
+        Person removed;
+        CompletableFuture<Void> durable;
+        writeLock.lock();
+        try {
+            PersonIndex.Builder builder = pending().toBuilder();
+            removed = builder.remove(new NameKey(firstName, lastName));
+            if (removed == null) {
+                return Optional.empty();
+            }
+            durable = commit(builder, MutationLogEntry.deletePerson(firstName, lastName));
+        } finally {
+            writeLock.unlock();
+        }
+        mutationLog.await(durable);
+        return Optional.of(removed);
+    }
+
+    /**
+     * Construit la nouvelle version d'une personne à partir de sa version
+     * courante et des champs non-null d'une mise à jour.
+     *
+     * @param current la version courante de la personne
+     * @param updated la personne contenant les nouvelles valeurs
+     * @return une nouvelle personne
+     */
+    static Person merge(Person current, Person updated) {
+        // Le prénom et nom ne changent pas (identifiant unique)
+        return new Person(
+                current.getFirstName(),
+                current.getLastName(),
+                updated.getAddress() != null ? updated.getAddress() : current.getAddress(),
+                updated.getCity() != null ? updated.getCity() : current.getCity(),
+                updated.getZip() != null ? updated.getZip() : current.getZip(),
+                updated.getPhone() != null ? updated.getPhone() : current.getPhone(),
+                updated.getEmail() != null ? updated.getEmail() : current.getEmail());
+    }
+
+    /**
+     * Retourne le verrou d'écriture du repository, pris par
+     * {@link DataReloader} pour remplacer toutes les sections à la fois.
+     *
+     * @return le verrou d'écriture
+     */
+    ReentrantLock writeLock() {
+        return writeLock;
+    }
+
+    /**
+     * Retourne la dernière version construite de l'index, sur laquelle
+     * s'appuie l'écriture suivante : elle inclut les écritures journalisées
+     * mais pas encore publiées. Doit être appelée sous le verrou d'écriture.
+     *
+     * @return la dernière version de l'index
+     */
+    PersonIndex pending() {
+        return pending != null ? pending : dataStore.current().persons();
+    }
+
+    /**
+     * Enregistre la nouvelle version de l'index construite par une écriture
+     * journalisée hors du repository ({@link BatchWriter},
+     * {@link DataReloader}). Doit être appelée sous le verrou d'écriture, une
+     * fois l'entrée ajoutée au journal.
+     *
+     * @param persons la nouvelle version de l'index
+     */
+    void stage(PersonIndex persons) {
+        pending = persons;
+    }
+
+    /**
+     * Journalise une écriture ; la nouvelle version de l'index est publiée
+     * une fois l'entrée durable. Doit être appelée sous le verrou d'écriture,
+     * afin que l'ordre du journal suive l'ordre des écritures.
+     *
+     * @param builder le builder portant la nouvelle version de l'index
+     * @param entry   l'entrée de journal décrivant l'écriture
+     * @return le futur complété lorsque l'entrée est durable et publiée
+     * @throws IllegalStateException si le journal est fermé ou en échec,
+     *                               l'écriture n'étant alors ni publiée ni
+     *                               conservée
      */
-    public void deletePerson(String firstName, String lastName) {
-        data.getPersons().removeIf(p -> p.getFirstName().equals(firstName)
-                && p.getLastName().equals(lastName));
+    private CompletableFuture<Void> commit(PersonIndex.Builder builder, MutationLogEntry entry) {
+        PersonIndex next = builder.build();
+        CompletableFuture<Void> durable = mutationLog.append(entry, () -> dataStore.publishPersons(next));
+        pending = next;
+        return durable;
     }
 }
@@ -0,0 +1,19 @@
+package com.openclassrooms.safetynetalerts.repository;
+
+/**
+ * Résultat d'une mise à jour : la version remplacée et la nouvelle version
+ * d'une entité.
+ *
+ * <p>
+ * La version remplacée est relue sous le verrou d'écriture du repository.
+ * Elle peut donc différer de la version lue par l'appelant avant l'écriture,
+ * si une autre écriture s'est intercalée : c'est elle que les caches doivent
+ * invalider.
+ *
+ * @param <T>      le type de l'entité
+ * @param previous la version remplacée
+ * @param current  la nouvelle version, identique à {@code previous} si rien
+ *                 n'a été modifié
+ */
+public record Replacement<T>(T previous, T current) {
+}
@@ -0,0 +1,174 @@
+package com.openclassrooms.safetynetalerts.repository;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Charge les données et initialise les trois repositories au démarrage.
+ *
+ * <p>
+ * Les éléments lus par {@link DataRepo} sont passés directement aux index en
+ * construction, section par section : aucune liste intermédiaire contenant
+ * tout le fichier n'est constituée. Les sections du modèle sont indépendantes :
+ * les index des personnes, des casernes et des dossiers médicaux sont ensuite
+ * figés en parallèle, chacun sur son propre thread.
+ *
+ * <p>
+ * Le journal des modifications ({@link MutationLog}) est rejoué par-dessus
+ * les index construits, puis chaque repository publie sa section dans
+ * {@link DataStore}.
+ *
+ * <p>
+ * La durée d'indexation de chaque section est journalisée.
+ */
+@Component
+public class RepositoryInitializer {
+    private final Logger logger = LoggerFactory.getLogger(RepositoryInitializer.class);
+
+    @Autowired
+    private DataRepo dataRepo;
+
+    @Autowired
+    private MutationLog mutationLog;
+
+    @Autowired
+    private PersonRepository personRepository;
+
+    @Autowired
+    private FirestationRepository firestationRepository;
+
+    @Autowired
+    private MedicalRecordRepository medicalRecordRepository;
+
+    /**
+     * Charge les données dans les index, rejoue le journal des modifications
+     * et publie les index des trois repositories.
+     *
+     * @throws IllegalStateException si la construction d'un index échoue
+     * @throws RuntimeException      si les données ne peuvent pas être lues
+     */
+    @PostConstruct
+    public void init() {
+        long start = System.nanoTime();
+        PersonIndex.BulkBuilder persons = new PersonIndex.BulkBuilder();
+        FirestationIndex.BulkBuilder firestations = new FirestationIndex.BulkBuilder();
+        MedicalRecordIndex.BulkBuilder medicalRecords = new MedicalRecordIndex.BulkBuilder();
+        long seq = dataRepo.load(new DataRepo.Sink(persons::add, firestations::add, medicalRecords::add));
+
+        IndexReplay replay;
+        try (ExecutorService executor = Executors.newFixedThreadPool(3,
+                Thread.ofPlatform().name("repository-init-", 0).factory())) {
+            Future<PersonIndex> personIndex = executor.submit(() -> timed("persons", persons::build));
+            Future<FirestationIndex> firestationIndex = executor
+                    .submit(() -> timed("firestations", firestations::build));
+            Future<MedicalRecordIndex> medicalRecordIndex = executor
+                    .submit(() -> timed("medicalrecords", medicalRecords::build));
+            replay = new IndexReplay(personIndex.get(), firestationIndex.get(), medicalRecordIndex.get());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Initialisation des repositories interrompue", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Initialisation des repositories impossible", e.getCause());
+        }
+
+        mutationLog.replay(seq, replay);
+        personRepository.init(replay.persons());
+        firestationRepository.init(replay.firestations());
+        medicalRecordRepository.init(replay.medicalRecords());
+        logger.info("[REPOSITORY] Repositories initialisés en {} ms", (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private <T> T timed(String section, Callable<T> task) throws Exception {
+        long start = System.nanoTime();
+        T index = task.call();
+        logger.debug("[REPOSITORY] Section {} indexée en {} ms", section, (System.nanoTime() - start) / 1_000_000);
+        return index;
+    }
+
+    /**
+     * Applique les entrées du journal aux index chargés. Une section n'est
+     * copiée qu'à sa première modification ; une entrée {@code RESET} ramène
+     * les trois sections aux index chargés.
+     */
+    private static final class IndexReplay implements Consumer<MutationLogEntry> {
+        private final PersonIndex basePersons;
+        private final FirestationIndex baseFirestations;
+        private final MedicalRecordIndex baseMedicalRecords;
+        private PersonIndex.Builder persons;
+        private FirestationIndex.Builder firestations;
+        private MedicalRecordIndex.Builder medicalRecords;
+
+        private IndexReplay(PersonIndex persons, FirestationIndex firestations, MedicalRecordIndex medicalRecords) {
+            this.basePersons = persons;
+            this.baseFirestations = firestations;
+            this.baseMedicalRecords = medicalRecords;
+        }
+
+        @Override
+        public void accept(MutationLogEntry entry) {
+            switch (entry.op()) {
+                case PUT_PERSON -> personBuilder().replace(entry.person());
+                case DELETE_PERSON -> personBuilder().remove(new NameKey(entry.firstName(), entry.lastName()));
+                case PUT_FIRESTATION -> firestationBuilder().replace(entry.firestation());
+                case DELETE_FIRESTATION -> firestationBuilder().remove(entry.address());
+                case DELETE_STATION -> {
+                    FirestationIndex.Builder builder = firestationBuilder();
+                    List.copyOf(builder.addressesOf(entry.station())).forEach(builder::remove);
+                }
+                case PUT_MEDICAL_RECORD -> medicalRecordBuilder().replace(entry.medicalRecord());
+                case DELETE_MEDICAL_RECORD ->
+                    medicalRecordBuilder().remove(new NameKey(entry.firstName(), entry.lastName()));
+                case RESET -> {
+                    persons = null;
+                    firestations = null;
+                    medicalRecords = null;
+                }
+            }
+        }
+
+        private PersonIndex persons() {
+            return persons == null ? basePersons : persons.build();
+        }
+
+        private FirestationIndex firestations() {
+            return firestations == null ? baseFirestations : firestations.build();
+        }
+
+        private MedicalRecordIndex medicalRecords() {
+            return medicalRecords == null ? baseMedicalRecords : medicalRecords.build();
+        }
+
+        private PersonIndex.Builder personBuilder() {
+            if (persons == null) {
+                persons = basePersons.toBuilder();
+            }
+            return persons;
+        }
+
+        private FirestationIndex.Builder firestationBuilder() {
+            if (firestations == null) {
+                firestations = baseFirestations.toBuilder();
+            }
+            return firestations;
+        }
+
+        private MedicalRecordIndex.Builder medicalRecordBuilder() {
+            if (medicalRecords == null) {
+                medicalRecords = baseMedicalRecords.toBuilder();
+            }
+            return medicalRecords;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.openclassrooms.safetynetalerts.repository;
+
+/**
+ * Nombre d'adultes et d'enfants couverts par une caserne.
+ *
+ * <p>
+ * Un enfant a au plus {@code Utils.ADULT_AGE_THRESHOLD} ans ; une personne
+ * sans date de naissance connue est comptée comme enfant, comme dans
+ * {@code Utils.isChild}.
+ *
+ * @param adults   le nombre d'adultes
+ * @param children le nombre d'enfants
+ */
+public record ResidentCounts(int adults, int children) {
+
+    /** Aucun résident. */
+    public static final ResidentCounts NONE = new ResidentCounts(0, 0);
+}
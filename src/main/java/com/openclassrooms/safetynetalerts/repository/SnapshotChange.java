@@ -0,0 +1,124 @@
+package com.openclassrooms.safetynetalerts.repository;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+import com.openclassrooms.safetynetalerts.model.Firestation;
+import com.openclassrooms.safetynetalerts.model.MedicalRecord;
+import com.openclassrooms.safetynetalerts.model.Person;
+
+/**
+ * Différence entre la version courante des données et celle sur le point
+ * d'être publiée, transmise aux observateurs de {@link DataStore}.
+ *
+ * <p>
+ * Seules les entrées modifiées sont parcourues
+ * ({@link SnapshotMap#forEachChange}) : le coût d'une écriture unitaire ne
+ * dépend pas de la taille des données. Une entrée est considérée modifiée si
+ * l'instance diffère entre les deux versions.
+ */
+public final class SnapshotChange {
+
+    private final DataSnapshot previous;
+    private final DataSnapshot next;
+
+    SnapshotChange(DataSnapshot previous, DataSnapshot next) {
+        this.previous = previous;
+        this.next = next;
+    }
+
+    /**
+     * @return le numéro de la version sur le point d'être publiée
+     */
+    public long version() {
+        return next.version();
+    }
+
+    /**
+     * Indique si le jour de référence des âges change
+     * ({@link StationCountsRollover}) : tous les âges calculés sur la version
+     * précédente sont alors susceptibles d'avoir changé.
+     *
+     * @return {@code true} si le jour de référence change
+     */
+    public boolean isDayRollover() {
+        return previous.stationCounts().childBirthThreshold() != next.stationCounts().childBirthThreshold();
+    }
+
+    /**
+     * Parcourt les personnes ajoutées, modifiées ou supprimées.
+     *
+     * @param action reçoit l'ancienne et la nouvelle version de chaque
+     *               personne ({@code null} si absente)
+     */
+    public void forEachPerson(BiConsumer<Person, Person> action) {
+        if (previous.persons() != next.persons()) {
+            next.persons().forEachChange(previous.persons(), (key, before, after) -> action.accept(before, after));
+        }
+    }
+
+    /**
+     * Parcourt les mappings caserne/adresse ajoutés, modifiés ou supprimés.
+     *
+     * @param action reçoit l'ancienne et la nouvelle version de chaque mapping
+     *               ({@code null} si absente)
+     */
+    public void forEachFirestation(BiConsumer<Firestation, Firestation> action) {
+        if (previous.firestations() != next.firestations()) {
+            next.firestations().forEachChange(previous.firestations(),
+                    (address, before, after) -> action.accept(before, after));
+        }
+    }
+
+    /**
+     * Parcourt les dossiers médicaux ajoutés, modifiés ou supprimés.
+     *
+     * @param action reçoit l'ancienne et la nouvelle version de chaque dossier
+     *               ({@code null} si absente)
+     */
+    public void forEachMedicalRecord(BiConsumer<MedicalRecord, MedicalRecord> action) {
+        if (previous.medicalRecords() != next.medicalRecords()) {
+            next.medicalRecords().forEachChange(previous.medicalRecords(),
+                    (key, before, after) -> action.accept(before, after));
+        }
+    }
+
+    /**
+     * Retourne l'adresse d'une personne dans l'ancienne et dans la nouvelle
+     * version.
+     *
+     * @param firstName le prénom de la personne
+     * @param lastName  le nom de famille de la personne
+     * @return les adresses connues (zéro, une ou deux)
+     */
+    public Set<String> addressesOf(String firstName, String lastName) {
+        NameKey key = new NameKey(firstName, lastName);
+        Set<String> addresses = new LinkedHashSet<>(2);
+        for (DataSnapshot snapshot : new DataSnapshot[] { previous, next }) {
+            Person person = snapshot.persons().get(key);
+            if (person != null && person.getAddress() != null) {
+                addresses.add(person.getAddress());
+            }
+        }
+        return addresses;
+    }
+
+    /**
+     * Retourne la caserne couvrant une adresse dans l'ancienne et dans la
+     * nouvelle version.
+     *
+     * @param address l'adresse
+     * @return les numéros de caserne connus (zéro, un ou deux)
+     */
+    public Set<Integer> stationsOf(String address) {
+        Set<Integer> stations = new LinkedHashSet<>(2);
+        for (DataSnapshot snapshot : new DataSnapshot[] { previous, next }) {
+            Firestation firestation = snapshot.firestations().byAddress(address);
+            if (firestation != null) {
+                stations.add(firestation.getStation());
+            }
+        }
+        return stations;
+    }
+}
@@ -0,0 +1,266 @@
+package com.openclassrooms.safetynetalerts.repository;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import com.openclassrooms.safetynetalerts.model.DataFile;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Compacte périodiquement le journal des modifications ({@link MutationLog})
+ * dans un instantané complet des données.
+ *
+ * <p>
+ * Sans compaction, le journal grossit indéfiniment et son rejeu ralentit
+ * chaque démarrage. Un thread dédié vérifie régulièrement deux
+ * déclencheurs :
+ * <ul>
+ * <li>la taille du journal atteint {@code safetynet.compaction.max-log-size}
+ * ;</li>
+ * <li>le journal n'est pas vide et la dernière compaction date de plus de
+ * {@code safetynet.compaction.max-age}.</li>
+ * </ul>
+ *
+ * <p>
+ * Une compaction :
+ * <ol>
+ * <li>capture la version courante des données et la séquence du journal
+ * qu'elle couvre ({@link MutationLog#checkpoint(java.util.function.LongFunction)}),
+ * ce qui ne suspend les écritures que le temps d'une lecture de
+ * référence ;</li>
+ * <li>écrit cette version au format de data.json, avec sa séquence, dans un
+ * fichier temporaire synchronisé sur le disque, puis le renomme
+ * atomiquement en {@code safetynet.data.path}. L'instantané binaire
+ * ({@link BinaryDataFile}, {@code safetynet.data.binary-path}) est écrit de
+ * la même façon juste après, avec l'empreinte du JSON écrit, pour accélérer
+ * le prochain démarrage ;</li>
+ * <li>retire du journal les entrées couvertes
+ * ({@link MutationLog#truncateThrough(long)}).</li>
+ * </ol>
+ * La sérialisation et les entrées/sorties se font hors de tout verrou des
+ * repositories : les requêtes ne sont pas bloquées. Un arrêt brutal entre
+ * deux étapes est sans conséquence, le rejeu ignorant les entrées déjà
+ * couvertes par l'instantané.
+ *
+ * <p>
+ * L'instantané renommé en {@code safetynet.data.path} est reconnu par
+ * {@link #isLastSnapshot(Path)} : la surveillance du fichier
+ * ({@link DataReloader}) ne le relit pas.
+ *
+ * <p>
+ * La compaction n'est active que si le journal l'est. Elle ne démarre
+ * qu'une fois les repositories initialisés, pour ne jamais écrire un
+ * instantané vide.
+ */
+@Component
+@DependsOn("repositoryInitializer")
+public class SnapshotCompactor {
+    private final Logger logger = LoggerFactory.getLogger(SnapshotCompactor.class);
+
+    @Autowired
+    private DataStore dataStore;
+
+    @Autowired
+    private MutationLog mutationLog;
+
+    @Autowired
+    private JsonMapper mapper;
+
+    @Autowired
+    private Clock clock;
+
+    @Value("${safetynet.data.path:data/data.json}")
+    private String path;
+
+    @Value("${safetynet.data.binary-path:data/data.bin}")
+    private String binaryPath;
+
+    @Value("${safetynet.compaction.check-interval:30s}")
+    private Duration checkInterval;
+
+    @Value("${safetynet.compaction.max-log-size:16MB}")
+    private DataSize maxLogSize;
+
+    @Value("${safetynet.compaction.max-age:10m}")
+    private Duration maxAge;
+
+    private ScheduledExecutorService executor;
+
+    private volatile Instant lastCompaction;
+
+    private volatile FileVersion lastSnapshot;
+
+    private record Checkpoint(long seq, DataSnapshot snapshot) {
+    }
+
+    /**
+     * Identité d'une version d'un fichier : un fichier remplacé ou réécrit
+     * change d'inode, de date de modification ou de taille.
+     */
+    private record FileVersion(Object fileKey, FileTime lastModified, long size) {
+
+        private static FileVersion of(Path file) throws IOException {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            return new FileVersion(attributes.fileKey(), attributes.lastModifiedTime(), attributes.size());
+        }
+    }
+
+    /**
+     * Démarre le thread de compaction lorsque le journal est activé.
+     */
+    @PostConstruct
+    public void start() {
+        lastCompaction = clock.instant();
+        if (!mutationLog.isEnabled()) {
+            return;
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("snapshot-compactor").daemon().factory());
+        long interval = checkInterval.toMillis();
+        executor.scheduleWithFixedDelay(this::compactIfNeeded, interval, interval, TimeUnit.MILLISECONDS);
+        logger.info("[REPOSITORY] Compaction du journal toutes les {} (taille max {}, ancienneté max {})",
+                checkInterval, maxLogSize, maxAge);
+    }
+
+    /**
+     * Arrête le thread de compaction, en laissant se terminer une compaction
+     * en cours.
+     *
+     * @throws InterruptedException si l'attente est interrompue
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (executor != null) {
+            executor.shutdown();
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+        }
+    }
+
+    /**
+     * Indique si un déclencheur de compaction est atteint.
+     *
+     * @return {@code true} si le journal doit être compacté
+     */
+    public boolean shouldCompact() {
+        long size = mutationLog.size();
+        if (size == 0) {
+            return false;
+        }
+        return size >= maxLogSize.toBytes()
+                || !Duration.between(lastCompaction, clock.instant()).minus(maxAge).isNegative();
+    }
+
+    /**
+     * Écrit un instantané complet des données puis tronque le journal.
+     *
+     * @return la séquence du journal couverte par l'instantané
+     * @throws UncheckedIOException si l'instantané ou le journal ne peut pas
+     *                              être écrit
+     */
+    public synchronized long compact() {
+        Checkpoint checkpoint = mutationLog.checkpoint(seq -> new Checkpoint(seq, dataStore.current()));
+        DataSnapshot snapshot = checkpoint.snapshot();
+
+        DataFile data = new DataFile();
+        data.setPersons(new ArrayList<>(snapshot.persons().all()));
+        data.setFirestations(new ArrayList<>(snapshot.firestations().all()));
+        data.setMedicalrecords(new ArrayList<>(snapshot.medicalRecords().all()));
+        data.setSeq(checkpoint.seq());
+
+        try {
+            BinaryDataFile.Source source = write(data);
+            BinaryDataFile.write(data, Path.of(binaryPath), source);
+            mutationLog.truncateThrough(checkpoint.seq());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Impossible de compacter le journal dans " + path, e);
+        }
+        lastCompaction = clock.instant();
+        logger.info("[REPOSITORY] Instantané {} écrit (séquence {}, version {})", path, checkpoint.seq(),
+                snapshot.version());
+        return checkpoint.seq();
+    }
+
+    /**
+     * Indique si un fichier est toujours l'instantané écrit par la dernière
+     * compaction, sans le lire.
+     *
+     * @param file le fichier à comparer
+     * @return {@code true} si le fichier n'a pas changé depuis la dernière
+     *         compaction
+     */
+    public boolean isLastSnapshot(Path file) {
+        FileVersion written = lastSnapshot;
+        if (written == null) {
+            return false;
+        }
+        try {
+            return written.equals(FileVersion.of(file));
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private void compactIfNeeded() {
+        try {
+            if (shouldCompact()) {
+                compact();
+            }
+        } catch (RuntimeException e) {
+            // Une exception non capturée annulerait les exécutions suivantes
+            logger.error("[REPOSITORY] Compaction du journal impossible : {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Écrit les données dans un fichier temporaire synchronisé sur le disque,
+     * puis le renomme atomiquement à la place de l'instantané précédent.
+     *
+     * @return l'empreinte du fichier écrit, calculée pendant l'écriture et
+     *         enregistrée dans l'instantané binaire
+     */
+    private BinaryDataFile.Source write(DataFile data) throws IOException {
+        Path file = Path.of(path);
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        CRC32C crc = new CRC32C();
+        try (OutputStream out = new CheckedOutputStream(Files.newOutputStream(tmp), crc)) {
+            mapper.writeValue(out, data);
+        }
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        lastSnapshot = FileVersion.of(file);
+        return new BinaryDataFile.Source(lastSnapshot.size(), crc.getValue());
+    }
+}
@@ -0,0 +1,317 @@
+package com.openclassrooms.safetynetalerts.repository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+
+/**
+ * Map immuable partitionnée, modifiable par copie à l'écriture.
+ *
+ * <p>
+ * Les entrées sont réparties dans un nombre fixe de partitions selon le hash
+ * de la clé. Une instance n'est jamais modifiée : les écritures passent par un
+ * {@link Builder} qui ne copie que les partitions touchées, les autres étant
+ * partagées avec l'instance d'origine. Une écriture coûte ainsi
+ * O(nombre de partitions + taille d'une partition) au lieu d'une copie
+ * complète, ce qui permet de publier un nouvel état à chaque modification
+ * tout en laissant les lecteurs parcourir l'ancien sans verrou.
+ *
+ * <p>
+ * Les clés et valeurs {@code null} ne sont pas acceptées en écriture. En
+ * lecture, une clé {@code null} n'est simplement jamais trouvée.
+ *
+ * @param <K> le type des clés
+ * @param <V> le type des valeurs
+ */
+public final class SnapshotMap<K, V> {
+
+    /** Nombre de partitions par défaut, adapté aux index de plusieurs millions d'entrées. */
+    public static final int DEFAULT_SHARDS = 1024;
+
+    private final Map<K, V>[] shards;
+    private final int size;
+
+    private SnapshotMap(Map<K, V>[] shards, int size) {
+        this.shards = shards;
+        this.size = size;
+    }
+
+    /**
+     * Crée une map vide avec le nombre de partitions par défaut.
+     *
+     * @param <K> le type des clés
+     * @param <V> le type des valeurs
+     * @return une map vide
+     */
+    public static <K, V> SnapshotMap<K, V> empty() {
+        return empty(DEFAULT_SHARDS);
+    }
+
+    /**
+     * Crée une map vide avec un nombre de partitions donné. Les petites maps
+     * imbriquées (par exemple par ville) utilisent peu de partitions pour
+     * limiter leur empreinte mémoire.
+     *
+     * @param <K>    le type des clés
+     * @param <V>    le type des valeurs
+     * @param shards le nombre de partitions (puissance de deux)
+     * @return une map vide
+     */
+    @SuppressWarnings("unchecked")
+    public static <K, V> SnapshotMap<K, V> empty(int shards) {
+        if (shards <= 0 || Integer.bitCount(shards) != 1) {
+            throw new IllegalArgumentException("Le nombre de partitions doit être une puissance de deux");
+        }
+        Map<K, V>[] array = new Map[shards];
+        Arrays.fill(array, Map.of());
+        return new SnapshotMap<>(array, 0);
+    }
+
+    public V get(Object key) {
+        return key == null ? null : shardFor(shards, key).get(key);
+    }
+
+    public V getOrDefault(Object key, V defaultValue) {
+        V value = get(key);
+        return value == null ? defaultValue : value;
+    }
+
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Parcourt toutes les entrées, partition par partition.
+     *
+     * @param action l'action appliquée à chaque entrée
+     */
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        for (Map<K, V> shard : shards) {
+            shard.forEach(action);
+        }
+    }
+
+    /**
+     * Retourne une copie immuable des valeurs. L'ordre suit les partitions et
+     * n'est pas garanti.
+     *
+     * @return la liste des valeurs
+     */
+    public List<V> values() {
+        List<V> values = new ArrayList<>(size);
+        for (Map<K, V> shard : shards) {
+            values.addAll(shard.values());
+        }
+        return List.copyOf(values);
+    }
+
+    /**
+     * Retourne au plus {@code max} valeurs, prises dans les premières
+     * partitions. La répartition par hash des clés en fait un échantillon
+     * sans ordre particulier, obtenu sans parcourir toute la map.
+     *
+     * @param max le nombre maximal de valeurs
+     * @return l'échantillon
+     */
+    public List<V> sample(int max) {
+        List<V> sample = new ArrayList<>(Math.min(max, size));
+        for (Map<K, V> shard : shards) {
+            for (V value : shard.values()) {
+                if (sample.size() >= max) {
+                    return sample;
+                }
+                sample.add(value);
+            }
+        }
+        return sample;
+    }
+
+    /**
+     * Retourne une copie immuable des clés. L'ordre n'est pas garanti.
+     *
+     * @return la liste des clés
+     */
+    public List<K> keys() {
+        List<K> keys = new ArrayList<>(size);
+        for (Map<K, V> shard : shards) {
+            keys.addAll(shard.keySet());
+        }
+        return List.copyOf(keys);
+    }
+
+    /**
+     * Parcourt les entrées ajoutées, remplacées ou supprimées depuis une
+     * version précédente de la map. Les partitions partagées avec cette
+     * version ne sont pas parcourues : le coût est proportionnel au nombre de
+     * partitions et à la taille des partitions modifiées, et non à la taille
+     * de la map. Une valeur est considérée remplacée si l'instance diffère.
+     *
+     * @param previous la version précédente, de même nombre de partitions
+     * @param action   l'action appliquée à chaque clé modifiée, avec
+     *                 l'ancienne et la nouvelle valeur ({@code null} si
+     *                 absente)
+     * @throws IllegalArgumentException si les nombres de partitions diffèrent
+     */
+    public void forEachChange(SnapshotMap<K, V> previous, ChangeConsumer<? super K, ? super V> action) {
+        if (previous.shards.length != shards.length) {
+            throw new IllegalArgumentException("Les deux versions doivent avoir le même nombre de partitions");
+        }
+        for (int i = 0; i < shards.length; i++) {
+            Map<K, V> now = shards[i];
+            Map<K, V> before = previous.shards[i];
+            if (now == before) {
+                continue;
+            }
+            now.forEach((key, value) -> {
+                V old = before.get(key);
+                if (old != value) {
+                    action.accept(key, old, value);
+                }
+            });
+            before.forEach((key, old) -> {
+                if (!now.containsKey(key)) {
+                    action.accept(key, old, null);
+                }
+            });
+        }
+    }
+
+    /**
+     * Ouvre un builder partant de l'état courant. L'instance courante reste
+     * inchangée.
+     *
+     * @return un builder
+     */
+    public Builder<K, V> toBuilder() {
+        return new Builder<>(shards, size);
+    }
+
+    /**
+     * Action appliquée à une entrée modifiée entre deux versions.
+     *
+     * @param <K> le type des clés
+     * @param <V> le type des valeurs
+     */
+    @FunctionalInterface
+    public interface ChangeConsumer<K, V> {
+        /**
+         * @param key      la clé modifiée
+         * @param previous l'ancienne valeur, ou {@code null} si la clé a été
+         *                 ajoutée
+         * @param current  la nouvelle valeur, ou {@code null} si la clé a été
+         *                 supprimée
+         */
+        void accept(K key, V previous, V current);
+    }
+
+    private static <K, V> Map<K, V> shardFor(Map<K, V>[] shards, Object key) {
+        int h = key.hashCode();
+        return shards[(h ^ (h >>> 16)) & (shards.length - 1)];
+    }
+
+    /**
+     * Builder d'une nouvelle version de {@link SnapshotMap}.
+     *
+     * <p>
+     * Une partition est copiée lors de sa première modification, puis modifiée
+     * sur place pour les écritures suivantes du même builder : appliquer un
+     * lot de modifications ne copie chaque partition qu'une seule fois.
+     *
+     * <p>
+     * Un builder n'est pas thread-safe ; il est destiné à un seul écrivain.
+     *
+     * @param <K> le type des clés
+     * @param <V> le type des valeurs
+     */
+    public static final class Builder<K, V> {
+        private Map<K, V>[] shards;
+        private boolean[] owned;
+        private int size;
+
+        private Builder(Map<K, V>[] shards, int size) {
+            this.shards = shards.clone();
+            this.owned = new boolean[shards.length];
+            this.size = size;
+        }
+
+        public V get(Object key) {
+            return key == null ? null : shardFor(shards, key).get(key);
+        }
+
+        public boolean containsKey(Object key) {
+            return get(key) != null;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        /**
+         * Associe une valeur à une clé.
+         *
+         * @param key   la clé (non null)
+         * @param value la valeur (non null)
+         * @return la valeur précédente, ou {@code null}
+         */
+        public V put(K key, V value) {
+            Objects.requireNonNull(key, "key");
+            Objects.requireNonNull(value, "value");
+            V previous = writableShard(key).put(key, value);
+            if (previous == null) {
+                size++;
+            }
+            return previous;
+        }
+
+        /**
+         * Supprime l'entrée d'une clé.
+         *
+         * @param key la clé
+         * @return la valeur supprimée, ou {@code null} si la clé était absente
+         */
+        public V remove(Object key) {
+            if (!containsKey(key)) {
+                return null;
+            }
+            V previous = writableShard(key).remove(key);
+            size--;
+            return previous;
+        }
+
+        /**
+         * Fige l'état courant dans une nouvelle {@link SnapshotMap}. Le builder
+         * reste utilisable : ses prochaines écritures recopieront les
+         * partitions concernées.
+         *
+         * @return la nouvelle version
+         */
+        public SnapshotMap<K, V> build() {
+            SnapshotMap<K, V> built = new SnapshotMap<>(shards, size);
+            this.shards = shards.clone();
+            this.owned = new boolean[shards.length];
+            return built;
+        }
+
+        private Map<K, V> writableShard(Object key) {
+            int h = key.hashCode();
+            int index = (h ^ (h >>> 16)) & (shards.length - 1);
+            if (!owned[index]) {
+                shards[index] = new HashMap<>(shards[index]);
+                owned[index] = true;
+            }
+            return shards[index];
+        }
+    }
+}
@@ -0,0 +1,271 @@
+package com.openclassrooms.safetynetalerts.repository;
+
+import com.openclassrooms.safetynetalerts.model.Firestation;
+import com.openclassrooms.safetynetalerts.model.MedicalRecord;
+import com.openclassrooms.safetynetalerts.model.Person;
+
+/**
+ * Agrégat immuable du nombre d'adultes et d'enfants couverts par chaque
+ * caserne.
+ *
+ * <p>
+ * Cet agrégat est une section dérivée de {@link DataSnapshot} : il n'est pas
+ * journalisé, mais maintenu à chaque publication à partir des seules entrées
+ * modifiées des autres sections ({@link SnapshotMap#forEachChange}) :
+ * <ul>
+ * <li>une personne ajoutée, modifiée ou supprimée retire son ancienne
+ * contribution et ajoute la nouvelle ;</li>
+ * <li>un mapping modifié déplace les résidents de l'adresse d'une caserne à
+ * l'autre ;</li>
+ * <li>une date de naissance modifiée fait passer la personne d'adulte à
+ * enfant, ou inversement.</li>
+ * </ul>
+ *
+ * <p>
+ * La répartition adultes/enfants dépend du jour de référence, représenté par
+ * le jour epoch de naissance au-delà duquel une personne est un enfant. Il
+ * est avancé chaque jour par {@link StationCountsRollover} : seules les
+ * personnes nées le jour qui franchit le seuil changent de tranche
+ * ({@link #withChildBirthThreshold}).
+ */
+final class StationCounts {
+
+    // Peu de casernes : une petite map limite le coût de chaque publication
+    private static final int SHARDS = 64;
+
+    private static final StationCounts EMPTY = new StationCounts(SnapshotMap.empty(SHARDS), Long.MIN_VALUE);
+
+    private final SnapshotMap<Integer, ResidentCounts> byStation;
+    private final long childBirthThreshold;
+
+    private StationCounts(SnapshotMap<Integer, ResidentCounts> byStation, long childBirthThreshold) {
+        this.byStation = byStation;
+        this.childBirthThreshold = childBirthThreshold;
+    }
+
+    /**
+     * Retourne l'agrégat vide. Son jour de référence n'est pas encore fixé :
+     * il l'est au premier passage de {@link StationCountsRollover}.
+     *
+     * @return l'agrégat vide
+     */
+    static StationCounts empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Calcule l'agrégat complet d'une version des données.
+     *
+     * @param persons             les personnes
+     * @param firestations        les mappings caserne/adresse
+     * @param medicalRecords      les dossiers médicaux
+     * @param childBirthThreshold le jour epoch de naissance au-delà duquel une
+     *                            personne est un enfant
+     * @return le nouvel agrégat
+     */
+    static StationCounts of(PersonIndex persons, FirestationIndex firestations, MedicalRecordIndex medicalRecords,
+            long childBirthThreshold) {
+        Builder builder = new StationCounts(SnapshotMap.empty(SHARDS), childBirthThreshold).toBuilder();
+        for (Person person : persons.all()) {
+            builder.add(person, firestations, medicalRecords, 1);
+        }
+        return builder.build();
+    }
+
+    ResidentCounts get(int station) {
+        return byStation.getOrDefault(station, ResidentCounts.NONE);
+    }
+
+    long childBirthThreshold() {
+        return childBirthThreshold;
+    }
+
+    /**
+     * Applique les modifications de la section des personnes.
+     *
+     * @param previous       l'ancienne section des personnes
+     * @param current        la nouvelle section des personnes
+     * @param firestations   la section courante des mappings
+     * @param medicalRecords la section courante des dossiers médicaux
+     * @return le nouvel agrégat
+     */
+    StationCounts withPersons(PersonIndex previous, PersonIndex current, FirestationIndex firestations,
+            MedicalRecordIndex medicalRecords) {
+        if (previous == current) {
+            return this;
+        }
+        Builder builder = toBuilder();
+        current.forEachChange(previous, (key, before, after) -> {
+            if (before != null) {
+                builder.add(before, firestations, medicalRecords, -1);
+            }
+            if (after != null) {
+                builder.add(after, firestations, medicalRecords, 1);
+            }
+        });
+        return builder.build();
+    }
+
+    /**
+     * Applique les modifications de la section des mappings caserne/adresse.
+     *
+     * @param previous       l'ancienne section des mappings
+     * @param current        la nouvelle section des mappings
+     * @param persons        la section courante des personnes
+     * @param medicalRecords la section courante des dossiers médicaux
+     * @return le nouvel agrégat
+     */
+    StationCounts withFirestations(FirestationIndex previous, FirestationIndex current, PersonIndex persons,
+            MedicalRecordIndex medicalRecords) {
+        if (previous == current) {
+            return this;
+        }
+        Builder builder = toBuilder();
+        current.forEachChange(previous, (address, before, after) -> {
+            if (before != null && after != null && before.getStation() == after.getStation()) {
+                return;
+            }
+            for (Person person : persons.byAddress(address)) {
+                boolean child = isChild(medicalRecords.birthEpochDay(keyOf(person)));
+                if (before != null) {
+                    builder.add(before.getStation(), child, -1);
+                }
+                if (after != null) {
+                    builder.add(after.getStation(), child, 1);
+                }
+            }
+        });
+        return builder.build();
+    }
+
+    /**
+     * Applique les modifications de dates de naissance de la section des
+     * dossiers médicaux.
+     *
+     * @param previous     l'ancienne section des dossiers médicaux
+     * @param current      la nouvelle section des dossiers médicaux
+     * @param persons      la section courante des personnes
+     * @param firestations la section courante des mappings
+     * @return le nouvel agrégat
+     */
+    StationCounts withMedicalRecords(MedicalRecordIndex previous, MedicalRecordIndex current, PersonIndex persons,
+            FirestationIndex firestations) {
+        if (previous == current) {
+            return this;
+        }
+        Builder builder = toBuilder();
+        current.forEachBirthdateChange(previous, (key, before, after) -> {
+            boolean wasChild = isChild(before);
+            boolean isChild = isChild(after);
+            if (wasChild == isChild) {
+                return;
+            }
+            Person person = persons.get(key);
+            Firestation firestation = person == null ? null : firestations.byAddress(person.getAddress());
+            if (firestation != null) {
+                builder.add(firestation.getStation(), wasChild, -1);
+                builder.add(firestation.getStation(), isChild, 1);
+            }
+        });
+        return builder.build();
+    }
+
+    /**
+     * Fait passer l'agrégat à un nouveau jour de référence. Seuls les dossiers
+     * dont la date de naissance est comprise entre l'ancien et le nouveau
+     * seuil sont parcourus ({@link MedicalRecordIndex#bornOn}) : leurs
+     * personnes passent d'enfant à adulte, ou inversement si l'horloge
+     * recule. L'agrégat est recalculé entièrement s'il n'avait pas encore de
+     * jour de référence, ou si l'écart entre les seuils dépasse le nombre de
+     * dossiers.
+     *
+     * @param threshold      le nouveau jour epoch de naissance au-delà duquel
+     *                       une personne est un enfant
+     * @param persons        la section courante des personnes
+     * @param firestations   la section courante des mappings
+     * @param medicalRecords la section courante des dossiers médicaux
+     * @return le nouvel agrégat
+     */
+    StationCounts withChildBirthThreshold(long threshold, PersonIndex persons, FirestationIndex firestations,
+            MedicalRecordIndex medicalRecords) {
+        if (threshold == childBirthThreshold) {
+            return this;
+        }
+        long from = Math.min(childBirthThreshold, threshold);
+        long to = Math.max(childBirthThreshold, threshold);
+        if (childBirthThreshold == Long.MIN_VALUE || to - from > medicalRecords.size()) {
+            return of(persons, firestations, medicalRecords, threshold);
+        }
+        // Nés entre les deux seuils : enfants d'un côté, adultes de l'autre
+        boolean wasChild = threshold > childBirthThreshold;
+        Builder builder = toBuilder();
+        for (long day = from + 1; day <= to; day++) {
+            for (MedicalRecord record : medicalRecords.bornOn((int) day)) {
+                Person person = persons.get(new NameKey(record.getFirstName(), record.getLastName()));
+                Firestation firestation = person == null ? null : firestations.byAddress(person.getAddress());
+                if (firestation != null) {
+                    builder.add(firestation.getStation(), wasChild, -1);
+                    builder.add(firestation.getStation(), !wasChild, 1);
+                }
+            }
+        }
+        return builder.build(threshold);
+    }
+
+    private boolean isChild(Integer birthEpochDay) {
+        // Sans date de naissance, l'âge vaut -1 : la personne est comptée comme enfant
+        return birthEpochDay == null || birthEpochDay > childBirthThreshold;
+    }
+
+    private static NameKey keyOf(Person person) {
+        return new NameKey(person.getFirstName(), person.getLastName());
+    }
+
+    private Builder toBuilder() {
+        return new Builder(this);
+    }
+
+    /**
+     * Builder d'une nouvelle version de l'agrégat. Réservé à un seul écrivain.
+     */
+    private static final class Builder {
+        private final StationCounts base;
+        private final SnapshotMap.Builder<Integer, ResidentCounts> byStation;
+
+        private Builder(StationCounts base) {
+            this.base = base;
+            this.byStation = base.byStation.toBuilder();
+        }
+
+        private void add(Person person, FirestationIndex firestations, MedicalRecordIndex medicalRecords,
+                int delta) {
+            Firestation firestation = firestations.byAddress(person.getAddress());
+            if (firestation != null) {
+                add(firestation.getStation(), base.isChild(medicalRecords.birthEpochDay(keyOf(person))), delta);
+            }
+        }
+
+        private void add(int station, boolean child, int delta) {
+            ResidentCounts counts = byStation.get(station);
+            if (counts == null) {
+                counts = ResidentCounts.NONE;
+            }
+            ResidentCounts updated = child
+                    ? new ResidentCounts(counts.adults(), counts.children() + delta)
+                    : new ResidentCounts(counts.adults() + delta, counts.children());
+            if (updated.adults() == 0 && updated.children() == 0) {
+                byStation.remove(station);
+            } else {
+                byStation.put(station, updated);
+            }
+        }
+
+        private StationCounts build() {
+            return build(base.childBirthThreshold);
+        }
+
+        private StationCounts build(long childBirthThreshold) {
+            return new StationCounts(byStation.build(), childBirthThreshold);
+        }
+    }
+}
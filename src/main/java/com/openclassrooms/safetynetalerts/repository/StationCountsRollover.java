@@ -0,0 +1,103 @@
+package com.openclassrooms.safetynetalerts.repository;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.stereotype.Component;
+
+import com.openclassrooms.safetynetalerts.utils.Utils;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Fait passer l'agrégat par caserne ({@link StationCounts}) au jour suivant.
+ *
+ * <p>
+ * Chaque jour, des enfants atteignent le seuil de majorité
+ * ({@link Utils#ADULT_AGE_THRESHOLD}) sans qu'aucune donnée ne change. Au
+ * démarrage, une fois les repositories initialisés, puis à chaque minuit dans
+ * le fuseau de l'horloge, l'agrégat est mis à jour pour la date du jour et
+ * publié dans une nouvelle version des données, sur un thread dédié. Seules
+ * les personnes nées le jour qui franchit le seuil sont parcourues, et aucun
+ * verrou d'écriture n'est pris : les écritures concurrentes ne sont pas
+ * bloquées ({@link DataStore#publishStationCounts}).
+ */
+@Component
+@DependsOn("repositoryInitializer")
+public class StationCountsRollover {
+    private final Logger logger = LoggerFactory.getLogger(StationCountsRollover.class);
+
+    @Autowired
+    private DataStore dataStore;
+
+    @Autowired
+    private Clock clock;
+
+    private ScheduledExecutorService executor;
+
+    /**
+     * Calcule l'agrégat du jour puis planifie le passage au jour suivant.
+     */
+    @PostConstruct
+    public void start() {
+        rollover();
+        executor = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("station-counts-rollover").daemon().factory());
+        scheduleNext();
+    }
+
+    /**
+     * Arrête la planification des passages au jour suivant.
+     */
+    @PreDestroy
+    public void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Met à jour l'agrégat par caserne si le jour de référence a changé.
+     *
+     * @return {@code true} si un nouvel agrégat a été publié
+     */
+    public boolean rollover() {
+        long threshold = Utils.childBirthThreshold(LocalDate.now(clock));
+        if (dataStore.current().stationCounts().childBirthThreshold() == threshold) {
+            return false;
+        }
+        DataSnapshot published = dataStore.publishStationCounts(threshold);
+        logger.info("[REPOSITORY] Décomptes adultes/enfants par caserne mis à jour au {} (version {})",
+                LocalDate.now(clock), published.version());
+        return true;
+    }
+
+    private void scheduleNext() {
+        long now = clock.millis();
+        long midnight = LocalDate.now(clock).plusDays(1).atStartOfDay(clock.getZone()).toInstant().toEpochMilli();
+        executor.schedule(this::rolloverAndReschedule, Math.max(midnight - now, 0), TimeUnit.MILLISECONDS);
+        logger.debug("[REPOSITORY] Prochain recalcul des décomptes par caserne dans {}",
+                Duration.ofMillis(midnight - now));
+    }
+
+    private void rolloverAndReschedule() {
+        try {
+            rollover();
+        } catch (RuntimeException e) {
+            logger.error("[REPOSITORY] Recalcul des décomptes par caserne impossible : {}", e.getMessage(), e);
+        } finally {
+            if (!executor.isShutdown()) {
+                scheduleNext();
+            }
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.openclassrooms.safetynetalerts.service;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import com.openclassrooms.safetynetalerts.dto.batch.BatchItemResultDTO;
+import com.openclassrooms.safetynetalerts.dto.batch.BatchResponseDTO;
+import com.openclassrooms.safetynetalerts.model.Firestation;
+import com.openclassrooms.safetynetalerts.model.MedicalRecord;
+import com.openclassrooms.safetynetalerts.model.Person;
+import com.openclassrooms.safetynetalerts.repository.BatchStatus;
+import com.openclassrooms.safetynetalerts.repository.BatchWriter;
+import com.openclassrooms.safetynetalerts.repository.MutationLogEntry;
+import com.openclassrooms.safetynetalerts.repository.NameKey;
+
+/**
+ * Service des opérations CRUD par lots sur les personnes, les mappings
+ * caserne/adresse et les dossiers médicaux.
+ *
+ * <p>
+ * Chaque lot est validé élément par élément puis appliqué en une seule prise
+ * des verrous d'écriture ({@link BatchWriter}), avec les mêmes règles que les
+ * opérations unitaires :
+ * <ul>
+ * <li>une création échoue si l'entité existe déjà
+ * ({@link BatchStatus#ALREADY_EXISTS}) ;</li>
+ * <li>une mise à jour ne modifie que les champs non-null et échoue si
+ * l'entité n'existe pas ({@link BatchStatus#NOT_FOUND}) ;</li>
+ * <li>une suppression échoue si l'entité n'existe pas.</li>
+ * </ul>
+ * Un élément en échec n'empêche pas l'application des autres : le statut de
+ * chaque élément est retourné, dans l'ordre du lot.
+ */
+@Service
+public class BatchService {
+    private final Logger logger = LoggerFactory.getLogger(BatchService.class);
+
+    private final BatchWriter batchWriter;
+
+    public BatchService(BatchWriter batchWriter) {
+        this.batchWriter = batchWriter;
+    }
+
+    /**
+     * Crée un lot de personnes.
+     *
+     * @param persons les personnes à créer
+     * @return le statut de chaque personne
+     */
+    public BatchResponseDTO addPersons(List<Person> persons) {
+        logger.info("[SERVICE] Adding {} persons", persons.size());
+        return apply(persons, MutationLogEntry::putPerson, BatchWriter.Mode.CREATE);
+    }
+
+    /**
+     * Met à jour un lot de personnes existantes, identifiées par leur prénom et
+     * leur nom.
+     *
+     * @param persons les nouvelles données des personnes
+     * @return le statut de chaque personne
+     */
+    public BatchResponseDTO updatePersons(List<Person> persons) {
+        logger.info("[SERVICE] Updating {} persons", persons.size());
+        return apply(persons, MutationLogEntry::putPerson, BatchWriter.Mode.UPDATE);
+    }
+
+    /**
+     * Supprime un lot de personnes.
+     *
+     * @param keys le prénom et le nom des personnes à supprimer
+     * @return le statut de chaque suppression
+     */
+    public BatchResponseDTO deletePersons(List<NameKey> keys) {
+        logger.info("[SERVICE] Deleting {} persons", keys.size());
+        return apply(keys, key -> MutationLogEntry.deletePerson(key.firstName(), key.lastName()),
+                BatchWriter.Mode.UPDATE);
+    }
+
+    /**
+     * Crée un lot de mappings caserne/adresse.
+     *
+     * @param firestations les mappings à créer
+     * @return le statut de chaque mapping
+     */
+    public BatchResponseDTO addMappings(List<Firestation> firestations) {
+        logger.info("[SERVICE] Adding {} firestation mappings", firestations.size());
+        return apply(firestations, MutationLogEntry::putFirestation, BatchWriter.Mode.CREATE);
+    }
+
+    /**
+     * Met à jour le numéro de caserne d'un lot d'adresses existantes.
+     *
+     * @param firestations les mappings mis à jour
+     * @return le statut de chaque mapping
+     */
+    public BatchResponseDTO updateMappings(List<Firestation> firestations) {
+        logger.info("[SERVICE] Updating {} firestation mappings", firestations.size());
+        return apply(firestations, MutationLogEntry::putFirestation, BatchWriter.Mode.UPDATE);
+    }
+
+    /**
+     * Supprime un lot de mappings caserne/adresse.
+     *
+     * <p>
+     * Comme pour la suppression unitaire, chaque élément précise soit une
+     * adresse (suppression de son mapping), soit un numéro de caserne
+     * strictement positif (suppression de tous ses mappings), mais pas les
+     * deux ; sinon il est rapporté {@link BatchStatus#INVALID}.
+     *
+     * @param firestations les adresses ou numéros de caserne à supprimer
+     * @return le statut de chaque suppression
+     */
+    public BatchResponseDTO deleteMappings(List<Firestation> firestations) {
+        logger.info("[SERVICE] Deleting {} firestation mappings", firestations.size());
+        return apply(firestations, BatchService::deleteMapping, BatchWriter.Mode.UPDATE);
+    }
+
+    /**
+     * Crée un lot de dossiers médicaux.
+     *
+     * @param medicalRecords les dossiers à créer
+     * @return le statut de chaque dossier
+     */
+    public BatchResponseDTO createMedicalRecords(List<MedicalRecord> medicalRecords) {
+        logger.info("[SERVICE] Creating {} medical records", medicalRecords.size());
+        return apply(medicalRecords, MutationLogEntry::putMedicalRecord, BatchWriter.Mode.CREATE);
+    }
+
+    /**
+     * Met à jour un lot de dossiers médicaux existants, identifiés par le prénom
+     * et le nom.
+     *
+     * @param medicalRecords les nouvelles informations médicales
+     * @return le statut de chaque dossier
+     */
+    public BatchResponseDTO updateMedicalRecords(List<MedicalRecord> medicalRecords) {
+        logger.info("[SERVICE] Updating {} medical records", medicalRecords.size());
+        return apply(medicalRecords, MutationLogEntry::putMedicalRecord, BatchWriter.Mode.UPDATE);
+    }
+
+    /**
+     * Supprime un lot de dossiers médicaux.
+     *
+     * @param keys le prénom et le nom des personnes dont les dossiers sont à
+     *             supprimer
+     * @return le statut de chaque suppression
+     */
+    public BatchResponseDTO deleteMedicalRecords(List<NameKey> keys) {
+        logger.info("[SERVICE] Deleting {} medical records", keys.size());
+        return apply(keys, key -> MutationLogEntry.deleteMedicalRecord(key.firstName(), key.lastName()),
+                BatchWriter.Mode.UPDATE);
+    }
+
+    private <T> BatchResponseDTO apply(List<T> items, Function<T, MutationLogEntry> toEntry,
+            BatchWriter.Mode mode) {
+        List<MutationLogEntry> entries = new ArrayList<>(items.size());
+        for (T item : items) {
+            // Un élément null est rapporté invalide par le BatchWriter
+            entries.add(item == null ? null : toEntry.apply(item));
+        }
+        List<BatchStatus> statuses = batchWriter.apply(entries, mode);
+
+        Map<BatchStatus, Integer> counts = new EnumMap<>(BatchStatus.class);
+        List<BatchItemResultDTO> results = new ArrayList<>(statuses.size());
+        for (int i = 0; i < statuses.size(); i++) {
+            counts.merge(statuses.get(i), 1, Integer::sum);
+            results.add(new BatchItemResultDTO(i, statuses.get(i)));
+        }
+        logger.debug("[SERVICE] Batch applied: {}", counts);
+        return new BatchResponseDTO(counts, results);
+    }
+
+    private static MutationLogEntry deleteMapping(Firestation firestation) {
+        boolean hasAddress = firestation.getAddress() != null && !firestation.getAddress().isBlank();
+        boolean hasStation = firestation.getStation() > 0;
+        if (hasAddress == hasStation) {
+            return null;
+        }
+        return hasAddress ? MutationLogEntry.deleteFirestation(firestation.getAddress())
+                : MutationLogEntry.deleteStation(firestation.getStation());
+    }
+}
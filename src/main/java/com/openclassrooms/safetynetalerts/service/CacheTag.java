@@ -0,0 +1,48 @@
+package com.openclassrooms.safetynetalerts.service;
+
+import java.util.Locale;
+
+/**
+ * Étiquette d'invalidation d'une réponse mise en cache par
+ * {@link ResponseCache}.
+ *
+ * <p>
+ * Une réponse est étiquetée par les adresses, casernes, villes ou noms de
+ * famille dont elle dépend ; une écriture invalide les réponses portant les
+ * étiquettes qu'elle touche.
+ *
+ * @param kind  le type d'étiquette
+ * @param value la valeur étiquetée
+ */
+public record CacheTag(Kind kind, String value) {
+
+    /**
+     * Type d'étiquette.
+     */
+    public enum Kind {
+        ADDRESS, STATION, CITY, LAST_NAME
+    }
+
+    public static CacheTag address(String address) {
+        return new CacheTag(Kind.ADDRESS, address);
+    }
+
+    public static CacheTag station(int station) {
+        return new CacheTag(Kind.STATION, Integer.toString(station));
+    }
+
+    public static CacheTag city(String city) {
+        return new CacheTag(Kind.CITY, city);
+    }
+
+    /**
+     * Étiquette d'un nom de famille, sans tenir compte de la casse : elle
+     * couvre les recherches exactes et insensibles à la casse.
+     *
+     * @param lastName le nom de famille
+     * @return l'étiquette
+     */
+    public static CacheTag lastName(String lastName) {
+        return new CacheTag(Kind.LAST_NAME, lastName == null ? null : lastName.toLowerCase(Locale.ROOT));
+    }
+}
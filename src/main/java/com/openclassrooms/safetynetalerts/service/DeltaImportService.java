@@ -0,0 +1,135 @@
+package com.openclassrooms.safetynetalerts.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.openclassrooms.safetynetalerts.dto.deltaimport.DeltaImportLineDTO;
+import com.openclassrooms.safetynetalerts.dto.deltaimport.DeltaImportResponseDTO;
+import com.openclassrooms.safetynetalerts.repository.BatchStatus;
+import com.openclassrooms.safetynetalerts.repository.BatchWriter;
+import com.openclassrooms.safetynetalerts.repository.MutationLogEntry;
+
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.ObjectReader;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Service d'import incrémental de modifications en masse.
+ *
+ * <p>
+ * Le flux reçu est au format NDJSON : une opération par ligne, décrite comme
+ * une entrée du journal des modifications ({@link MutationLogEntry}), par
+ * exemple :
+ *
+ * <pre>
+ * {"op":"PUT_PERSON","person":{"firstName":"John","lastName":"Boyd",...}}
+ * {"op":"DELETE_FIRESTATION","address":"1509 Culver St"}
+ * {"op":"DELETE_STATION","station":4}
+ * </pre>
+ *
+ * <p>
+ * Les lignes sont lues et désérialisées au fil du flux, puis appliquées par
+ * lots de {@code safetynet.import.batch-size} opérations ({@link BatchWriter}) :
+ * chaque lot ne prend qu'une fois les verrous d'écriture et ne publie qu'une
+ * version des données, au lieu d'une requête, d'un verrou et d'une version par
+ * entité. Une ligne illisible ou invalide est rapportée dans son résultat sans
+ * interrompre l'import ; les lots déjà appliqués le restent.
+ */
+@Service
+public class DeltaImportService {
+    private final Logger logger = LoggerFactory.getLogger(DeltaImportService.class);
+
+    private final BatchWriter batchWriter;
+    private final ObjectReader entryReader;
+    private final int batchSize;
+
+    public DeltaImportService(BatchWriter batchWriter, JsonMapper mapper,
+            @Value("${safetynet.import.batch-size:1000}") int batchSize) {
+        this.batchWriter = batchWriter;
+        this.entryReader = mapper.readerFor(MutationLogEntry.class);
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Importe un flux NDJSON d'opérations.
+     *
+     * <p>
+     * Les lignes vides sont ignorées. Le résultat de chaque autre ligne est
+     * retourné dans l'ordre du flux, avec son numéro de ligne (à partir de 1).
+     *
+     * @param input le flux NDJSON
+     * @return le nombre d'opérations par statut et le résultat de chaque ligne
+     * @throws IOException si le flux ne peut pas être lu
+     */
+    public DeltaImportResponseDTO importDelta(InputStream input) throws IOException {
+        long start = System.nanoTime();
+        List<DeltaImportLineDTO> results = new ArrayList<>();
+        List<MutationLogEntry> batch = new ArrayList<>(batchSize);
+        List<Slot> slots = new ArrayList<>(batchSize);
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            MutationLogEntry entry;
+            try {
+                entry = entryReader.readValue(line);
+            } catch (JacksonException e) {
+                results.add(new DeltaImportLineDTO(lineNumber, BatchStatus.INVALID, e.getOriginalMessage()));
+                continue;
+            }
+            // Place réservée, remplie à l'application du lot
+            slots.add(new Slot(results.size(), lineNumber));
+            results.add(null);
+            batch.add(entry);
+            if (batch.size() == batchSize) {
+                flush(batch, slots, results);
+            }
+        }
+        flush(batch, slots, results);
+
+        Map<BatchStatus, Integer> counts = new EnumMap<>(BatchStatus.class);
+        results.forEach(result -> counts.merge(result.getStatus(), 1, Integer::sum));
+        logger.info("[SERVICE] Import de {} lignes en {} ms : {}", results.size(),
+                (System.nanoTime() - start) / 1_000_000, counts);
+        return new DeltaImportResponseDTO(counts, results);
+    }
+
+    private void flush(List<MutationLogEntry> batch, List<Slot> slots, List<DeltaImportLineDTO> results) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<BatchStatus> statuses = batchWriter.apply(batch);
+        for (int i = 0; i < statuses.size(); i++) {
+            Slot slot = slots.get(i);
+            BatchStatus status = statuses.get(i);
+            String error = status == BatchStatus.INVALID ? "Opération incomplète ou non supportée" : null;
+            results.set(slot.index(), new DeltaImportLineDTO(slot.line(), status, error));
+        }
+        logger.debug("[SERVICE] Lot de {} opérations appliqué", batch.size());
+        batch.clear();
+        slots.clear();
+    }
+
+    /**
+     * Position réservée dans les résultats pour une ligne du lot en cours.
+     */
+    private record Slot(int index, int line) {
+    }
+}
@@ -5,6 +5,7 @@ import java.util.Set;
 import java.util.TreeSet;
 import java.util.stream.Collectors;
 
+import io.micrometer.core.annotation.Timed;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
@@ -13,6 +14,7 @@ import com.openclassrooms.safetynetalerts.model.Firestation;
 import com.openclassrooms.safetynetalerts.model.Person;
 import com.openclassrooms.safetynetalerts.repository.FirestationRepository;
 import com.openclassrooms.safetynetalerts.repository.PersonRepository;
+import com.openclassrooms.safetynetalerts.repository.ResidentCounts;
 
 /**
  * Service de gestion des casernes de pompiers et de leurs zones de couverture.
@@ -32,6 +34,7 @@ import com.openclassrooms.safetynetalerts.repository.PersonRepository;
  *
  */
 @Service
+@Timed(value = "safetynet.service", histogram = true)
 public class FirestationService {
     private final Logger logger = LoggerFactory.getLogger(FirestationService.class);
 
@@ -67,6 +70,17 @@ public class FirestationService {
         return persons;
     }
 
+    /**
+     * Compte les adultes et les enfants couverts par une caserne donnée.
+     *
+     * @param stationNumber le numéro de la caserne à interroger
+     * @return le nombre d'adultes et d'enfants couverts par cette caserne
+     */
+    public ResidentCounts getResidentCountsByStation(int stationNumber) {
+        logger.debug("[SERVICE] Counting residents covered by station={}", stationNumber);
+        return firestationRepository.countResidentsByStation(stationNumber);
+    }
+
     /**
      * Récupère le numéro de station pour une adresse donnée.
      *
@@ -149,8 +163,7 @@ public class FirestationService {
         if (firestationRepository.existsByStation(firestation.getStation())) {
             throw new IllegalArgumentException("Le numéro de la caserne existe déjà");
         }
-        Firestation created = firestationRepository.addFirestation(firestation);
-        return created;
+        return firestationRepository.addFirestation(firestation);
     }
 
     /**
@@ -181,8 +194,7 @@ public class FirestationService {
                 .findStationByAddress(address)
                 .orElseThrow(() -> new IllegalArgumentException("Addresse not found"));
 
-        firestationRepository.updateFirestation(existing, updated);
-        return existing;
+        return firestationRepository.updateFirestation(existing, updated).current();
     }
 
     /**
@@ -226,23 +238,19 @@ public class FirestationService {
 
         // Cas 3 : Suppression par adresse
         if (address != null && !address.isBlank()) {
-            if (!firestationRepository.existsByAddress(address)) {
-                throw new IllegalArgumentException("L'adresse spécifiée est introuvable");
-            }
-            if (!firestationRepository.deleteFirestationByAddress(address)) {
-                throw new IllegalArgumentException("Erreur durant la suppression");
-            }
+            Firestation removed = firestationRepository.deleteFirestationByAddress(address)
+                    .orElseThrow(() -> new IllegalArgumentException("L'adresse spécifiée est introuvable"));
+            logger.info("[SERVICE] Deleted mapping of address={} from station={}", address, removed.getStation());
             return;
         }
 
         // Cas 4 : Suppression par station
         if (station != null) {
-            if (!firestationRepository.existsByStation(station)) {
+            List<Firestation> removed = firestationRepository.deleteFirestationByStation(station);
+            if (removed.isEmpty()) {
                 throw new IllegalArgumentException("Le numéro de caserne spécifié est introuvable");
             }
-            if (!firestationRepository.deleteFirestationByStation(station)) {
-                throw new IllegalArgumentException("Erreur durant la suppression");
-            }
+            logger.info("[SERVICE] Deleted {} mappings of station={}", removed.size(), station);
             return;
         }
     }
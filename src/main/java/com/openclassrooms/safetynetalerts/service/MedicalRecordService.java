@@ -1,13 +1,19 @@
 package com.openclassrooms.safetynetalerts.service;
 
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
+import io.micrometer.core.annotation.Timed;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
 import com.openclassrooms.safetynetalerts.model.MedicalRecord;
 import com.openclassrooms.safetynetalerts.repository.MedicalRecordRepository;
+import com.openclassrooms.safetynetalerts.repository.NameKey;
 
 /**
  * Service de gestion des dossiers médicaux.
@@ -37,6 +43,7 @@ import com.openclassrooms.safetynetalerts.repository.MedicalRecordRepository;
  *
  */
 @Service
+@Timed(value = "safetynet.service", histogram = true)
 public class MedicalRecordService {
     private final Logger logger = LoggerFactory.getLogger(MedicalRecordService.class);
 
@@ -63,6 +70,39 @@ public class MedicalRecordService {
         return medicalRecordRepository.findByFirstNameAndLastName(firstName, lastName);
     }
 
+    /**
+     * Récupère les dossiers médicaux de toute une famille, indexés par identité.
+     *
+     * <p>
+     * Cette méthode effectue une seule lecture de l'index par nom de famille :
+     * l'appelant peut ensuite associer chaque personne à son dossier sans
+     * nouvelle recherche.
+     *
+     * @param lastName le nom de famille (sensible à la casse)
+     * @return les dossiers indexés par (prénom, nom), ou une map vide
+     */
+    public Map<NameKey, MedicalRecord> getMedicalRecordsByLastName(String lastName) {
+        return byName(medicalRecordRepository.findByLastName(lastName));
+    }
+
+    /**
+     * Variante insensible à la casse de {@link #getMedicalRecordsByLastName}.
+     *
+     * @param lastName le nom de famille (insensible à la casse)
+     * @return les dossiers indexés par (prénom, nom), ou une map vide
+     */
+    public Map<NameKey, MedicalRecord> getMedicalRecordsByLastNameIgnoreCase(String lastName) {
+        return byName(medicalRecordRepository.findByLastNameIgnoreCase(lastName));
+    }
+
+    private static Map<NameKey, MedicalRecord> byName(List<MedicalRecord> records) {
+        return records.stream()
+                .collect(Collectors.toMap(
+                        mr -> new NameKey(mr.getFirstName(), mr.getLastName()),
+                        Function.identity(),
+                        (first, second) -> first));
+    }
+
     /**
      * Crée un nouveau dossier médical dans le système.
      *
@@ -144,8 +184,7 @@ public class MedicalRecordService {
                 .orElseThrow(() -> new IllegalArgumentException(
                         "Medical record for " + firstName + " " + lastName + " not found"));
 
-        medicalRecordRepository.updateFields(existing, updated);
-        return existing;
+        return medicalRecordRepository.updateFields(existing, updated).current();
     }
 
     /**
@@ -176,12 +215,10 @@ public class MedicalRecordService {
     public void deleteMedicalRecord(String firstName, String lastName) {
         logger.info("[SERVICE] Deleting medical record: {} {}", firstName, lastName);
 
-        if (!medicalRecordRepository.existsByFirstNameAndLastName(firstName, lastName)) {
+        // L'absence est constatée sous le verrou d'écriture, par la suppression elle-même
+        if (medicalRecordRepository.delete(firstName, lastName).isEmpty()) {
             throw new IllegalArgumentException(
                     "Medical record for " + firstName + " " + lastName + " not found");
         }
-
-        if (!medicalRecordRepository.delete(firstName, lastName))
-            throw new IllegalArgumentException("Erreur durant la suppression");
     }
 }
\ No newline at end of file
@@ -3,6 +3,7 @@ package com.openclassrooms.safetynetalerts.service;
 import java.util.List;
 import java.util.Set;
 
+import io.micrometer.core.annotation.Timed;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
@@ -23,6 +24,7 @@ import com.openclassrooms.safetynetalerts.repository.PersonRepository;
  *
  */
 @Service
+@Timed(value = "safetynet.service", histogram = true)
 public class PersonService {
     private final Logger logger = LoggerFactory.getLogger(PersonService.class);
 
@@ -62,6 +64,18 @@ public class PersonService {
         return personRepository.findByLastName(lastName);
     }
 
+    /**
+     * Recherche toutes les personnes portant un nom de famille donné, sans tenir
+     * compte de la casse.
+     *
+     * @param lastName le nom de famille à rechercher (insensible à la casse)
+     * @return la liste des personnes portant ce nom, ou une liste vide si aucune
+     *         personne n'est trouvée
+     */
+    public List<Person> getPersonsByLastNameIgnoreCase(String lastName) {
+        return personRepository.findByLastNameIgnoreCase(lastName);
+    }
+
     /**
      * Récupère l'ensemble des adresses email uniques des résidents d'une ville.
      *
@@ -104,8 +118,7 @@ public class PersonService {
             throw new IllegalArgumentException("Person already exist");
         }
 
-        Person created = personRepository.addPerson(person);
-        return created;
+        return personRepository.addPerson(person);
     }
 
     /**
@@ -135,9 +148,7 @@ public class PersonService {
                 .findByFirstNameAndLastName(firstName, lastName)
                 .orElseThrow(() -> new IllegalArgumentException("Person not found: " + firstName + " " + lastName));
 
-        personRepository.updatePerson(existing, updated);
-
-        return existing;
+        return personRepository.updatePerson(existing, updated).current();
     }
 
     /**
@@ -163,11 +174,10 @@ public class PersonService {
     public void deletePerson(String firstName, String lastName) {
         logger.info("[SERVICE] Deleting person: {} {}", firstName, lastName);
 
-        if (!personRepository.existsByFirstNameAndLastName(firstName, lastName)) {
+        // L'absence est constatée sous le verrou d'écriture, par la suppression elle-même
+        if (personRepository.deletePerson(firstName, lastName).isEmpty()) {
             throw new IllegalArgumentException("Person not found: " + firstName + " " + lastName);
         }
-
-        personRepository.deletePerson(firstName, lastName);
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,325 @@
+package com.openclassrooms.safetynetalerts.service;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.openclassrooms.safetynetalerts.model.Firestation;
+import com.openclassrooms.safetynetalerts.model.MedicalRecord;
+import com.openclassrooms.safetynetalerts.model.Person;
+import com.openclassrooms.safetynetalerts.repository.DataSnapshot;
+import com.openclassrooms.safetynetalerts.repository.DataStore;
+import com.openclassrooms.safetynetalerts.repository.SnapshotChange;
+
+/**
+ * Cache borné des réponses des endpoints de lecture (alertes, /fire,
+ * /flood/stations, /personInfo, /communityEmail).
+ *
+ * <p>
+ * Chaque réponse est stockée sous une clé (endpoint et paramètres) avec les
+ * étiquettes ({@link CacheTag}) des adresses, casernes, villes ou noms de
+ * famille dont elle dépend, et la version des données sur laquelle elle a
+ * été calculée. Le cache contient au plus {@code safetynet.cache.max-entries}
+ * réponses ; au-delà, la réponse la moins récemment lue est évincée (LRU). 0
+ * désactive le cache.
+ *
+ * <p>
+ * Il n'y a pas de durée de vie : une réponse reste valide tant que les
+ * données dont elle dépend ne changent pas.
+ * <ul>
+ * <li>Chaque publication du {@link DataStore} est examinée avant de devenir
+ * visible ({@link DataStore#onPublish}) : la version publiée est enregistrée
+ * pour chaque étiquette touchée par l'ancienne ou la nouvelle version des
+ * entrées modifiées. Une requête qui lit la nouvelle version ne peut donc
+ * jamais recevoir une réponse calculée avant l'écriture, quel que soit le
+ * chemin d'écriture (écriture unitaire, lot, import, rechargement).</li>
+ * <li>Une réponse n'est servie que si aucune de ses étiquettes n'a été
+ * touchée après la version sur laquelle elle a été calculée, et si cette
+ * version n'est pas postérieure à celle de la requête. Les réponses
+ * périmées sont retirées lorsqu'elles sont rencontrées, ou évincées par le
+ * LRU.</li>
+ * <li>Le passage au jour suivant, qui change les âges, et les publications
+ * touchant un grand nombre d'étiquettes (rechargement complet, import)
+ * périment toutes les réponses.</li>
+ * </ul>
+ *
+ * <p>
+ * <b>Thread-safety :</b> les réponses sont réparties entre des segments LRU
+ * indépendants, chacun protégé par son propre verrou ; les versions par
+ * étiquette sont dans une map concurrente. Le calcul d'une réponse absente se
+ * fait hors verrou.
+ */
+@Component
+public class ResponseCache {
+    private final Logger logger = LoggerFactory.getLogger(ResponseCache.class);
+
+    // Nombre maximal de segments, et taille minimale d'un segment : un petit
+    // cache garde un LRU exact
+    private static final int MAX_SEGMENTS = 16;
+    private static final int MIN_SEGMENT_SIZE = 64;
+
+    // Au-delà de ce nombre d'étiquettes touchées (et de la taille du cache),
+    // une publication vide le cache au lieu de dater chaque étiquette
+    private static final int MAX_PUBLISH_TAGS = 1024;
+
+    private final DataStore dataStore;
+    private final int maxEntries;
+
+    private final Segment[] segments;
+    private final Map<CacheTag, Long> invalidatedAt = new ConcurrentHashMap<>();
+    private final AtomicLong clearedAt = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    private record Entry(Object value, Set<CacheTag> tags, long version) {
+    }
+
+    /**
+     * Statistiques du cache depuis le démarrage.
+     *
+     * @param hits          le nombre de réponses servies depuis le cache
+     * @param misses        le nombre de réponses calculées
+     * @param evictions     le nombre de réponses évincées faute de place
+     * @param invalidations le nombre de réponses périmées retirées
+     * @param size          le nombre de réponses en cache
+     */
+    public record Stats(long hits, long misses, long evictions, long invalidations, int size) {
+    }
+
+    public ResponseCache(DataStore dataStore, @Value("${safetynet.cache.max-entries:10000}") int maxEntries) {
+        this.dataStore = dataStore;
+        this.maxEntries = maxEntries;
+        int count = Math.max(1, Math.min(MAX_SEGMENTS, maxEntries / MIN_SEGMENT_SIZE));
+        this.segments = new Segment[count];
+        for (int i = 0; i < count; i++) {
+            // Les premiers segments reçoivent le reste de la division
+            segments[i] = new Segment(maxEntries / count + (i < maxEntries % count ? 1 : 0));
+        }
+        if (maxEntries > 0) {
+            dataStore.onPublish(this::beforePublish);
+        }
+    }
+
+    /**
+     * Retourne la réponse en cache pour une clé, ou la calcule et la met en
+     * cache.
+     *
+     * @param <T>    le type de la réponse
+     * @param key    la clé de la réponse (endpoint et paramètres)
+     * @param tags   les étiquettes dont dépend la réponse
+     * @param loader le calcul de la réponse, sur l'instantané de la requête
+     * @return la réponse
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(String key, Set<CacheTag> tags, Supplier<T> loader) {
+        if (maxEntries <= 0) {
+            return loader.get();
+        }
+        DataSnapshot snapshot = dataStore.read();
+        Segment segment = segment(key);
+        Entry entry = segment.get(key);
+        if (entry != null) {
+            if (!isValid(entry)) {
+                if (segment.remove(key, entry)) {
+                    invalidations.increment();
+                }
+                entry = null;
+            } else if (entry.version() <= snapshot.version()) {
+                hits.increment();
+                return (T) entry.value();
+            }
+        }
+        misses.increment();
+        T value = loader.get();
+        // Une réponse calculée sur une version plus récente reste en place
+        if (entry == null) {
+            Entry loaded = new Entry(value, Set.copyOf(tags), snapshot.version());
+            if (isValid(loaded)) {
+                evictions.add(segment.put(key, loaded));
+                // Une invalidation concurrente a pu enregistrer sa version
+                // entre le contrôle et l'insertion
+                if (!isValid(loaded)) {
+                    segment.remove(key, loaded);
+                }
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Vide le cache.
+     */
+    public void clear() {
+        clearThrough(dataStore.current().version());
+    }
+
+    /**
+     * @return les statistiques du cache
+     */
+    public Stats stats() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        return new Stats(hits.sum(), misses.sum(), evictions.sum(), invalidations.sum(), size);
+    }
+
+    /**
+     * Enregistre, avant qu'elle ne soit visible, la version publiée pour
+     * chaque étiquette touchée par une publication.
+     *
+     * @param change la différence entre la version courante et la version
+     *               publiée
+     */
+    private void beforePublish(SnapshotChange change) {
+        long version = change.version();
+        if (change.isDayRollover()) {
+            clearThrough(version);
+            return;
+        }
+        Set<CacheTag> tags = new HashSet<>();
+        change.forEachPerson((before, after) -> {
+            addPersonTags(tags, change, before);
+            addPersonTags(tags, change, after);
+        });
+        change.forEachFirestation((before, after) -> {
+            addMappingTags(tags, before);
+            addMappingTags(tags, after);
+        });
+        change.forEachMedicalRecord((before, after) -> {
+            MedicalRecord record = after != null ? after : before;
+            tags.add(CacheTag.lastName(record.getLastName()));
+            change.addressesOf(record.getFirstName(), record.getLastName())
+                    .forEach(address -> addAddressTags(tags, change, address));
+        });
+        if (tags.size() > Math.max(maxEntries, MAX_PUBLISH_TAGS)) {
+            clearThrough(version);
+            return;
+        }
+        for (CacheTag tag : tags) {
+            invalidatedAt.merge(tag, version, Math::max);
+        }
+        logger.debug("[SERVICE] Cache: version {} invalide {}", version, tags);
+    }
+
+    private void addPersonTags(Set<CacheTag> tags, SnapshotChange change, Person person) {
+        if (person == null) {
+            return;
+        }
+        addAddressTags(tags, change, person.getAddress());
+        if (person.getCity() != null) {
+            tags.add(CacheTag.city(person.getCity()));
+        }
+        if (person.getLastName() != null) {
+            tags.add(CacheTag.lastName(person.getLastName()));
+        }
+    }
+
+    private static void addMappingTags(Set<CacheTag> tags, Firestation firestation) {
+        if (firestation != null) {
+            tags.add(CacheTag.address(firestation.getAddress()));
+            tags.add(CacheTag.station(firestation.getStation()));
+        }
+    }
+
+    private static void addAddressTags(Set<CacheTag> tags, SnapshotChange change, String address) {
+        if (address == null) {
+            return;
+        }
+        tags.add(CacheTag.address(address));
+        change.stationsOf(address).forEach(station -> tags.add(CacheTag.station(station)));
+    }
+
+    /**
+     * Périme toutes les réponses calculées avant une version, et oublie les
+     * versions par étiquette qu'elle rend inutiles.
+     */
+    private void clearThrough(long version) {
+        clearedAt.accumulateAndGet(version, Math::max);
+        int removed = 0;
+        for (Segment segment : segments) {
+            removed += segment.clear();
+        }
+        invalidations.add(removed);
+        invalidatedAt.values().removeIf(tagVersion -> tagVersion <= version);
+        logger.debug("[SERVICE] Cache: {} réponses retirées à la version {}", removed, version);
+    }
+
+    /**
+     * Une réponse est valide si elle a été calculée après le dernier vidage et
+     * après la dernière écriture touchant chacune de ses étiquettes.
+     */
+    private boolean isValid(Entry entry) {
+        if (entry.version() < clearedAt.get()) {
+            return false;
+        }
+        for (CacheTag tag : entry.tags()) {
+            Long tagVersion = invalidatedAt.get(tag);
+            if (tagVersion != null && tagVersion > entry.version()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Segment segment(String key) {
+        int hash = key.hashCode();
+        return segments[Math.floorMod(hash ^ (hash >>> 16), segments.length)];
+    }
+
+    /**
+     * Segment LRU du cache, protégé par son propre verrou.
+     */
+    private static final class Segment {
+        private final int capacity;
+        private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+        private Segment(int capacity) {
+            this.capacity = capacity;
+        }
+
+        private synchronized Entry get(String key) {
+            return entries.get(key);
+        }
+
+        /**
+         * @return le nombre de réponses évincées
+         */
+        private synchronized int put(String key, Entry entry) {
+            entries.put(key, entry);
+            int evicted = 0;
+            while (entries.size() > capacity) {
+                entries.remove(entries.keySet().iterator().next());
+                evicted++;
+            }
+            return evicted;
+        }
+
+        private synchronized boolean remove(String key, Entry entry) {
+            return entries.remove(key, entry);
+        }
+
+        private synchronized int clear() {
+            int size = entries.size();
+            entries.clear();
+            return size;
+        }
+
+        private synchronized int size() {
+            return entries.size();
+        }
+    }
+}
@@ -0,0 +1,364 @@
+package com.openclassrooms.safetynetalerts.tools;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+import com.openclassrooms.safetynetalerts.model.DataFile;
+import com.openclassrooms.safetynetalerts.model.Firestation;
+import com.openclassrooms.safetynetalerts.model.MedicalRecord;
+import com.openclassrooms.safetynetalerts.model.Person;
+import com.openclassrooms.safetynetalerts.repository.BinaryDataFile;
+
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Outil en ligne de commande générant un fichier de données synthétique, au
+ * format JSON (data.json) ou binaire ({@link BinaryDataFile}), pour les
+ * benchmarks et les tests de charge.
+ *
+ * <p>
+ * Les données sont générées par foyer : une adresse, une ville, un nom de
+ * famille tiré selon une loi de Zipf (quelques noms très fréquents, une longue
+ * traîne de noms rares) et un nombre de membres tiré selon la distribution des
+ * tailles de foyer. Le premier membre de chaque foyer est un adulte ; les
+ * autres sont des enfants avec la probabilité qui donne, sur l'ensemble, la
+ * proportion d'enfants demandée. Chaque personne a un dossier médical.
+ *
+ * <p>
+ * Pour une même graine et une même date de référence, le fichier produit est
+ * identique d'une exécution à l'autre :
+ *
+ * <pre>
+ * java -cp safetynetalerts.jar com.openclassrooms.safetynetalerts.tools.DatasetGenerator \
+ *     --persons=1000000 --seed=42 --reference-date=2025-01-01 data.bin
+ * </pre>
+ *
+ * Options (valeurs par défaut de {@link Settings#defaults(int)}) :
+ * {@code --persons}, {@code --seed}, {@code --reference-date},
+ * {@code --household-sizes} (poids des foyers de 1, 2, 3... personnes, par
+ * exemple {@code 28,35,15,13,6,3}), {@code --surnames},
+ * {@code --surname-skew}, {@code --cities}, {@code --stations},
+ * {@code --station-coverage}, {@code --child-ratio},
+ * {@code --max-medications}, {@code --max-allergies}.
+ */
+public final class DatasetGenerator {
+
+    private static final DateTimeFormatter BIRTHDATE_FORMATTER = DateTimeFormatter.ofPattern("MM/dd/yyyy");
+
+    private static final String[] SYLLABLES = { "ba", "bo", "ca", "da", "de", "fa", "ga", "ja", "ke", "la", "li",
+            "lo", "ma", "mi", "na", "no", "pa", "ra", "ri", "ro", "sa", "si", "ta", "te", "to", "va", "vi", "za" };
+
+    private static final String[] STREET_TYPES = { "St", "Ave", "Rd", "Blvd", "Ln", "Dr" };
+
+    private static final String[] MEDICATIONS = { "aznol:350mg", "hydrapermazol:100mg", "pharmacol:5000mg",
+            "terazine:10mg", "noznazol:250mg", "tetracyclaz:650mg", "thradox:700mg", "dodoxadin:30mg",
+            "ibupurin:200mg", "tradoxidine:400mg" };
+
+    private static final String[] ALLERGIES = { "nillacilan", "peanut", "shellfish", "aznol", "xilliathal",
+            "gluten", "lactose", "pollen" };
+
+    private static final int FIRST_NAMES = 2_000;
+    private static final int ADULT_MAX_AGE = 95;
+
+    private DatasetGenerator() {
+    }
+
+    /**
+     * Paramètres de génération.
+     *
+     * @param persons                le nombre de personnes
+     * @param seed                   la graine du générateur pseudo-aléatoire
+     * @param referenceDate          la date à laquelle les âges sont calculés
+     * @param householdSizeWeights   les poids relatifs des foyers de 1, 2, 3...
+     *                               personnes
+     * @param surnames               le nombre de noms de famille distincts
+     * @param surnameSkew            l'exposant de la loi de Zipf des noms (0 :
+     *                               uniforme)
+     * @param cities                 le nombre de villes
+     * @param stations               le nombre de casernes
+     * @param stationCoverage        la proportion d'adresses couvertes par une
+     *                               caserne
+     * @param childRatio             la proportion d'enfants (18 ans ou moins)
+     * @param maxMedications         le nombre maximal de médicaments par dossier
+     * @param maxAllergies           le nombre maximal d'allergies par dossier
+     */
+    public record Settings(int persons, long seed, LocalDate referenceDate, List<Double> householdSizeWeights,
+            int surnames, double surnameSkew, int cities, int stations, double stationCoverage, double childRatio,
+            int maxMedications, int maxAllergies) {
+
+        public Settings {
+            householdSizeWeights = List.copyOf(householdSizeWeights);
+            if (persons < 0 || surnames < 1 || cities < 1 || stations < 1) {
+                throw new IllegalArgumentException(
+                        "persons doit être positif, surnames, cities et stations au moins 1");
+            }
+            if (householdSizeWeights.isEmpty() || householdSizeWeights.stream().anyMatch(w -> w < 0)
+                    || householdSizeWeights.stream().mapToDouble(Double::doubleValue).sum() <= 0) {
+                throw new IllegalArgumentException("Poids des tailles de foyer invalides : " + householdSizeWeights);
+            }
+            if (stationCoverage < 0 || stationCoverage > 1 || childRatio < 0 || childRatio >= 1) {
+                throw new IllegalArgumentException("station-coverage doit être dans [0, 1], child-ratio dans [0, 1[");
+            }
+            if (surnameSkew < 0 || maxMedications < 0 || maxMedications > MEDICATIONS.length || maxAllergies < 0
+                    || maxAllergies > ALLERGIES.length) {
+                throw new IllegalArgumentException("surname-skew, max-medications ou max-allergies invalide");
+            }
+        }
+
+        /**
+         * Paramètres par défaut pour un nombre de personnes donné : environ
+         * 2,5 personnes par foyer, un nom pour 250 personnes (50 au moins),
+         * une ville pour 20 000 personnes, une caserne pour 1 000 personnes,
+         * 98 % des adresses couvertes et 22 % d'enfants.
+         *
+         * @param persons le nombre de personnes
+         * @return les paramètres par défaut, à la date du jour
+         */
+        public static Settings defaults(int persons) {
+            return new Settings(persons, 42L, LocalDate.now(), List.of(28.0, 35.0, 15.0, 13.0, 6.0, 3.0),
+                    Math.max(50, persons / 250), 1.0, Math.max(1, persons / 20_000), Math.max(1, persons / 1_000),
+                    0.98, 0.22, 3, 2);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1 || args[args.length - 1].startsWith("--")) {
+            System.err.println("Usage : DatasetGenerator [--persons=N] [--seed=N] [--option=valeur...] <cible>");
+            System.exit(2);
+        }
+        Settings settings = parse(Arrays.asList(args).subList(0, args.length - 1));
+        Path target = Path.of(args[args.length - 1]);
+        DataFile data = generate(settings);
+        write(data, target);
+        System.out.printf("%s : %d personnes, %d adresses, %d dossiers médicaux (graine %d)%n", target,
+                data.getPersons().size(), data.getFirestations().size(), data.getMedicalrecords().size(),
+                settings.seed());
+    }
+
+    /**
+     * Lit les options {@code --nom=valeur} de la ligne de commande.
+     *
+     * @param options les options
+     * @return les paramètres, les options absentes prenant leur valeur par
+     *         défaut
+     * @throws IllegalArgumentException si une option est inconnue ou invalide
+     */
+    static Settings parse(List<String> options) {
+        Settings s = Settings.defaults(1_000);
+        String persons = null;
+        for (String option : options) {
+            if (option.startsWith("--persons=")) {
+                persons = option.substring("--persons=".length());
+            }
+        }
+        if (persons != null) {
+            s = Settings.defaults(Integer.parseInt(persons));
+        }
+        for (String option : options) {
+            int eq = option.indexOf('=');
+            if (!option.startsWith("--") || eq < 0) {
+                throw new IllegalArgumentException("Option invalide : " + option);
+            }
+            String value = option.substring(eq + 1);
+            s = switch (option.substring(2, eq)) {
+                case "persons" -> s;
+                case "seed" -> new Settings(s.persons(), Long.parseLong(value), s.referenceDate(),
+                        s.householdSizeWeights(), s.surnames(), s.surnameSkew(), s.cities(), s.stations(),
+                        s.stationCoverage(), s.childRatio(), s.maxMedications(), s.maxAllergies());
+                case "reference-date" -> new Settings(s.persons(), s.seed(), LocalDate.parse(value),
+                        s.householdSizeWeights(), s.surnames(), s.surnameSkew(), s.cities(), s.stations(),
+                        s.stationCoverage(), s.childRatio(), s.maxMedications(), s.maxAllergies());
+                case "household-sizes" -> new Settings(s.persons(), s.seed(), s.referenceDate(),
+                        Arrays.stream(value.split(",")).map(String::trim).map(Double::valueOf).toList(),
+                        s.surnames(), s.surnameSkew(), s.cities(), s.stations(), s.stationCoverage(),
+                        s.childRatio(), s.maxMedications(), s.maxAllergies());
+                case "surnames" -> new Settings(s.persons(), s.seed(), s.referenceDate(), s.householdSizeWeights(),
+                        Integer.parseInt(value), s.surnameSkew(), s.cities(), s.stations(), s.stationCoverage(),
+                        s.childRatio(), s.maxMedications(), s.maxAllergies());
+                case "surname-skew" -> new Settings(s.persons(), s.seed(), s.referenceDate(),
+                        s.householdSizeWeights(), s.surnames(), Double.parseDouble(value), s.cities(), s.stations(),
+                        s.stationCoverage(), s.childRatio(), s.maxMedications(), s.maxAllergies());
+                case "cities" -> new Settings(s.persons(), s.seed(), s.referenceDate(), s.householdSizeWeights(),
+                        s.surnames(), s.surnameSkew(), Integer.parseInt(value), s.stations(), s.stationCoverage(),
+                        s.childRatio(), s.maxMedications(), s.maxAllergies());
+                case "stations" -> new Settings(s.persons(), s.seed(), s.referenceDate(), s.householdSizeWeights(),
+                        s.surnames(), s.surnameSkew(), s.cities(), Integer.parseInt(value), s.stationCoverage(),
+                        s.childRatio(), s.maxMedications(), s.maxAllergies());
+                case "station-coverage" -> new Settings(s.persons(), s.seed(), s.referenceDate(),
+                        s.householdSizeWeights(), s.surnames(), s.surnameSkew(), s.cities(), s.stations(),
+                        Double.parseDouble(value), s.childRatio(), s.maxMedications(), s.maxAllergies());
+                case "child-ratio" -> new Settings(s.persons(), s.seed(), s.referenceDate(),
+                        s.householdSizeWeights(), s.surnames(), s.surnameSkew(), s.cities(), s.stations(),
+                        s.stationCoverage(), Double.parseDouble(value), s.maxMedications(), s.maxAllergies());
+                case "max-medications" -> new Settings(s.persons(), s.seed(), s.referenceDate(),
+                        s.householdSizeWeights(), s.surnames(), s.surnameSkew(), s.cities(), s.stations(),
+                        s.stationCoverage(), s.childRatio(), Integer.parseInt(value), s.maxAllergies());
+                case "max-allergies" -> new Settings(s.persons(), s.seed(), s.referenceDate(),
+                        s.householdSizeWeights(), s.surnames(), s.surnameSkew(), s.cities(), s.stations(),
+                        s.stationCoverage(), s.childRatio(), s.maxMedications(), Integer.parseInt(value));
+                default -> throw new IllegalArgumentException("Option inconnue : " + option);
+            };
+        }
+        return s;
+    }
+
+    /**
+     * Génère un fichier de données.
+     *
+     * @param settings les paramètres de génération
+     * @return les données générées ; les identités (prénom, nom) et les
+     *         adresses sont uniques
+     */
+    public static DataFile generate(Settings settings) {
+        SplittableRandom random = new SplittableRandom(settings.seed());
+        double[] householdSizes = cumulative(settings.householdSizeWeights().stream()
+                .mapToDouble(Double::doubleValue).toArray());
+        double[] surnameWeights = new double[settings.surnames()];
+        for (int i = 0; i < surnameWeights.length; i++) {
+            surnameWeights[i] = 1.0 / Math.pow(i + 1, settings.surnameSkew());
+        }
+        double[] surnames = cumulative(surnameWeights);
+        String[] firstNames = new String[FIRST_NAMES];
+        for (int i = 0; i < FIRST_NAMES; i++) {
+            firstNames[i] = name(i, 2);
+        }
+        int[] personsBySurname = new int[settings.surnames()];
+
+        // Le premier membre d'un foyer est adulte : les enfants sont tirés
+        // parmi les autres membres, dont le nombre est estimé par la taille
+        // moyenne des foyers
+        double meanHouseholdSize = 0;
+        for (int size = 1; size <= householdSizes.length; size++) {
+            meanHouseholdSize += size * (householdSizes[size - 1] - (size > 1 ? householdSizes[size - 2] : 0));
+        }
+        double childProbability = Math.min(1, settings.childRatio() * meanHouseholdSize / (meanHouseholdSize - 1));
+
+        List<Person> persons = new ArrayList<>(settings.persons());
+        List<MedicalRecord> medicalRecords = new ArrayList<>(settings.persons());
+        List<Firestation> firestations = new ArrayList<>();
+        for (int household = 0; persons.size() < settings.persons(); household++) {
+            String address = address(household);
+            int city = random.nextInt(settings.cities());
+            if (random.nextDouble() < settings.stationCoverage()) {
+                firestations.add(new Firestation(address, random.nextInt(settings.stations()) + 1));
+            }
+            int surname = sample(surnames, random);
+            String lastName = name(surname, 2);
+            int size = Math.min(sample(householdSizes, random) + 1, settings.persons() - persons.size());
+            for (int member = 0; member < size; member++) {
+                String firstName = firstName(firstNames, personsBySurname[surname]++, surname);
+                persons.add(new Person(firstName, lastName, address, name(city, 3), zip(city),
+                        String.format("841-874-%04d", random.nextInt(10_000)),
+                        (firstName + "." + lastName).replace(' ', '.').toLowerCase(Locale.ROOT) + "@email.com"));
+                boolean child = member > 0 && random.nextDouble() < childProbability;
+                medicalRecords.add(new MedicalRecord(firstName, lastName,
+                        birthdate(settings.referenceDate(), child, random),
+                        pick(MEDICATIONS, random.nextInt(settings.maxMedications() + 1), random),
+                        pick(ALLERGIES, random.nextInt(settings.maxAllergies() + 1), random)));
+            }
+        }
+
+        DataFile data = new DataFile();
+        data.setPersons(persons);
+        data.setFirestations(firestations);
+        data.setMedicalrecords(medicalRecords);
+        return data;
+    }
+
+    /**
+     * Écrit un fichier de données, au format binaire si son nom se termine par
+     * {@code .bin}, JSON sinon.
+     *
+     * @param data   les données
+     * @param target le fichier cible
+     * @throws IOException si le fichier ne peut pas être écrit
+     */
+    public static void write(DataFile data, Path target) throws IOException {
+        if (target.getFileName().toString().endsWith(".bin")) {
+            BinaryDataFile.write(data, target);
+        } else {
+            JsonMapper.builder().build().writeValue(target.toFile(), data);
+        }
+    }
+
+    private static double[] cumulative(double[] weights) {
+        double[] cumulative = new double[weights.length];
+        double sum = 0;
+        for (int i = 0; i < weights.length; i++) {
+            sum += weights[i];
+            cumulative[i] = sum;
+        }
+        for (int i = 0; i < cumulative.length; i++) {
+            cumulative[i] /= sum;
+        }
+        return cumulative;
+    }
+
+    private static int sample(double[] cumulative, SplittableRandom random) {
+        int i = Arrays.binarySearch(cumulative, random.nextDouble());
+        return Math.min(i >= 0 ? i : -i - 1, cumulative.length - 1);
+    }
+
+    /**
+     * Construit un nom unique pour un index : ses chiffres en base
+     * {@code SYLLABLES.length}, chacun remplacé par une syllabe.
+     */
+    private static String name(int index, int minSyllables) {
+        StringBuilder name = new StringBuilder();
+        int syllables = 0;
+        for (int rest = index; rest > 0 || syllables < minSyllables; rest /= SYLLABLES.length, syllables++) {
+            name.insert(0, SYLLABLES[rest % SYLLABLES.length]);
+        }
+        return Character.toUpperCase(name.charAt(0)) + name.substring(1);
+    }
+
+    /**
+     * Prénom du n-ième porteur d'un nom : un prénom simple tant qu'il en
+     * reste, puis un prénom composé, puis un prénom numéroté, pour que
+     * l'identité (prénom, nom) reste unique.
+     */
+    private static String firstName(String[] firstNames, int rank, int surname) {
+        int k = firstNames.length;
+        if (rank < k) {
+            // 7919 est premier avec k : permutation propre à chaque nom
+            return firstNames[(int) ((rank * 7_919L + surname) % k)];
+        }
+        long composed = rank - (long) k;
+        if (composed < (long) k * k) {
+            return firstNames[(int) (composed / k)] + "-" + firstNames[(int) (composed % k)];
+        }
+        long numbered = composed - (long) k * k;
+        return firstNames[(int) (numbered % k)] + " " + (numbered / k + 2);
+    }
+
+    private static String address(int household) {
+        return (household % 1_000 + 1) + " " + name(household / 1_000, 2) + " "
+                + STREET_TYPES[household / 1_000 % STREET_TYPES.length];
+    }
+
+    private static String zip(int city) {
+        return Integer.toString(10_000 + city * 7 % 90_000);
+    }
+
+    private static String birthdate(LocalDate referenceDate, boolean child, SplittableRandom random) {
+        int age = child ? random.nextInt(19) : 19 + random.nextInt(ADULT_MAX_AGE - 19);
+        // Né entre age + 1 ans (exclu) et age ans avant la date de référence
+        return referenceDate.minusYears(age).minusDays(random.nextInt(365)).format(BIRTHDATE_FORMATTER);
+    }
+
+    private static List<String> pick(String[] values, int count, SplittableRandom random) {
+        List<String> picked = new ArrayList<>(count);
+        int start = random.nextInt(values.length);
+        for (int i = 0; i < count; i++) {
+            picked.add(values[(start + i) % values.length]);
+        }
+        return picked;
+    }
+}
@@ -0,0 +1,68 @@
+package com.openclassrooms.safetynetalerts.tools;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import com.openclassrooms.safetynetalerts.model.DataFile;
+import com.openclassrooms.safetynetalerts.repository.BinaryDataFile;
+
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Outil en ligne de commande de conversion entre le format JSON (data.json) et
+ * le format binaire ({@link BinaryDataFile}) du fichier de données.
+ *
+ * <p>
+ * Le format de la source est détecté d'après son contenu, celui de la cible
+ * d'après son extension ({@code .bin} pour le format binaire, JSON sinon) :
+ *
+ * <pre>
+ * java -cp safetynetalerts.jar com.openclassrooms.safetynetalerts.tools.SnapshotConverter data.json data.bin
+ * </pre>
+ */
+public final class SnapshotConverter {
+
+    private SnapshotConverter() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage : SnapshotConverter <source> <cible>");
+            System.exit(2);
+        }
+        Path source = Path.of(args[0]);
+        Path target = Path.of(args[1]);
+        DataFile data = convert(source, target);
+        System.out.printf("%s -> %s : %d personnes, %d casernes, %d dossiers médicaux%n", source, target,
+                size(data.getPersons()), size(data.getFirestations()), size(data.getMedicalrecords()));
+    }
+
+    /**
+     * Convertit un fichier de données d'un format à l'autre.
+     *
+     * @param source le fichier source, JSON ou binaire
+     * @param target le fichier cible, binaire si son nom se termine par
+     *               {@code .bin}, JSON sinon
+     * @return les données converties
+     * @throws IOException si un des fichiers ne peut pas être lu ou écrit
+     */
+    public static DataFile convert(Path source, Path target) throws IOException {
+        JsonMapper mapper = JsonMapper.builder().build();
+        boolean binarySource = BinaryDataFile.isBinary(source);
+        DataFile data = binarySource ? BinaryDataFile.read(source)
+                : mapper.readValue(source.toFile(), DataFile.class);
+        if (target.getFileName().toString().endsWith(".bin")) {
+            // Un instantané converti depuis un JSON est chargé à sa place au démarrage
+            BinaryDataFile.write(data, target,
+                    binarySource ? BinaryDataFile.Source.NONE : BinaryDataFile.Source.of(source));
+        } else {
+            mapper.writerWithDefaultPrettyPrinter().writeValue(target.toFile(), data);
+        }
+        return data;
+    }
+
+    private static int size(List<?> list) {
+        return list == null ? 0 : list.size();
+    }
+}
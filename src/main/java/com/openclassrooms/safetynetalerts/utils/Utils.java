@@ -3,54 +3,100 @@ package com.openclassrooms.safetynetalerts.utils;
 import java.time.Clock;
 import java.time.LocalDate;
 import java.time.Period;
-import java.time.format.DateTimeFormatter;
-import java.util.Optional;
+import java.util.OptionalInt;
 
 import org.springframework.stereotype.Component;
 
-import com.openclassrooms.safetynetalerts.model.MedicalRecord;
 import com.openclassrooms.safetynetalerts.model.Person;
 import com.openclassrooms.safetynetalerts.repository.MedicalRecordRepository;
 
 @Component
 public class Utils {
 
-    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("MM/dd/yyyy");
-    private static final int ADULT_AGE_THRESHOLD = 18;
+    public static final int ADULT_AGE_THRESHOLD = 18;
 
     private final MedicalRecordRepository medicalRepo;
     private final Clock clock;
 
+    // Date du jour, recalculée au premier appel après minuit
+    private volatile Today today;
+
     public Utils(MedicalRecordRepository medicalRepo, Clock clock) {
         this.medicalRepo = medicalRepo;
         this.clock = clock;
+        this.today = Today.at(clock);
     }
 
     public int calculateAge(Person person) {
-
-        Optional<MedicalRecord> record = medicalRepo.findByFirstNameAndLastName(
-                person.getFirstName(),
-                person.getLastName());
-
-        String birthDate = record.stream()
-                .map(MedicalRecord::getBirthdate)
-                .findFirst()
-                .orElse(null);
-
-        if (birthDate == null) {
-            return -1; // Age par défaut si pas de dossier médical
+        OptionalInt birthEpochDay = medicalRepo.findBirthEpochDay(person.getFirstName(), person.getLastName());
+        if (birthEpochDay.isEmpty()) {
+            return -1; // Age par défaut si pas de dossier médical ou date invalide
         }
-
-        LocalDate LocalBirthDate = LocalDate.parse(birthDate, DATE_FORMATTER);
-        return Period.between(LocalBirthDate, LocalDate.now(clock)).getYears();
+        return Period.between(LocalDate.ofEpochDay(birthEpochDay.getAsInt()), today().date()).getYears();
     }
 
     public boolean isChild(Person person) {
-        return this.calculateAge(person) <= ADULT_AGE_THRESHOLD;
+        OptionalInt birthEpochDay = medicalRepo.findBirthEpochDay(person.getFirstName(), person.getLastName());
+        // Sans dossier médical ou sans date de naissance valide (rejetée et
+        // signalée à l'indexation), l'âge vaut -1 : la personne est comptée comme enfant
+        return birthEpochDay.isEmpty() || birthEpochDay.getAsInt() > today().childBirthThreshold();
     }
 
     public boolean isAdult(Person person) {
-        return this.calculateAge(person) > ADULT_AGE_THRESHOLD;
+        return !isChild(person);
+    }
+
+    /**
+     * Indique si un âge déjà calculé par {@link #calculateAge(Person)} est celui
+     * d'un enfant, sans nouvelle recherche du dossier médical.
+     *
+     * @param age l'âge, ou -1 si inconnu
+     * @return {@code true} si l'âge est inférieur ou égal au seuil de majorité
+     */
+    public static boolean isChildAge(int age) {
+        return age <= ADULT_AGE_THRESHOLD;
     }
 
+    /**
+     * Calcule le jour epoch de naissance au-delà duquel une personne est un
+     * enfant à une date donnée : on a au moins n ans si et seulement si l'on
+     * est né au plus tard le même jour n ans plus tôt.
+     *
+     * @param today la date de référence
+     * @return le dernier jour epoch de naissance d'un adulte
+     */
+    public static long childBirthThreshold(LocalDate today) {
+        return today.minusYears(ADULT_AGE_THRESHOLD + 1L).toEpochDay();
+    }
+
+    private Today today() {
+        Today current = today;
+        long now = clock.millis();
+        if (now < current.validFrom() || now >= current.validUntil()) {
+            current = Today.at(clock);
+            today = current;
+        }
+        return current;
+    }
+
+    /**
+     * Date du jour et seuil de naissance des enfants, valables de minuit à
+     * minuit dans le fuseau de l'horloge.
+     *
+     * @param date                la date du jour
+     * @param childBirthThreshold le jour epoch au-delà duquel une naissance est
+     *                            celle d'un enfant (âge inférieur ou égal au
+     *                            seuil de majorité)
+     * @param validFrom           le début du jour, en millisecondes epoch
+     * @param validUntil          le début du jour suivant, en millisecondes epoch
+     */
+    private record Today(LocalDate date, long childBirthThreshold, long validFrom, long validUntil) {
+
+        private static Today at(Clock clock) {
+            LocalDate date = LocalDate.now(clock);
+            return new Today(date, Utils.childBirthThreshold(date),
+                    date.atStartOfDay(clock.getZone()).toInstant().toEpochMilli(),
+                    date.plusDays(1).atStartOfDay(clock.getZone()).toInstant().toEpochMilli());
+        }
+    }
 }
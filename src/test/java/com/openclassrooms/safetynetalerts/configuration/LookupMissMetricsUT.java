@@ -0,0 +1,94 @@
+package com.openclassrooms.safetynetalerts.configuration;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalInt;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.Signature;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import static org.mockito.Mockito.lenient;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+/**
+ * Tests unitaires pour LookupMissMetrics
+ *
+ * Tests du compteur des recherches infructueuses:
+ * - Optional, OptionalInt et collection vides comptés
+ * - résultats trouvés non comptés
+ * - un seul compteur par méthode, réutilisé
+ */
+@ExtendWith(MockitoExtension.class)
+class LookupMissMetricsUT {
+
+    private static final String REPOSITORY = "com.openclassrooms.safetynetalerts.repository.FirestationRepository";
+
+    @Mock
+    private JoinPoint joinPoint;
+
+    @Mock
+    private Signature signature;
+
+    private SimpleMeterRegistry meterRegistry;
+    private LookupMissMetrics lookupMissMetrics;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        lookupMissMetrics = new LookupMissMetrics(meterRegistry);
+        lenient().when(joinPoint.getSignature()).thenReturn(signature);
+        lenient().when(signature.getDeclaringTypeName()).thenReturn(REPOSITORY);
+        lenient().when(signature.getName()).thenReturn("findStationNumberByAddress");
+    }
+
+    private Counter counter() {
+        return meterRegistry.find(LookupMissMetrics.METRIC)
+                .tags("class", REPOSITORY, "method", "findStationNumberByAddress")
+                .counter();
+    }
+
+    @Test
+    void countMiss_emptyResults_counted() {
+        // Act
+        lookupMissMetrics.countMiss(joinPoint, Optional.empty());
+        lookupMissMetrics.countMiss(joinPoint, OptionalInt.empty());
+        lookupMissMetrics.countMiss(joinPoint, List.of());
+        lookupMissMetrics.countMiss(joinPoint, null);
+
+        // Assert
+        assertEquals(4, counter().count());
+    }
+
+    @Test
+    void countMiss_foundResults_notCounted() {
+        // Act
+        lookupMissMetrics.countMiss(joinPoint, Optional.of(3));
+        lookupMissMetrics.countMiss(joinPoint, OptionalInt.of(18_000));
+        lookupMissMetrics.countMiss(joinPoint, List.of("1509 Culver St"));
+
+        // Assert
+        assertNull(counter());
+    }
+
+    @Test
+    void countMiss_repeatedMisses_reuseSingleCounter() {
+        // Act
+        lookupMissMetrics.countMiss(joinPoint, Optional.empty());
+        Counter first = counter();
+        lookupMissMetrics.countMiss(joinPoint, Optional.empty());
+        lookupMissMetrics.countMiss(joinPoint, List.of());
+
+        // Assert
+        assertSame(first, counter());
+        assertEquals(3, first.count());
+        assertEquals(1, meterRegistry.getMeters().size());
+    }
+}
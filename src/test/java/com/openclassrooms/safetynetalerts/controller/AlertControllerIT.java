@@ -3,10 +3,12 @@ package com.openclassrooms.safetynetalerts.controller;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Set;
+import java.util.function.Supplier;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -21,6 +23,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 import com.openclassrooms.safetynetalerts.model.Person;
 import com.openclassrooms.safetynetalerts.service.FirestationService;
 import com.openclassrooms.safetynetalerts.service.PersonService;
+import com.openclassrooms.safetynetalerts.service.ResponseCache;
 import com.openclassrooms.safetynetalerts.utils.Utils;
 
 /**
@@ -46,11 +49,18 @@ class AlertControllerIT {
     @MockitoBean
     private Utils utils;
 
+    @MockitoBean
+    private ResponseCache responseCache;
+
     private Person child;
     private Person adult;
 
     @BeforeEach
     void setUp() {
+        // Cache transparent : chaque requête recalcule la réponse
+        when(responseCache.get(anyString(), any(), any()))
+                .thenAnswer(invocation -> invocation.getArgument(2, Supplier.class).get());
+
         child = new Person();
         child.setFirstName("Emma");
         child.setLastName("Boyd");
@@ -89,9 +99,8 @@ class AlertControllerIT {
         // Arrange
         List<Person> personsAtAddress = Arrays.asList(child, adult);
         when(personService.getPersonsByAddress("123 Main St")).thenReturn(personsAtAddress);
-        when(utils.isChild(child)).thenReturn(true);
-        when(utils.isChild(adult)).thenReturn(false);
         when(utils.calculateAge(child)).thenReturn(10);
+        when(utils.calculateAge(adult)).thenReturn(40);
 
         // Act & Assert
         mockMvc.perform(get("/childAlert")
@@ -108,8 +117,9 @@ class AlertControllerIT {
                 .andExpect(jsonPath("$.children[0].otherHouseholdMembers[0].lastName").value("Boyd"));
 
         verify(personService, times(1)).getPersonsByAddress("123 Main St");
-        verify(utils, times(2)).isChild(any(Person.class));
         verify(utils, times(1)).calculateAge(child);
+        verify(utils, times(1)).calculateAge(adult);
+        verify(utils, never()).isChild(any(Person.class));
     }
 
     @Test
@@ -117,7 +127,7 @@ class AlertControllerIT {
         // Arrange
         List<Person> personsAtAddress = Arrays.asList(adult);
         when(personService.getPersonsByAddress("456 Oak Ave")).thenReturn(personsAtAddress);
-        when(utils.isChild(adult)).thenReturn(false);
+        when(utils.calculateAge(adult)).thenReturn(40);
 
         // Act & Assert
         mockMvc.perform(get("/childAlert")
@@ -126,6 +136,6 @@ class AlertControllerIT {
                 .andExpect(jsonPath("$.children").isEmpty());
 
         verify(personService, times(1)).getPersonsByAddress("456 Oak Ave");
-        verify(utils, times(1)).isChild(adult);
+        verify(utils, times(1)).calculateAge(adult);
     }
 }
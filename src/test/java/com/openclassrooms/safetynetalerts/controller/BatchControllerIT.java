@@ -0,0 +1,111 @@
+package com.openclassrooms.safetynetalerts.controller;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.openclassrooms.safetynetalerts.dto.batch.BatchItemResultDTO;
+import com.openclassrooms.safetynetalerts.dto.batch.BatchResponseDTO;
+import com.openclassrooms.safetynetalerts.mapper.MedicalRecordMapper;
+import com.openclassrooms.safetynetalerts.mapper.PersonMapper;
+import com.openclassrooms.safetynetalerts.model.Firestation;
+import com.openclassrooms.safetynetalerts.repository.BatchStatus;
+import com.openclassrooms.safetynetalerts.repository.NameKey;
+import com.openclassrooms.safetynetalerts.service.BatchService;
+
+/**
+ * Tests d'intégration pour BatchController
+ *
+ * Tests critiques pour les endpoints /person/batch et /firestation/batch
+ */
+@WebMvcTest(BatchController.class)
+class BatchControllerIT {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private BatchService batchService;
+
+    @MockitoBean
+    private PersonMapper personMapper;
+
+    @MockitoBean
+    private MedicalRecordMapper medicalRecordMapper;
+
+    private static BatchResponseDTO response(BatchStatus... statuses) {
+        Map<BatchStatus, Integer> counts = new EnumMap<>(BatchStatus.class);
+        List<BatchItemResultDTO> results = new ArrayList<>();
+        for (int i = 0; i < statuses.length; i++) {
+            counts.merge(statuses[i], 1, Integer::sum);
+            results.add(new BatchItemResultDTO(i, statuses[i]));
+        }
+        return new BatchResponseDTO(counts, results);
+    }
+
+    // ==================== Tests POST /person/batch ====================
+
+    @Test
+    void addPersons_returnsStatusPerItem() throws Exception {
+        // Arrange
+        when(batchService.addPersons(anyList()))
+                .thenReturn(response(BatchStatus.CREATED, BatchStatus.ALREADY_EXISTS));
+
+        // Act & Assert
+        mockMvc.perform(post("/person/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[{\"firstName\":\"John\",\"lastName\":\"Doe\"},"
+                        + "{\"firstName\":\"Jane\",\"lastName\":\"Doe\"}]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.results.length()").value(2))
+                .andExpect(jsonPath("$.results[0].status").value("CREATED"))
+                .andExpect(jsonPath("$.results[1].index").value(1))
+                .andExpect(jsonPath("$.results[1].status").value("ALREADY_EXISTS"));
+
+        verify(personMapper, times(2)).toEntity(any());
+    }
+
+    // ==================== Tests DELETE /person/batch ====================
+
+    @Test
+    void deletePersons_passesNameKeys() throws Exception {
+        // Arrange
+        when(batchService.deletePersons(List.of(new NameKey("John", "Doe"))))
+                .thenReturn(response(BatchStatus.DELETED));
+
+        // Act & Assert
+        mockMvc.perform(delete("/person/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[{\"firstName\":\"John\",\"lastName\":\"Doe\"}]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.counts.DELETED").value(1));
+    }
+
+    // ==================== Tests DELETE /firestation/batch ====================
+
+    @Test
+    void deleteMappings_missingStation_mapsToZero() throws Exception {
+        // Arrange
+        when(batchService.deleteMappings(List.of(new Firestation("123 Main St", 0), new Firestation(null, 3))))
+                .thenReturn(response(BatchStatus.DELETED, BatchStatus.NOT_FOUND));
+
+        // Act & Assert
+        mockMvc.perform(delete("/firestation/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[{\"address\":\"123 Main St\"},{\"station\":3}]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.results[1].status").value("NOT_FOUND"));
+    }
+}
@@ -0,0 +1,61 @@
+package com.openclassrooms.safetynetalerts.controller;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.openclassrooms.safetynetalerts.dto.deltaimport.DeltaImportLineDTO;
+import com.openclassrooms.safetynetalerts.dto.deltaimport.DeltaImportResponseDTO;
+import com.openclassrooms.safetynetalerts.repository.BatchStatus;
+import com.openclassrooms.safetynetalerts.service.DeltaImportService;
+
+/**
+ * Tests d'intégration pour DeltaImportController
+ *
+ * Tests critiques pour l'endpoint /import
+ */
+@WebMvcTest(DeltaImportController.class)
+class DeltaImportControllerIT {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private DeltaImportService deltaImportService;
+
+    // ==================== Tests POST /import ====================
+
+    @Test
+    void importDelta_ndjsonBody_returnsPerLineResults() throws Exception {
+        // Arrange
+        DeltaImportResponseDTO response = new DeltaImportResponseDTO(
+                Map.of(BatchStatus.DELETED, 1, BatchStatus.INVALID, 1),
+                List.of(new DeltaImportLineDTO(1, BatchStatus.DELETED, null),
+                        new DeltaImportLineDTO(2, BatchStatus.INVALID, "Opération incomplète ou non supportée")));
+        when(deltaImportService.importDelta(any(InputStream.class))).thenReturn(response);
+
+        // Act & Assert
+        mockMvc.perform(post("/import")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .content("{\"op\":\"DELETE_STATION\",\"station\":4}\n{\"op\":\"PUT_PERSON\"}\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.counts.DELETED").value(1))
+                .andExpect(jsonPath("$.results.length()").value(2))
+                .andExpect(jsonPath("$.results[0].line").value(1))
+                .andExpect(jsonPath("$.results[0].error").doesNotExist())
+                .andExpect(jsonPath("$.results[1].status").value("INVALID"));
+
+        verify(deltaImportService, times(1)).importDelta(any(InputStream.class));
+    }
+}
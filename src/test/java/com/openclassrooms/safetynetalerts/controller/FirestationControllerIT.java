@@ -29,8 +29,8 @@ import com.openclassrooms.safetynetalerts.dto.firestation.FirestationDTO;
 import com.openclassrooms.safetynetalerts.mapper.FirestationMapper;
 import com.openclassrooms.safetynetalerts.model.Firestation;
 import com.openclassrooms.safetynetalerts.model.Person;
+import com.openclassrooms.safetynetalerts.repository.ResidentCounts;
 import com.openclassrooms.safetynetalerts.service.FirestationService;
-import com.openclassrooms.safetynetalerts.utils.Utils;
 
 /**
  * Tests d'intégration pour FirestationController
@@ -49,9 +49,6 @@ class FirestationControllerIT {
     @MockitoBean
     private FirestationMapper firestationMapper;
 
-    @MockitoBean
-    private Utils utils;
-
     private Person child;
     private Person adult;
 
@@ -80,8 +77,7 @@ class FirestationControllerIT {
         // Arrange
         List<Person> persons = Arrays.asList(child, adult, adult);
         when(firestationService.getPersonsCoveredByStation(1)).thenReturn(persons);
-        when(utils.isChild(child)).thenReturn(true);
-        when(utils.isChild(adult)).thenReturn(false);
+        when(firestationService.getResidentCountsByStation(1)).thenReturn(new ResidentCounts(2, 1));
 
         // Act & Assert
         mockMvc.perform(get("/firestation")
@@ -97,13 +93,14 @@ class FirestationControllerIT {
                 .andExpect(jsonPath("$.residents[0].phone").value("111-111-1111"));
 
         verify(firestationService, times(1)).getPersonsCoveredByStation(1);
-        verify(utils, times(3)).isChild(any(Person.class));
+        verify(firestationService, times(1)).getResidentCountsByStation(1);
     }
 
     @Test
     void getPersonsByStation_noPersons_returnsEmptyList() throws Exception {
         // Arrange
         when(firestationService.getPersonsCoveredByStation(99)).thenReturn(List.of());
+        when(firestationService.getResidentCountsByStation(99)).thenReturn(ResidentCounts.NONE);
 
         // Act & Assert
         mockMvc.perform(get("/firestation")
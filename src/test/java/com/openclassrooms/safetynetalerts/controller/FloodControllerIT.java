@@ -9,6 +9,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Supplier;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -22,6 +23,7 @@ import com.openclassrooms.safetynetalerts.model.Person;
 import com.openclassrooms.safetynetalerts.service.FirestationService;
 import com.openclassrooms.safetynetalerts.service.MedicalRecordService;
 import com.openclassrooms.safetynetalerts.service.PersonService;
+import com.openclassrooms.safetynetalerts.service.ResponseCache;
 import com.openclassrooms.safetynetalerts.utils.Utils;
 
 /**
@@ -47,12 +49,19 @@ class FloodControllerIT {
     @MockitoBean
     private Utils utils;
 
+    @MockitoBean
+    private ResponseCache responseCache;
+
     private Person person1;
     private Person person2;
     private MedicalRecord medicalRecord;
 
     @BeforeEach
     void setUp() {
+        // Cache transparent : chaque requête recalcule la réponse
+        when(responseCache.get(anyString(), any(), any()))
+                .thenAnswer(invocation -> invocation.getArgument(2, Supplier.class).get());
+
         person1 = new Person();
         person1.setFirstName("John");
         person1.setLastName("Doe");
@@ -1,12 +1,15 @@
 package com.openclassrooms.safetynetalerts.controller;
 
 import java.util.Arrays;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Supplier;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doThrow;
@@ -29,9 +32,11 @@ import com.openclassrooms.safetynetalerts.dto.PersonDTO;
 import com.openclassrooms.safetynetalerts.mapper.PersonMapper;
 import com.openclassrooms.safetynetalerts.model.MedicalRecord;
 import com.openclassrooms.safetynetalerts.model.Person;
+import com.openclassrooms.safetynetalerts.repository.NameKey;
 import com.openclassrooms.safetynetalerts.service.FirestationService;
 import com.openclassrooms.safetynetalerts.service.MedicalRecordService;
 import com.openclassrooms.safetynetalerts.service.PersonService;
+import com.openclassrooms.safetynetalerts.service.ResponseCache;
 import com.openclassrooms.safetynetalerts.utils.Utils;
 
 /**
@@ -57,6 +62,9 @@ class PersonControllerIT {
     @MockitoBean
     private Utils utils;
 
+    @MockitoBean
+    private ResponseCache responseCache;
+
     @MockitoBean
     private PersonMapper personMapper;
 
@@ -65,6 +73,10 @@ class PersonControllerIT {
 
     @BeforeEach
     void setUp() {
+        // Cache transparent : chaque requête recalcule la réponse
+        when(responseCache.get(anyString(), any(), any()))
+                .thenAnswer(invocation -> invocation.getArgument(2, Supplier.class).get());
+
         person1 = new Person();
         person1.setFirstName("John");
         person1.setLastName("Doe");
@@ -108,7 +120,8 @@ class PersonControllerIT {
     void getPersonsByLastName_existingLastName_returnsPersonsWithMedicalInfo() throws Exception {
         // Arrange
         when(personService.getPersonsByLastName("Doe")).thenReturn(Arrays.asList(person1));
-        when(medicalRecordService.getMedicalRecord("John", "Doe")).thenReturn(Optional.of(medicalRecord));
+        when(medicalRecordService.getMedicalRecordsByLastName("Doe"))
+                .thenReturn(Map.of(new NameKey("John", "Doe"), medicalRecord));
         when(utils.calculateAge(person1)).thenReturn(35);
 
         // Act & Assert
@@ -121,6 +134,26 @@ class PersonControllerIT {
                 .andExpect(jsonPath("$.persons[0].medicalHistory.medications[0]").value("aspirin:100mg"));
 
         verify(personService, times(1)).getPersonsByLastName("Doe");
+        verify(medicalRecordService, times(1)).getMedicalRecordsByLastName("Doe");
+    }
+
+    @Test
+    void getPersonsByLastName_ignoreCase_usesCaseInsensitiveLookups() throws Exception {
+        // Arrange
+        when(personService.getPersonsByLastNameIgnoreCase("doe")).thenReturn(Arrays.asList(person1));
+        when(medicalRecordService.getMedicalRecordsByLastNameIgnoreCase("doe"))
+                .thenReturn(Map.of(new NameKey("John", "Doe"), medicalRecord));
+        when(utils.calculateAge(person1)).thenReturn(35);
+
+        // Act & Assert
+        mockMvc.perform(get("/personInfo")
+                .param("lastName", "doe")
+                .param("ignoreCase", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.persons[0].lastName").value("Doe"))
+                .andExpect(jsonPath("$.persons[0].medicalHistory.allergies[0]").value("peanuts"));
+
+        verify(personService, times(1)).getPersonsByLastNameIgnoreCase("doe");
     }
 
     // ==================== Tests GET /fire ====================
@@ -1,5 +1,8 @@
 package com.openclassrooms.safetynetalerts.e2e;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.Clock;
 import java.time.Instant;
 import java.time.LocalDate;
@@ -20,10 +23,15 @@ import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.boot.test.web.server.LocalServerPort;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Primary;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.annotation.DirtiesContext.ClassMode;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
 import org.springframework.web.client.RestTemplate;
 
 import com.openclassrooms.safetynetalerts.dto.PersonDTO;
@@ -57,6 +65,8 @@ import com.openclassrooms.safetynetalerts.dto.personinfo.PersonMedicalProfileDTO
  * Principe FIRST:
  * - Fast: Test E2E intentionnellement lent (contexte Spring complet), séparé par @Tag("e2e")
  * - Independent: Utilise @DirtiesContext pour isolation, crée ses propres données
+ * dans un répertoire temporaire (journal des modifications et fichiers de
+ * données), sans rejouer les écritures d'une exécution précédente
  * - Repeatable: Clock fixe (26/12/2025) pour garantir calculs d'âge déterministes
  * - Self-Validating: Assertions claires avec AssertJ
  * - Timely: Teste le workflow complet end-to-end
@@ -83,6 +93,18 @@ class SafetyNetAlertsE2E {
         }
     }
 
+    /**
+     * Place le journal des modifications et les fichiers de données dans un
+     * répertoire temporaire propre à l'exécution.
+     */
+    @DynamicPropertySource
+    static void dataFiles(DynamicPropertyRegistry registry) throws IOException {
+        Path dir = Files.createTempDirectory("safetynet-e2e");
+        registry.add("safetynet.wal.path", () -> dir.resolve("mutations.log").toString());
+        registry.add("safetynet.data.path", () -> dir.resolve("data.json").toString());
+        registry.add("safetynet.data.binary-path", () -> dir.resolve("data.bin").toString());
+    }
+
     @LocalServerPort
     private int port;
 
@@ -100,6 +122,9 @@ class SafetyNetAlertsE2E {
     private static final int TEST_STATION = 99;
     private static final int EXPECTED_AGE = 15; // Âge calculé pour la date de naissance 01/15/2010 en 2025
 
+    // ETag de /personInfo avant la mise à jour du dossier médical
+    private String personInfoEtag;
+
     private String getBaseUrl() {
         return "http://localhost:" + port;
     }
@@ -116,6 +141,7 @@ class SafetyNetAlertsE2E {
         // PHASE 2: VERIFY INITIAL STATE
         verifyPersonInfo();
         verifyFirestationCoverage();
+        verifyConditionalGet();
         verifyFireDetails();
         verifyChildAlert();
 
@@ -198,6 +224,7 @@ class SafetyNetAlertsE2E {
         assertThat(response.getStatusCode())
                 .as("GET /personInfolastName should return 200 OK")
                 .isEqualTo(HttpStatus.OK);
+        personInfoEtag = response.getHeaders().getETag();
 
         PersonInfoResponseDTO body = response.getBody();
         assertThat(body).isNotNull();
@@ -255,6 +282,31 @@ class SafetyNetAlertsE2E {
                 .contains(tuple(TEST_FIRST_NAME, TEST_LAST_NAME, TEST_ADDRESS, TEST_PHONE));
     }
 
+    private void verifyConditionalGet() {
+        String url = getBaseUrl() + "/firestation?stationNumber=" + TEST_STATION;
+        ResponseEntity<FirestationCoverageResponseDTO> response = restTemplate.getForEntity(
+                url,
+                FirestationCoverageResponseDTO.class);
+        String etag = response.getHeaders().getETag();
+
+        assertThat(etag)
+                .as("GET /firestation should return an ETag")
+                .isNotBlank();
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setIfNoneMatch(etag);
+        ResponseEntity<FirestationCoverageResponseDTO> notModified = restTemplate.exchange(
+                url,
+                HttpMethod.GET,
+                new HttpEntity<>(headers),
+                FirestationCoverageResponseDTO.class);
+
+        assertThat(notModified.getStatusCode())
+                .as("GET /firestation with the same ETag should return 304 Not Modified")
+                .isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(notModified.getBody()).isNull();
+    }
+
     private void verifyFireDetails() {
         String url = getBaseUrl() + "/fire?address=" + TEST_ADDRESS;
         ResponseEntity<FireAddressResponseDTO> response = restTemplate.getForEntity(
@@ -342,14 +394,23 @@ class SafetyNetAlertsE2E {
     }
 
     private void verifyUpdatedMedicalRecord() {
+        // La réponse de /personInfo est en cache depuis verifyPersonInfo : avec
+        // l'ETag d'avant l'écriture, la requête doit recevoir la nouvelle réponse
         String url = getBaseUrl() + "/personInfo?lastName=" + TEST_LAST_NAME;
-        ResponseEntity<PersonInfoResponseDTO> response = restTemplate.getForEntity(
+        HttpHeaders headers = new HttpHeaders();
+        headers.setIfNoneMatch(personInfoEtag);
+        ResponseEntity<PersonInfoResponseDTO> response = restTemplate.exchange(
                 url,
+                HttpMethod.GET,
+                new HttpEntity<>(headers),
                 PersonInfoResponseDTO.class);
 
         assertThat(response.getStatusCode())
-                .as("GET /personInfolastName should return 200 OK after update")
+                .as("GET /personInfolastName with the ETag from before the update should return 200 OK")
                 .isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getETag())
+                .as("The update should change the ETag")
+                .isNotEqualTo(personInfoEtag);
 
         PersonInfoResponseDTO body = response.getBody();
         assertThat(body).isNotNull();
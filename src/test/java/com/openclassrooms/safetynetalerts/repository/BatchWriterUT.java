@@ -0,0 +1,241 @@
+package com.openclassrooms.safetynetalerts.repository;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.openclassrooms.safetynetalerts.model.DataFile;
+import com.openclassrooms.safetynetalerts.model.Firestation;
+import com.openclassrooms.safetynetalerts.model.MedicalRecord;
+import com.openclassrooms.safetynetalerts.model.Person;
+
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Tests unitaires pour BatchWriter
+ *
+ * Tests de l'application d'un lot d'opérations:
+ * - créations, remplacements et suppressions publiés en une seule version
+ * - opérations invalides ou sans effet rapportées sans interrompre le lot
+ * - lot journalisé puis rejoué à l'identique
+ * - lot volumineux sur une même adresse: index complets et versions
+ * précédentes intactes
+ * - modes création et mise à jour
+ */
+@ExtendWith(MockitoExtension.class)
+class BatchWriterUT {
+
+    @TempDir
+    private Path tempDir;
+
+    @InjectMocks
+    private PersonRepository personRepository;
+
+    @InjectMocks
+    private FirestationRepository firestationRepository;
+
+    @InjectMocks
+    private MedicalRecordRepository medicalRecordRepository;
+
+    private final DataStore dataStore = new DataStore();
+
+    private final BatchWriter batchWriter = new BatchWriter();
+
+    private MutationLog mutationLog;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        mutationLog = new MutationLog();
+        ReflectionTestUtils.setField(mutationLog, "mapper", JsonMapper.builder().build());
+        ReflectionTestUtils.setField(mutationLog, "enabled", true);
+        ReflectionTestUtils.setField(mutationLog, "path", tempDir.resolve("mutations.log").toString());
+        ReflectionTestUtils.setField(mutationLog, "fsync", false);
+        ReflectionTestUtils.setField(mutationLog, "maxBatch", 16);
+        mutationLog.start();
+
+        for (Object target : List.of(personRepository, firestationRepository, medicalRecordRepository,
+                batchWriter)) {
+            ReflectionTestUtils.setField(target, "dataStore", dataStore);
+            ReflectionTestUtils.setField(target, "mutationLog", mutationLog);
+        }
+        ReflectionTestUtils.setField(batchWriter, "personRepository", personRepository);
+        ReflectionTestUtils.setField(batchWriter, "firestationRepository", firestationRepository);
+        ReflectionTestUtils.setField(batchWriter, "medicalRecordRepository", medicalRecordRepository);
+
+        DataFile data = baseData();
+        personRepository.init(PersonIndex.of(data.getPersons()));
+        firestationRepository.init(FirestationIndex.of(data.getFirestations()));
+        medicalRecordRepository.init(MedicalRecordIndex.of(data.getMedicalrecords()));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        mutationLog.stop();
+    }
+
+    private static DataFile baseData() {
+        DataFile data = new DataFile();
+        data.setPersons(new ArrayList<>(List.of(
+                new Person("John", "Doe", "123 Main St", "Springfield", "12345", "111", "john@email.com"))));
+        data.setFirestations(new ArrayList<>(List.of(
+                new Firestation("123 Main St", 1),
+                new Firestation("456 Oak Ave", 2))));
+        data.setMedicalrecords(new ArrayList<>(List.of(
+                new MedicalRecord("John", "Doe", "01/01/1980", List.of(), List.of()))));
+        return data;
+    }
+
+    @Test
+    void apply_mixedOperations_reportsStatusesAndPublishesOneVersion() {
+        // Arrange
+        long before = dataStore.current().version();
+        List<MutationLogEntry> entries = List.of(
+                MutationLogEntry.putPerson(
+                        new Person("Jane", "Doe", "123 Main St", "Springfield", "12345", "222", "jane@email.com")),
+                MutationLogEntry.putPerson(
+                        new Person("John", "Doe", "789 Pine Rd", "Springfield", "12345", "111", "john@email.com")),
+                MutationLogEntry.deleteStation(2),
+                MutationLogEntry.putFirestation(new Firestation("789 Pine Rd", 3)),
+                MutationLogEntry.deleteMedicalRecord("John", "Doe"),
+                MutationLogEntry.deletePerson("Nobody", "Here"));
+
+        // Act
+        List<BatchStatus> statuses = batchWriter.apply(entries);
+
+        // Assert
+        assertEquals(List.of(BatchStatus.CREATED, BatchStatus.UPDATED, BatchStatus.DELETED, BatchStatus.CREATED,
+                BatchStatus.DELETED, BatchStatus.NOT_FOUND), statuses);
+        assertEquals(before + 1, dataStore.current().version());
+        assertEquals(2, personRepository.findAll().size());
+        assertEquals(1, personRepository.findByAddress("789 Pine Rd").size());
+        assertFalse(firestationRepository.existsByAddress("456 Oak Ave"));
+        assertTrue(firestationRepository.existsByAddress("789 Pine Rd"));
+        assertTrue(medicalRecordRepository.findAll().isEmpty());
+    }
+
+    @Test
+    void apply_invalidOperations_areSkipped() {
+        // Arrange
+        DataSnapshot before = dataStore.current();
+        List<MutationLogEntry> entries = new ArrayList<>();
+        entries.add(MutationLogEntry.putPerson(new Person()));
+        entries.add(MutationLogEntry.putFirestation(new Firestation("789 Pine Rd", 0)));
+        entries.add(MutationLogEntry.reset());
+        entries.add(null);
+
+        // Act
+        List<BatchStatus> statuses = batchWriter.apply(entries);
+
+        // Assert
+        assertEquals(List.of(BatchStatus.INVALID, BatchStatus.INVALID, BatchStatus.INVALID, BatchStatus.INVALID),
+                statuses);
+        assertSame(before, dataStore.current());
+        assertEquals(0, mutationLog.size());
+    }
+
+    @Test
+    void apply_thenReplay_restoresSameData() throws Exception {
+        // Arrange
+        batchWriter.apply(List.of(
+                MutationLogEntry.putPerson(
+                        new Person("Jane", "Doe", "123 Main St", "Springfield", "12345", "222", "jane@email.com")),
+                MutationLogEntry.deleteFirestation("456 Oak Ave"),
+                MutationLogEntry.putMedicalRecord(
+                        new MedicalRecord("Jane", "Doe", "02/02/1990", List.of("aspirin:100mg"), List.of()))));
+
+        // Act
+        DataFile data = baseData();
+        long replayed = mutationLog.replay(data);
+
+        // Assert
+        assertEquals(3, replayed);
+        assertEquals(personRepository.findAll().size(), data.getPersons().size());
+        assertEquals(firestationRepository.findAll(), data.getFirestations());
+        assertEquals(medicalRecordRepository.findAll().size(), data.getMedicalrecords().size());
+    }
+
+    @Test
+    void apply_largeBatchOnSameAddress_indexesEveryPerson() {
+        // Arrange
+        List<Person> before = personRepository.findByAddress("123 Main St");
+        List<MutationLogEntry> entries = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            entries.add(MutationLogEntry.putPerson(new Person("P" + i, "Doe", "123 Main St", "Springfield",
+                    "12345", "222", "p" + i + "@email.com")));
+        }
+        entries.add(MutationLogEntry.deletePerson("John", "Doe"));
+        entries.add(MutationLogEntry.deletePerson("P0", "Doe"));
+
+        // Act
+        batchWriter.apply(entries);
+
+        // Assert
+        assertEquals(4999, personRepository.findByAddress("123 Main St").size());
+        assertEquals(4999, personRepository.findByLastName("Doe").size());
+        assertEquals(1, before.size());
+        assertEquals("John", before.get(0).getFirstName());
+    }
+
+    @Test
+    void apply_createMode_rejectsExistingEntities() {
+        // Arrange
+        List<MutationLogEntry> entries = List.of(
+                MutationLogEntry.putPerson(
+                        new Person("John", "Doe", "789 Pine Rd", "Springfield", "12345", "999", "john@email.com")),
+                MutationLogEntry.putPerson(
+                        new Person("Jane", "Doe", "123 Main St", "Springfield", "12345", "222", "jane@email.com")),
+                MutationLogEntry.putPerson(
+                        new Person("Jane", "Doe", "456 Oak Ave", "Springfield", "12345", "222", "jane@email.com")),
+                MutationLogEntry.putFirestation(new Firestation("789 Pine Rd", 1)));
+
+        // Act
+        List<BatchStatus> statuses = batchWriter.apply(entries, BatchWriter.Mode.CREATE);
+
+        // Assert
+        assertEquals(List.of(BatchStatus.ALREADY_EXISTS, BatchStatus.CREATED, BatchStatus.ALREADY_EXISTS,
+                BatchStatus.ALREADY_EXISTS), statuses);
+        assertEquals("123 Main St", personRepository.findByFirstNameAndLastName("John", "Doe").get().getAddress());
+        assertEquals("123 Main St", personRepository.findByFirstNameAndLastName("Jane", "Doe").get().getAddress());
+    }
+
+    @Test
+    void apply_updateMode_mergesNonNullFields() {
+        // Arrange
+        Person update = new Person();
+        update.setFirstName("John");
+        update.setLastName("Doe");
+        update.setPhone("999");
+        List<MutationLogEntry> entries = List.of(
+                MutationLogEntry.putPerson(update),
+                MutationLogEntry.putPerson(
+                        new Person("Jane", "Doe", "123 Main St", "Springfield", "12345", "222", "jane@email.com")),
+                MutationLogEntry.putMedicalRecord(new MedicalRecord("John", "Doe", null, List.of("aspirin:100mg"),
+                        null)));
+
+        // Act
+        List<BatchStatus> statuses = batchWriter.apply(entries, BatchWriter.Mode.UPDATE);
+
+        // Assert
+        assertEquals(List.of(BatchStatus.UPDATED, BatchStatus.NOT_FOUND, BatchStatus.UPDATED), statuses);
+        Person john = personRepository.findByFirstNameAndLastName("John", "Doe").get();
+        assertEquals("999", john.getPhone());
+        assertEquals("123 Main St", john.getAddress());
+        MedicalRecord record = medicalRecordRepository.findByFirstNameAndLastName("John", "Doe").get();
+        assertEquals("01/01/1980", record.getBirthdate());
+        assertEquals(List.of("aspirin:100mg"), record.getMedications());
+    }
+}
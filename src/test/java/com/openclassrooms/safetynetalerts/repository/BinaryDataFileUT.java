@@ -0,0 +1,156 @@
+package com.openclassrooms.safetynetalerts.repository;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.openclassrooms.safetynetalerts.model.DataFile;
+import com.openclassrooms.safetynetalerts.model.Firestation;
+import com.openclassrooms.safetynetalerts.model.MedicalRecord;
+import com.openclassrooms.safetynetalerts.model.Person;
+
+/**
+ * Tests unitaires pour BinaryDataFile
+ *
+ * Tests du format binaire du fichier de données:
+ * - écriture puis relecture à l'identique, valeurs nulles comprises
+ * - partage des chaînes identiques à la relecture
+ * - détection du format et rejet d'un fichier invalide
+ * - correspondance avec le JSON source d'après l'empreinte de l'en-tête,
+ * indépendamment des dates de modification
+ */
+class BinaryDataFileUT {
+
+    @TempDir
+    private Path tempDir;
+
+    private static DataFile sample() {
+        DataFile data = new DataFile();
+        data.setPersons(new ArrayList<>(List.of(
+                new Person("John", "Doe", "123 Main St", "Springfield", "12345", "111", "john@email.com"),
+                new Person("Jane", "Doe", "123 Main St", "Springfield", "12345", null, "jane@email.com"))));
+        data.setFirestations(new ArrayList<>(List.of(new Firestation("123 Main St", 1),
+                new Firestation("Rue de l'Église", 2))));
+        data.setMedicalrecords(new ArrayList<>(List.of(
+                new MedicalRecord("John", "Doe", "01/01/1980", List.of("aspirin:100mg", "hydrapermazol:300mg"),
+                        List.of("nillacilan")),
+                new MedicalRecord("Jane", "Doe", "02/02/1990", Arrays.asList("aspirin:100mg", null), null))));
+        data.setSeq(17);
+        return data;
+    }
+
+    @Test
+    void writeThenRead_returnsSameData() throws IOException {
+        // Arrange
+        Path file = tempDir.resolve("data.bin");
+        DataFile data = sample();
+
+        // Act
+        BinaryDataFile.write(data, file);
+        DataFile read = BinaryDataFile.read(file);
+
+        // Assert
+        assertEquals(data, read);
+        assertNull(read.getMedicalrecords().get(1).getAllergies());
+        assertTrue(BinaryDataFile.isBinary(file));
+    }
+
+    @Test
+    void read_sharesEqualStrings() throws IOException {
+        // Arrange
+        Path file = tempDir.resolve("data.bin");
+        BinaryDataFile.write(sample(), file);
+
+        // Act
+        DataFile read = BinaryDataFile.read(file);
+
+        // Assert
+        assertSame(read.getPersons().get(0).getAddress(), read.getPersons().get(1).getAddress());
+        assertSame(read.getPersons().get(0).getAddress(), read.getFirestations().get(0).getAddress());
+        assertSame(read.getMedicalrecords().get(0).getMedications().get(0),
+                read.getMedicalrecords().get(1).getMedications().get(0));
+    }
+
+    @Test
+    void write_emptyData_producesReadableFile() throws IOException {
+        // Arrange
+        Path file = tempDir.resolve("nested/empty.bin");
+
+        // Act
+        BinaryDataFile.write(new DataFile(), file);
+        DataFile read = BinaryDataFile.read(file);
+
+        // Assert
+        assertTrue(read.getPersons().isEmpty());
+        assertTrue(read.getFirestations().isEmpty());
+        assertTrue(read.getMedicalrecords().isEmpty());
+        assertEquals(0, read.getSeq());
+    }
+
+    @Test
+    void read_whenFileIsJson_throwsException() throws IOException {
+        // Arrange
+        Path file = Files.writeString(tempDir.resolve("data.json"), "{\"persons\": []}");
+
+        // Act & Assert
+        assertFalse(BinaryDataFile.isBinary(file));
+        assertThrows(IOException.class, () -> BinaryDataFile.read(file));
+    }
+
+    @Test
+    void isDerivedFrom_withSourceJson_ignoresModificationTimes() throws IOException {
+        // Arrange : le binaire paraît plus ancien que le JSON, comme après une copie
+        Path json = Files.writeString(tempDir.resolve("data.json"), "{\"persons\": [], \"seq\": 17}");
+        Path binary = tempDir.resolve("data.bin");
+        BinaryDataFile.write(sample(), binary, BinaryDataFile.Source.of(json));
+        Files.setLastModifiedTime(binary, FileTime.fromMillis(0));
+
+        // Act
+        boolean derived = BinaryDataFile.isDerivedFrom(binary, Files.size(json), () -> Files.newInputStream(json));
+
+        // Assert
+        assertTrue(derived);
+    }
+
+    @Test
+    void isDerivedFrom_afterJsonChanged_returnsFalse() throws IOException {
+        // Arrange : même taille, contenu différent, binaire plus récent
+        Path json = Files.writeString(tempDir.resolve("data.json"), "{\"persons\": [], \"seq\": 17}");
+        Path binary = tempDir.resolve("data.bin");
+        BinaryDataFile.write(sample(), binary, BinaryDataFile.Source.of(json));
+        Files.writeString(json, "{\"persons\": [], \"seq\": 18}");
+        Files.setLastModifiedTime(json, FileTime.fromMillis(0));
+
+        // Act
+        boolean derived = BinaryDataFile.isDerivedFrom(binary, Files.size(json), () -> Files.newInputStream(json));
+
+        // Assert
+        assertFalse(derived);
+    }
+
+    @Test
+    void isDerivedFrom_withoutRecordedSource_returnsFalse() throws IOException {
+        // Arrange
+        Path json = Files.writeString(tempDir.resolve("data.json"), "{}");
+        Path binary = tempDir.resolve("data.bin");
+        BinaryDataFile.write(sample(), binary);
+
+        // Act & Assert
+        assertFalse(BinaryDataFile.isDerivedFrom(binary, Files.size(json), () -> Files.newInputStream(json)));
+        assertFalse(BinaryDataFile.isDerivedFrom(tempDir.resolve("missing.bin"), Files.size(json),
+                () -> Files.newInputStream(json)));
+    }
+}
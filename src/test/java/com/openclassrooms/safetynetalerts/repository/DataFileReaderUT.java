@@ -0,0 +1,226 @@
+package com.openclassrooms.safetynetalerts.repository;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.openclassrooms.safetynetalerts.model.DataFile;
+import com.openclassrooms.safetynetalerts.model.Firestation;
+import com.openclassrooms.safetynetalerts.model.MedicalRecord;
+import com.openclassrooms.safetynetalerts.model.Person;
+
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Tests unitaires pour DataFileReader
+ *
+ * Tests de la lecture en flux du fichier de données:
+ * - lecture des trois sections et de la séquence
+ * - sections inconnues ignorées, sections absentes vides
+ * - partage des adresses, villes et codes postaux entre entités, et seulement
+ * de ces champs
+ * - lecture élément par élément vers les consommateurs des sections
+ * - repérage des sections et lecture parallèle d'un fichier, chaque section
+ * étant lue dès que le repérage l'atteint
+ * - fichier mal formé
+ */
+class DataFileReaderUT {
+
+    private static final String SAMPLE = """
+            {
+              "persons": [
+                {"firstName": "John", "lastName": "Doe", "address": "123 Main St", "city": "Springfield",
+                 "zip": "12345", "phone": "111", "email": "john@email.com"}
+              ],
+              "firestations": [{"address": "123 Main St", "station": "1"}],
+              "medicalrecords": [
+                {"firstName": "John", "lastName": "Doe", "birthdate": "01/01/1980",
+                 "medications": ["aspirin:100mg"], "allergies": []}
+              ],
+              "seq": 42
+            }
+            """;
+
+    private final JsonMapper mapper = JsonMapper.builder().build();
+
+    @TempDir
+    private Path tempDir;
+
+    private static InputStream json(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void read_readsAllSectionsAndSequence() {
+        // Act
+        DataFile data = new DataFileReader(mapper).read(json(SAMPLE));
+
+        // Assert
+        assertEquals(List.of(new Person("John", "Doe", "123 Main St", "Springfield", "12345", "111",
+                "john@email.com")), data.getPersons());
+        assertEquals(List.of(new Firestation("123 Main St", 1)), data.getFirestations());
+        assertEquals(List.of(new MedicalRecord("John", "Doe", "01/01/1980", List.of("aspirin:100mg"), List.of())),
+                data.getMedicalrecords());
+        assertEquals(42, data.getSeq());
+    }
+
+    @Test
+    void read_skipsUnknownSectionsAndDefaultsMissingOnes() {
+        // Arrange
+        String content = """
+                {
+                  "counties": [{"name": "Culver", "persons": [{"firstName": "Ghost"}]}],
+                  "firestations": [{"address": "123 Main St", "station": 1}],
+                  "medicalrecords": null
+                }
+                """;
+
+        // Act
+        DataFile data = new DataFileReader(mapper).read(json(content));
+
+        // Assert
+        assertTrue(data.getPersons().isEmpty());
+        assertEquals(1, data.getFirestations().size());
+        assertTrue(data.getMedicalrecords().isEmpty());
+        assertEquals(0, data.getSeq());
+    }
+
+    @Test
+    void read_sharesOnlyLowCardinalityStrings() {
+        // Arrange
+        String content = """
+                {
+                  "persons": [
+                    {"firstName": "John", "lastName": "Doe", "address": "123 Main St", "city": "Springfield"},
+                    {"firstName": "Jane", "lastName": "Doe", "address": "123 Main St", "city": "Springfield"}
+                  ],
+                  "firestations": [{"address": "123 Main St", "station": 1}],
+                  "medicalrecords": [
+                    {"firstName": "John", "lastName": "Doe", "medications": ["aspirin:100mg"]},
+                    {"firstName": "Jane", "lastName": "Doe", "medications": ["aspirin:100mg"]}
+                  ]
+                }
+                """;
+
+        // Act
+        DataFile data = new DataFileReader(mapper).read(json(content));
+
+        // Assert
+        Person john = data.getPersons().get(0);
+        Person jane = data.getPersons().get(1);
+        assertSame(john.getAddress(), jane.getAddress());
+        assertSame(john.getCity(), jane.getCity());
+        assertSame(john.getAddress(), data.getFirestations().get(0).getAddress());
+        assertNotSame(john.getLastName(), jane.getLastName());
+        assertNotSame(data.getMedicalrecords().get(0).getMedications().get(0),
+                data.getMedicalrecords().get(1).getMedications().get(0));
+    }
+
+    @Test
+    void read_withSink_passesEachElementToItsSection() throws IOException {
+        // Arrange
+        Path file = tempDir.resolve("data.json");
+        Files.writeString(file, SAMPLE);
+        List<Person> persons = new ArrayList<>();
+        List<Firestation> firestations = new ArrayList<>();
+        List<MedicalRecord> medicalRecords = new ArrayList<>();
+
+        // Act
+        long seq = new DataFileReader(mapper).read(file,
+                new DataRepo.Sink(persons::add, firestations::add, medicalRecords::add));
+
+        // Assert
+        assertEquals(42, seq);
+        assertEquals(List.of(new Person("John", "Doe", "123 Main St", "Springfield", "12345", "111",
+                "john@email.com")), persons);
+        assertEquals(List.of(new Firestation("123 Main St", 1)), firestations);
+        assertEquals(1, medicalRecords.size());
+    }
+
+    @Test
+    void scan_locatesTopLevelValuesIgnoringNestedStrings() throws IOException {
+        // Arrange
+        String content = "{\"notes\": \"a, \\\"quoted\\\" ] }\", \"persons\": [{\"city\": \"{[\"}], \"seq\": 7}";
+        Path file = Files.writeString(tempDir.resolve("data.json"), content);
+
+        // Act
+        Map<String, DataFileReader.Section> sections = DataFileReader.scan(file);
+
+        // Assert
+        assertEquals(List.of("notes", "persons", "seq"), List.copyOf(sections.keySet()));
+        DataFileReader.Section persons = sections.get("persons");
+        assertEquals("[{\"city\": \"{[\"}]",
+                content.substring((int) persons.start(), (int) persons.end()));
+        DataFileReader.Section seq = sections.get("seq");
+        assertEquals("7", content.substring((int) seq.start(), (int) seq.end()));
+    }
+
+    @Test
+    void scan_reportsEachValueStartWhenReached() throws IOException {
+        // Arrange
+        Path file = Files.writeString(tempDir.resolve("data.json"), SAMPLE);
+        List<String> names = new ArrayList<>();
+        List<Long> starts = new ArrayList<>();
+
+        // Act
+        Map<String, DataFileReader.Section> sections = DataFileReader.scan(file, (name, start) -> {
+            names.add(name);
+            starts.add(start);
+        });
+
+        // Assert
+        assertEquals(List.copyOf(sections.keySet()), names);
+        assertEquals(sections.values().stream().map(DataFileReader.Section::start).toList(), starts);
+    }
+
+    @Test
+    void readFile_whenSectionIsRepeated_throwsException() throws IOException {
+        // Arrange
+        Path file = Files.writeString(tempDir.resolve("data.json"), """
+                {"firestations": [{"address": "123 Main St", "station": 1}],
+                 "firestations": [{"address": "456 Oak Ave", "station": 2}]}
+                """);
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> new DataFileReader(mapper).read(file));
+    }
+
+    @Test
+    void readFile_readsSectionsInParallel() throws IOException {
+        // Arrange
+        Path file = Files.writeString(tempDir.resolve("data.json"), SAMPLE);
+
+        // Act
+        DataFile data = new DataFileReader(mapper).read(file);
+
+        // Assert
+        assertEquals(new DataFileReader(mapper).read(json(SAMPLE)), data);
+        assertEquals(42, data.getSeq());
+        assertSame(data.getPersons().get(0).getAddress(), data.getFirestations().get(0).getAddress());
+    }
+
+    @Test
+    void read_whenSectionIsNotAnArray_throwsException() {
+        // Arrange
+        String content = """
+                {"persons": {"firstName": "John"}}
+                """;
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> new DataFileReader(mapper).read(json(content)));
+    }
+}
@@ -0,0 +1,200 @@
+package com.openclassrooms.safetynetalerts.repository;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.openclassrooms.safetynetalerts.model.DataFile;
+import com.openclassrooms.safetynetalerts.model.Firestation;
+import com.openclassrooms.safetynetalerts.model.MedicalRecord;
+import com.openclassrooms.safetynetalerts.model.Person;
+
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Tests unitaires pour DataReloader
+ *
+ * Tests du rechargement à chaud du fichier de données:
+ * - remplacement des trois sections en une seule version
+ * - conservation des données courantes si le fichier est invalide
+ * - instantané de compaction ignoré et signalé dans le résultat
+ * - surveillance ignorant l'instantané renommé par la compaction
+ * - écritures appliquées sur les données rechargées
+ */
+@ExtendWith(MockitoExtension.class)
+class DataReloaderUT {
+
+    @TempDir
+    private Path tempDir;
+
+    @InjectMocks
+    private PersonRepository personRepository;
+
+    @InjectMocks
+    private FirestationRepository firestationRepository;
+
+    @InjectMocks
+    private MedicalRecordRepository medicalRecordRepository;
+
+    @Mock
+    private SnapshotCompactor snapshotCompactor;
+
+    private final JsonMapper mapper = JsonMapper.builder().build();
+
+    private final DataStore dataStore = new DataStore();
+
+    private final MutationLog mutationLog = new MutationLog();
+
+    private final DataReloader dataReloader = new DataReloader();
+
+    private Path dataFile;
+
+    @BeforeEach
+    void setUp() {
+        for (Object repository : List.of(personRepository, firestationRepository, medicalRecordRepository)) {
+            ReflectionTestUtils.setField(repository, "dataStore", dataStore);
+            ReflectionTestUtils.setField(repository, "mutationLog", mutationLog);
+        }
+        DataFile data = new DataFile();
+        data.setPersons(new ArrayList<>(List.of(
+                new Person("John", "Doe", "123 Main St", "Springfield", "12345", "111", "john@email.com"))));
+        data.setFirestations(new ArrayList<>(List.of(new Firestation("123 Main St", 1))));
+        data.setMedicalrecords(new ArrayList<>(List.of(
+                new MedicalRecord("John", "Doe", "01/01/1980", List.of(), List.of()))));
+        personRepository.init(PersonIndex.of(data.getPersons()));
+        firestationRepository.init(FirestationIndex.of(data.getFirestations()));
+        medicalRecordRepository.init(MedicalRecordIndex.of(data.getMedicalrecords()));
+
+        dataFile = tempDir.resolve("data.json");
+        ReflectionTestUtils.setField(dataReloader, "mapper", mapper);
+        ReflectionTestUtils.setField(dataReloader, "dataStore", dataStore);
+        ReflectionTestUtils.setField(dataReloader, "mutationLog", mutationLog);
+        ReflectionTestUtils.setField(dataReloader, "personRepository", personRepository);
+        ReflectionTestUtils.setField(dataReloader, "firestationRepository", firestationRepository);
+        ReflectionTestUtils.setField(dataReloader, "medicalRecordRepository", medicalRecordRepository);
+        ReflectionTestUtils.setField(dataReloader, "snapshotCompactor", snapshotCompactor);
+        ReflectionTestUtils.setField(dataReloader, "path", dataFile.toString());
+    }
+
+    private void writeDataFile(long seq) throws IOException {
+        DataFile data = new DataFile();
+        data.setPersons(List.of(
+                new Person("Jane", "Smith", "456 Oak Ave", "Springfield", "12345", "222", "jane@email.com"),
+                new Person("Bob", "Smith", "456 Oak Ave", "Springfield", "12345", "333", "bob@email.com")));
+        data.setFirestations(List.of(new Firestation("456 Oak Ave", 2)));
+        data.setMedicalrecords(List.of(
+                new MedicalRecord("Jane", "Smith", "02/02/1990", List.of("aspirin:100mg"), List.of())));
+        data.setSeq(seq);
+        mapper.writeValue(dataFile.toFile(), data);
+    }
+
+    @Test
+    void reload_swapsAllSectionsInOneVersion() throws IOException {
+        // Arrange
+        writeDataFile(0);
+        long before = dataStore.current().version();
+
+        // Act
+        DataReloader.Result result = dataReloader.reload();
+
+        // Assert
+        DataSnapshot snapshot = result.snapshot();
+        assertTrue(result.reloaded());
+        assertSame(snapshot, dataStore.current());
+        assertEquals(before + 1, snapshot.version());
+        assertEquals(2, personRepository.findAll().size());
+        assertFalse(personRepository.existsByFirstNameAndLastName("John", "Doe"));
+        assertEquals(List.of(new Firestation("456 Oak Ave", 2)), firestationRepository.findAll());
+        assertEquals("Jane", medicalRecordRepository.findAll().get(0).getFirstName());
+    }
+
+    @Test
+    void reload_whenFileIsInvalid_keepsCurrentData() throws IOException {
+        // Arrange
+        Files.writeString(dataFile, "{\"persons\": [");
+        DataSnapshot before = dataStore.current();
+
+        // Act & Assert
+        assertThrows(RuntimeException.class, () -> dataReloader.reload());
+        assertSame(before, dataStore.current());
+        assertTrue(personRepository.existsByFirstNameAndLastName("John", "Doe"));
+    }
+
+    @Test
+    void reload_whenFileIsCompactionSnapshot_reportsItSkipped() throws IOException {
+        // Arrange
+        writeDataFile(42);
+        DataSnapshot before = dataStore.current();
+
+        // Act
+        DataReloader.Result result = dataReloader.reload();
+
+        // Assert
+        assertFalse(result.reloaded());
+        assertEquals(42, result.seq());
+        assertSame(before, result.snapshot());
+        assertSame(before, dataStore.current());
+    }
+
+    @Test
+    void reload_thenWrite_appliesOnReloadedData() throws IOException {
+        // Arrange
+        writeDataFile(0);
+        dataReloader.reload();
+
+        // Act
+        personRepository.deletePerson("Bob", "Smith");
+
+        // Assert
+        assertEquals(1, personRepository.findAll().size());
+        assertEquals(1, personRepository.findByAddress("456 Oak Ave").size());
+    }
+
+    @Test
+    void reloadChanged_whenFileIsLastCompactionSnapshot_skipsIt() throws IOException {
+        // Arrange
+        Files.writeString(dataFile, "{\"persons\": [");
+        when(snapshotCompactor.isLastSnapshot(dataFile)).thenReturn(true);
+        DataSnapshot before = dataStore.current();
+
+        // Act
+        boolean reloaded = dataReloader.reloadChanged();
+
+        // Assert
+        assertFalse(reloaded);
+        assertSame(before, dataStore.current());
+    }
+
+    @Test
+    void reloadChanged_whenFileWasReplaced_reloadsIt() throws IOException {
+        // Arrange
+        writeDataFile(0);
+        when(snapshotCompactor.isLastSnapshot(dataFile)).thenReturn(false);
+        long before = dataStore.current().version();
+
+        // Act
+        boolean reloaded = dataReloader.reloadChanged();
+
+        // Assert
+        assertTrue(reloaded);
+        assertEquals(before + 1, dataStore.current().version());
+        assertEquals(2, personRepository.findAll().size());
+    }
+}
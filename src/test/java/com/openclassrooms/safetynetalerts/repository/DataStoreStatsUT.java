@@ -0,0 +1,99 @@
+package com.openclassrooms.safetynetalerts.repository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.openclassrooms.safetynetalerts.model.DataFile;
+import com.openclassrooms.safetynetalerts.model.Firestation;
+import com.openclassrooms.safetynetalerts.model.MedicalRecord;
+import com.openclassrooms.safetynetalerts.model.Person;
+
+/**
+ * Tests unitaires pour DataStoreStats
+ *
+ * Tests des statistiques de volume d'un instantané:
+ * - nombre d'entités et de clés distinctes
+ * - taille moyenne des foyers
+ * - empreinte estimée, nulle pour un instantané vide et croissante avec les
+ * données
+ */
+@ExtendWith(MockitoExtension.class)
+class DataStoreStatsUT {
+
+    @Spy
+    private DataStore dataStore;
+
+    @Spy
+    private MutationLog mutationLog;
+
+    @InjectMocks
+    private PersonRepository personRepository;
+
+    @InjectMocks
+    private FirestationRepository firestationRepository;
+
+    @InjectMocks
+    private MedicalRecordRepository medicalRecordRepository;
+
+    @BeforeEach
+    void setUp() {
+        DataFile dataFile = new DataFile();
+        dataFile.setPersons(new ArrayList<>(List.of(
+                new Person("John", "Doe", "123 Main St", "Springfield", "12345", "111", "john@email.com"),
+                new Person("Jane", "Doe", "123 Main St", "Springfield", "12345", "222", "jane@email.com"),
+                new Person("Jim", "Roe", "9 Elm St", "Culver", "97451", "333", "jim@email.com"))));
+        dataFile.setFirestations(new ArrayList<>(List.of(
+                new Firestation("123 Main St", 1),
+                new Firestation("9 Elm St", 2),
+                new Firestation("1 Empty St", 2))));
+        dataFile.setMedicalrecords(new ArrayList<>(List.of(
+                new MedicalRecord("John", "Doe", "01/01/1980", List.of("aznol:350mg"), List.of("peanut")))));
+
+        personRepository.init(PersonIndex.of(dataFile.getPersons()));
+        firestationRepository.init(FirestationIndex.of(dataFile.getFirestations()));
+        medicalRecordRepository.init(MedicalRecordIndex.of(dataFile.getMedicalrecords()));
+    }
+
+    @Test
+    void of_countsEntitiesAndDistinctKeys() {
+        // Act
+        DataStoreStats stats = DataStoreStats.of(dataStore.current());
+
+        // Assert
+        assertEquals(dataStore.current().version(), stats.version());
+        assertEquals(3, stats.persons());
+        assertEquals(3, stats.firestations());
+        assertEquals(1, stats.medicalRecords());
+        assertEquals(2, stats.addresses());
+        assertEquals(2, stats.cities());
+        assertEquals(2, stats.stations());
+        assertEquals(1.5, stats.averageHouseholdSize());
+    }
+
+    @Test
+    void of_estimatesHeapPerSection() {
+        // Act
+        DataStoreStats empty = DataStoreStats.of(DataSnapshot.EMPTY);
+        DataStoreStats before = DataStoreStats.of(dataStore.current());
+        personRepository.addPerson(
+                new Person("Joe", "Roe", "9 Elm St", "Culver", "97451", "444", "joe@email.com"));
+        DataStoreStats after = DataStoreStats.of(dataStore.current());
+
+        // Assert
+        assertEquals(new DataStoreStats.HeapEstimate(0, 0, 0, 0), empty.estimatedHeapBytes());
+        DataStoreStats.HeapEstimate heap = before.estimatedHeapBytes();
+        assertTrue(heap.persons() > 0 && heap.firestations() > 0 && heap.medicalRecords() > 0);
+        assertEquals(heap.persons() + heap.firestations() + heap.medicalRecords(), heap.total());
+        assertTrue(after.estimatedHeapBytes().persons() > heap.persons());
+        assertEquals(heap.firestations(), after.estimatedHeapBytes().firestations());
+    }
+}
@@ -0,0 +1,117 @@
+package com.openclassrooms.safetynetalerts.repository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.openclassrooms.safetynetalerts.model.DataFile;
+import com.openclassrooms.safetynetalerts.model.Firestation;
+import com.openclassrooms.safetynetalerts.model.Person;
+
+/**
+ * Tests unitaires pour DataStore
+ *
+ * Tests du versionnement et de l'épinglage des instantanés:
+ * - publication d'une nouvelle version à chaque écriture
+ * - lecture cohérente d'une version épinglée malgré des écritures concurrentes
+ * - libération de l'instantané épinglé
+ */
+@ExtendWith(MockitoExtension.class)
+class DataStoreUT {
+
+    @Spy
+    private DataStore dataStore;
+
+    @Spy
+    private MutationLog mutationLog;
+
+    @InjectMocks
+    private PersonRepository personRepository;
+
+    @InjectMocks
+    private FirestationRepository firestationRepository;
+
+    @BeforeEach
+    void setUp() {
+        DataFile dataFile = new DataFile();
+        dataFile.setPersons(new ArrayList<>(List.of(
+                new Person("John", "Doe", "123 Main St", "Springfield", "12345", "111", "john@email.com"))));
+        dataFile.setFirestations(new ArrayList<>(List.of(new Firestation("123 Main St", 1))));
+
+        personRepository.init(PersonIndex.of(dataFile.getPersons()));
+        firestationRepository.init(FirestationIndex.of(dataFile.getFirestations()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataStore.unpin();
+    }
+
+    @Test
+    void publish_incrementsVersionOnEveryWrite() {
+        // Arrange
+        long initial = dataStore.current().version();
+
+        // Act
+        personRepository.deletePerson("John", "Doe");
+        firestationRepository.deleteFirestationByAddress("123 Main St");
+
+        // Assert
+        assertEquals(initial + 2, dataStore.current().version());
+        assertEquals(0, dataStore.current().personCount());
+        assertEquals(0, dataStore.current().firestationCount());
+    }
+
+    @Test
+    void publish_keepsSectionsWrittenByOtherRepositories() {
+        // Act
+        firestationRepository.addFirestation(new Firestation("456 Oak Ave", 2));
+        personRepository.addPerson(new Person("Jane", "Doe", "456 Oak Ave", "Springfield", "12345", "222",
+                "jane@email.com"));
+
+        // Assert
+        assertEquals(2, dataStore.current().personCount());
+        assertEquals(2, dataStore.current().firestationCount());
+    }
+
+    @Test
+    void pin_readsStayOnPinnedVersionDespiteWrites() {
+        // Arrange
+        DataSnapshot pinned = dataStore.pin();
+
+        // Act
+        firestationRepository.updateFirestation(new Firestation("123 Main St", 1), new Firestation("123 Main St", 2));
+        personRepository.deletePerson("John", "Doe");
+
+        // Assert
+        assertSame(pinned, dataStore.read());
+        assertEquals(List.of("123 Main St"), firestationRepository.findAddressesByStation(1));
+        assertTrue(personRepository.existsByFirstNameAndLastName("John", "Doe"));
+        assertTrue(dataStore.current().version() > pinned.version());
+    }
+
+    @Test
+    void unpin_readsLatestVersionAgain() {
+        // Arrange
+        dataStore.pin();
+        personRepository.deletePerson("John", "Doe");
+
+        // Act
+        dataStore.unpin();
+
+        // Assert
+        assertSame(dataStore.current(), dataStore.read());
+        assertFalse(personRepository.existsByFirstNameAndLastName("John", "Doe"));
+    }
+}
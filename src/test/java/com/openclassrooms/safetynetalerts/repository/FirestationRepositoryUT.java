@@ -9,14 +9,13 @@ import java.util.Set;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
-import org.mockito.Mock;
-import static org.mockito.Mockito.reset;
-import static org.mockito.Mockito.when;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import com.openclassrooms.safetynetalerts.model.DataFile;
@@ -35,8 +34,11 @@ import com.openclassrooms.safetynetalerts.model.Firestation;
 @ExtendWith(MockitoExtension.class)
 class FirestationRepositoryUT {
 
-    @Mock
-    private DataRepo dataRepo;
+    @Spy
+    private DataStore dataStore;
+
+    @Spy
+    private MutationLog mutationLog;
 
     @InjectMocks
     private FirestationRepository firestationRepository;
@@ -60,12 +62,7 @@ class FirestationRepositoryUT {
         dataFile = new DataFile();
         dataFile.setFirestations(firestations);
 
-        // Réinitialiser le mock pour éviter toute contamination entre tests
-        reset(dataRepo);
-        when(dataRepo.loadData()).thenReturn(dataFile);
-
-        // Appeler @PostConstruct manuellement
-        firestationRepository.init();
+        firestationRepository.init(FirestationIndex.of(dataFile.getFirestations()));
     }
 
     // Factory methods pour créer des objets neufs à chaque test
@@ -167,6 +164,15 @@ class FirestationRepositoryUT {
         assertTrue(result.contains("789 Pine Rd"));
     }
 
+    @Test
+    void findAddressesByStations_withUnknownStation_ignoresIt() {
+        // Act
+        Set<String> result = firestationRepository.findAddressesByStations(Arrays.asList(2, 42));
+
+        // Assert
+        assertEquals(Set.of("456 Oak Ave"), result);
+    }
+
     // ==================== Tests addFirestation ====================
 
     @Test
@@ -176,14 +182,16 @@ class FirestationRepositoryUT {
         newFirestation.setAddress("999 New St");
         newFirestation.setStation(3);
 
-        int initialSize = firestations.size();
+        int initialSize = firestationRepository.findAll().size();
 
         // Act
         firestationRepository.addFirestation(newFirestation);
 
         // Assert
-        assertEquals(initialSize + 1, firestations.size());
-        assertTrue(firestations.contains(newFirestation));
+        assertEquals(initialSize + 1, firestationRepository.findAll().size());
+        assertTrue(firestationRepository.findAll().contains(newFirestation));
+        assertTrue(firestationRepository.existsByStation(3));
+        assertEquals(Optional.of(3), firestationRepository.findStationNumberByAddress("999 New St"));
     }
 
     // ==================== Tests updateFirestation ====================
@@ -195,14 +203,43 @@ class FirestationRepositoryUT {
         updatedFirestation.setAddress("123 Main St");
         updatedFirestation.setStation(99);
 
-        int initialSize = firestations.size();
+        int initialSize = firestationRepository.findAll().size();
+
+        // Act
+        Firestation result = firestationRepository.updateFirestation(firestation1, updatedFirestation).current();
+
+        // Assert
+        assertEquals(initialSize, firestationRepository.findAll().size());
+        assertEquals(99, result.getStation());
+        assertEquals(result, firestationRepository.findStationByAddress("123 Main St").get());
+        // L'instance précédemment lue n'est pas modifiée sur place
+        assertEquals(1, firestation1.getStation());
+    }
+
+    @Test
+    void addFirestation_withAlreadyMappedAddress_throwsIllegalArgumentException() {
+        // Arrange
+        Firestation duplicate = new Firestation("123 Main St", 5);
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> firestationRepository.addFirestation(duplicate));
+        assertEquals(Optional.of(1), firestationRepository.findStationNumberByAddress("123 Main St"));
+        assertFalse(firestationRepository.existsByStation(5));
+    }
+
+    @Test
+    void updateFirestation_movesAddressToNewStationIndex() {
+        // Arrange
+        Firestation updatedFirestation = new Firestation("123 Main St", 2);
 
         // Act
         firestationRepository.updateFirestation(firestation1, updatedFirestation);
 
         // Assert
-        assertEquals(initialSize, firestations.size());
-        assertEquals(99, firestation1.getStation());
+        assertEquals(List.of("789 Pine Rd"), firestationRepository.findAddressesByStation(1));
+        assertEquals(2, firestationRepository.findAddressesByStation(2).size());
+        assertTrue(firestationRepository.findAddressesByStation(2).contains("123 Main St"));
+        assertEquals(Optional.of(2), firestationRepository.findStationNumberByAddress("123 Main St"));
     }
 
     // ==================== Tests deleteFirestationByAddress ====================
@@ -210,16 +247,20 @@ class FirestationRepositoryUT {
     @Test
     void deleteFirestationByAddress_removesFirestation() {
         // Arrange
-        int initialSize = firestations.size();
+        int initialSize = firestationRepository.findAll().size();
 
         // Act
-        firestationRepository.deleteFirestationByAddress("123 Main St");
+        Optional<Firestation> result = firestationRepository.deleteFirestationByAddress("123 Main St");
 
         // Assert
-        assertEquals(initialSize - 1, firestations.size());
-        assertFalse(firestations.contains(firestation1));
-        assertTrue(firestations.contains(firestation2));
-        assertTrue(firestations.contains(firestation3));
+        List<Firestation> remaining = firestationRepository.findAll();
+        assertEquals(Optional.of(firestation1), result);
+        assertEquals(initialSize - 1, remaining.size());
+        assertFalse(remaining.contains(firestation1));
+        assertTrue(remaining.contains(firestation2));
+        assertTrue(remaining.contains(firestation3));
+        assertFalse(firestationRepository.existsByAddress("123 Main St"));
+        assertEquals(List.of("789 Pine Rd"), firestationRepository.findAddressesByStation(1));
     }
 
     // ==================== Tests deleteFirestationByStation ====================
@@ -227,16 +268,31 @@ class FirestationRepositoryUT {
     @Test
     void deleteFirestationByStation_removesAllFirestationsWithStation() {
         // Arrange
-        int initialSize = firestations.size();
+        int initialSize = firestationRepository.findAll().size();
 
         // Act
-        firestationRepository.deleteFirestationByStation(1);
+        List<Firestation> result = firestationRepository.deleteFirestationByStation(1);
+
+        // Assert
+        List<Firestation> remaining = firestationRepository.findAll();
+        assertEquals(Set.of(firestation1, firestation3), Set.copyOf(result));
+        assertEquals(initialSize - 2, remaining.size());
+        assertFalse(remaining.contains(firestation1));
+        assertFalse(remaining.contains(firestation3));
+        assertTrue(remaining.contains(firestation2));
+        assertFalse(firestationRepository.existsByStation(1));
+        assertFalse(firestationRepository.existsByAddress("789 Pine Rd"));
+        assertTrue(firestationRepository.findByStation(1).isEmpty());
+    }
+
+    @Test
+    void deleteFirestationByStation_unknownStation_returnsEmptyList() {
+        // Act
+        List<Firestation> result = firestationRepository.deleteFirestationByStation(99);
 
         // Assert
-        assertEquals(initialSize - 2, firestations.size());
-        assertFalse(firestations.contains(firestation1));
-        assertFalse(firestations.contains(firestation3));
-        assertTrue(firestations.contains(firestation2));
+        assertTrue(result.isEmpty());
+        assertEquals(3, firestationRepository.findAll().size());
     }
 
 }
@@ -3,16 +3,18 @@ package com.openclassrooms.safetynetalerts.repository;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.OptionalInt;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
-import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import com.openclassrooms.safetynetalerts.model.DataFile;
@@ -22,15 +24,18 @@ import com.openclassrooms.safetynetalerts.model.MedicalRecord;
  * Tests unitaires pour MedicalRecordRepository
  *
  * Tests des méthodes CRUD:
- * - findAll, findByFirstNameAndLastName
+ * - findAll, findByFirstNameAndLastName, findBirthEpochDay
  * - existsByFirstNameAndLastName
  * - save (create/update), update, delete
  */
 @ExtendWith(MockitoExtension.class)
 class MedicalRecordRepositoryUT {
 
-    @Mock
-    private DataRepo dataRepo;
+    @Spy
+    private DataStore dataStore;
+
+    @Spy
+    private MutationLog mutationLog;
 
     @InjectMocks
     private MedicalRecordRepository medicalRecordRepository;
@@ -53,12 +58,7 @@ class MedicalRecordRepositoryUT {
         dataFile = new DataFile();
         dataFile.setMedicalrecords(medicalRecords);
 
-        // Réinitialiser le mock pour éviter toute contamination entre tests
-        reset(dataRepo);
-        when(dataRepo.loadData()).thenReturn(dataFile);
-
-        // Appeler @PostConstruct manuellement
-        medicalRecordRepository.init();
+        medicalRecordRepository.init(MedicalRecordIndex.of(dataFile.getMedicalrecords()));
     }
 
     // Factory methods pour créer des objets neufs à chaque test
@@ -131,6 +131,62 @@ class MedicalRecordRepositoryUT {
         assertFalse(result.isPresent());
     }
 
+    // ==================== Tests findByLastName ====================
+
+    @Test
+    void findByLastName_withExistingLastName_returnsRecords() {
+        // Act
+        List<MedicalRecord> result = medicalRecordRepository.findByLastName("Smith");
+
+        // Assert
+        assertEquals(List.of(record2), result);
+        assertTrue(medicalRecordRepository.findByLastName("smith").isEmpty());
+    }
+
+    @Test
+    void findByLastNameIgnoreCase_afterSaveAndDelete_reflectsChanges() {
+        // Arrange
+        MedicalRecord newRecord = new MedicalRecord("Alice", "SMITH", "03/15/1990", List.of(), List.of());
+
+        // Act
+        medicalRecordRepository.save(newRecord);
+        medicalRecordRepository.delete("Jane", "Smith");
+
+        // Assert
+        assertEquals(List.of(newRecord), medicalRecordRepository.findByLastNameIgnoreCase("smith"));
+        assertTrue(medicalRecordRepository.findByLastName("Smith").isEmpty());
+    }
+
+    // ==================== Tests findBirthEpochDay ====================
+
+    @Test
+    void findBirthEpochDay_followsUpdatesAndDeletes() {
+        // Arrange
+        MedicalRecord update = new MedicalRecord();
+        update.setBirthdate("02/03/1981");
+
+        // Act
+        OptionalInt initial = medicalRecordRepository.findBirthEpochDay("John", "Doe");
+        medicalRecordRepository.updateFields(record1, update);
+        OptionalInt updated = medicalRecordRepository.findBirthEpochDay("John", "Doe");
+        medicalRecordRepository.delete("John", "Doe");
+
+        // Assert
+        assertEquals(OptionalInt.of((int) LocalDate.of(1980, 1, 1).toEpochDay()), initial);
+        assertEquals(OptionalInt.of((int) LocalDate.of(1981, 2, 3).toEpochDay()), updated);
+        assertTrue(medicalRecordRepository.findBirthEpochDay("John", "Doe").isEmpty());
+    }
+
+    @Test
+    void findBirthEpochDay_withInvalidBirthdate_returnsEmpty() {
+        // Act
+        medicalRecordRepository.save(new MedicalRecord("Alice", "Doe", "1990-03-15", List.of(), List.of()));
+
+        // Assert
+        assertTrue(medicalRecordRepository.existsByFirstNameAndLastName("Alice", "Doe"));
+        assertTrue(medicalRecordRepository.findBirthEpochDay("Alice", "Doe").isEmpty());
+    }
+
     // ==================== Tests existsByFirstNameAndLastName ====================
 
     @Test
@@ -163,7 +219,7 @@ class MedicalRecordRepositoryUT {
         newRecord.setMedications(Arrays.asList("med1:10mg"));
         newRecord.setAllergies(Arrays.asList("pollen"));
 
-        int initialSize = medicalRecords.size();
+        int initialSize = medicalRecordRepository.findAll().size();
 
         // Act
         MedicalRecord result = medicalRecordRepository.save(newRecord);
@@ -171,8 +227,10 @@ class MedicalRecordRepositoryUT {
         // Assert
         assertNotNull(result);
         assertEquals(newRecord, result);
-        assertEquals(initialSize + 1, medicalRecords.size());
-        assertTrue(medicalRecords.contains(newRecord));
+        assertEquals(initialSize + 1, medicalRecordRepository.findAll().size());
+        assertTrue(medicalRecordRepository.findAll().contains(newRecord));
+        assertTrue(medicalRecordRepository.existsByFirstNameAndLastName("Alice", "Brown"));
+        assertEquals(newRecord, medicalRecordRepository.findByFirstNameAndLastName("Alice", "Brown").get());
     }
 
     @Test
@@ -185,14 +243,14 @@ class MedicalRecordRepositoryUT {
         updatedRecord.setMedications(Arrays.asList("new_med:200mg"));
         updatedRecord.setAllergies(Arrays.asList("gluten"));
 
-        int initialSize = medicalRecords.size();
+        int initialSize = medicalRecordRepository.findAll().size();
 
         // Act
         MedicalRecord result = medicalRecordRepository.save(updatedRecord);
 
         // Assert
         assertNotNull(result);
-        assertEquals(initialSize, medicalRecords.size()); // Pas d'ajout, juste une mise à jour
+        assertEquals(initialSize, medicalRecordRepository.findAll().size()); // Pas d'ajout, juste une mise à jour
 
         // Vérifier que l'enregistrement existant a été mis à jour
         Optional<MedicalRecord> found = medicalRecordRepository.findByFirstNameAndLastName("John", "Doe");
@@ -213,14 +271,17 @@ class MedicalRecordRepositoryUT {
         updatedRecord.setAllergies(Arrays.asList("dust"));
 
         // Act
-        medicalRecordRepository.updateFields(record1, updatedRecord);
+        MedicalRecord result = medicalRecordRepository.updateFields(record1, updatedRecord).current();
 
         // Assert
-        assertEquals("John", record1.getFirstName());
-        assertEquals("Doe", record1.getLastName());
-        assertEquals("04/04/1983", record1.getBirthdate());
-        assertEquals(Arrays.asList("updated_med:300mg"), record1.getMedications());
-        assertEquals(Arrays.asList("dust"), record1.getAllergies());
+        assertEquals("John", result.getFirstName());
+        assertEquals("Doe", result.getLastName());
+        assertEquals("04/04/1983", result.getBirthdate());
+        assertEquals(Arrays.asList("updated_med:300mg"), result.getMedications());
+        assertEquals(Arrays.asList("dust"), result.getAllergies());
+        assertEquals(result, medicalRecordRepository.findByFirstNameAndLastName("John", "Doe").get());
+        // L'instance précédemment lue n'est pas modifiée sur place
+        assertEquals("01/01/1980", record1.getBirthdate());
     }
 
     @Test
@@ -231,42 +292,45 @@ class MedicalRecordRepositoryUT {
         // medications et allergies sont null, ne doivent pas être mis à jour
 
         // Act
-        medicalRecordRepository.updateFields(record1, partialUpdate);
+        MedicalRecord result = medicalRecordRepository.updateFields(record1, partialUpdate).current();
 
         // Assert
-        assertEquals("05/05/1985", record1.getBirthdate());
-        assertEquals(Arrays.asList("medication1:100mg", "medication2:50mg"), record1.getMedications());
-        assertEquals(Arrays.asList("peanut", "shellfish"), record1.getAllergies());
+        assertEquals("05/05/1985", result.getBirthdate());
+        assertEquals(Arrays.asList("medication1:100mg", "medication2:50mg"), result.getMedications());
+        assertEquals(Arrays.asList("peanut", "shellfish"), result.getAllergies());
     }
 
     // ==================== Tests delete ====================
 
     @Test
-    void delete_withExistingRecord_removesRecordAndReturnsTrue() {
+    void delete_withExistingRecord_removesAndReturnsRecord() {
         // Arrange
-        int initialSize = medicalRecords.size();
+        int initialSize = medicalRecordRepository.findAll().size();
 
         // Act
-        boolean result = medicalRecordRepository.delete("John", "Doe");
+        Optional<MedicalRecord> result = medicalRecordRepository.delete("John", "Doe");
 
         // Assert
-        assertTrue(result);
-        assertEquals(initialSize - 1, medicalRecords.size());
-        assertFalse(medicalRecords.contains(record1));
-        assertTrue(medicalRecords.contains(record2));
-        assertTrue(medicalRecords.contains(record3));
+        List<MedicalRecord> remaining = medicalRecordRepository.findAll();
+        assertEquals(Optional.of(record1), result);
+        assertEquals(initialSize - 1, remaining.size());
+        assertFalse(remaining.contains(record1));
+        assertTrue(remaining.contains(record2));
+        assertTrue(remaining.contains(record3));
+        assertFalse(medicalRecordRepository.existsByFirstNameAndLastName("John", "Doe"));
+        assertFalse(medicalRecordRepository.findByFirstNameAndLastName("John", "Doe").isPresent());
     }
 
     @Test
-    void delete_withNonExistingRecord_returnsFalse() {
+    void delete_withNonExistingRecord_returnsEmpty() {
         // Arrange
-        int initialSize = medicalRecords.size();
+        int initialSize = medicalRecordRepository.findAll().size();
 
         // Act
-        boolean result = medicalRecordRepository.delete("Unknown", "Person");
+        Optional<MedicalRecord> result = medicalRecordRepository.delete("Unknown", "Person");
 
         // Assert
-        assertFalse(result);
-        assertEquals(initialSize, medicalRecords.size());
+        assertTrue(result.isEmpty());
+        assertEquals(initialSize, medicalRecordRepository.findAll().size());
     }
 }
@@ -0,0 +1,283 @@
+package com.openclassrooms.safetynetalerts.repository;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.openclassrooms.safetynetalerts.model.DataFile;
+import com.openclassrooms.safetynetalerts.model.Firestation;
+import com.openclassrooms.safetynetalerts.model.MedicalRecord;
+import com.openclassrooms.safetynetalerts.model.Person;
+
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Tests unitaires pour MutationLog
+ *
+ * Tests du journal des modifications:
+ * - écriture groupée puis relecture (replay) sur les données de base
+ * - reprise de la numérotation après redémarrage
+ * - troncature d'une ligne incomplète ou illisible en fin de fichier
+ * - publication des écritures une fois durables, jamais après une erreur
+ * d'écriture
+ * - passage en échec après une erreur d'écriture, attente bornée
+ * - rechargement des données (RESET)
+ * - journal désactivé
+ */
+class MutationLogUT {
+
+    @TempDir
+    private Path tempDir;
+
+    private Path logFile;
+    private MutationLog mutationLog;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        logFile = tempDir.resolve("wal/mutations.log");
+        mutationLog = open();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        mutationLog.stop();
+    }
+
+    private MutationLog open() throws IOException {
+        MutationLog log = new MutationLog();
+        ReflectionTestUtils.setField(log, "mapper", JsonMapper.builder().build());
+        ReflectionTestUtils.setField(log, "enabled", true);
+        ReflectionTestUtils.setField(log, "path", logFile.toString());
+        ReflectionTestUtils.setField(log, "fsync", false);
+        ReflectionTestUtils.setField(log, "maxBatch", 16);
+        log.start();
+        return log;
+    }
+
+    private MutationLog restart() throws Exception {
+        mutationLog.stop();
+        mutationLog = open();
+        return mutationLog;
+    }
+
+    private static DataFile baseData() {
+        DataFile data = new DataFile();
+        data.setPersons(new ArrayList<>(List.of(
+                new Person("John", "Doe", "123 Main St", "Springfield", "12345", "111", "john@email.com"),
+                new Person("Jane", "Smith", "456 Oak Ave", "Springfield", "12345", "222", "jane@email.com"))));
+        data.setFirestations(new ArrayList<>(List.of(
+                new Firestation("123 Main St", 1),
+                new Firestation("456 Oak Ave", 2))));
+        data.setMedicalrecords(new ArrayList<>(List.of(
+                new MedicalRecord("John", "Doe", "01/01/1980", List.of(), List.of()))));
+        return data;
+    }
+
+    @Test
+    void append_thenReplay_appliesMutationsOnBaseData() throws Exception {
+        // Arrange
+        List<CompletableFuture<Void>> pending = new ArrayList<>();
+        pending.add(mutationLog.append(MutationLogEntry.putPerson(
+                new Person("John", "Doe", "789 Pine Rd", "Springfield", "12345", "111", "john@email.com"))));
+        pending.add(mutationLog.append(MutationLogEntry.deletePerson("Jane", "Smith")));
+        pending.add(mutationLog.append(MutationLogEntry.putFirestation(new Firestation("789 Pine Rd", 3))));
+        pending.add(mutationLog.append(MutationLogEntry.deleteStation(2)));
+        pending.add(mutationLog.append(MutationLogEntry.putMedicalRecord(
+                new MedicalRecord("Jane", "Smith", "02/02/1990", List.of("aspirin:100mg"), List.of()))));
+        pending.add(mutationLog.append(MutationLogEntry.deleteMedicalRecord("John", "Doe")));
+        pending.forEach(mutationLog::await);
+
+        // Act
+        DataFile data = baseData();
+        long replayed = restart().replay(data);
+
+        // Assert
+        assertEquals(6, replayed);
+        assertEquals(1, data.getPersons().size());
+        assertEquals("789 Pine Rd", data.getPersons().get(0).getAddress());
+        assertEquals(List.of(new Firestation("123 Main St", 1), new Firestation("789 Pine Rd", 3)),
+                data.getFirestations());
+        assertEquals(1, data.getMedicalrecords().size());
+        assertEquals("Jane", data.getMedicalrecords().get(0).getFirstName());
+    }
+
+    @Test
+    void append_afterRestart_continuesSequence() throws Exception {
+        // Arrange
+        mutationLog.await(mutationLog.append(MutationLogEntry.deletePerson("Jane", "Smith")));
+        mutationLog.await(mutationLog.append(MutationLogEntry.deleteFirestation("456 Oak Ave")));
+
+        // Act
+        MutationLog reopened = restart();
+        reopened.await(reopened.append(MutationLogEntry.deleteMedicalRecord("John", "Doe")));
+        reopened.stop();
+
+        // Assert
+        List<String> lines = Files.readAllLines(logFile);
+        assertEquals(3, lines.size());
+        assertTrue(lines.get(2).contains("\"seq\":3"));
+    }
+
+    @Test
+    void start_withTornLastLine_truncatesIt() throws Exception {
+        // Arrange
+        mutationLog.await(mutationLog.append(MutationLogEntry.deletePerson("Jane", "Smith")));
+        mutationLog.stop();
+        Files.writeString(logFile, "{\"seq\":2,\"op\":\"DELETE_PER", StandardCharsets.UTF_8,
+                StandardOpenOption.APPEND);
+
+        // Act
+        mutationLog = open();
+        DataFile data = baseData();
+        long replayed = mutationLog.replay(data);
+
+        // Assert
+        assertEquals(1, replayed);
+        assertEquals(1, data.getPersons().size());
+        assertEquals(1, Files.readAllLines(logFile).size());
+    }
+
+    @Test
+    void replay_whenDisabled_leavesDataUntouched() {
+        // Arrange
+        MutationLog disabled = new MutationLog();
+        DataFile data = baseData();
+        List<Person> persons = data.getPersons();
+
+        // Act
+        long replayed = disabled.replay(data);
+        disabled.await(disabled.append(MutationLogEntry.deletePerson("John", "Doe")));
+
+        // Assert
+        assertEquals(0, replayed);
+        assertEquals(persons, data.getPersons());
+    }
+
+    @Test
+    void replay_withReset_discardsEarlierEntries() throws Exception {
+        // Arrange
+        mutationLog.await(mutationLog.append(MutationLogEntry.deletePerson("Jane", "Smith")));
+        mutationLog.await(mutationLog.append(MutationLogEntry.reset()));
+        mutationLog.await(mutationLog.append(MutationLogEntry.deleteFirestation("456 Oak Ave")));
+
+        // Act
+        DataFile data = baseData();
+        long replayed = restart().replay(data);
+
+        // Assert
+        assertEquals(3, replayed);
+        assertEquals(2, data.getPersons().size());
+        assertEquals(List.of(new Firestation("123 Main St", 1)), data.getFirestations());
+        assertEquals(3, data.getSeq());
+    }
+
+    @Test
+    void start_withUnreadableLastLine_truncatesIt() throws Exception {
+        // Arrange
+        mutationLog.await(mutationLog.append(MutationLogEntry.deletePerson("Jane", "Smith")));
+        mutationLog.stop();
+        Files.writeString(logFile, "{\"seq\":2,\"op\":\"DELE{\"seq\":3}\n", StandardCharsets.UTF_8,
+                StandardOpenOption.APPEND);
+
+        // Act
+        mutationLog = open();
+        mutationLog.await(mutationLog.append(MutationLogEntry.deleteFirestation("456 Oak Ave")));
+        DataFile data = baseData();
+        long replayed = mutationLog.replay(data);
+
+        // Assert
+        assertEquals(2, replayed);
+        List<String> lines = Files.readAllLines(logFile);
+        assertEquals(2, lines.size());
+        assertTrue(lines.get(1).contains("\"seq\":2"));
+    }
+
+    @Test
+    void replay_withTornLastLine_ignoresIt() throws Exception {
+        // Arrange
+        mutationLog.await(mutationLog.append(MutationLogEntry.deletePerson("Jane", "Smith")));
+        Files.writeString(logFile, "{\"seq\":2,\"op\":\"DELETE_PER", StandardCharsets.UTF_8,
+                StandardOpenOption.APPEND);
+
+        // Act
+        DataFile data = baseData();
+        long replayed = mutationLog.replay(data);
+
+        // Assert
+        assertEquals(1, replayed);
+        assertEquals(1, data.getPersons().size());
+    }
+
+    @Test
+    void append_afterWriteFailure_isRefused() throws Exception {
+        // Arrange
+        ((FileChannel) ReflectionTestUtils.getField(mutationLog, "channel")).close();
+        CompletableFuture<Void> done = mutationLog.append(MutationLogEntry.deletePerson("Jane", "Smith"));
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> mutationLog.await(done));
+        assertTrue(mutationLog.isFailed());
+        assertThrows(IllegalStateException.class,
+                () -> mutationLog.append(MutationLogEntry.deletePerson("John", "Doe"), () -> {
+                }));
+    }
+
+    @Test
+    void append_withPublish_publishesInOrderBeforeCompletion() {
+        // Arrange
+        List<Integer> published = new ArrayList<>();
+
+        // Act
+        CompletableFuture<Void> first = mutationLog.append(MutationLogEntry.deletePerson("Jane", "Smith"),
+                () -> published.add(1));
+        CompletableFuture<Void> second = mutationLog.append(
+                List.of(MutationLogEntry.deletePerson("John", "Doe"), MutationLogEntry.deleteStation(2)),
+                () -> published.add(2));
+        mutationLog.await(second);
+
+        // Assert
+        assertTrue(first.isDone());
+        assertEquals(List.of(1, 2), published);
+    }
+
+    @Test
+    void append_afterWriteFailure_isNotPublished() throws Exception {
+        // Arrange
+        AtomicInteger published = new AtomicInteger();
+        ((FileChannel) ReflectionTestUtils.getField(mutationLog, "channel")).close();
+
+        // Act
+        CompletableFuture<Void> done = mutationLog.append(MutationLogEntry.deletePerson("Jane", "Smith"),
+                published::incrementAndGet);
+
+        // Assert
+        assertThrows(IllegalStateException.class, () -> mutationLog.await(done));
+        assertEquals(0, published.get());
+    }
+
+    @Test
+    void await_whenNotDurableInTime_throws() {
+        // Arrange
+        ReflectionTestUtils.setField(mutationLog, "awaitTimeout", Duration.ofMillis(10));
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> mutationLog.await(new CompletableFuture<>()));
+    }
+}
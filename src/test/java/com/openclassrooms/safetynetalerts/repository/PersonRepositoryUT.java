@@ -9,14 +9,16 @@ import java.util.Set;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
-import org.mockito.Mock;
-import static org.mockito.Mockito.reset;
-import static org.mockito.Mockito.when;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import com.openclassrooms.safetynetalerts.model.DataFile;
@@ -30,12 +32,16 @@ import com.openclassrooms.safetynetalerts.model.Person;
  * - findByLastName, findEmailsByCity
  * - existsByFirstNameAndLastName
  * - addPerson, updatePerson, deletePerson
+ * - écriture refusée par le journal: ni publiée ni conservée
  */
 @ExtendWith(MockitoExtension.class)
 class PersonRepositoryUT {
 
-    @Mock
-    private DataRepo dataRepo;
+    @Spy
+    private DataStore dataStore;
+
+    @Spy
+    private MutationLog mutationLog;
 
     @InjectMocks
     private PersonRepository personRepository;
@@ -59,12 +65,7 @@ class PersonRepositoryUT {
         dataFile = new DataFile();
         dataFile.setPersons(persons);
 
-        // Réinitialiser le mock pour éviter toute contamination entre tests
-        reset(dataRepo);
-        when(dataRepo.loadData()).thenReturn(dataFile);
-
-        // Appeler @PostConstruct manuellement
-        personRepository.init();
+        personRepository.init(PersonIndex.of(dataFile.getPersons()));
     }
 
     // Factory methods pour créer des objets neufs à chaque test
@@ -133,6 +134,59 @@ class PersonRepositoryUT {
         assertTrue(result.contains(person3));
     }
 
+    @Test
+    void findByAddress_withUnknownAddress_returnsEmptyList() {
+        // Act
+        List<Person> result = personRepository.findByAddress("unknown");
+
+        // Assert
+        assertNotNull(result);
+        assertTrue(result.isEmpty());
+    }
+
+    @Test
+    void findByAddress_afterAddPerson_includesNewResident() {
+        // Arrange
+        Person newPerson = new Person("Alice", "Doe", "123 Main St", "Springfield", "12345",
+                "000-000-0000", "alice.doe@email.com");
+
+        // Act
+        personRepository.addPerson(newPerson);
+        List<Person> result = personRepository.findByAddress("123 Main St");
+
+        // Assert
+        assertEquals(3, result.size());
+        assertTrue(result.contains(newPerson));
+    }
+
+    @Test
+    void findByAddress_afterAddressUpdate_movesResidentToNewAddress() {
+        // Arrange
+        Person updatedPerson = new Person();
+        updatedPerson.setAddress("456 Oak Ave");
+
+        // Act
+        Person result = personRepository.updatePerson(person1, updatedPerson).current();
+
+        // Assert
+        List<Person> oldAddress = personRepository.findByAddress("123 Main St");
+        List<Person> newAddress = personRepository.findByAddress("456 Oak Ave");
+        assertEquals(1, oldAddress.size());
+        assertTrue(oldAddress.contains(person3));
+        assertEquals(2, newAddress.size());
+        assertTrue(newAddress.contains(result));
+        assertTrue(newAddress.contains(person2));
+    }
+
+    @Test
+    void findByAddress_afterDeletePerson_excludesRemovedResident() {
+        // Act
+        personRepository.deletePerson("Jane", "Smith");
+
+        // Assert
+        assertTrue(personRepository.findByAddress("456 Oak Ave").isEmpty());
+    }
+
     // ==================== Tests findByFirstNameAndLastName ====================
 
     @Test
@@ -147,6 +201,41 @@ class PersonRepositoryUT {
         assertEquals("Doe", result.get().getLastName());
     }
 
+    @Test
+    void findByFirstNameAndLastName_withUnknownPerson_returnsEmpty() {
+        // Act
+        Optional<Person> result = personRepository.findByFirstNameAndLastName("Unknown", "Person");
+
+        // Assert
+        assertFalse(result.isPresent());
+    }
+
+    // ==================== Tests existsByFirstNameAndLastName ====================
+
+    @Test
+    void existsByFirstNameAndLastName_afterAddPerson_returnsTrue() {
+        // Arrange
+        Person newPerson = new Person("Alice", "Brown", "789 Pine Rd", "Springfield", "12345",
+                "000-000-0000", "alice.brown@email.com");
+
+        // Act
+        personRepository.addPerson(newPerson);
+
+        // Assert
+        assertTrue(personRepository.existsByFirstNameAndLastName("Alice", "Brown"));
+        assertEquals(newPerson, personRepository.findByFirstNameAndLastName("Alice", "Brown").get());
+    }
+
+    @Test
+    void existsByFirstNameAndLastName_afterDeletePerson_returnsFalse() {
+        // Act
+        personRepository.deletePerson("John", "Doe");
+
+        // Assert
+        assertFalse(personRepository.existsByFirstNameAndLastName("John", "Doe"));
+        assertTrue(personRepository.existsByFirstNameAndLastName("Bob", "Doe"));
+    }
+
     // ==================== Tests findByLastName ====================
 
     @Test
@@ -161,6 +250,28 @@ class PersonRepositoryUT {
         assertTrue(result.contains(person3));
     }
 
+    @Test
+    void findByLastNameIgnoreCase_withDifferentCase_returnsMatchingPersons() {
+        // Act
+        List<Person> result = personRepository.findByLastNameIgnoreCase("dOE");
+
+        // Assert
+        assertEquals(2, result.size());
+        assertTrue(result.contains(person1));
+        assertTrue(result.contains(person3));
+        assertTrue(personRepository.findByLastName("dOE").isEmpty());
+    }
+
+    @Test
+    void findByLastName_afterDeletePerson_excludesRemovedPerson() {
+        // Act
+        personRepository.deletePerson("Bob", "Doe");
+
+        // Assert
+        assertEquals(List.of(person1), personRepository.findByLastName("Doe"));
+        assertEquals(List.of(person1), personRepository.findByLastNameIgnoreCase("doe"));
+    }
+
     // ==================== Tests findEmailsByCity ====================
 
     @Test
@@ -175,6 +286,51 @@ class PersonRepositoryUT {
         assertTrue(result.contains("bob.doe@email.com"));
     }
 
+    @Test
+    void findEmailsByCity_withSharedEmail_keepsItUntilLastResidentLeaves() {
+        // Arrange
+        Person sharing = new Person("Alice", "Doe", "123 Main St", "Springfield", "12345",
+                "000-000-0000", "john.doe@email.com");
+        personRepository.addPerson(sharing);
+
+        // Act
+        personRepository.deletePerson("John", "Doe");
+
+        // Assert
+        assertEquals(Set.of("john.doe@email.com", "bob.doe@email.com"),
+                personRepository.findEmailsByCity("Springfield"));
+
+        personRepository.deletePerson("Alice", "Doe");
+        assertEquals(Set.of("bob.doe@email.com"), personRepository.findEmailsByCity("Springfield"));
+    }
+
+    @Test
+    void findEmailsByCity_afterCityAndEmailUpdate_reflectsChange() {
+        // Arrange
+        Person updatedPerson = new Person();
+        updatedPerson.setCity("Shelbyville");
+        updatedPerson.setEmail("john.new@email.com");
+
+        // Act
+        Set<String> before = personRepository.findEmailsByCity("Shelbyville");
+        personRepository.updatePerson(person1, updatedPerson);
+
+        // Assert
+        assertEquals(Set.of("jane.smith@email.com"), before);
+        assertEquals(Set.of("jane.smith@email.com", "john.new@email.com"),
+                personRepository.findEmailsByCity("Shelbyville"));
+        assertEquals(Set.of("bob.doe@email.com"), personRepository.findEmailsByCity("Springfield"));
+    }
+
+    @Test
+    void findEmailsByCity_withUnknownCity_returnsEmptySet() {
+        // Act
+        Set<String> result = personRepository.findEmailsByCity("Unknown");
+
+        // Assert
+        assertTrue(result.isEmpty());
+    }
+
     // ==================== Tests updatePerson ====================
 
     @Test
@@ -189,20 +345,57 @@ class PersonRepositoryUT {
         updatedPerson.setPhone("999-999-9999");
         updatedPerson.setEmail("john.updated@email.com");
 
-        int initialSize = persons.size();
+        int initialSize = personRepository.findAll().size();
 
         // Act
-        personRepository.updatePerson(person1, updatedPerson);
+        Person result = personRepository.updatePerson(person1, updatedPerson).current();
 
         // Assert
-        assertEquals(initialSize, persons.size());
+        assertEquals(initialSize, personRepository.findAll().size());
+
+        // Vérifier que la version indexée de John Doe a été mise à jour
+        Person found = personRepository.findByFirstNameAndLastName("John", "Doe").get();
+        assertEquals(result, found);
+        assertEquals("999 Updated St", found.getAddress());
+        assertEquals("New City", found.getCity());
+        assertEquals("99999", found.getZip());
+        assertEquals("999-999-9999", found.getPhone());
+        assertEquals("john.updated@email.com", found.getEmail());
+    }
+
+    @Test
+    void updatePerson_withPartialUpdate_keepsOtherFieldsAndLeavesOriginalUntouched() {
+        // Arrange
+        Person updatedPerson = new Person();
+        updatedPerson.setPhone("999-999-9999");
+
+        // Act
+        Person result = personRepository.updatePerson(person1, updatedPerson).current();
 
-        // Vérifier que person1 a été mise à jour
-        assertEquals("999 Updated St", person1.getAddress());
-        assertEquals("New City", person1.getCity());
-        assertEquals("99999", person1.getZip());
-        assertEquals("999-999-9999", person1.getPhone());
-        assertEquals("john.updated@email.com", person1.getEmail());
+        // Assert
+        assertEquals("999-999-9999", result.getPhone());
+        assertEquals("123 Main St", result.getAddress());
+        assertEquals("john.doe@email.com", result.getEmail());
+        // L'instance précédemment lue n'est pas modifiée sur place
+        assertEquals("123-456-7890", person1.getPhone());
+    }
+
+    @Test
+    void updatePerson_withStaleExisting_returnsVersionReplacedUnderLock() {
+        // Arrange
+        Person moved = new Person();
+        moved.setAddress("456 Oak Ave");
+        Person phone = new Person();
+        phone.setPhone("999-999-9999");
+        Person intermediate = personRepository.updatePerson(person1, moved).current();
+
+        // Act
+        Replacement<Person> result = personRepository.updatePerson(person1, phone);
+
+        // Assert
+        assertSame(intermediate, result.previous());
+        assertEquals("456 Oak Ave", result.current().getAddress());
+        assertEquals("999-999-9999", result.current().getPhone());
     }
 
     // ==================== Tests deletePerson ====================
@@ -210,15 +403,42 @@ class PersonRepositoryUT {
     @Test
     void deletePerson_removesExistingPerson() {
         // Arrange
-        int initialSize = persons.size();
+        int initialSize = personRepository.findAll().size();
 
         // Act
         personRepository.deletePerson("John", "Doe");
 
         // Assert
-        assertEquals(initialSize - 1, persons.size());
-        assertFalse(persons.contains(person1));
-        assertTrue(persons.contains(person2));
-        assertTrue(persons.contains(person3));
+        List<Person> remaining = personRepository.findAll();
+        assertEquals(initialSize - 1, remaining.size());
+        assertFalse(remaining.contains(person1));
+        assertTrue(remaining.contains(person2));
+        assertTrue(remaining.contains(person3));
+    }
+
+    @Test
+    void addPerson_withExistingName_throwsIllegalArgumentException() {
+        // Arrange
+        Person duplicate = new Person("John", "Doe", "1 Other St", "Springfield", "12345",
+                "000-000-0000", "other@email.com");
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> personRepository.addPerson(duplicate));
+        assertEquals(person1, personRepository.findByFirstNameAndLastName("John", "Doe").get());
+        assertEquals(3, personRepository.findAll().size());
+    }
+
+    @Test
+    void addPerson_whenLogRefusesWrite_leavesDataUnchanged() {
+        // Arrange
+        Person newPerson = new Person("Alice", "Martin", "1 Other St", "Springfield", "12345",
+                "000-000-0000", "alice@email.com");
+        doThrow(new IllegalStateException("Mutation log failed")).when(mutationLog)
+                .append(any(MutationLogEntry.class), any(Runnable.class));
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> personRepository.addPerson(newPerson));
+        assertFalse(personRepository.existsByFirstNameAndLastName("Alice", "Martin"));
+        assertEquals(3, personRepository.findAll().size());
     }
 }
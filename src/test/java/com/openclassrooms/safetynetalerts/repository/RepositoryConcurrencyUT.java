@@ -0,0 +1,193 @@
+package com.openclassrooms.safetynetalerts.repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.openclassrooms.safetynetalerts.model.DataFile;
+import com.openclassrooms.safetynetalerts.model.Firestation;
+import com.openclassrooms.safetynetalerts.model.MedicalRecord;
+import com.openclassrooms.safetynetalerts.model.Person;
+
+/**
+ * Tests de charge concurrente des repositories
+ *
+ * Plusieurs écrivains et lecteurs travaillent en parallèle sur les trois
+ * repositories. On vérifie :
+ * - qu'aucune exception n'est levée (ConcurrentModificationException...)
+ * - que chaque lecture voit des index cohérents
+ * - que le nombre final d'entités correspond aux écritures effectuées
+ */
+@ExtendWith(MockitoExtension.class)
+class RepositoryConcurrencyUT {
+
+    private static final int WRITERS = 4;
+    private static final int READERS = 8;
+    private static final int OPERATIONS = 500;
+    private static final List<String> ADDRESSES = List.of("A0", "A1", "A2", "A3", "A4");
+
+    @InjectMocks
+    private PersonRepository personRepository;
+
+    @InjectMocks
+    private FirestationRepository firestationRepository;
+
+    @InjectMocks
+    private MedicalRecordRepository medicalRecordRepository;
+
+    private final DataStore dataStore = new DataStore();
+
+    private final MutationLog mutationLog = new MutationLog();
+
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        // DataStore et journal (désactivé) réels et partagés : un espion
+        // enregistrerait chacun des millions d'appels des lecteurs
+        ReflectionTestUtils.setField(personRepository, "dataStore", dataStore);
+        ReflectionTestUtils.setField(firestationRepository, "dataStore", dataStore);
+        ReflectionTestUtils.setField(medicalRecordRepository, "dataStore", dataStore);
+        ReflectionTestUtils.setField(personRepository, "mutationLog", mutationLog);
+        ReflectionTestUtils.setField(firestationRepository, "mutationLog", mutationLog);
+        ReflectionTestUtils.setField(medicalRecordRepository, "mutationLog", mutationLog);
+
+        DataFile dataFile = new DataFile();
+        dataFile.setPersons(new ArrayList<>(List.of(
+                new Person("John", "Doe", "A0", "Springfield", "12345", "111", "john@email.com"))));
+        dataFile.setFirestations(new ArrayList<>(List.of(new Firestation("A0", 1))));
+        dataFile.setMedicalrecords(new ArrayList<>(List.of(
+                new MedicalRecord("John", "Doe", "01/01/1980", List.of(), List.of()))));
+
+        personRepository.init(PersonIndex.of(dataFile.getPersons()));
+        firestationRepository.init(FirestationIndex.of(dataFile.getFirestations()));
+        medicalRecordRepository.init(MedicalRecordIndex.of(dataFile.getMedicalrecords()));
+
+        executor = Executors.newFixedThreadPool(WRITERS + READERS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void concurrentReadersAndWriters_keepIndexesConsistent() throws Exception {
+        // Arrange
+        Queue<Throwable> errors = new ConcurrentLinkedQueue<>();
+        AtomicBoolean writing = new AtomicBoolean(true);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> writers = new ArrayList<>();
+        List<Future<?>> readers = new ArrayList<>();
+
+        // Act
+        for (int w = 0; w < WRITERS; w++) {
+            int writer = w;
+            writers.add(executor.submit(() -> guarded(errors, start, () -> write(writer))));
+        }
+        for (int r = 0; r < READERS; r++) {
+            readers.add(executor.submit(() -> guarded(errors, start, () -> {
+                while (writing.get()) {
+                    read();
+                }
+            })));
+        }
+        start.countDown();
+        for (Future<?> writer : writers) {
+            writer.get(60, TimeUnit.SECONDS);
+        }
+        writing.set(false);
+        for (Future<?> reader : readers) {
+            reader.get(60, TimeUnit.SECONDS);
+        }
+
+        // Assert
+        assertTrue(errors.isEmpty(), () -> "Erreurs concurrentes : " + errors);
+        // Chaque écrivain conserve une entité sur deux
+        int expected = 1 + WRITERS * OPERATIONS / 2;
+        assertEquals(expected, personRepository.findAll().size());
+        assertEquals(expected, firestationRepository.findAll().size());
+        assertEquals(expected, medicalRecordRepository.findAll().size());
+        read();
+    }
+
+    private void write(int writer) {
+        for (int i = 0; i < OPERATIONS; i++) {
+            String firstName = "P" + i;
+            String lastName = "W" + writer;
+            String address = "W" + writer + "-" + i;
+
+            personRepository.addPerson(new Person(firstName, lastName, ADDRESSES.get(i % ADDRESSES.size()),
+                    "Springfield", "12345", "000", lastName + "@email.com"));
+            firestationRepository.addFirestation(new Firestation(address, 1 + i % 3));
+            medicalRecordRepository.save(new MedicalRecord(firstName, lastName, "01/01/2000", List.of(), List.of()));
+
+            Person moved = new Person();
+            moved.setAddress(ADDRESSES.get((i + 1) % ADDRESSES.size()));
+            personRepository.updatePerson(new Person(firstName, lastName, null, null, null, null, null), moved);
+            firestationRepository.updateFirestation(new Firestation(address, 0), new Firestation(address, 4));
+            MedicalRecord treated = new MedicalRecord();
+            treated.setMedications(List.of("aspirin:100mg"));
+            medicalRecordRepository.updateFields(new MedicalRecord(firstName, lastName, null, null, null), treated);
+
+            if (i % 2 == 1) {
+                personRepository.deletePerson(firstName, lastName);
+                firestationRepository.deleteFirestationByAddress(address);
+                medicalRecordRepository.delete(firstName, lastName);
+            }
+        }
+    }
+
+    private void read() {
+        for (String address : ADDRESSES) {
+            for (Person person : personRepository.findByAddress(address)) {
+                assertEquals(address, person.getAddress());
+                assertTrue(personRepository.findEmailsByCity(person.getCity()).contains(person.getEmail())
+                        || !personRepository.existsByFirstNameAndLastName(person.getFirstName(),
+                                person.getLastName()));
+            }
+        }
+        for (int station = 1; station <= 4; station++) {
+            for (Firestation firestation : firestationRepository.findByStation(station)) {
+                assertEquals(station, firestation.getStation());
+            }
+        }
+        for (int w = 0; w < WRITERS; w++) {
+            for (Person person : personRepository.findByLastName("W" + w)) {
+                assertEquals("W" + w, person.getLastName());
+            }
+            for (MedicalRecord record : medicalRecordRepository.findByLastNameIgnoreCase("w" + w)) {
+                assertEquals("W" + w, record.getLastName());
+            }
+        }
+        personRepository.findAll().forEach(person -> assertTrue(person.getFirstName() != null));
+    }
+
+    private static void guarded(Queue<Throwable> errors, CountDownLatch start, Runnable task) {
+        try {
+            start.await();
+            task.run();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Throwable t) {
+            errors.add(t);
+        }
+    }
+}
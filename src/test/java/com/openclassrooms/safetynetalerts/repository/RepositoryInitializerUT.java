@@ -0,0 +1,164 @@
+package com.openclassrooms.safetynetalerts.repository;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.openclassrooms.safetynetalerts.model.Firestation;
+import com.openclassrooms.safetynetalerts.model.MedicalRecord;
+import com.openclassrooms.safetynetalerts.model.Person;
+
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Tests unitaires pour RepositoryInitializer
+ *
+ * Tests du chargement des données dans les index au démarrage:
+ * - publication des trois sections lues par le DataRepo
+ * - rejeu du journal des modifications par-dessus les index chargés
+ * - retour aux données chargées après une entrée RESET
+ * - propagation de l'échec du chargement
+ */
+class RepositoryInitializerUT {
+
+    @TempDir
+    private Path tempDir;
+
+    private final DataStore dataStore = new DataStore();
+
+    private final PersonRepository personRepository = new PersonRepository();
+
+    private final FirestationRepository firestationRepository = new FirestationRepository();
+
+    private final MedicalRecordRepository medicalRecordRepository = new MedicalRecordRepository();
+
+    private final RepositoryInitializer repositoryInitializer = new RepositoryInitializer();
+
+    private MutationLog mutationLog;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        mutationLog = openLog();
+        wire(mutationLog, sink -> {
+            sink.persons().accept(
+                    new Person("John", "Doe", "123 Main St", "Springfield", "12345", "111", "john@email.com"));
+            sink.persons().accept(
+                    new Person("Jane", "Smith", "456 Oak Ave", "Springfield", "12345", "222", "jane@email.com"));
+            sink.firestations().accept(new Firestation("123 Main St", 1));
+            sink.firestations().accept(new Firestation("456 Oak Ave", 2));
+            sink.medicalRecords().accept(new MedicalRecord("John", "Doe", "01/01/1980", List.of(), List.of()));
+            return 0;
+        });
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        mutationLog.stop();
+    }
+
+    private MutationLog openLog() throws IOException {
+        MutationLog log = new MutationLog();
+        ReflectionTestUtils.setField(log, "mapper", JsonMapper.builder().build());
+        ReflectionTestUtils.setField(log, "enabled", true);
+        ReflectionTestUtils.setField(log, "path", tempDir.resolve("mutations.log").toString());
+        ReflectionTestUtils.setField(log, "fsync", false);
+        ReflectionTestUtils.setField(log, "maxBatch", 16);
+        log.start();
+        return log;
+    }
+
+    private void wire(MutationLog log, DataRepo dataRepo) {
+        for (Object repository : List.of(personRepository, firestationRepository, medicalRecordRepository)) {
+            ReflectionTestUtils.setField(repository, "dataStore", dataStore);
+            ReflectionTestUtils.setField(repository, "mutationLog", log);
+        }
+        ReflectionTestUtils.setField(repositoryInitializer, "dataRepo", dataRepo);
+        ReflectionTestUtils.setField(repositoryInitializer, "mutationLog", log);
+        ReflectionTestUtils.setField(repositoryInitializer, "personRepository", personRepository);
+        ReflectionTestUtils.setField(repositoryInitializer, "firestationRepository", firestationRepository);
+        ReflectionTestUtils.setField(repositoryInitializer, "medicalRecordRepository", medicalRecordRepository);
+    }
+
+    private void restartLog() throws Exception {
+        mutationLog.stop();
+        mutationLog = openLog();
+        ReflectionTestUtils.setField(repositoryInitializer, "mutationLog", mutationLog);
+    }
+
+    @Test
+    void init_publishesEverySection() {
+        // Act
+        repositoryInitializer.init();
+
+        // Assert
+        DataSnapshot snapshot = dataStore.current();
+        assertEquals(2, snapshot.persons().size());
+        assertEquals(2, snapshot.firestations().size());
+        assertEquals(1, snapshot.medicalRecords().size());
+        assertEquals(List.of("Jane"),
+                snapshot.persons().byAddress("456 Oak Ave").stream().map(Person::getFirstName).toList());
+    }
+
+    @Test
+    void init_replaysLogOverLoadedIndexes() throws Exception {
+        // Arrange
+        mutationLog.await(mutationLog.append(MutationLogEntry.putPerson(
+                new Person("John", "Doe", "789 Pine Rd", "Springfield", "12345", "111", "john@email.com"))));
+        mutationLog.await(mutationLog.append(MutationLogEntry.deletePerson("Jane", "Smith")));
+        mutationLog.await(mutationLog.append(MutationLogEntry.deleteStation(2)));
+        mutationLog.await(mutationLog.append(MutationLogEntry.putMedicalRecord(
+                new MedicalRecord("Jane", "Smith", "02/02/1990", List.of(), List.of()))));
+        restartLog();
+
+        // Act
+        repositoryInitializer.init();
+
+        // Assert
+        DataSnapshot snapshot = dataStore.current();
+        assertEquals(1, snapshot.persons().size());
+        assertEquals("789 Pine Rd", snapshot.persons().get(new NameKey("John", "Doe")).getAddress());
+        assertEquals(List.of(), snapshot.persons().byAddress("123 Main St"));
+        assertEquals(List.of(new Firestation("123 Main St", 1)), snapshot.firestations().all());
+        assertEquals(2, snapshot.medicalRecords().size());
+    }
+
+    @Test
+    void init_withReset_discardsEarlierEntries() throws Exception {
+        // Arrange
+        mutationLog.await(mutationLog.append(MutationLogEntry.deletePerson("Jane", "Smith")));
+        mutationLog.await(mutationLog.append(MutationLogEntry.reset()));
+        mutationLog.await(mutationLog.append(MutationLogEntry.deleteFirestation("456 Oak Ave")));
+        restartLog();
+
+        // Act
+        repositoryInitializer.init();
+
+        // Assert
+        DataSnapshot snapshot = dataStore.current();
+        assertEquals(2, snapshot.persons().size());
+        assertNull(snapshot.firestations().byAddress("456 Oak Ave"));
+    }
+
+    @Test
+    void init_whenLoadFails_throwsException() {
+        // Arrange
+        IllegalStateException failure = new IllegalStateException("Invalid data");
+        wire(mutationLog, sink -> {
+            throw failure;
+        });
+
+        // Act & Assert
+        IllegalStateException exception = assertThrows(IllegalStateException.class,
+                () -> repositoryInitializer.init());
+        assertEquals(failure, exception);
+    }
+}
@@ -0,0 +1,195 @@
+package com.openclassrooms.safetynetalerts.repository;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+import com.openclassrooms.safetynetalerts.model.DataFile;
+import com.openclassrooms.safetynetalerts.model.Firestation;
+import com.openclassrooms.safetynetalerts.model.Person;
+
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Tests unitaires pour SnapshotCompactor
+ *
+ * Tests de la compaction du journal des modifications:
+ * - écriture de l'instantané et troncature du journal
+ * - conservation des écritures postérieures au point de coupure
+ * - déclencheurs de taille et d'ancienneté
+ * - reconnaissance de l'instantané écrit tant qu'il n'est pas remplacé
+ */
+class SnapshotCompactorUT {
+
+    private static final Instant NOW = Instant.parse("2025-01-01T10:00:00Z");
+
+    @TempDir
+    private Path tempDir;
+
+    private final JsonMapper mapper = JsonMapper.builder().build();
+
+    private Path snapshotFile;
+    private Path binaryFile;
+    private Path logFile;
+    private DataStore dataStore;
+    private MutationLog mutationLog;
+    private SnapshotCompactor compactor;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        snapshotFile = tempDir.resolve("data.json");
+        binaryFile = tempDir.resolve("data.bin");
+        logFile = tempDir.resolve("mutations.log");
+        dataStore = new DataStore();
+        mutationLog = openLog();
+
+        compactor = new SnapshotCompactor();
+        ReflectionTestUtils.setField(compactor, "dataStore", dataStore);
+        ReflectionTestUtils.setField(compactor, "mutationLog", mutationLog);
+        ReflectionTestUtils.setField(compactor, "mapper", mapper);
+        ReflectionTestUtils.setField(compactor, "clock", Clock.fixed(NOW, ZoneId.of("UTC")));
+        ReflectionTestUtils.setField(compactor, "path", snapshotFile.toString());
+        ReflectionTestUtils.setField(compactor, "binaryPath", binaryFile.toString());
+        ReflectionTestUtils.setField(compactor, "maxLogSize", DataSize.ofKilobytes(1));
+        ReflectionTestUtils.setField(compactor, "maxAge", Duration.ofMinutes(10));
+        ReflectionTestUtils.setField(compactor, "lastCompaction", NOW);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        mutationLog.stop();
+    }
+
+    private MutationLog openLog() throws IOException {
+        MutationLog log = new MutationLog();
+        ReflectionTestUtils.setField(log, "mapper", mapper);
+        ReflectionTestUtils.setField(log, "enabled", true);
+        ReflectionTestUtils.setField(log, "path", logFile.toString());
+        ReflectionTestUtils.setField(log, "fsync", false);
+        ReflectionTestUtils.setField(log, "maxBatch", 16);
+        log.start();
+        return log;
+    }
+
+    private void addPerson(String firstName, String lastName) {
+        Person person = new Person(firstName, lastName, "123 Main St", "Springfield", "12345", "111",
+                firstName + "@email.com");
+        PersonIndex.Builder builder = dataStore.current().persons().toBuilder();
+        builder.add(person);
+        mutationLog.await(mutationLog.append(MutationLogEntry.putPerson(person),
+                () -> dataStore.publishPersons(builder.build())));
+    }
+
+    @Test
+    void compact_writesSnapshotAndTruncatesLog() throws Exception {
+        // Arrange
+        addPerson("John", "Doe");
+        addPerson("Jane", "Doe");
+        dataStore.publishFirestations(FirestationIndex.of(List.of(new Firestation("123 Main St", 1))));
+
+        // Act
+        long seq = compactor.compact();
+
+        // Assert
+        assertEquals(2, seq);
+        assertEquals(0, mutationLog.size());
+        assertEquals(0, Files.size(logFile));
+        DataFile snapshot = mapper.readValue(snapshotFile.toFile(), DataFile.class);
+        assertEquals(2, snapshot.getSeq());
+        assertEquals(2, snapshot.getPersons().size());
+        assertEquals(1, snapshot.getFirestations().size());
+        assertTrue(snapshot.getMedicalrecords().isEmpty());
+        assertEquals(snapshot, BinaryDataFile.read(binaryFile));
+    }
+
+    @Test
+    void isLastSnapshot_untilFileIsReplaced() throws Exception {
+        // Arrange
+        addPerson("John", "Doe");
+        boolean beforeCompaction = compactor.isLastSnapshot(snapshotFile);
+
+        // Act
+        compactor.compact();
+        boolean afterCompaction = compactor.isLastSnapshot(snapshotFile);
+        Files.writeString(snapshotFile, "{}");
+
+        // Assert
+        assertFalse(beforeCompaction);
+        assertTrue(afterCompaction);
+        assertFalse(compactor.isLastSnapshot(snapshotFile));
+    }
+
+    @Test
+    void compact_thenRestart_replaysOnlyLaterWrites() throws Exception {
+        // Arrange
+        addPerson("John", "Doe");
+        compactor.compact();
+        addPerson("Jane", "Doe");
+
+        // Act
+        mutationLog.stop();
+        mutationLog = openLog();
+        DataFile data = mapper.readValue(snapshotFile.toFile(), DataFile.class);
+        long replayed = mutationLog.replay(data);
+
+        // Assert
+        assertEquals(1, replayed);
+        assertEquals(2, data.getPersons().size());
+        assertEquals(2, data.getSeq());
+    }
+
+    @Test
+    void replay_afterCrashBeforeTruncation_skipsCoveredEntries() throws Exception {
+        // Arrange
+        addPerson("John", "Doe");
+        addPerson("Jane", "Doe");
+        DataFile data = new DataFile();
+        data.setPersons(List.of());
+        data.setSeq(2);
+
+        // Act
+        long replayed = mutationLog.replay(data);
+
+        // Assert
+        assertEquals(0, replayed);
+        assertTrue(data.getPersons().isEmpty());
+    }
+
+    @Test
+    void shouldCompact_followsSizeAndAgeTriggers() {
+        // Empty log: never compacted
+        ReflectionTestUtils.setField(compactor, "lastCompaction", NOW.minus(Duration.ofHours(1)));
+        assertFalse(compactor.shouldCompact());
+
+        // Small, recent log
+        addPerson("John", "Doe");
+        ReflectionTestUtils.setField(compactor, "lastCompaction", NOW);
+        assertFalse(compactor.shouldCompact());
+
+        // Age trigger
+        ReflectionTestUtils.setField(compactor, "lastCompaction", NOW.minus(Duration.ofMinutes(10)));
+        assertTrue(compactor.shouldCompact());
+
+        // Size trigger
+        ReflectionTestUtils.setField(compactor, "lastCompaction", NOW);
+        for (int i = 0; i < 20; i++) {
+            addPerson("P" + i, "Doe");
+        }
+        assertTrue(compactor.shouldCompact());
+    }
+}
@@ -0,0 +1,173 @@
+package com.openclassrooms.safetynetalerts.repository;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.openclassrooms.safetynetalerts.model.DataFile;
+import com.openclassrooms.safetynetalerts.model.Firestation;
+import com.openclassrooms.safetynetalerts.model.MedicalRecord;
+import com.openclassrooms.safetynetalerts.model.Person;
+import com.openclassrooms.safetynetalerts.utils.Utils;
+
+/**
+ * Tests unitaires pour StationCounts et StationCountsRollover
+ *
+ * Tests des décomptes adultes/enfants par caserne:
+ * - maintien incrémental lors des écritures sur les trois sections
+ * - identité avec un recalcul complet
+ * - passage au jour suivant d'un enfant atteignant la majorité
+ * - passage d'un jour de référence à l'autre limité aux dossiers concernés
+ */
+@ExtendWith(MockitoExtension.class)
+class StationCountsUT {
+
+    private static final LocalDate TODAY = LocalDate.of(2025, 12, 26);
+
+    @Spy
+    private DataStore dataStore;
+
+    @Spy
+    private MutationLog mutationLog;
+
+    @InjectMocks
+    private PersonRepository personRepository;
+
+    @InjectMocks
+    private FirestationRepository firestationRepository;
+
+    @InjectMocks
+    private MedicalRecordRepository medicalRecordRepository;
+
+    private final StationCountsRollover rollover = new StationCountsRollover();
+
+    @BeforeEach
+    void setUp() {
+        DataFile dataFile = new DataFile();
+        dataFile.setPersons(new ArrayList<>(List.of(
+                new Person("John", "Doe", "123 Main St", "Springfield", "12345", "111", "john@email.com"),
+                new Person("Emma", "Doe", "123 Main St", "Springfield", "12345", "111", "emma@email.com"),
+                new Person("Bob", "Smith", "456 Oak Ave", "Springfield", "12345", "222", "bob@email.com"))));
+        dataFile.setFirestations(new ArrayList<>(List.of(
+                new Firestation("123 Main St", 1),
+                new Firestation("456 Oak Ave", 2))));
+        // Emma a 18 ans le 26/12/2025 et atteint 19 ans le lendemain ; Bob n'a pas de dossier
+        dataFile.setMedicalrecords(new ArrayList<>(List.of(
+                new MedicalRecord("John", "Doe", "01/01/1980", List.of(), List.of()),
+                new MedicalRecord("Emma", "Doe", "12/27/2006", List.of(), List.of()))));
+
+        personRepository.init(PersonIndex.of(dataFile.getPersons()));
+        firestationRepository.init(FirestationIndex.of(dataFile.getFirestations()));
+        medicalRecordRepository.init(MedicalRecordIndex.of(dataFile.getMedicalrecords()));
+
+        ReflectionTestUtils.setField(rollover, "dataStore", dataStore);
+        rolloverAt(TODAY);
+    }
+
+    private boolean rolloverAt(LocalDate date) {
+        ReflectionTestUtils.setField(rollover, "clock",
+                Clock.fixed(date.atStartOfDay().toInstant(ZoneOffset.UTC), ZoneOffset.UTC));
+        return rollover.rollover();
+    }
+
+    private static void assertMatchesRecount(DataSnapshot snapshot) {
+        assertMatchesRecount(snapshot, TODAY);
+    }
+
+    private static void assertMatchesRecount(DataSnapshot snapshot, LocalDate date) {
+        StationCounts recount = StationCounts.of(snapshot.persons(), snapshot.firestations(),
+                snapshot.medicalRecords(), Utils.childBirthThreshold(date));
+        for (int station : List.of(1, 2, 3)) {
+            assertEquals(recount.get(station), snapshot.stationCounts().get(station), "caserne " + station);
+        }
+    }
+
+    @Test
+    void countResidentsByStation_afterLoad_countsAdultsAndChildren() {
+        // Assert
+        assertEquals(new ResidentCounts(1, 1), firestationRepository.countResidentsByStation(1));
+        assertEquals(new ResidentCounts(0, 1), firestationRepository.countResidentsByStation(2));
+        assertEquals(ResidentCounts.NONE, firestationRepository.countResidentsByStation(3));
+    }
+
+    @Test
+    void writes_updateCountsIncrementally() {
+        // Act
+        // Emma déménage vers la caserne 2, Bob reçoit une date de naissance d'adulte
+        Person emma = personRepository.findByFirstNameAndLastName("Emma", "Doe").get();
+        Person moved = new Person();
+        moved.setAddress("456 Oak Ave");
+        personRepository.updatePerson(emma, moved);
+        medicalRecordRepository.save(new MedicalRecord("Bob", "Smith", "03/03/1970", List.of(), List.of()));
+        // L'adresse de John passe à la caserne 3
+        Firestation mainStreet = firestationRepository.findStationByAddress("123 Main St").get();
+        firestationRepository.updateFirestation(mainStreet, new Firestation("123 Main St", 3));
+
+        // Assert
+        assertEquals(ResidentCounts.NONE, firestationRepository.countResidentsByStation(1));
+        assertEquals(new ResidentCounts(1, 1), firestationRepository.countResidentsByStation(2));
+        assertEquals(new ResidentCounts(1, 0), firestationRepository.countResidentsByStation(3));
+        assertMatchesRecount(dataStore.current());
+
+        // Act
+        personRepository.deletePerson("Bob", "Smith");
+        medicalRecordRepository.delete("John", "Doe");
+
+        // Assert
+        assertEquals(new ResidentCounts(0, 1), firestationRepository.countResidentsByStation(2));
+        assertEquals(new ResidentCounts(0, 1), firestationRepository.countResidentsByStation(3));
+        assertMatchesRecount(dataStore.current());
+    }
+
+    @Test
+    void rollover_nextDay_movesNewAdults() {
+        // Act
+        boolean sameDay = rolloverAt(TODAY);
+        boolean nextDay = rolloverAt(TODAY.plusDays(1));
+
+        // Assert
+        assertFalse(sameDay);
+        assertTrue(nextDay);
+        assertEquals(new ResidentCounts(2, 0), firestationRepository.countResidentsByStation(1));
+        assertEquals(new ResidentCounts(0, 1), firestationRepository.countResidentsByStation(2));
+    }
+
+    @Test
+    void rollover_afterBirthdateChanges_movesOnlyCrossedResidents() {
+        // Arrange
+        // John devient l'enfant qui atteint 19 ans le lendemain, Emma une adulte
+        medicalRecordRepository.save(new MedicalRecord("John", "Doe", "12/27/2006", List.of(), List.of()));
+        medicalRecordRepository.save(new MedicalRecord("Emma", "Doe", "01/01/1980", List.of(), List.of()));
+        StationCounts before = dataStore.current().stationCounts();
+
+        // Act
+        rolloverAt(TODAY.plusDays(1));
+
+        // Assert
+        DataSnapshot snapshot = dataStore.current();
+        assertEquals(new ResidentCounts(2, 0), snapshot.stationCounts().get(1));
+        assertSame(before.get(2), snapshot.stationCounts().get(2));
+        assertMatchesRecount(snapshot, TODAY.plusDays(1));
+
+        // Act
+        rolloverAt(TODAY.minusYears(1));
+
+        // Assert
+        assertEquals(new ResidentCounts(1, 1), firestationRepository.countResidentsByStation(1));
+        assertMatchesRecount(dataStore.current(), TODAY.minusYears(1));
+    }
+}
@@ -0,0 +1,79 @@
+package com.openclassrooms.safetynetalerts.service;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.openclassrooms.safetynetalerts.dto.batch.BatchItemResultDTO;
+import com.openclassrooms.safetynetalerts.dto.batch.BatchResponseDTO;
+import com.openclassrooms.safetynetalerts.model.Firestation;
+import com.openclassrooms.safetynetalerts.model.Person;
+import com.openclassrooms.safetynetalerts.repository.BatchStatus;
+import com.openclassrooms.safetynetalerts.repository.BatchWriter;
+import com.openclassrooms.safetynetalerts.repository.MutationLogEntry;
+
+/**
+ * Tests unitaires pour BatchService
+ *
+ * Tests critiques uniquement:
+ * - mode d'application transmis au BatchWriter
+ * - statut par élément et décompte par statut
+ * - suppression de mappings par adresse ou par caserne
+ */
+@ExtendWith(MockitoExtension.class)
+class BatchServiceUT {
+
+    @Mock
+    private BatchWriter batchWriter;
+
+    @InjectMocks
+    private BatchService batchService;
+
+    @Test
+    void addPersons_returnsStatusPerItem() {
+        // Arrange
+        Person john = new Person("John", "Doe", "123 Main St", "Springfield", "12345", "111", "john@email.com");
+        Person jane = new Person("Jane", "Doe", "123 Main St", "Springfield", "12345", "222", "jane@email.com");
+        when(batchWriter.apply(List.of(MutationLogEntry.putPerson(john), MutationLogEntry.putPerson(jane)),
+                BatchWriter.Mode.CREATE))
+                .thenReturn(List.of(BatchStatus.CREATED, BatchStatus.ALREADY_EXISTS));
+
+        // Act
+        BatchResponseDTO response = batchService.addPersons(List.of(john, jane));
+
+        // Assert
+        assertEquals(List.of(new BatchItemResultDTO(0, BatchStatus.CREATED),
+                new BatchItemResultDTO(1, BatchStatus.ALREADY_EXISTS)), response.getResults());
+        assertEquals(1, response.getCounts().get(BatchStatus.CREATED));
+        assertEquals(1, response.getCounts().get(BatchStatus.ALREADY_EXISTS));
+    }
+
+    @Test
+    void deleteMappings_byAddressOrStation_buildsMatchingOperations() {
+        // Arrange
+        when(batchWriter.apply(anyList(), eq(BatchWriter.Mode.UPDATE)))
+                .thenReturn(List.of(BatchStatus.DELETED, BatchStatus.DELETED, BatchStatus.INVALID));
+
+        // Act
+        batchService.deleteMappings(List.of(
+                new Firestation("123 Main St", 0),
+                new Firestation(null, 3),
+                new Firestation("456 Oak Ave", 2)));
+
+        // Assert
+        verify(batchWriter).apply(Arrays.asList(
+                MutationLogEntry.deleteFirestation("123 Main St"),
+                MutationLogEntry.deleteStation(3),
+                null), BatchWriter.Mode.UPDATE);
+    }
+}
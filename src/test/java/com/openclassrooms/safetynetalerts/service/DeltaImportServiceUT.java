@@ -0,0 +1,102 @@
+package com.openclassrooms.safetynetalerts.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import static org.mockito.ArgumentMatchers.anyList;
+import org.mockito.Mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.openclassrooms.safetynetalerts.dto.deltaimport.DeltaImportLineDTO;
+import com.openclassrooms.safetynetalerts.dto.deltaimport.DeltaImportResponseDTO;
+import com.openclassrooms.safetynetalerts.repository.BatchStatus;
+import com.openclassrooms.safetynetalerts.repository.BatchWriter;
+import com.openclassrooms.safetynetalerts.repository.MutationLogEntry;
+
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Tests unitaires pour DeltaImportService
+ *
+ * Tests de l'import NDJSON:
+ * - découpage du flux en lots
+ * - résultats par ligne dans l'ordre du flux, lignes illisibles comprises
+ */
+@ExtendWith(MockitoExtension.class)
+class DeltaImportServiceUT {
+
+    @Mock
+    private BatchWriter batchWriter;
+
+    private DeltaImportService deltaImportService;
+
+    @BeforeEach
+    void setUp() {
+        deltaImportService = new DeltaImportService(batchWriter, JsonMapper.builder().build(), 2);
+    }
+
+    private static InputStream ndjson(String... lines) {
+        return new ByteArrayInputStream(String.join("\n", lines).getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void importDelta_appliesLinesInBatches() throws IOException {
+        // Arrange
+        when(batchWriter.apply(anyList()))
+                .thenReturn(List.of(BatchStatus.CREATED, BatchStatus.DELETED))
+                .thenReturn(List.of(BatchStatus.NOT_FOUND));
+
+        // Act
+        DeltaImportResponseDTO response = deltaImportService.importDelta(ndjson(
+                "{\"op\":\"PUT_FIRESTATION\",\"firestation\":{\"address\":\"123 Main St\",\"station\":1}}",
+                "{\"op\":\"DELETE_PERSON\",\"firstName\":\"John\",\"lastName\":\"Doe\"}",
+                "",
+                "{\"op\":\"DELETE_STATION\",\"station\":4}"));
+
+        // Assert
+        verify(batchWriter, times(2)).apply(anyList());
+        List<DeltaImportLineDTO> results = response.getResults();
+        assertEquals(3, results.size());
+        assertEquals(new DeltaImportLineDTO(1, BatchStatus.CREATED, null), results.get(0));
+        assertEquals(new DeltaImportLineDTO(2, BatchStatus.DELETED, null), results.get(1));
+        assertEquals(new DeltaImportLineDTO(4, BatchStatus.NOT_FOUND, null), results.get(2));
+        assertEquals(1, response.getCounts().get(BatchStatus.CREATED));
+    }
+
+    @Test
+    void importDelta_unreadableLine_isReportedInOrder() throws IOException {
+        // Arrange
+        when(batchWriter.apply(List.of(MutationLogEntry.deleteFirestation("123 Main St"),
+                MutationLogEntry.deleteStation(4))))
+                .thenReturn(List.of(BatchStatus.DELETED, BatchStatus.INVALID));
+
+        // Act
+        DeltaImportResponseDTO response = deltaImportService.importDelta(ndjson(
+                "{\"op\":\"DELETE_FIRESTATION\",\"address\":\"123 Main St\"}",
+                "{\"op\":\"UNKNOWN\"}",
+                "{\"op\":\"DELETE_STATION\",\"station\":4}"));
+
+        // Assert
+        List<DeltaImportLineDTO> results = response.getResults();
+        assertEquals(BatchStatus.DELETED, results.get(0).getStatus());
+        assertNull(results.get(0).getError());
+        assertEquals(2, results.get(1).getLine());
+        assertEquals(BatchStatus.INVALID, results.get(1).getStatus());
+        assertNotNull(results.get(1).getError());
+        assertEquals(3, results.get(2).getLine());
+        assertEquals(BatchStatus.INVALID, results.get(2).getStatus());
+        assertEquals(2, response.getCounts().get(BatchStatus.INVALID));
+    }
+}
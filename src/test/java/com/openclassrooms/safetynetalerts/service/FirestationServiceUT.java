@@ -2,6 +2,7 @@ package com.openclassrooms.safetynetalerts.service;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -112,7 +113,7 @@ class FirestationServiceUT {
     @Test
     void updateMapping_addressNotFound_throwsIllegalArgumentException() {
         // Arrange
-        when(firestationRepository.findStationByAddress("123 Main St")).thenReturn(java.util.Optional.empty());
+        when(firestationRepository.findStationByAddress("123 Main St")).thenReturn(Optional.empty());
 
         // Act & Assert
         IllegalArgumentException exception = assertThrows(
@@ -152,8 +153,8 @@ class FirestationServiceUT {
     @Test
     void deleteMapping_withAddressOnly_deletesSuccessfully() {
         // Arrange
-        when(firestationRepository.existsByAddress("123 Main St")).thenReturn(true);
-        when(firestationRepository.deleteFirestationByAddress("123 Main St")).thenReturn(true);
+        when(firestationRepository.deleteFirestationByAddress("123 Main St"))
+                .thenReturn(Optional.of(new Firestation("123 Main St", 1)));
 
         // Act
         firestationService.deleteMapping("123 Main St", null);
@@ -166,8 +167,8 @@ class FirestationServiceUT {
     @Test
     void deleteMapping_withStationOnly_deletesSuccessfully() {
         // Arrange
-        when(firestationRepository.existsByStation(1)).thenReturn(true);
-        when(firestationRepository.deleteFirestationByStation(1)).thenReturn(true);
+        when(firestationRepository.deleteFirestationByStation(1))
+                .thenReturn(List.of(new Firestation("123 Main St", 1)));
 
         // Act
         firestationService.deleteMapping(null, 1);
@@ -177,6 +178,19 @@ class FirestationServiceUT {
         verify(firestationRepository, never()).deleteFirestationByAddress(anyString());
     }
 
+    @Test
+    void deleteMapping_unknownStation_throwsIllegalArgumentException() {
+        // Arrange
+        when(firestationRepository.deleteFirestationByStation(9)).thenReturn(List.of());
+
+        // Act & Assert
+        IllegalArgumentException exception = assertThrows(
+                IllegalArgumentException.class,
+                () -> firestationService.deleteMapping(null, 9));
+
+        assertEquals("Le numéro de caserne spécifié est introuvable", exception.getMessage());
+    }
+
     // ==================== Tests getPhoneNumbersByStation ====================
 
     @Test
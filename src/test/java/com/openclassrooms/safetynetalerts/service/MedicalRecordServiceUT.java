@@ -1,6 +1,8 @@
 package com.openclassrooms.safetynetalerts.service;
 
 import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -19,6 +21,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 
 import com.openclassrooms.safetynetalerts.model.MedicalRecord;
 import com.openclassrooms.safetynetalerts.repository.MedicalRecordRepository;
+import com.openclassrooms.safetynetalerts.repository.NameKey;
 
 /**
  * Tests unitaires pour MedicalRecordService
@@ -47,6 +50,20 @@ class MedicalRecordServiceUT {
         medicalRecord.setAllergies(Arrays.asList("peanuts"));
     }
 
+    // ==================== Tests getMedicalRecordsByLastName ====================
+
+    @Test
+    void getMedicalRecordsByLastName_indexesRecordsByName() {
+        // Arrange
+        when(medicalRecordRepository.findByLastName("Doe")).thenReturn(List.of(medicalRecord));
+
+        // Act
+        Map<NameKey, MedicalRecord> result = medicalRecordService.getMedicalRecordsByLastName("Doe");
+
+        // Assert
+        assertEquals(Map.of(new NameKey("John", "Doe"), medicalRecord), result);
+    }
+
     // ==================== Tests createMedicalRecord ====================
 
     @Test
@@ -99,7 +116,7 @@ class MedicalRecordServiceUT {
     @Test
     void deleteMedicalRecord_recordNotFound_throwsIllegalArgumentException() {
         // Arrange
-        when(medicalRecordRepository.existsByFirstNameAndLastName("Unknown", "Person")).thenReturn(false);
+        when(medicalRecordRepository.delete("Unknown", "Person")).thenReturn(Optional.empty());
 
         // Act & Assert
         IllegalArgumentException exception = assertThrows(
@@ -12,7 +12,6 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyString;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import static org.mockito.Mockito.never;
@@ -22,6 +21,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 
 import com.openclassrooms.safetynetalerts.model.Person;
 import com.openclassrooms.safetynetalerts.repository.PersonRepository;
+import com.openclassrooms.safetynetalerts.repository.Replacement;
 
 /**
  * Tests unitaires pour PersonService
@@ -132,12 +132,29 @@ class PersonServiceUT {
         verify(personRepository, never()).updatePerson(any(Person.class), any(Person.class));
     }
 
+    @Test
+    void updatePerson_existingPerson_returnsNewVersion() {
+        // Arrange
+        Person concurrent = new Person("John", "Doe", "789 Pine Rd", "Paris", "75001", "123-456-7890",
+                "john.doe@email.com");
+        Person moved = new Person("John", "Doe", "456 Oak Ave", "Lyon", "69001", "123-456-7890",
+                "john.doe@email.com");
+        when(personRepository.findByFirstNameAndLastName("John", "Doe")).thenReturn(Optional.of(person));
+        when(personRepository.updatePerson(person, moved)).thenReturn(new Replacement<>(concurrent, moved));
+
+        // Act
+        Person result = personService.updatePerson("John", "Doe", moved);
+
+        // Assert
+        assertEquals(moved, result);
+    }
+
     // ==================== Tests deletePerson ====================
 
     @Test
     void deletePerson_personNotFound_throwsIllegalArgumentException() {
         // Arrange
-        when(personRepository.existsByFirstNameAndLastName("Unknown", "Person")).thenReturn(false);
+        when(personRepository.deletePerson("Unknown", "Person")).thenReturn(Optional.empty());
 
         // Act & Assert
         IllegalArgumentException exception = assertThrows(
@@ -145,6 +162,5 @@ class PersonServiceUT {
                 () -> personService.deletePerson("Unknown", "Person"));
 
         assertEquals("Person not found: Unknown Person", exception.getMessage());
-        verify(personRepository, never()).deletePerson(anyString(), anyString());
     }
 }
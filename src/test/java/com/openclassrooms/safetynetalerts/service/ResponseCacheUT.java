@@ -0,0 +1,244 @@
+package com.openclassrooms.safetynetalerts.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.openclassrooms.safetynetalerts.model.Firestation;
+import com.openclassrooms.safetynetalerts.model.MedicalRecord;
+import com.openclassrooms.safetynetalerts.model.Person;
+import com.openclassrooms.safetynetalerts.repository.DataStore;
+import com.openclassrooms.safetynetalerts.repository.FirestationRepository;
+import com.openclassrooms.safetynetalerts.repository.MedicalRecordRepository;
+import com.openclassrooms.safetynetalerts.repository.MutationLog;
+import com.openclassrooms.safetynetalerts.repository.PersonRepository;
+
+/**
+ * Tests unitaires pour ResponseCache
+ *
+ * Tests du cache des réponses, sur de vrais repositories:
+ * - réponse servie depuis le cache au deuxième appel
+ * - écriture d'une personne, d'un mapping ou d'un dossier médical:
+ * seules les réponses concernées sont recalculées
+ * - réponse calculée pendant une publication non mise en cache
+ * - lecture après écriture concurrente: toujours la nouvelle réponse
+ * - éviction de la réponse la moins récemment lue
+ * - vidage du cache
+ */
+class ResponseCacheUT {
+
+    private final DataStore dataStore = new DataStore();
+
+    private final PersonRepository personRepository = new PersonRepository();
+
+    private final FirestationRepository firestationRepository = new FirestationRepository();
+
+    private final MedicalRecordRepository medicalRecordRepository = new MedicalRecordRepository();
+
+    private ResponseCache responseCache;
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        MutationLog mutationLog = new MutationLog();
+        for (Object target : List.of(personRepository, firestationRepository, medicalRecordRepository)) {
+            ReflectionTestUtils.setField(target, "dataStore", dataStore);
+            ReflectionTestUtils.setField(target, "mutationLog", mutationLog);
+        }
+        responseCache = new ResponseCache(dataStore, 2);
+
+        personRepository.addPerson(person("John", "Doe", "123 Main St", "111"));
+        personRepository.addPerson(person("Jane", "Smith", "456 Oak Ave", "222"));
+        firestationRepository.addFirestation(new Firestation("123 Main St", 1));
+        firestationRepository.addFirestation(new Firestation("456 Oak Ave", 2));
+        medicalRecordRepository.save(new MedicalRecord("John", "Doe", "01/01/1980", List.of(), List.of()));
+    }
+
+    private static Person person(String firstName, String lastName, String address, String phone) {
+        return new Person(firstName, lastName, address, "Culver", "97451", phone, firstName + "@email.com");
+    }
+
+    // Réponse de /phoneAlert calculée sur les repositories
+    private String phoneAlert(int station) {
+        return responseCache.get("phoneAlert:" + station, Set.of(CacheTag.station(station)), () -> {
+            loads.incrementAndGet();
+            return firestationRepository.findAddressesByStation(station).stream()
+                    .flatMap(address -> personRepository.findByAddress(address).stream())
+                    .map(Person::getPhone)
+                    .sorted()
+                    .collect(Collectors.joining(","));
+        });
+    }
+
+    // Réponse de /personInfo calculée sur les repositories
+    private String personInfo(String lastName) {
+        return responseCache.get("personInfo:" + lastName, Set.of(CacheTag.lastName(lastName)), () -> {
+            loads.incrementAndGet();
+            return medicalRecordRepository.findByFirstNameAndLastName("John", lastName)
+                    .map(MedicalRecord::getBirthdate)
+                    .orElse("");
+        });
+    }
+
+    @Test
+    void get_secondCall_servedFromCache() {
+        // Act
+        String first = phoneAlert(1);
+        String second = phoneAlert(1);
+
+        // Assert
+        assertEquals("111", first);
+        assertEquals(first, second);
+        assertEquals(1, loads.get());
+        ResponseCache.Stats stats = responseCache.stats();
+        assertEquals(1, stats.hits());
+        assertEquals(1, stats.misses());
+        assertEquals(1, stats.size());
+    }
+
+    @Test
+    void get_afterPersonMoves_recomputesOnlyTouchedResponses() {
+        // Arrange
+        phoneAlert(2);
+        personInfo("Smith");
+
+        // Act : John quitte la caserne 1 pour la caserne 2
+        personRepository.updatePerson(person("John", "Doe", null, null),
+                person("John", "Doe", "456 Oak Ave", "111"));
+
+        // Assert : la réponse de Jane Smith n'est pas touchée
+        assertEquals("111,222", phoneAlert(2));
+        personInfo("Smith");
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    void get_afterMappingChange_recomputesStation() {
+        // Arrange
+        phoneAlert(2);
+
+        // Act
+        firestationRepository.updateFirestation(new Firestation("123 Main St", 1),
+                new Firestation("123 Main St", 2));
+
+        // Assert
+        assertEquals("111,222", phoneAlert(2));
+        assertEquals(2, loads.get());
+        assertEquals(1, responseCache.stats().invalidations());
+    }
+
+    @Test
+    void get_afterMedicalRecordUpdate_recomputesLastName() {
+        // Arrange
+        personInfo("Doe");
+
+        // Act
+        medicalRecordRepository.updateFields(new MedicalRecord("John", "Doe", null, null, null),
+                new MedicalRecord("John", "Doe", "02/02/1990", null, null));
+
+        // Assert
+        assertEquals("02/02/1990", personInfo("Doe"));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void get_readDuringPublish_isNotCached() {
+        // Arrange : une lecture s'intercale entre l'invalidation et la
+        // publication, et calcule sa réponse sur l'ancienne version
+        AtomicBoolean reading = new AtomicBoolean();
+        List<String> duringPublish = new ArrayList<>();
+        dataStore.onPublish(change -> {
+            if (reading.compareAndSet(false, true)) {
+                duringPublish.add(phoneAlert(1));
+            }
+        });
+
+        // Act
+        personRepository.updatePerson(person("John", "Doe", null, null),
+                person("John", "Doe", "123 Main St", "333"));
+        String afterWrite = phoneAlert(1);
+
+        // Assert
+        assertEquals(List.of("111"), duringPublish);
+        assertEquals("333", afterWrite);
+    }
+
+    @Test
+    void get_afterConcurrentWrites_returnsLatestWrite() throws Exception {
+        // Arrange : des lecteurs remplissent le cache pendant les écritures
+        AtomicBoolean running = new AtomicBoolean(true);
+        ExecutorService readers = Executors.newFixedThreadPool(4);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            futures.add(readers.submit(() -> {
+                while (running.get()) {
+                    phoneAlert(1);
+                }
+            }));
+        }
+
+        // Act & Assert : chaque lecture suivant une écriture voit la nouvelle réponse
+        try {
+            for (int i = 0; i < 500; i++) {
+                String phone = "p" + i;
+                personRepository.updatePerson(person("John", "Doe", null, null),
+                        person("John", "Doe", "123 Main St", phone));
+                assertEquals(phone, phoneAlert(1));
+            }
+        } finally {
+            running.set(false);
+            for (Future<?> future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+            readers.shutdown();
+        }
+        assertTrue(responseCache.stats().hits() > 0);
+    }
+
+    @Test
+    void get_overCapacity_evictsLeastRecentlyRead() {
+        // Arrange
+        phoneAlert(1);
+        phoneAlert(2);
+        phoneAlert(1);
+
+        // Act
+        phoneAlert(3);
+        phoneAlert(1);
+        phoneAlert(2);
+
+        // Assert : phoneAlert:2, le moins récemment lu, a été évincé
+        assertEquals(4, loads.get());
+        assertEquals(2, responseCache.stats().evictions());
+    }
+
+    @Test
+    void clear_removesAllResponses() {
+        // Arrange
+        phoneAlert(1);
+        phoneAlert(2);
+
+        // Act
+        responseCache.clear();
+        phoneAlert(1);
+
+        // Assert
+        assertEquals(3, loads.get());
+        assertEquals(2, responseCache.stats().invalidations());
+        assertEquals(1, responseCache.stats().size());
+    }
+}
@@ -0,0 +1,131 @@
+package com.openclassrooms.safetynetalerts.tools;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.Period;
+import java.time.format.DateTimeFormatter;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.openclassrooms.safetynetalerts.model.DataFile;
+import com.openclassrooms.safetynetalerts.model.MedicalRecord;
+import com.openclassrooms.safetynetalerts.model.Person;
+import com.openclassrooms.safetynetalerts.repository.BinaryDataFile;
+
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Tests unitaires pour DatasetGenerator
+ *
+ * Tests de la génération du jeu de données synthétique:
+ * - déterminisme pour une même graine
+ * - identités uniques et un dossier médical par personne
+ * - proportion d'enfants et couverture des casernes
+ * - écriture JSON et binaire
+ * - options de la ligne de commande
+ */
+class DatasetGeneratorUT {
+
+    private static final LocalDate REFERENCE_DATE = LocalDate.of(2025, 1, 1);
+    private static final DateTimeFormatter BIRTHDATE_FORMATTER = DateTimeFormatter.ofPattern("MM/dd/yyyy");
+
+    @TempDir
+    private Path tempDir;
+
+    private static DatasetGenerator.Settings settings(int persons, long seed) {
+        return new DatasetGenerator.Settings(persons, seed, REFERENCE_DATE, List.of(28.0, 35.0, 15.0, 13.0, 6.0, 3.0),
+                200, 1.0, 5, 20, 0.9, 0.25, 3, 2);
+    }
+
+    @Test
+    void generate_sameSeed_sameData() {
+        // Act
+        DataFile first = DatasetGenerator.generate(settings(5_000, 7));
+        DataFile second = DatasetGenerator.generate(settings(5_000, 7));
+        DataFile other = DatasetGenerator.generate(settings(5_000, 8));
+
+        // Assert
+        assertEquals(first, second);
+        assertNotEquals(first, other);
+    }
+
+    @Test
+    void generate_uniqueIdentitiesAndOneMedicalRecordPerPerson() {
+        // Act
+        DataFile data = DatasetGenerator.generate(settings(20_000, 1));
+
+        // Assert
+        assertEquals(20_000, data.getPersons().size());
+        Set<String> identities = data.getPersons().stream()
+                .map(p -> p.getFirstName() + "|" + p.getLastName())
+                .collect(Collectors.toSet());
+        assertEquals(20_000, identities.size());
+        Set<String> records = data.getMedicalrecords().stream()
+                .map(m -> m.getFirstName() + "|" + m.getLastName())
+                .collect(Collectors.toSet());
+        assertEquals(identities, records);
+        Set<String> mapped = new HashSet<>();
+        data.getFirestations().forEach(f -> assertTrue(mapped.add(f.getAddress())));
+    }
+
+    @Test
+    void generate_respectsChildRatioAndStationCoverage() {
+        // Act
+        DataFile data = DatasetGenerator.generate(settings(50_000, 3));
+
+        // Assert
+        long children = data.getMedicalrecords().stream()
+                .map(MedicalRecord::getBirthdate)
+                .filter(b -> Period.between(LocalDate.parse(b, BIRTHDATE_FORMATTER), REFERENCE_DATE).getYears() <= 18)
+                .count();
+        assertEquals(0.25, (double) children / data.getPersons().size(), 0.02);
+        long addresses = data.getPersons().stream().map(Person::getAddress).distinct().count();
+        assertEquals(0.9, (double) data.getFirestations().size() / addresses, 0.02);
+        assertTrue(data.getFirestations().stream().allMatch(f -> f.getStation() >= 1 && f.getStation() <= 20));
+        assertTrue(data.getMedicalrecords().stream()
+                .allMatch(m -> m.getMedications().size() <= 3 && m.getAllergies().size() <= 2));
+    }
+
+    @Test
+    void write_jsonAndBinary_readBack() throws IOException {
+        // Arrange
+        DataFile data = DatasetGenerator.generate(settings(1_000, 5));
+        Path json = tempDir.resolve("data.json");
+        Path binary = tempDir.resolve("data.bin");
+
+        // Act
+        DatasetGenerator.write(data, json);
+        DatasetGenerator.write(data, binary);
+
+        // Assert
+        assertEquals(data, JsonMapper.builder().build().readValue(json.toFile(), DataFile.class));
+        assertTrue(BinaryDataFile.isBinary(binary));
+        assertEquals(data, BinaryDataFile.read(binary));
+    }
+
+    @Test
+    void parse_options_overrideDefaults() {
+        // Act
+        DatasetGenerator.Settings parsed = DatasetGenerator.parse(List.of("--persons=2000", "--seed=9",
+                "--reference-date=2025-01-01", "--household-sizes=1,1", "--child-ratio=0.1"));
+
+        // Assert
+        assertEquals(2_000, parsed.persons());
+        assertEquals(9, parsed.seed());
+        assertEquals(REFERENCE_DATE, parsed.referenceDate());
+        assertEquals(List.of(1.0, 1.0), parsed.householdSizeWeights());
+        assertEquals(0.1, parsed.childRatio());
+        assertThrows(IllegalArgumentException.class, () -> DatasetGenerator.parse(List.of("--unknown=1")));
+        assertThrows(IllegalArgumentException.class, () -> DatasetGenerator.parse(List.of("--child-ratio=2")));
+    }
+}
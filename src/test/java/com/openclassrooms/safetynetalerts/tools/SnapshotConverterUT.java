@@ -0,0 +1,51 @@
+package com.openclassrooms.safetynetalerts.tools;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.openclassrooms.safetynetalerts.model.DataFile;
+import com.openclassrooms.safetynetalerts.repository.BinaryDataFile;
+
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Tests unitaires pour SnapshotConverter
+ *
+ * Tests de la conversion JSON ↔ binaire du fichier de données
+ */
+class SnapshotConverterUT {
+
+    @TempDir
+    private Path tempDir;
+
+    @Test
+    void convert_jsonToBinaryAndBack_keepsData() throws IOException {
+        // Arrange
+        Path json = Files.writeString(tempDir.resolve("data.json"), """
+                {
+                  "persons": [{"firstName": "John", "lastName": "Doe", "address": "123 Main St",
+                               "city": "Springfield", "zip": "12345", "phone": "111", "email": "john@email.com"}],
+                  "firestations": [{"address": "123 Main St", "station": "1"}],
+                  "medicalrecords": [{"firstName": "John", "lastName": "Doe", "birthdate": "01/01/1980",
+                                      "medications": ["aspirin:100mg"], "allergies": []}]
+                }
+                """);
+        Path binary = tempDir.resolve("data.bin");
+        Path back = tempDir.resolve("back.json");
+
+        // Act
+        DataFile original = SnapshotConverter.convert(json, binary);
+        SnapshotConverter.convert(binary, back);
+
+        // Assert
+        assertTrue(BinaryDataFile.isBinary(binary));
+        assertEquals(original, BinaryDataFile.read(binary));
+        assertEquals(original, JsonMapper.builder().build().readValue(back.toFile(), DataFile.class));
+    }
+}
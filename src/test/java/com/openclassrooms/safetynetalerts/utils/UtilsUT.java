@@ -7,7 +7,8 @@ import java.time.Clock;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.ZoneId;
-import java.util.Optional;
+import java.time.ZoneOffset;
+import java.util.OptionalInt;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -15,7 +16,6 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
-import com.openclassrooms.safetynetalerts.model.MedicalRecord;
 import com.openclassrooms.safetynetalerts.model.Person;
 import com.openclassrooms.safetynetalerts.repository.MedicalRecordRepository;
 
@@ -44,7 +44,6 @@ class UtilsUT {
     private Utils utils;
 
     private Person person;
-    private MedicalRecord medicalRecord;
 
     @BeforeEach
     void setUp() {
@@ -63,48 +62,40 @@ class UtilsUT {
         int birthYear = 2000;
         int expectedAge = referenceYear - birthYear; // 24 ans
 
-        String birthdate = "01/01/" + birthYear;
-        medicalRecord = new MedicalRecord();
-        medicalRecord.setFirstName("John");
-        medicalRecord.setLastName("Doe");
-        medicalRecord.setBirthdate(birthdate);
+        LocalDate birthdate = LocalDate.of(birthYear, 1, 1);
 
-        when(medicalRecordRepository.findByFirstNameAndLastName("John", "Doe"))
-                .thenReturn(Optional.of(medicalRecord));
+        when(medicalRecordRepository.findBirthEpochDay("John", "Doe"))
+                .thenReturn(OptionalInt.of((int) birthdate.toEpochDay()));
 
         // Act
         int actualAge = utils.calculateAge(person);
 
         // Assert
         assertEquals(expectedAge, actualAge, "L'âge calculé devrait être " + expectedAge);
-        verify(medicalRecordRepository, times(1)).findByFirstNameAndLastName("John", "Doe");
+        verify(medicalRecordRepository, times(1)).findBirthEpochDay("John", "Doe");
     }
 
     @Test
     void calculateAge_noMedicalRecord_returnsMinusOne() {
         // Arrange
-        when(medicalRecordRepository.findByFirstNameAndLastName("John", "Doe"))
-                .thenReturn(Optional.empty());
+        when(medicalRecordRepository.findBirthEpochDay("John", "Doe"))
+                .thenReturn(OptionalInt.empty());
 
         // Act
         int actualAge = utils.calculateAge(person);
 
         // Assert
         assertEquals(-1, actualAge, "L'âge devrait être -1 quand aucun dossier médical n'existe");
-        verify(medicalRecordRepository, times(1)).findByFirstNameAndLastName("John", "Doe");
+        verify(medicalRecordRepository, times(1)).findBirthEpochDay("John", "Doe");
     }
 
     @Test
     void isChild_age18_returnsTrue() {
         // Arrange
-        String birthdate = "01/01/" + (REFERENCE_DATE.getYear() - 18); // Né en 2006, a 18 ans en 2024
-        medicalRecord = new MedicalRecord();
-        medicalRecord.setFirstName("John");
-        medicalRecord.setLastName("Doe");
-        medicalRecord.setBirthdate(birthdate);
+        LocalDate birthdate = LocalDate.of(REFERENCE_DATE.getYear() - 18, 1, 1); // Né en 2006, a 18 ans en 2024
 
-        when(medicalRecordRepository.findByFirstNameAndLastName("John", "Doe"))
-                .thenReturn(Optional.of(medicalRecord));
+        when(medicalRecordRepository.findBirthEpochDay("John", "Doe"))
+                .thenReturn(OptionalInt.of((int) birthdate.toEpochDay()));
 
         // Act
         boolean isChild = utils.isChild(person);
@@ -116,14 +107,10 @@ class UtilsUT {
     @Test
     void isChild_age19_returnsFalse() {
         // Arrange
-        String birthdate = "01/01/" + (REFERENCE_DATE.getYear() - 19); // Né en 2005, a 19 ans en 2024
-        medicalRecord = new MedicalRecord();
-        medicalRecord.setFirstName("John");
-        medicalRecord.setLastName("Doe");
-        medicalRecord.setBirthdate(birthdate);
+        LocalDate birthdate = LocalDate.of(REFERENCE_DATE.getYear() - 19, 1, 1); // Né en 2005, a 19 ans en 2024
 
-        when(medicalRecordRepository.findByFirstNameAndLastName("John", "Doe"))
-                .thenReturn(Optional.of(medicalRecord));
+        when(medicalRecordRepository.findBirthEpochDay("John", "Doe"))
+                .thenReturn(OptionalInt.of((int) birthdate.toEpochDay()));
 
         // Act
         boolean isChild = utils.isChild(person);
@@ -131,4 +118,50 @@ class UtilsUT {
         // Assert
         assertFalse(isChild, "Une personne de 19 ans ne devrait pas être considérée comme enfant");
     }
+
+    @Test
+    void isChild_birthdayAfterMidnight_refreshesToday() {
+        // Arrange
+        MutableClock clock = new MutableClock(LocalDate.of(2025, 12, 25).atTime(23, 59).toInstant(ZoneOffset.UTC));
+        utils = new Utils(medicalRecordRepository, clock);
+        LocalDate birthdate = LocalDate.of(2025 - 19, 12, 26);
+        when(medicalRecordRepository.findBirthEpochDay("John", "Doe"))
+                .thenReturn(OptionalInt.of((int) birthdate.toEpochDay()));
+        boolean childBeforeMidnight = utils.isChild(person);
+
+        // Act
+        clock.instant = LocalDate.of(2025, 12, 26).atStartOfDay().toInstant(ZoneOffset.UTC);
+        boolean childAfterMidnight = utils.isChild(person);
+
+        // Assert
+        assertTrue(childBeforeMidnight, "La veille de ses 19 ans, la personne devrait être un enfant");
+        assertFalse(childAfterMidnight, "Le jour de ses 19 ans, la personne ne devrait plus être un enfant");
+        assertEquals(19, utils.calculateAge(person));
+    }
+
+    /**
+     * Horloge UTC dont l'instant peut être avancé par le test.
+     */
+    private static final class MutableClock extends Clock {
+        private Instant instant;
+
+        private MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
 }